@@ -9,16 +9,12 @@ import static java.util.stream.Collectors.toList;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.function.BiFunction;
 import java.util.stream.Stream;
 
-import org.jgrapht.Graph;
-import org.jgrapht.alg.DijkstraShortestPath;
-import org.jgrapht.graph.DefaultDirectedWeightedGraph;
-import org.jgrapht.graph.DefaultWeightedEdge;
-
 import com.google.common.collect.ImmutableList;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.LineString;
@@ -30,9 +26,11 @@ import de.tu_berlin.mailbox.rjasper.st_scheduler.world.DynamicObstacle;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.SimpleTrajectory;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.SpatialPath;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.Trajectory;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.ArcTimeGraph;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.ForbiddenRegion;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.LazyMinimumTimeMesher;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.LazyMinimumTimeMesher.MeshResult;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.ModifiedDijkstraAlgorithm;
 import de.tu_berlin.mailbox.rjasper.time.TimeConv;
 
 public class VertexConnectorExample {
@@ -102,7 +100,7 @@ public class VertexConnectorExample {
 		mesher.setWeightCalculator(weightCalculator);
 
 		MeshResult res = mesher.mesh();
-		DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> graph = res.graph;
+		ArcTimeGraph graph = res.graph;
 		ImmutablePoint finishVertex = res.finishVertex;
 
 //		ImmutablePoint finishVertex = immutablePoint(10, 10);
@@ -117,10 +115,10 @@ public class VertexConnectorExample {
 //		mesher.setMinStopDuration(minStopDuration);
 //		mesher.setWeightCalculator(weightCalculator);
 //
-//		DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> graph =
+//		ArcTimeGraph graph =
 //			mesher.mesh();
 
-		System.out.println(graph.edgeSet().size());
+		System.out.println(graph.edgeCount());
 
 		System.out.println(toGeometry(graph));
 
@@ -135,30 +133,36 @@ public class VertexConnectorExample {
 		Geometry pathGeometry = lineString(path.toArray(new Point[path.size()]));
 
 		System.out.println(pathGeometry);
-		System.out.println(graph);
+		System.out.println(graph.vertexCount());
 	}
 
-	private static Geometry toGeometry(Graph<ImmutablePoint, DefaultWeightedEdge> graph) {
-		LineString[] lines = graph.edgeSet().stream()
-			.map(e -> lineString(graph.getEdgeSource(e), graph.getEdgeTarget(e)))
-			.toArray(n -> new LineString[n]);
+	private static Geometry toGeometry(ArcTimeGraph graph) {
+		List<LineString> lines = new ArrayList<>();
+
+		for (int v : graph.vertices()) {
+			for (int e = graph.firstOutgoingEdge(v); e != -1; e = graph.nextOutgoingEdge(e)) {
+				lines.add(lineString(
+					graph.getPoint(graph.getEdgeSource(e)),
+					graph.getPoint(graph.getEdgeTarget(e))));
+			}
+		}
 
-		return multiLineString(lines);
+		return multiLineString(lines.toArray(new LineString[lines.size()]));
 	}
 
 	private static List<ImmutablePoint> shortestPath(
-		Graph<ImmutablePoint, DefaultWeightedEdge> graph,
+		ArcTimeGraph graph,
 		ImmutablePoint startVertex,
 		ImmutablePoint finishVertex)
 	{
-		List<DefaultWeightedEdge> edges =
-			DijkstraShortestPath.findPathBetween(graph, startVertex, finishVertex);
+		int[] vertices = ModifiedDijkstraAlgorithm.findPathBetween(
+			graph, graph.vertexOf(startVertex), graph.vertexOf(finishVertex));
 
-		Stream<ImmutablePoint> targets = edges.stream()
-			.map(graph::getEdgeTarget);
+		List<ImmutablePoint> path = new ArrayList<>(vertices.length);
+		for (int v : vertices)
+			path.add(graph.getPoint(v));
 
-		return Stream.concat(Stream.of(startVertex), targets)
-			.collect(toList());
+		return path;
 	}
 
 }
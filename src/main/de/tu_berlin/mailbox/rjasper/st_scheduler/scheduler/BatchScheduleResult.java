@@ -0,0 +1,150 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler;
+
+import static java.util.Collections.unmodifiableSet;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+import de.tu_berlin.mailbox.rjasper.collect.CollectionsRequire;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.ScheduleResult.TrajectoryUpdate;
+
+/**
+ * <p>
+ * Describes the result of scheduling a batch of independent jobs. All
+ * scheduled jobs of a batch belong to a single transaction. Like the changes
+ * of a {@link ScheduleResult}, they have to be committed or aborted using the
+ * transaction ID.
+ * </p>
+ *
+ * <p>
+ * The outcome of each job is recorded explicitly. A job of the batch was
+ * either scheduled or not. An erroneous result has no transaction since none
+ * of its jobs were scheduled.
+ * </p>
+ *
+ * @author Rico Jasper
+ */
+public class BatchScheduleResult {
+
+	/**
+	 * The result of the scheduled jobs.
+	 */
+	private final ScheduleResult result;
+
+	/**
+	 * The IDs of the jobs which could not be scheduled.
+	 */
+	private final Set<UUID> unscheduledJobIds;
+
+	/**
+	 * Constructs a {@code BatchScheduleResult}.
+	 *
+	 * @param result
+	 *            the result of the scheduled jobs.
+	 * @param unscheduledJobIds
+	 *            the IDs of the jobs which could not be scheduled.
+	 * @throws NullPointerException
+	 *             if any argument is {@code null} or contains {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if a job is both scheduled and unscheduled.
+	 */
+	public BatchScheduleResult(ScheduleResult result, Set<UUID> unscheduledJobIds) {
+		Objects.requireNonNull(result, "result");
+		CollectionsRequire.requireNonNull(unscheduledJobIds, "unscheduledJobIds");
+
+		if (result.isSuccess() &&
+			unscheduledJobIds.stream().anyMatch(result.getJobs()::containsKey))
+		{
+			throw new IllegalArgumentException("job both scheduled and unscheduled");
+		}
+
+		this.result = result;
+		this.unscheduledJobIds = unmodifiableSet(unscheduledJobIds);
+	}
+
+	/**
+	 * @return {@code true} if no job was scheduled.
+	 */
+	public boolean isError() {
+		return result.isError();
+	}
+
+	/**
+	 * @return {@code true} if at least one job was scheduled.
+	 */
+	public boolean isSuccess() {
+		return result.isSuccess();
+	}
+
+	/**
+	 * Note that erroneous results don't have an transaction ID.
+	 *
+	 * @return the transaction ID of all scheduled jobs.
+	 * @throws IllegalStateException if is error.
+	 */
+	public UUID getTransactionId() {
+		return result.getTransactionId();
+	}
+
+	/**
+	 * Note that erroneous results don't have jobs.
+	 *
+	 * @return the scheduled jobs.
+	 * @throws IllegalStateException if is error.
+	 */
+	public Map<UUID, Job> getJobs() {
+		return result.getJobs();
+	}
+
+	/**
+	 * @return the IDs of the jobs which could not be scheduled.
+	 */
+	public Set<UUID> getUnscheduledJobIds() {
+		return unscheduledJobIds;
+	}
+
+	/**
+	 * Note that erroneous results don't update trajectories.
+	 *
+	 * @return the updated trajectories.
+	 * @throws IllegalStateException if is error.
+	 */
+	public Collection<TrajectoryUpdate> getTrajectoryUpdates() {
+		return result.getTrajectoryUpdates();
+	}
+
+	/**
+	 * Returns whether the job with the given ID was scheduled.
+	 *
+	 * @param jobId
+	 * @return {@code true} if the job was scheduled.
+	 * @throws NullPointerException
+	 *             if {@code jobId} is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if the job was not part of the batch.
+	 */
+	public boolean isScheduled(UUID jobId) {
+		Objects.requireNonNull(jobId, "jobId");
+
+		if (result.isSuccess() && result.getJobs().containsKey(jobId))
+			return true;
+		if (unscheduledJobIds.contains(jobId))
+			return false;
+
+		throw new IllegalArgumentException("unknown job");
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("batch(%s, unscheduled=%s)",
+			result, unscheduledJobIds);
+	}
+
+}
@@ -49,6 +49,8 @@ public class DependentJobScheduler {
 
 	private int maxLocationPicks = 0;
 
+	private boolean parallelForbiddenRegions = false;
+
 	public void setWorld(World world) {
 		this.world = Objects.requireNonNull(world, "world");
 	}
@@ -93,6 +95,10 @@ public class DependentJobScheduler {
 		this.maxLocationPicks = maxLocationPicks;
 	}
 
+	public void setParallelForbiddenRegions(boolean parallelForbiddenRegions) {
+		this.parallelForbiddenRegions = parallelForbiddenRegions;
+	}
+
 	private void checkParameters() {
 		Objects.requireNonNull(world, "world");
 		Objects.requireNonNull(perspectiveCache, "perspectiveCache");
@@ -140,6 +146,7 @@ public class DependentJobScheduler {
 		sc.setSchedule(schedule);
 		sc.setAlternative(alternative);
 		sc.setMaxLocationPicks(maxLocationPicks);
+		sc.setParallelForbiddenRegions(parallelForbiddenRegions);
 
 		while (it.hasNext()) {
 			JobSpecification constrained = constrain(it.next());
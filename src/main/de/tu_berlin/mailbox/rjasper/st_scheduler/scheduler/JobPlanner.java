@@ -17,11 +17,13 @@ import com.vividsolutions.jts.geom.Point;
 
 import de.tu_berlin.mailbox.rjasper.collect.JoinedCollection;
 import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePoint;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.util.NodeLookupCache;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.util.NodeObstacleBuilder;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.DynamicObstacle;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.SimpleTrajectory;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.SpatialPath;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.Trajectory;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.World;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.WorldPerspective;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.AbstractSpatialPathfinder;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.LazyFixTimePathfinder;
@@ -101,14 +103,20 @@ public class JobPlanner {
 	private ScheduleAlternative alternative = null;
 
 	/**
-	 * The nodes as dynamic obstacles.
+	 * Indicates if the final position of time slot is mandatory.
 	 */
-	private transient Collection<DynamicObstacle> dynamicObstacles;
+	private boolean fixedEnd = true;
 
 	/**
-	 * Indicates if the final position of time slot is mandatory.
+	 * Indicates if the forbidden regions of obstacles are calculated in
+	 * parallel.
 	 */
-	private boolean fixedEnd = true;
+	private boolean parallelForbiddenRegions = false;
+
+	/**
+	 * The optional cache of lookups shared by the jobs of a batch.
+	 */
+	private NodeLookupCache nodeLookups = null;
 
 	public void setJobId(UUID jobId) {
 		this.jobId = Objects.requireNonNull(jobId, "jobId");
@@ -150,6 +158,14 @@ public class JobPlanner {
 		this.alternative = Objects.requireNonNull(alternative, "alternative");
 	}
 
+	public void setParallelForbiddenRegions(boolean parallelForbiddenRegions) {
+		this.parallelForbiddenRegions = parallelForbiddenRegions;
+	}
+
+	public void setNodeLookupCache(NodeLookupCache nodeLookups) {
+		this.nodeLookups = Objects.requireNonNull(nodeLookups, "nodeLookups");
+	}
+
 	public void setFixedEnd(boolean fixedEnd) {
 		this.fixedEnd = fixedEnd;
 	}
@@ -243,14 +259,17 @@ public class JobPlanner {
 			return false;
 		}
 
-		init();
-		boolean status = planImpl();
-		cleanUp();
-
-		return status;
+		return planImpl();
 	}
 
-	private void init() {
+	/**
+	 * Determines the dynamic obstacles relevant to a path of the current node
+	 * within the slot.
+	 *
+	 * @param path
+	 * @return the dynamic obstacles.
+	 */
+	private Collection<DynamicObstacle> dynamicObstacles(SpatialPath path) {
 		NodeObstacleBuilder builder = new NodeObstacleBuilder();
 
 		builder.setNode(node);
@@ -258,16 +277,23 @@ public class JobPlanner {
 		builder.setFinishTime(slot.getFinishTime());
 		builder.setSchedule(schedule);
 		builder.setAlternative(alternative);
+		if (nodeLookups != null)
+			builder.setNodeLookupCache(nodeLookups);
+
+		World view = worldPerspective.getView();
+		Collection<DynamicObstacle> worldObstacles;
+
+		// only obstacles coming close to the path are relevant
+		if (path.isEmpty()) {
+			worldObstacles = view.getDynamicObstacles(slot.getStartTime(), slot.getFinishTime());
+		} else {
+			builder.setCorridor(path.getEnvelope());
+			worldObstacles = view.getDynamicObstacles(slot.getStartTime(), slot.getFinishTime(), path.getEnvelope());
+		}
 
-		Collection<DynamicObstacle>
-			worldObstacles = worldPerspective.getView().getDynamicObstacles(),
-			nodeObstacles = builder.build();
-
-		dynamicObstacles = JoinedCollection.of(Arrays.asList(worldObstacles, nodeObstacles));
-	}
+		Collection<DynamicObstacle> nodeObstacles = builder.build();
 
-	private void cleanUp() {
-		dynamicObstacles = null;
+		return JoinedCollection.of(Arrays.asList(worldObstacles, nodeObstacles));
 	}
 
 	private boolean planImpl() {
@@ -317,12 +343,8 @@ public class JobPlanner {
 	private SpatialPath calculateSpatialPath(Point startLocation, Point finishLocation) {
 		AbstractSpatialPathfinder pf = worldPerspective.getSpatialPathfinder();
 
-		pf.setStartLocation(startLocation);
-		pf.setFinishLocation(finishLocation);
-
-		pf.calculate();
-
-		return pf.getResultSpatialPath();
+		// the pathfinder is shared by all perceivers of the perspective
+		return pf.findSpatialPath(startLocation, finishLocation);
 	}
 
 	private Trajectory calculateTrajectoryToJob() {
@@ -330,7 +352,7 @@ public class JobPlanner {
 
 		LazyMinimumTimePathfinder pf = new LazyMinimumTimePathfinder();
 
-		pf.setDynamicObstacles  ( dynamicObstacles        );
+		pf.setDynamicObstacles  ( dynamicObstacles(path)  );
 		pf.setSpatialPath       ( path                    );
 		pf.setStartArc          ( 0.0                     );
 		pf.setFinishArc         ( path.length()           );
@@ -342,6 +364,8 @@ public class JobPlanner {
 		pf.setLatestFinishTime  ( latestStartTime()       );
 		pf.setBufferDuration    ( duration                ); // TODO expand buffer duration if !fixedEnd
 		pf.setMinStopDuration( Duration.ZERO ); // TODO use appropriate value
+		pf.setForbiddenRegionCache(schedule.getForbiddenRegionCache());
+		pf.setParallelForbiddenRegions(parallelForbiddenRegions);
 
 		pf.calculate();
 
@@ -353,7 +377,7 @@ public class JobPlanner {
 
 		LazyFixTimePathfinder pf = new LazyFixTimePathfinder();
 
-		pf.setDynamicObstacles( dynamicObstacles         );
+		pf.setDynamicObstacles( dynamicObstacles(path)   );
 		pf.setSpatialPath     ( path                     );
 		pf.setStartArc        ( 0.0                      );
 		pf.setFinishArc       ( path.length()            );
@@ -363,6 +387,8 @@ public class JobPlanner {
 		pf.setMaxSpeed        ( node.getMaxSpeed()     );
 		pf.setStartTime       ( startTime                );
 		pf.setFinishTime      ( slot.getFinishTime() );
+		pf.setForbiddenRegionCache(schedule.getForbiddenRegionCache());
+		pf.setParallelForbiddenRegions(parallelForbiddenRegions);
 
 		pf.calculate();
 
@@ -383,7 +409,7 @@ public class JobPlanner {
 
 		// check for dynamic collisions
 
-		if (collides(trajectory, dynamicObstacles))
+		if (collides(trajectory, dynamicObstacles(spatialPath)))
 			return SimpleTrajectory.empty();
 		else
 			return trajectory;
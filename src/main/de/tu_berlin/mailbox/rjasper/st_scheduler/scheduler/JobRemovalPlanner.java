@@ -46,14 +46,14 @@ public class JobRemovalPlanner {
 
 	private boolean fixedEnd = true;
 
+	private boolean parallelForbiddenRegions = false;
+
 	private transient Node node;
 
 	private transient LocalDateTime slotStartTime;
 
 	private transient LocalDateTime slotFinishTime;
 
-	private transient Collection<DynamicObstacle> dynamicObstacles;
-
 	public void setWorld(World world) {
 		this.world = Objects.requireNonNull(world, "world");
 	}
@@ -78,6 +78,10 @@ public class JobRemovalPlanner {
 		this.job = Objects.requireNonNull(job, "job");
 	}
 
+	public void setParallelForbiddenRegions(boolean parallelForbiddenRegions) {
+		this.parallelForbiddenRegions = parallelForbiddenRegions;
+	}
+
 	public void setFixedEnd(boolean fixedEnd) {
 		this.fixedEnd = fixedEnd;
 	}
@@ -116,25 +120,10 @@ public class JobRemovalPlanner {
 			frozenHorizonTime,
 			idleStartTime == null ? jobStartTime : idleStartTime);
 		slotFinishTime = idleFinishTime == null ? jobFinishTime : idleFinishTime;
-
-		NodeObstacleBuilder builder = new NodeObstacleBuilder();
-
-		builder.setNode(node);
-		builder.setStartTime(slotStartTime);
-		builder.setFinishTime(slotFinishTime);
-		builder.setSchedule(schedule);
-		builder.setAlternative(alternative);
-
-		Collection<DynamicObstacle>
-			worldObstacles = worldPerspective.getView().getDynamicObstacles(),
-			nodeObstacles = builder.build();
-
-		dynamicObstacles = JoinedCollection.of(Arrays.asList(worldObstacles, nodeObstacles));
 	}
 
 	private void cleanUp() {
 		node = null;
-		dynamicObstacles = null;
 		slotStartTime = null;
 		slotFinishTime = null;
 	}
@@ -172,7 +161,7 @@ public class JobRemovalPlanner {
 
 		// check for dynamic collisions
 
-		if (collides(trajectory, dynamicObstacles))
+		if (collides(trajectory, dynamicObstacles(spatialPath)))
 			return SimpleTrajectory.empty();
 		else
 			return trajectory;
@@ -186,18 +175,15 @@ public class JobRemovalPlanner {
 
 		AbstractSpatialPathfinder spf = worldPerspective.getSpatialPathfinder();
 
-		spf.setStartLocation(startLocation);
-		spf.setFinishLocation(finishLocation);
-
-		boolean status = spf.calculate();
+		// the pathfinder is shared by all perceivers of the perspective
+		SpatialPath spatialPath = spf.findSpatialPath(startLocation, finishLocation);
 
-		if (!status)
+		if (spatialPath.isEmpty())
 			return SimpleTrajectory.empty(); // not sure if this could ever happen
 
-		SpatialPath spatialPath = spf.getResultSpatialPath();
-
 		// calculate trajectory
 
+		Collection<DynamicObstacle> dynamicObstacles = dynamicObstacles(spatialPath);
 		LazyFixTimePathfinder vpf = new LazyFixTimePathfinder();
 
 		vpf.setDynamicObstacles( dynamicObstacles     );
@@ -210,10 +196,37 @@ public class JobRemovalPlanner {
 		vpf.setMinStopDuration( Duration.ZERO ); // TODO use appropriate value
 		vpf.setStartTime       ( startTime            );
 		vpf.setFinishTime      ( finishTime           );
+		vpf.setForbiddenRegionCache(schedule.getForbiddenRegionCache());
+		vpf.setParallelForbiddenRegions(parallelForbiddenRegions);
 
 		vpf.calculate();
 
 		return vpf.getResultTrajectory();
 	}
 
+	private Collection<DynamicObstacle> dynamicObstacles(SpatialPath path) {
+		NodeObstacleBuilder builder = new NodeObstacleBuilder();
+
+		builder.setNode(node);
+		builder.setStartTime(slotStartTime);
+		builder.setFinishTime(slotFinishTime);
+		builder.setSchedule(schedule);
+		builder.setAlternative(alternative);
+
+		World view = worldPerspective.getView();
+		Collection<DynamicObstacle> worldObstacles;
+
+		// only obstacles coming close to the path are relevant
+		if (path.isEmpty()) {
+			worldObstacles = view.getDynamicObstacles(slotStartTime, slotFinishTime);
+		} else {
+			builder.setCorridor(path.getEnvelope());
+			worldObstacles = view.getDynamicObstacles(slotStartTime, slotFinishTime, path.getEnvelope());
+		}
+
+		Collection<DynamicObstacle> nodeObstacles = builder.build();
+
+		return JoinedCollection.of(Arrays.asList(worldObstacles, nodeObstacles));
+	}
+
 }
@@ -179,7 +179,7 @@ public class Node {
 	 * @param shape of the node
 	 * @return the radius.
 	 */
-	private static double calcRadius(Polygon shape) {
+	static double calcRadius(Polygon shape) {
 		Coordinate[] coords = shape.getCoordinates();
 
 		// determine the maximum square-distance to the origin
@@ -327,6 +327,24 @@ public class Node {
 		trajectoryContainer.update(trajectory);
 	}
 
+	/**
+	 * Replaces the trajectories of this node by the given ones. The
+	 * trajectories are expected to be ordered and continuous. Trajectories
+	 * before the first given one are deleted.
+	 *
+	 * @param trajectories
+	 */
+	void restoreTrajectories(Collection<Trajectory> trajectories) {
+		if (trajectories.isEmpty())
+			return;
+
+		for (Trajectory t : trajectories)
+			trajectoryContainer.update(t);
+
+		trajectoryContainer.deleteBefore(
+			trajectories.iterator().next().getStartTime());
+	}
+
 	public IntervalSet<LocalDateTime> getTrajectoryLock() {
 		return unmodifiableIntervalSet(trajectoryLock);
 	}
@@ -36,6 +36,12 @@ public class PeriodicJobScheduler {
 
 	private int maxLocationPicks = 0;
 
+	private int slotParallelism = 1;
+
+	private boolean obstacleAwareDistances = false;
+
+	private boolean parallelForbiddenRegions = false;
+
 	public void setWorld(World world) {
 		this.world = Objects.requireNonNull(world, "world");
 	}
@@ -67,6 +73,21 @@ public class PeriodicJobScheduler {
 		this.maxLocationPicks = maxLocationPicks;
 	}
 
+	public void setSlotParallelism(int slotParallelism) {
+		if (slotParallelism <= 0)
+			throw new IllegalArgumentException("invalid parallelism");
+
+		this.slotParallelism = slotParallelism;
+	}
+
+	public void setObstacleAwareDistances(boolean obstacleAwareDistances) {
+		this.obstacleAwareDistances = obstacleAwareDistances;
+	}
+
+	public void setParallelForbiddenRegions(boolean parallelForbiddenRegions) {
+		this.parallelForbiddenRegions = parallelForbiddenRegions;
+	}
+
 	private void checkParameters() {
 		Objects.requireNonNull(world, "world");
 		Objects.requireNonNull(perspectiveCache, "perspectiveCache");
@@ -111,6 +132,9 @@ public class PeriodicJobScheduler {
 		sc.setFrozenHorizonTime(frozenHorizonTime);
 		sc.setSchedule(schedule);
 		sc.setMaxLocationPicks(1); // using external location picker
+		sc.setSlotParallelism(slotParallelism);
+		sc.setObstacleAwareDistances(obstacleAwareDistances);
+		sc.setParallelForbiddenRegions(parallelForbiddenRegions);
 
 		Iterable<Point> locations = () -> new LocationIterator(
 			locationSpace, maxLocationPicks);
@@ -165,6 +189,9 @@ public class PeriodicJobScheduler {
 		sc.setSchedule(schedule);
 		sc.setAlternative(alternative);
 		sc.setMaxLocationPicks(maxLocationPicks);
+		sc.setSlotParallelism(slotParallelism);
+		sc.setObstacleAwareDistances(obstacleAwareDistances);
+		sc.setParallelForbiddenRegions(parallelForbiddenRegions);
 
 		LocalDateTime periodStart = startTime;
 		boolean noBreak = true;
@@ -1,29 +1,58 @@
 package de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler;
 
 import static de.tu_berlin.mailbox.rjasper.collect.Maps.value;
+import static de.tu_berlin.mailbox.rjasper.st_scheduler.world.util.AsDynamicObstacles.asDynamicObstacles;
+import static de.tu_berlin.mailbox.rjasper.st_scheduler.world.util.DynamicCollisionDetector.collides;
+import static java.util.Collections.singletonMap;
 import static java.util.Collections.unmodifiableCollection;
+import static java.util.stream.Collectors.toList;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
 
 import com.vividsolutions.jts.geom.Point;
 
 import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePoint;
+import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePolygon;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.util.BufferedShapeCache;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.util.IntervalSet;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.util.NodeTrajectoryIndex;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.util.SimpleIntervalSet;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.DynamicObstacle;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.Trajectory;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.ForbiddenRegionCache;
 
 /**
+ * <p>
  * Represents the scheduler's schedule consisting of the trajectories and jobs
  * of each node.
+ * </p>
+ *
+ * <p>
+ * The schedule is versioned. Each modification introducing new trajectories
+ * (i.e., new nodes or alternatives) increments the version and is recorded.
+ * An alternative planned against an older version can still be added by
+ * {@link #addAlternative(ScheduleAlternative, long)} which additionally
+ * verifies that the alternative does not collide with any of the recorded
+ * trajectories. Records have to be discarded by
+ * {@link #discardChanges(long)} when no longer needed.
+ * </p>
+ *
+ * <p>
+ * The trajectories of all nodes and of all added alternatives are kept in a
+ * {@link NodeTrajectoryIndex} which is updated along with the schedule.
+ * </p>
  *
  * @author Rico Jasper
  */
@@ -37,6 +66,88 @@ public class Schedule {
 
 	private final Set<UUID> jobIdLock = new HashSet<>();
 
+	/**
+	 * The number of modifications which introduced new trajectories.
+	 */
+	private long version = 0L;
+
+	/**
+	 * The version up to which the change records were discarded.
+	 */
+	private long discardedVersion = 0L;
+
+	/**
+	 * The trajectories introduced by each recorded version.
+	 */
+	private final NavigableMap<Long, Map<Node, Collection<Trajectory>>> changes = new TreeMap<>();
+
+	/**
+	 * Indexes the trajectories of the nodes and of the alternatives' node
+	 * updates.
+	 */
+	private final NodeTrajectoryIndex trajectoryIndex = new NodeTrajectoryIndex();
+
+	/**
+	 * Caches the node shapes buffered by the radii of other nodes.
+	 */
+	private final BufferedShapeCache shapeCache = new BufferedShapeCache();
+
+	/**
+	 * Caches the forbidden subregions calculated while planning.
+	 */
+	private final ForbiddenRegionCache forbiddenRegionCache = new ForbiddenRegionCache();
+
+	/**
+	 * @return the current version of the schedule.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Discards all change records up to the given version (inclusive).
+	 * Alternatives based on a discarded version cannot be added anymore.
+	 *
+	 * @param version
+	 * @throws IllegalArgumentException
+	 *             if the version lies in the future.
+	 */
+	public void discardChanges(long version) {
+		if (version > this.version)
+			throw new IllegalArgumentException("unknown version");
+		if (version <= discardedVersion)
+			return;
+
+		changes.headMap(version, true).clear();
+		discardedVersion = version;
+	}
+
+	private void recordChanges(Map<Node, Collection<Trajectory>> trajectories) {
+		changes.put(++version, trajectories);
+	}
+
+	/**
+	 * @return the index of all node trajectories including the ones of added
+	 *         alternatives.
+	 */
+	public NodeTrajectoryIndex getTrajectoryIndex() {
+		return trajectoryIndex;
+	}
+
+	/**
+	 * @return the cache of node shapes buffered by the radii of other nodes.
+	 */
+	public BufferedShapeCache getShapeCache() {
+		return shapeCache;
+	}
+
+	/**
+	 * @return the cache of forbidden subregions calculated while planning.
+	 */
+	public ForbiddenRegionCache getForbiddenRegionCache() {
+		return forbiddenRegionCache;
+	}
+
 	public boolean hasAlternative(ScheduleAlternative alternative) {
 		return alternatives.contains(alternative);
 	}
@@ -63,6 +174,34 @@ public class Schedule {
 
 		if (previous != null)
 			throw new IllegalArgumentException("node id already assigned");
+
+		recordChanges(singletonMap(node, new ArrayList<>(node.getTrajectories())));
+		trajectoryIndex.put(node, node, node.getTrajectories());
+	}
+
+	/**
+	 * Restores a node together with its jobs and trajectories. Unlike
+	 * {@link #addNode(Node)} no changes are recorded. Therefore, it must not
+	 * be called while alternatives are planned.
+	 *
+	 * @param node
+	 * @throws NullPointerException
+	 *             if {@code node} is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if the node ID is already assigned.
+	 */
+	void restoreNode(Node node) {
+		Objects.requireNonNull(node, "node");
+
+		Node previous = nodes.putIfAbsent(node.getId(), node);
+
+		if (previous != null)
+			throw new IllegalArgumentException("node id already assigned");
+
+		for (Job j : node.getJobs())
+			jobs.put(j.getId(), j);
+
+		trajectoryIndex.put(node, node, node.getTrajectories());
 	}
 
 	public void removeNode(String nodeId) {
@@ -76,6 +215,7 @@ public class Schedule {
 			throw new IllegalStateException("node still has scheduled jobs");
 
 		nodes.remove(nodeId);
+		trajectoryIndex.remove(node);
 	}
 
 	public Job getJob(UUID jobId) {
@@ -103,12 +243,61 @@ public class Schedule {
 	}
 
 	public void addAlternative(ScheduleAlternative alternative) {
+		addAlternative(alternative, version);
+	}
+
+	/**
+	 * Adds an alternative which was planned against the given version of the
+	 * schedule. In addition to the regular compatibility checks, the
+	 * alternative's trajectories are checked against the trajectories of
+	 * other nodes introduced since the given version.
+	 *
+	 * @param alternative
+	 * @param baseVersion
+	 *            the version the alternative was planned against.
+	 * @throws NullPointerException
+	 *             if {@code alternative} is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if the alternative is incompatible with the schedule or if
+	 *             the base version is unknown or already discarded.
+	 */
+	public void addAlternative(ScheduleAlternative alternative, long baseVersion) {
 		Objects.requireNonNull(alternative, "alternative");
 
 		if (!alternative.isSealed())
 			new IllegalArgumentException("alternative not sealed");
 
 		checkCompatibility(alternative);
+		checkConcurrentChanges(alternative, baseVersion);
+
+		alternatives.add(alternative);
+		applyLocks(alternative);
+
+		Map<Node, Collection<Trajectory>> trajectories = new IdentityHashMap<>();
+		for (NodeUpdate u : alternative.getUpdates())
+			trajectories.put(u.getNode(), u.getTrajectories());
+
+		recordChanges(trajectories);
+	}
+
+	/**
+	 * Restores an alternative which was compatible with the schedule when it
+	 * was added. Skips the compatibility checks of
+	 * {@link #addAlternative(ScheduleAlternative)} and does not record any
+	 * changes. Therefore, it must not be called while alternatives are
+	 * planned.
+	 *
+	 * @param alternative
+	 * @throws NullPointerException
+	 *             if {@code alternative} is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if the alternative is not sealed.
+	 */
+	void restoreAlternative(ScheduleAlternative alternative) {
+		Objects.requireNonNull(alternative, "alternative");
+
+		if (!alternative.isSealed())
+			throw new IllegalArgumentException("alternative not sealed");
 
 		alternatives.add(alternative);
 		applyLocks(alternative);
@@ -217,6 +406,67 @@ public class Schedule {
 		}
 	}
 
+	private void checkConcurrentChanges(ScheduleAlternative alternative, long baseVersion) {
+		if (baseVersion > version)
+			throw new IllegalArgumentException("unknown version");
+		if (baseVersion == version)
+			return;
+		if (baseVersion < discardedVersion)
+			throw new IllegalArgumentException("version already discarded");
+
+		Collection<Map<Node, Collection<Trajectory>>> concurrentChanges =
+			changes.tailMap(baseVersion, false).values();
+
+		for (NodeUpdate u : alternative.getUpdates()) {
+			Node node = u.getNode();
+
+			for (Map<Node, Collection<Trajectory>> c : concurrentChanges) {
+				for (Map.Entry<Node, Collection<Trajectory>> e : c.entrySet()) {
+					Node other = e.getKey();
+
+					// conflicts on the same node are prevented by the trajectory lock
+					if (other == node)
+						continue;
+
+					if (!verifyCollisionFreedom(node, u.getTrajectories(), other, e.getValue()))
+						throw new IllegalArgumentException("concurrent trajectory violation");
+				}
+			}
+		}
+	}
+
+	private boolean verifyCollisionFreedom(
+		Node node, Collection<Trajectory> trajectories,
+		Node other, Collection<Trajectory> otherTrajectories)
+	{
+		ImmutablePolygon shape = shapeCache.buffer(other.getShape(), node.getRadius());
+
+		for (Trajectory t : trajectories) {
+			if (t.isEmpty())
+				continue;
+
+			LocalDateTime startTime = t.getStartTime();
+			LocalDateTime finishTime = t.getFinishTime();
+
+			// only consider temporally overlapping trajectories
+			Collection<Trajectory> overlapping = otherTrajectories.stream()
+				.filter(o -> !o.isEmpty())
+				.filter(o -> o.getStartTime().isBefore(finishTime))
+				.filter(o -> o.getFinishTime().isAfter(startTime))
+				.collect(toList());
+
+			if (overlapping.isEmpty())
+				continue;
+
+			Collection<DynamicObstacle> obstacles = asDynamicObstacles(shape, overlapping);
+
+			if (collides(t, obstacles))
+				return false;
+		}
+
+		return true;
+	}
+
 	private boolean verifyJobId(Job job, Collection<Job> removals) {
 		UUID jobId = job.getId();
 
@@ -320,6 +570,8 @@ public class Schedule {
 		}
 		for (Trajectory t : update.getTrajectories())
 			node.updateTrajectory(t);
+
+		trajectoryIndex.put(node, node, node.getTrajectories());
 	}
 
 	private void applyLocks(ScheduleAlternative alternative) {
@@ -338,6 +590,8 @@ public class Schedule {
 		update.getJobs().stream()
 			.map(Job::getId)
 			.forEach(jobIdLock::add);
+
+		trajectoryIndex.put(update, node, update.getTrajectories());
 	}
 
 	private void releaseLocks(ScheduleAlternative alternative) {
@@ -356,6 +610,8 @@ public class Schedule {
 		update.getJobs().stream()
 			.map(Job::getId)
 			.forEach(jobIdLock::remove);
+
+		trajectoryIndex.remove(update);
 	}
 
 	public void cleanUp(LocalDateTime presentTime) {
@@ -375,6 +631,7 @@ public class Schedule {
 			}
 
 			n.cleanUp(presentTime);
+			trajectoryIndex.put(n, n, n.getTrajectories());
 		}
 	}
 
@@ -7,26 +7,47 @@ import static java.util.UUID.randomUUID;
 import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import org.jgrapht.graph.DefaultEdge;
 import org.jgrapht.graph.SimpleDirectedGraph;
 
+import com.google.common.collect.SortedMultiset;
+import com.google.common.collect.TreeMultiset;
+
+import de.tu_berlin.mailbox.rjasper.collect.CollectionsRequire;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.ScheduleResult.TrajectoryUpdate;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.util.NodeLookupCache;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.util.NodeObstacleBuilder;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.DynamicObstacle;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.RadiusBasedWorldPerspectiveCache;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.StaticObstacle;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.Trajectory;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.World;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.WorldPerspective;
-import de.tu_berlin.mailbox.rjasper.st_scheduler.world.WorldPerspectiveCache;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.AbstractSpatialPathfinder;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.CachingSpatialPathfinder;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.StraightEdgePathfinder;
 
 // TODO document
@@ -38,6 +59,16 @@ import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.StraightEdgePa
  * the successful case a job will be created and assigned to an appropriate
  * node.</p>
  *
+ * <p>The scheduler is thread-safe. Schedule operations are planned
+ * concurrently against a snapshot of the schedule. Conflicts between
+ * concurrently planned operations are detected when the resulting alternative
+ * is added to the schedule. In that case the operation is planned again up
+ * to {@link #MAX_CONFLICT_RETRIES} times.</p>
+ *
+ * <p>Obstacles can be added to or removed from the world while the scheduler
+ * is running. An operation planned against an outdated world is planned
+ * again.</p>
+ *
  * @author Rico Jasper
  */
 public class Scheduler {
@@ -55,13 +86,13 @@ public class Scheduler {
 	/**
 	 * The physical outside world representation where the nodes are located.
 	 */
-	private final World world;
+	private World world;
 
 	/**
 	 * A cache of the {@link WorldPerspective perspectives} of the
 	 * {@link Node nodes}.
 	 */
-	private final WorldPerspectiveCache perspectiveCache;
+	private final RadiusBasedWorldPerspectiveCache perspectiveCache;
 
 	/**
 	 * The schedule managed by this scheduler.
@@ -93,6 +124,54 @@ public class Scheduler {
 	 */
 	private Duration interDependencyMargin = Duration.ZERO;
 
+	/**
+	 * The number of node slots planned concurrently for a singular job.
+	 */
+	private int slotParallelism = 1;
+
+	/**
+	 * Whether node slots are pre-filtered by travel distances around static
+	 * obstacles.
+	 */
+	private boolean obstacleAwareDistances = false;
+
+	/**
+	 * Whether the forbidden regions of dynamic obstacles are calculated in
+	 * parallel.
+	 */
+	private boolean parallelForbiddenRegions = false;
+
+	/**
+	 * Guards the schedule, the transactions and the time settings. Planning
+	 * only requires the read lock while any modification requires the write
+	 * lock.
+	 */
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * The schedule versions used by ongoing planning operations. Access is
+	 * guarded by synchronizing on the multiset.
+	 */
+	private final SortedMultiset<Long> snapshots = TreeMultiset.create();
+
+	/**
+	 * The maximum number of spatial path vertices cached per world
+	 * perspective. Zero disables the cache.
+	 */
+	private long spatialPathCacheWeight = 0;
+
+	/**
+	 * The grid size of the locations of cached spatial paths.
+	 */
+	private double spatialPathQuantization = 0.0;
+
+	/**
+	 * Supplies the spatial path finders of new world perspectives. Not
+	 * guarded by the lock since perspectives are also built outside of it.
+	 */
+	private volatile Supplier<AbstractSpatialPathfinder> spatialPathfinderSupplier =
+		StraightEdgePathfinder::new;
+
 	/**
 	 * Constructs a scheduler using the given world and set of nodes.
 	 * The nodes are expected to be managed exclusively by this scheduler.
@@ -105,7 +184,331 @@ public class Scheduler {
 		Objects.requireNonNull(world, "world");
 
 		this.world = world;
-		this.perspectiveCache = new RadiusBasedWorldPerspectiveCache(world, StraightEdgePathfinder.class);
+		this.perspectiveCache = new RadiusBasedWorldPerspectiveCache(world,
+			() -> spatialPathfinderSupplier.get());
+	}
+
+	/**
+	 * @return the number of cached world perspectives.
+	 */
+	int getPerspectiveCount() {
+		return perspectiveCache.size();
+	}
+
+	/**
+	 * @return the current world.
+	 */
+	public World getWorld() {
+		lock.readLock().lock();
+		try {
+			return world;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * <p>
+	 * Adds a static obstacle to the world. The cached world perspectives are
+	 * updated incrementally.
+	 * </p>
+	 *
+	 * <p>
+	 * Already scheduled trajectories are not checked against the new obstacle.
+	 * </p>
+	 *
+	 * @param obstacle
+	 * @throws NullPointerException
+	 *             if {@code obstacle} is {@code null}.
+	 */
+	public void addStaticObstacle(StaticObstacle obstacle) {
+		Objects.requireNonNull(obstacle, "obstacle");
+
+		lock.writeLock().lock();
+		try {
+			world = world.withStaticObstacle(obstacle);
+			perspectiveCache.addStaticObstacle(obstacle);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes a static obstacle from the world. The obstacle is identified by
+	 * reference. The cached world perspectives are updated incrementally.
+	 *
+	 * @param obstacle
+	 * @throws NullPointerException
+	 *             if {@code obstacle} is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if the obstacle is unknown.
+	 */
+	public void removeStaticObstacle(StaticObstacle obstacle) {
+		Objects.requireNonNull(obstacle, "obstacle");
+
+		lock.writeLock().lock();
+		try {
+			world = world.withoutStaticObstacle(obstacle);
+			perspectiveCache.removeStaticObstacle(obstacle);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * <p>
+	 * Adds a dynamic obstacle to the world. The cached world perspectives are
+	 * updated incrementally.
+	 * </p>
+	 *
+	 * <p>
+	 * Already scheduled trajectories are not checked against the new obstacle.
+	 * </p>
+	 *
+	 * @param obstacle
+	 * @throws NullPointerException
+	 *             if {@code obstacle} is {@code null}.
+	 */
+	public void addDynamicObstacle(DynamicObstacle obstacle) {
+		Objects.requireNonNull(obstacle, "obstacle");
+
+		lock.writeLock().lock();
+		try {
+			world = world.withDynamicObstacle(obstacle);
+			perspectiveCache.addDynamicObstacle(obstacle);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * <p>
+	 * Constructs the world perspectives of the given node specifications
+	 * concurrently. Adding many nodes of different shapes is faster if their
+	 * perspectives are pre-warmed in advance.
+	 * </p>
+	 *
+	 * <p>
+	 * The perspectives are kept until they are released, even if no node
+	 * perceives them.
+	 * </p>
+	 *
+	 * @param specs
+	 * @return a future which completes when all perspectives are constructed.
+	 * @throws NullPointerException
+	 *             if specs is {@code null} or contains {@code null}.
+	 * @see #releasePerspectives(Collection)
+	 */
+	public CompletableFuture<Void> prewarmPerspectives(Collection<NodeSpecification> specs) {
+		return perspectiveCache.prewarmAll(radiiOf(specs));
+	}
+
+	/**
+	 * Releases the pre-warmed world perspectives of the given node
+	 * specifications. A perspective is kept as long as nodes perceive it.
+	 * Typically called after the nodes were added.
+	 *
+	 * @param specs
+	 * @throws NullPointerException
+	 *             if specs is {@code null} or contains {@code null}.
+	 * @see #prewarmPerspectives(Collection)
+	 */
+	public void releasePerspectives(Collection<NodeSpecification> specs) {
+		for (double radius : radiiOf(specs))
+			perspectiveCache.release(radius);
+	}
+
+	/**
+	 * Calculates the distinct radii of the given node specifications.
+	 *
+	 * @param specs
+	 * @return the radii.
+	 * @throws NullPointerException
+	 *             if specs is {@code null} or contains {@code null}.
+	 */
+	private static Set<Double> radiiOf(Collection<NodeSpecification> specs) {
+		CollectionsRequire.requireNonNull(specs, "specs");
+
+		return specs.stream()
+			.map(s -> Node.calcRadius(s.getShape()))
+			.collect(toSet());
+	}
+
+	/**
+	 * <p>
+	 * Writes a snapshot of the scheduler's state to the given stream. The
+	 * snapshot contains the nodes including their trajectories and jobs, the
+	 * pending transactions, and the settings. The world is not part of the
+	 * snapshot. Only its fingerprint is written to recognize it again.
+	 * </p>
+	 *
+	 * <p>
+	 * The snapshot is written in a versioned binary format. The stream is
+	 * flushed but not closed.
+	 * </p>
+	 *
+	 * @param out
+	 * @throws NullPointerException
+	 *             if {@code out} is {@code null}.
+	 * @throws IOException
+	 *             if an I/O error occurs.
+	 * @see #readSnapshot(World, InputStream)
+	 */
+	public void writeSnapshot(OutputStream out) throws IOException {
+		Objects.requireNonNull(out, "out");
+
+		lock.readLock().lock();
+		try {
+			SnapshotOutput output = new SnapshotOutput(out);
+
+			output.writeHeader();
+			output.writeWorld(world);
+
+			output.writeTime(presentTime);
+			output.writeTime(frozenHorizonTime);
+			output.writeDuration(frozenHorizonDuration);
+			output.writeDuration(interDependencyMargin);
+			output.writeInt(slotParallelism);
+			output.writeBoolean(obstacleAwareDistances);
+			output.writeBoolean(parallelForbiddenRegions);
+			output.writeLong(spatialPathCacheWeight);
+			output.writeDouble(spatialPathQuantization);
+			output.writeInt(perspectiveCache.getLandmarkCount());
+			output.writeDouble(perspectiveCache.getRadiusQuantization());
+			output.writeInt(perspectiveCache.getMaxIdlePerspectives());
+
+			Collection<Node> nodes = schedule.getNodes();
+			output.writeInt(nodes.size());
+			for (Node n : nodes)
+				output.writeNode(n);
+
+			output.writeInt(transactions.size());
+			for (Transaction t : transactions.values())
+				output.writeTransaction(t);
+
+			output.writeTrailer();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * <p>
+	 * Restores a scheduler from a snapshot written by
+	 * {@link #writeSnapshot(OutputStream)}. The world has to be the same as
+	 * the one of the original scheduler. A world with different obstacles is
+	 * rejected.
+	 * </p>
+	 *
+	 * <p>
+	 * No byte after the end of the snapshot is consumed from the stream.
+	 * </p>
+	 *
+	 * <p>
+	 * The restored state is trusted. Unlike adding nodes and committing
+	 * schedule operations, the nodes and transactions are not checked for
+	 * collisions or compatibility again.
+	 * </p>
+	 *
+	 * @param world
+	 * @param in
+	 * @return the restored scheduler.
+	 * @throws NullPointerException
+	 *             if any argument is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if the snapshot belongs to a different world.
+	 * @throws StreamCorruptedException
+	 *             if the snapshot is corrupted or of an unsupported version.
+	 * @throws IOException
+	 *             if an I/O error occurs.
+	 */
+	public static Scheduler readSnapshot(World world, InputStream in) throws IOException {
+		Objects.requireNonNull(in, "in");
+
+		Scheduler scheduler = new Scheduler(world);
+		SnapshotInput input = new SnapshotInput(in);
+
+		input.readHeader();
+		input.readWorld(world);
+
+		try {
+			restore(scheduler, input);
+		} catch (IllegalArgumentException | IllegalStateException e) {
+			throw SnapshotInput.corrupted(e);
+		}
+
+		input.readTrailer();
+
+		return scheduler;
+	}
+
+	/**
+	 * Restores the settings, nodes and transactions of a snapshot.
+	 *
+	 * @param scheduler
+	 *            the scheduler to restore.
+	 * @param input
+	 *            the snapshot after its header.
+	 * @throws IOException
+	 *             if an I/O error occurs or the snapshot is corrupted.
+	 * @throws IllegalArgumentException
+	 *             if a setting is invalid.
+	 * @throws IllegalStateException
+	 *             if the nodes or transactions are inconsistent.
+	 */
+	private static void restore(Scheduler scheduler, SnapshotInput input) throws IOException {
+		scheduler.presentTime = input.readTime();
+		scheduler.frozenHorizonTime = input.readTime();
+
+		Duration frozenHorizonDuration = input.readDuration();
+		if (frozenHorizonDuration.isNegative())
+			throw new IllegalArgumentException("negative frozenHorizonDuration");
+		scheduler.frozenHorizonDuration = frozenHorizonDuration;
+
+		scheduler.setInterDependencyMargin(input.readDuration());
+		scheduler.setSlotParallelism(input.readInt());
+		scheduler.obstacleAwareDistances = input.readBoolean();
+		scheduler.parallelForbiddenRegions = input.readBoolean();
+
+		// the perspectives of the nodes are built with these settings
+		long spatialPathCacheWeight = input.readLong();
+		double spatialPathQuantization = input.readDouble();
+		scheduler.setSpatialPathCache(spatialPathCacheWeight, spatialPathQuantization);
+		scheduler.setLandmarkCount(input.readInt());
+		scheduler.setRadiusQuantization(input.readDouble());
+		scheduler.setMaxIdlePerspectives(input.readInt());
+
+		// the count is not trusted to allocate memory
+		int n = input.readSize();
+		List<Node> nodes = new ArrayList<>();
+		for (int i = 0; i < n; ++i) {
+			Node node = input.readNode();
+
+			scheduler.schedule.restoreNode(node);
+			nodes.add(node);
+		}
+
+		// constructs the perspectives of all radii concurrently
+		Set<Double> radii = nodes.stream()
+			.map(Node::getRadius)
+			.collect(toSet());
+		scheduler.perspectiveCache.prewarmAll(radii);
+
+		for (Node node : nodes)
+			scheduler.perspectiveCache.getPerspectiveFor(node);
+		for (double radius : radii)
+			scheduler.perspectiveCache.release(radius);
+
+		int transactions = input.readSize();
+		for (int i = 0; i < transactions; ++i) {
+			Transaction transaction = input.readTransaction();
+
+			if (scheduler.transactions.containsKey(transaction.getId()))
+				throw new IllegalStateException("duplicate transaction");
+
+			scheduler.schedule.restoreAlternative(transaction.getAlternative());
+			scheduler.transactions.put(transaction.getId(), transaction);
+		}
 	}
 
 	/**
@@ -119,7 +522,12 @@ public class Scheduler {
 	 *             if node ID is unassigned.
 	 */
 	public NodeReference getNodeReference(String nodeId) {
-		return schedule.getNode(nodeId).getReference();
+		lock.readLock().lock();
+		try {
+			return schedule.getNode(nodeId).getReference();
+		} finally {
+			lock.readLock().unlock();
+		}
 	}
 
 	/**
@@ -134,29 +542,39 @@ public class Scheduler {
 	 *             if node ID is already assigned.
 	 */
 	public NodeReference addNode(NodeSpecification spec) throws CollisionException {
-		// also throws NullPointerException
-		if (spec.getInitialTime().isBefore(getFrozenHorizonTime()))
-			throw new IllegalArgumentException("initial time violates frozen horizon");
+		Objects.requireNonNull(spec, "spec");
 
 		Node node = new Node(spec);
 
-		checkNodePlacement(node);
+		// constructing a new perspective must not block the scheduler
+		perspectiveCache.getPerspectiveFor(node);
 
-		schedule.addNode(node);
+		boolean added = false;
+		lock.writeLock().lock();
+		try {
+			if (spec.getInitialTime().isBefore(frozenHorizonTime))
+				throw new IllegalArgumentException("initial time violates frozen horizon");
 
-		return node.getReference();
+			checkNodePlacement(node);
+
+			discardChanges();
+			schedule.addNode(node);
+			added = true;
+
+			return node.getReference();
+		} finally {
+			lock.writeLock().unlock();
+
+			if (!added)
+				perspectiveCache.removePerceiver(node);
+		}
 	}
 
 	private void checkNodePlacement(Node node) throws CollisionException {
 		World view = perspectiveCache.getPerspectiveFor(node).getView();
 
-		boolean status = checkNodePlacementImpl(node, view);
-
-		if (!status) {
-			perspectiveCache.removePerceiver(node);
-
+		if (!checkNodePlacementImpl(node, view))
 			throw new CollisionException();
-		}
 	}
 
 	private boolean checkNodePlacementImpl(Node node, World view) {
@@ -167,7 +585,12 @@ public class Scheduler {
 			return false;
 
 		// check world's dynamic obstacles
-		if (collides(trajectory, view.getDynamicObstacles()))
+		Collection<DynamicObstacle> worldObstacles = view.getDynamicObstacles(
+			trajectory.getStartTime(),
+			trajectory.getFinishTime(),
+			trajectory.getSpatialPath().getEnvelope());
+
+		if (collides(trajectory, worldObstacles))
 			return false;
 
 		// check other nodes
@@ -199,12 +622,17 @@ public class Scheduler {
 	 *             if the node is not idle.
 	 */
 	public void removeNode(String nodeId) {
-		Node node = schedule.getNode(nodeId);
+		lock.writeLock().lock();
+		try {
+			Node node = schedule.getNode(nodeId);
 
-		node.cleanUp(presentTime);
+			node.cleanUp(presentTime);
 
-		schedule.removeNode(nodeId);
-		perspectiveCache.removePerceiver(node);
+			schedule.removeNode(nodeId);
+			perspectiveCache.removePerceiver(node);
+		} finally {
+			lock.writeLock().unlock();
+		}
 	}
 
 	/**
@@ -224,7 +652,12 @@ public class Scheduler {
 	 *             if {@code jobId} is unknown.
 	 */
 	public Job getJob(UUID jobId) {
-		return schedule.getJob(jobId);
+		lock.readLock().lock();
+		try {
+			return schedule.getJob(jobId);
+		} finally {
+			lock.readLock().unlock();
+		}
 	}
 
 	/**
@@ -246,14 +679,24 @@ public class Scheduler {
 	 *             if the job is locked for removal.
 	 */
 	public void removeJob(UUID jobId) {
-		schedule.removeJob(jobId);
+		lock.writeLock().lock();
+		try {
+			schedule.removeJob(jobId);
+		} finally {
+			lock.writeLock().unlock();
+		}
 	}
 
 	/**
 	 * @return the present time.
 	 */
 	public LocalDateTime getPresentTime() {
-		return presentTime;
+		lock.readLock().lock();
+		try {
+			return presentTime;
+		} finally {
+			lock.readLock().unlock();
+		}
 	}
 
 	/**
@@ -267,20 +710,30 @@ public class Scheduler {
 	 *             if {@code presentTime} would decrease.
 	 */
 	public void setPresentTime(LocalDateTime presentTime) {
-		// also throws NullPointerException
-		if (presentTime.compareTo(this.presentTime) < 0)
-			throw new IllegalArgumentException("presentTime cannot decrease");
+		lock.writeLock().lock();
+		try {
+			// also throws NullPointerException
+			if (presentTime.compareTo(this.presentTime) < 0)
+				throw new IllegalArgumentException("presentTime cannot decrease");
 
-		this.presentTime = presentTime;
+			this.presentTime = presentTime;
 
-		updateFrozenHorizonTime();
+			updateFrozenHorizonTime();
+		} finally {
+			lock.writeLock().unlock();
+		}
 	}
 
 	/**
 	 * @return the frozenHorizonTime
 	 */
 	public LocalDateTime getFrozenHorizonTime() {
-		return frozenHorizonTime;
+		lock.readLock().lock();
+		try {
+			return frozenHorizonTime;
+		} finally {
+			lock.readLock().unlock();
+		}
 	}
 
 	/**
@@ -298,7 +751,12 @@ public class Scheduler {
 	 * @return the frozenHorizonDuration
 	 */
 	public Duration getFrozenHorizonDuration() {
-		return frozenHorizonDuration;
+		lock.readLock().lock();
+		try {
+			return frozenHorizonDuration;
+		} finally {
+			lock.readLock().unlock();
+		}
 	}
 
 	/**
@@ -316,20 +774,30 @@ public class Scheduler {
 	 *            the frozenHorizonDuration to set
 	 */
 	public void setFrozenHorizonDuration(Duration frozenHorizonDuration) {
-		// also throws NullPointerException
-		if (frozenHorizonDuration.isNegative())
-			throw new IllegalArgumentException("frozenHorizonDuration be negative");
+		lock.writeLock().lock();
+		try {
+			// also throws NullPointerException
+			if (frozenHorizonDuration.isNegative())
+				throw new IllegalArgumentException("frozenHorizonDuration be negative");
 
-		this.frozenHorizonDuration = frozenHorizonDuration;
+			this.frozenHorizonDuration = frozenHorizonDuration;
 
-		updateFrozenHorizonTime();
+			updateFrozenHorizonTime();
+		} finally {
+			lock.writeLock().unlock();
+		}
 	}
 
 	/**
 	 * @return the current safety margin kept between to dependent tasks.
 	 */
 	public Duration getInterDependencyMargin() {
-		return interDependencyMargin;
+		lock.readLock().lock();
+		try {
+			return interDependencyMargin;
+		} finally {
+			lock.readLock().unlock();
+		}
 	}
 
 	/**
@@ -348,7 +816,250 @@ public class Scheduler {
 		if (interDependencyMargin.isNegative())
 			throw new IllegalArgumentException("negative margin");
 
-		this.interDependencyMargin = interDependencyMargin;
+		lock.writeLock().lock();
+		try {
+			this.interDependencyMargin = interDependencyMargin;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the number of node slots planned concurrently for a singular
+	 *         job.
+	 */
+	public int getSlotParallelism() {
+		lock.readLock().lock();
+		try {
+			return slotParallelism;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Sets the number of node slots planned concurrently for a singular job.
+	 * A parallelism of one plans the slots sequentially.
+	 *
+	 * @param slotParallelism
+	 * @see SingularJobScheduler#setSlotParallelism(int)
+	 * @throws IllegalArgumentException
+	 *             if {@code slotParallelism} is not positive.
+	 */
+	public void setSlotParallelism(int slotParallelism) {
+		if (slotParallelism <= 0)
+			throw new IllegalArgumentException("invalid parallelism");
+
+		lock.writeLock().lock();
+		try {
+			this.slotParallelism = slotParallelism;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @return whether node slots are pre-filtered by travel distances around
+	 *         static obstacles.
+	 */
+	public boolean isObstacleAwareDistances() {
+		lock.readLock().lock();
+		try {
+			return obstacleAwareDistances;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Sets whether node slots are pre-filtered by travel distances around
+	 * static obstacles instead of euclidean distances. The distances tighten
+	 * the pre-filter in maze-like worlds at the cost of a distance table per
+	 * world perspective.
+	 *
+	 * @param obstacleAwareDistances
+	 * @see SingularJobScheduler#setObstacleAwareDistances(boolean)
+	 */
+	public void setObstacleAwareDistances(boolean obstacleAwareDistances) {
+		lock.writeLock().lock();
+		try {
+			this.obstacleAwareDistances = obstacleAwareDistances;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @return whether the forbidden regions of dynamic obstacles are
+	 *         calculated in parallel.
+	 */
+	public boolean isParallelForbiddenRegions() {
+		lock.readLock().lock();
+		try {
+			return parallelForbiddenRegions;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Sets whether the forbidden regions of dynamic obstacles are calculated
+	 * in parallel when planning the velocity of a node. Only pays off if many
+	 * dynamic obstacles are close to the planned paths.
+	 *
+	 * @param parallelForbiddenRegions
+	 * @see SingularJobScheduler#setParallelForbiddenRegions(boolean)
+	 */
+	public void setParallelForbiddenRegions(boolean parallelForbiddenRegions) {
+		lock.writeLock().lock();
+		try {
+			this.parallelForbiddenRegions = parallelForbiddenRegions;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the number of landmarks precomputed for each new world
+	 *         perspective.
+	 */
+	public int getLandmarkCount() {
+		return perspectiveCache.getLandmarkCount();
+	}
+
+	/**
+	 * <p>
+	 * Sets the number of landmarks precomputed for each new world perspective.
+	 * The landmarks speed up repeated spatial path queries at the cost of one
+	 * shortest path search per landmark when a perspective is built.
+	 * </p>
+	 *
+	 * <p>
+	 * The default value is zero which disables the landmarks. Perspectives
+	 * which are already cached are unaffected.
+	 * </p>
+	 *
+	 * @param landmarkCount
+	 * @throws IllegalArgumentException
+	 *             if landmarkCount is negative.
+	 * @see RadiusBasedWorldPerspectiveCache#setLandmarkCount(int)
+	 */
+	public void setLandmarkCount(int landmarkCount) {
+		perspectiveCache.setLandmarkCount(landmarkCount);
+	}
+
+	/**
+	 * @return the quantization of the node radii.
+	 */
+	public double getRadiusQuantization() {
+		return perspectiveCache.getRadiusQuantization();
+	}
+
+	/**
+	 * <p>
+	 * Sets the quantization of the node radii. Nodes whose radii are rounded
+	 * up to the same multiple of the quantization share a world perspective.
+	 * The default value is zero which disables the quantization.
+	 * </p>
+	 *
+	 * <p>
+	 * Only affects nodes added afterwards.
+	 * </p>
+	 *
+	 * @param radiusQuantization
+	 * @throws IllegalArgumentException
+	 *             if radiusQuantization is negative or not finite.
+	 * @see RadiusBasedWorldPerspectiveCache#setRadiusQuantization(double)
+	 */
+	public void setRadiusQuantization(double radiusQuantization) {
+		perspectiveCache.setRadiusQuantization(radiusQuantization);
+	}
+
+	/**
+	 * @return the maximum number of world perspectives kept without nodes.
+	 */
+	public int getMaxIdlePerspectives() {
+		return perspectiveCache.getMaxIdlePerspectives();
+	}
+
+	/**
+	 * Sets the maximum number of world perspectives kept after their last
+	 * node was removed. Such a perspective is reused by a later node of the
+	 * same radius. The default value is zero.
+	 *
+	 * @param maxIdlePerspectives
+	 * @throws IllegalArgumentException
+	 *             if maxIdlePerspectives is negative.
+	 * @see RadiusBasedWorldPerspectiveCache#setMaxIdlePerspectives(int)
+	 */
+	public void setMaxIdlePerspectives(int maxIdlePerspectives) {
+		perspectiveCache.setMaxIdlePerspectives(maxIdlePerspectives);
+	}
+
+	/**
+	 * @return the maximum number of spatial path vertices cached per world
+	 *         perspective. Zero if the cache is disabled.
+	 */
+	public long getSpatialPathCacheWeight() {
+		lock.readLock().lock();
+		try {
+			return spatialPathCacheWeight;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the grid size of the locations of cached spatial paths.
+	 */
+	public double getSpatialPathQuantization() {
+		lock.readLock().lock();
+		try {
+			return spatialPathQuantization;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * <p>
+	 * Configures the cache of spatial paths of each world perspective. A
+	 * maximum weight of zero disables the cache, which is the default.
+	 * </p>
+	 *
+	 * <p>
+	 * Only affects world perspectives built afterwards. Perspectives which
+	 * are already cached keep their spatial path finder.
+	 * </p>
+	 *
+	 * @param maximumWeight
+	 *            the maximum number of cached vertices per perspective.
+	 * @param quantization
+	 *            the grid size of the locations of cached paths.
+	 * @throws IllegalArgumentException
+	 *             if maximumWeight is negative or if the quantization is
+	 *             negative or not finite.
+	 * @see CachingSpatialPathfinder
+	 */
+	public void setSpatialPathCache(long maximumWeight, double quantization) {
+		if (maximumWeight < 0)
+			throw new IllegalArgumentException("maximumWeight is negative");
+		if (!Double.isFinite(quantization) || quantization < 0.0)
+			throw new IllegalArgumentException("illegal quantization");
+
+		lock.writeLock().lock();
+		try {
+			this.spatialPathCacheWeight = maximumWeight;
+			this.spatialPathQuantization = quantization;
+
+			if (maximumWeight == 0)
+				spatialPathfinderSupplier = StraightEdgePathfinder::new;
+			else
+				spatialPathfinderSupplier = () -> new CachingSpatialPathfinder(
+					new StraightEdgePathfinder(), maximumWeight, quantization);
+		} finally {
+			lock.writeLock().unlock();
+		}
 	}
 
 	/**
@@ -360,7 +1071,12 @@ public class Scheduler {
 	public boolean hasTransaction(UUID transactionId) {
 		Objects.requireNonNull(transactionId, "transactionId");
 
-		return transactions.containsKey(transactionId);
+		lock.readLock().lock();
+		try {
+			return transactions.containsKey(transactionId);
+		} finally {
+			lock.readLock().unlock();
+		}
 	}
 
 	/**
@@ -369,6 +1085,12 @@ public class Scheduler {
 	 */
 	private static final int MAX_LOCATION_PICKS = 5;
 
+	/**
+	 * The amount of times a schedule operation is planned again after
+	 * conflicting with a concurrent operation before giving up.
+	 */
+	public static final int MAX_CONFLICT_RETRIES = 8;
+
 	/**
 	 * <p>
 	 * Tries to schedule a new job satisfying the given specification.
@@ -393,10 +1115,9 @@ public class Scheduler {
 	 * @see #abort(UUID, String)
 	 */
 	public ScheduleResult schedule(JobSpecification spec) {
-		ScheduleAlternative alternative = new ScheduleAlternative();
-		boolean status = scheduleImpl(spec, alternative);
+		Objects.requireNonNull(spec, "spec");
 
-		return status ? success(alternative) : error();
+		return plan(alternative -> scheduleImpl(spec, alternative));
 	}
 
 	private boolean scheduleImpl(JobSpecification spec, ScheduleAlternative alternative) {
@@ -409,10 +1130,203 @@ public class Scheduler {
 		sc.setAlternative(alternative);
 		sc.setSpecification(spec);
 		sc.setMaxLocationPicks(MAX_LOCATION_PICKS);
+		sc.setSlotParallelism(slotParallelism);
+		sc.setObstacleAwareDistances(obstacleAwareDistances);
+		sc.setParallelForbiddenRegions(parallelForbiddenRegions);
 
 		return sc.schedule();
 	}
 
+	/**
+	 * Orders job specifications by their latest finish time. Ties are broken
+	 * by the slack of the start time, i.e., less flexible jobs come first.
+	 */
+	private static final Comparator<JobSpecification> BATCH_ORDER =
+		Comparator.comparing(JobSpecification::getLatestFinishTime)
+		.thenComparing(spec -> Duration.between(
+			spec.getEarliestStartTime(), spec.getLatestStartTime()));
+
+	/**
+	 * The maximum number of jobs of a batch planned while holding the read
+	 * lock.
+	 */
+	public static final int BATCH_CHUNK_SIZE = 32;
+
+	/**
+	 * <p>
+	 * Tries to schedule multiple independent jobs satisfying the given
+	 * specifications. The jobs are planned in the order of their latest finish
+	 * time and their slack. Jobs which cannot be scheduled are skipped without
+	 * affecting the others.
+	 * </p>
+	 *
+	 * <p>
+	 * All jobs are planned into a single alternative. The read lock is
+	 * released after each chunk of at most {@link #BATCH_CHUNK_SIZE} jobs.
+	 * Therefore, a large batch does not block other operations for long. The
+	 * perspectives and shapes of the nodes are only looked up once for all
+	 * jobs of the batch.
+	 * </p>
+	 *
+	 * <p>
+	 * After returning the changes to the schedule have to be commit to be
+	 * actually applied. The current schedule will not be updated otherwise.
+	 * Eventually the change must either be committed or aborted. The outcome
+	 * of each job is given by the returned result. If none of the given jobs
+	 * could be scheduled, including the case of an empty batch, an erroneous
+	 * result is returned. In that case neither commit nor abort must be
+	 * called.
+	 * </p>
+	 *
+	 * @param specs
+	 * @return a batch schedule result.
+	 * @throws NullPointerException
+	 *             if {@code specs} is {@code null} or contains {@code null}.
+	 * @see #commit(UUID)
+	 * @see #commit(UUID, String)
+	 * @see #abort(UUID)
+	 * @see #abort(UUID, String)
+	 */
+	public BatchScheduleResult scheduleAll(Collection<JobSpecification> specs) {
+		CollectionsRequire.requireNonNull(specs, "specs");
+
+		List<JobSpecification> ordered = new ArrayList<>(specs);
+		ordered.sort(BATCH_ORDER);
+
+		ScheduleResult result = planBatch(ordered);
+
+		Set<UUID> unscheduledJobIds = ordered.stream()
+			.map(JobSpecification::getJobId)
+			.filter(id -> result.isError() || !result.getJobs().containsKey(id))
+			.collect(toSet());
+
+		return new BatchScheduleResult(result, unscheduledJobIds);
+	}
+
+	/**
+	 * <p>
+	 * Plans a batch of jobs into a single alternative and adds it to the
+	 * schedule.
+	 * </p>
+	 *
+	 * <p>
+	 * Unlike {@link #plan(Predicate)}, the read lock is only held while
+	 * planning a single chunk of the batch. Each chunk extends the same
+	 * alternative. Since the snapshot is acquired before the first chunk, the
+	 * alternative is checked against all modifications made during the whole
+	 * planning when it is added. If the world has changed between two chunks,
+	 * the batch is planned again right away.
+	 * </p>
+	 *
+	 * @param specs
+	 *            the ordered job specifications.
+	 * @return a schedule result.
+	 */
+	private ScheduleResult planBatch(List<JobSpecification> specs) {
+		retry:
+		for (int i = 0; i <= MAX_CONFLICT_RETRIES; ++i) {
+			ScheduleAlternative alternative = new ScheduleAlternative();
+			NodeLookupCache nodeLookups = new NodeLookupCache(
+				perspectiveCache, schedule.getShapeCache());
+
+			long version;
+			LocalDateTime snapshotFrozenHorizonTime;
+			long snapshotWorldVersion;
+
+			lock.readLock().lock();
+			try {
+				version = acquireSnapshot();
+				snapshotFrozenHorizonTime = frozenHorizonTime;
+				snapshotWorldVersion = world.getVersion();
+			} finally {
+				lock.readLock().unlock();
+			}
+
+			try {
+				boolean status = false;
+
+				for (int j = 0; j < specs.size(); j += BATCH_CHUNK_SIZE) {
+					List<JobSpecification> chunk = specs.subList(
+						j, Math.min(j + BATCH_CHUNK_SIZE, specs.size()));
+
+					lock.readLock().lock();
+					try {
+						// the world might have been changed between two chunks
+						if (world.getVersion() != snapshotWorldVersion)
+							continue retry;
+
+						if (scheduleAllImpl(chunk, alternative, nodeLookups))
+							status = true;
+					} finally {
+						lock.readLock().unlock();
+					}
+				}
+
+				if (!status)
+					return error();
+
+				// the updates are only accessible once sealed
+				alternative.seal();
+
+				lock.writeLock().lock();
+				try {
+					// the world might have been changed in the meantime
+					if (world.getVersion() != snapshotWorldVersion)
+						continue;
+
+					// the frozen horizon might have been moved in the meantime
+					if (!frozenHorizonTime.equals(snapshotFrozenHorizonTime) &&
+						violatesFrozenHorizon(alternative))
+					{
+						continue;
+					}
+
+					return success(alternative, version);
+				} catch (IllegalArgumentException e) {
+					// without any modifications there cannot be any conflicts
+					if (version == schedule.getVersion())
+						throw e;
+				} finally {
+					lock.writeLock().unlock();
+				}
+			} finally {
+				releaseSnapshot(version);
+			}
+		}
+
+		return error();
+	}
+
+	private boolean scheduleAllImpl(
+		Collection<JobSpecification> specs,
+		ScheduleAlternative alternative,
+		NodeLookupCache nodeLookups)
+	{
+		SingularJobScheduler sc = new SingularJobScheduler();
+
+		sc.setWorld(world);
+		sc.setPerspectiveCache(perspectiveCache);
+		sc.setNodeLookupCache(nodeLookups);
+		sc.setFrozenHorizonTime(frozenHorizonTime);
+		sc.setSchedule(schedule);
+		sc.setAlternative(alternative);
+		sc.setMaxLocationPicks(MAX_LOCATION_PICKS);
+		sc.setSlotParallelism(slotParallelism);
+		sc.setObstacleAwareDistances(obstacleAwareDistances);
+		sc.setParallelForbiddenRegions(parallelForbiddenRegions);
+
+		boolean any = false;
+		for (JobSpecification spec : specs) {
+			sc.setSpecification(spec);
+
+			// an unsuccessful job leaves the alternative unchanged
+			if (sc.schedule())
+				any = true;
+		}
+
+		return any;
+	}
+
 	/**
 	 * <p>
 	 * Tries to schedule multiple jobs satisfying the given specifications.
@@ -453,11 +1367,10 @@ public class Scheduler {
 		Collection<JobSpecification> specs,
 		SimpleDirectedGraph<UUID, DefaultEdge> dependencies)
 	{
-		ScheduleAlternative alternative = new ScheduleAlternative();
-
-		boolean status = scheduleImpl(specs, dependencies, alternative);
+		Objects.requireNonNull(specs, "specs");
+		Objects.requireNonNull(dependencies, "dependencies");
 
-		return status ? success(alternative) : error();
+		return plan(alternative -> scheduleImpl(specs, dependencies, alternative));
 	}
 
 	private boolean scheduleImpl(
@@ -476,6 +1389,7 @@ public class Scheduler {
 		sc.setDependencies(dependencies);
 		sc.setInterDependencyMargin(interDependencyMargin);
 		sc.setMaxLocationPicks(MAX_LOCATION_PICKS);
+		sc.setParallelForbiddenRegions(parallelForbiddenRegions);
 
 		try {
 			return sc.schedule();
@@ -511,11 +1425,9 @@ public class Scheduler {
 	 * @see #abort(UUID, String)
 	 */
 	public ScheduleResult schedule(PeriodicJobSpecification spec) {
-		ScheduleAlternative alternative = new ScheduleAlternative();
+		Objects.requireNonNull(spec, "spec");
 
-		boolean status = scheduleImpl(spec, alternative);
-
-		return status ? success(alternative) : error();
+		return plan(alternative -> scheduleImpl(spec, alternative));
 	}
 
 	private boolean scheduleImpl(PeriodicJobSpecification spec, ScheduleAlternative alternative) {
@@ -528,6 +1440,9 @@ public class Scheduler {
 		sc.setAlternative(alternative);
 		sc.setSpecification(spec);
 		sc.setMaxLocationPicks(MAX_LOCATION_PICKS);
+		sc.setSlotParallelism(slotParallelism);
+		sc.setObstacleAwareDistances(obstacleAwareDistances);
+		sc.setParallelForbiddenRegions(parallelForbiddenRegions);
 
 		return sc.schedule();
 	}
@@ -562,12 +1477,9 @@ public class Scheduler {
 	 * @see #abort(UUID, String)
 	 */
 	public ScheduleResult unschedule(UUID jobId) {
-		Job job = schedule.getJob(jobId);
-		ScheduleAlternative alternative = new ScheduleAlternative();
-
-		boolean status = unscheduleImpl(job, alternative);
+		Objects.requireNonNull(jobId, "jobId");
 
-		return status ? success(alternative) : error();
+		return plan(alternative -> unscheduleImpl(schedule.getJob(jobId), alternative));
 	}
 
 	private boolean unscheduleImpl(Job job, ScheduleAlternative alternative) {
@@ -591,6 +1503,7 @@ public class Scheduler {
 		pl.setAlternative(alternative);
 		pl.setJob(job);
 		pl.setFixedEnd(fixedEnd);
+		pl.setParallelForbiddenRegions(parallelForbiddenRegions);
 
 		return pl.plan();
 	}
@@ -626,15 +1539,13 @@ public class Scheduler {
 	 * @see #abort(UUID, String)
 	 */
 	public ScheduleResult reschedule(JobSpecification spec) {
-		ScheduleAlternative alternative = new ScheduleAlternative();
-
-		boolean status = rescheduleImpl(spec, alternative);
+		Objects.requireNonNull(spec, "spec");
 
-		return status ? success(alternative) : error();
+		return plan(alternative -> rescheduleImpl(spec, alternative));
 	}
 
 	private boolean rescheduleImpl(JobSpecification spec, ScheduleAlternative alternative) {
-		Job job = getJob(spec.getJobId()); // throws NPE
+		Job job = schedule.getJob(spec.getJobId());
 		Node node = job.getNodeReference().getActual();
 
 		if (node.hasJobLockedForRemoval(job))
@@ -666,13 +1577,18 @@ public class Scheduler {
 	public void commit(UUID transactionId) {
 		Objects.requireNonNull(transactionId, "transactionId");
 
-		Transaction transaction = transactions.get(transactionId);
+		lock.writeLock().lock();
+		try {
+			Transaction transaction = transactions.get(transactionId);
 
-		if (transaction == null)
-			throw new IllegalArgumentException("unknown transaction");
+			if (transaction == null)
+				throw new IllegalArgumentException("unknown transaction");
 
-		schedule.integrate(transaction.getAlternative());
-		transactions.remove(transactionId);
+			schedule.integrate(transaction.getAlternative());
+			transactions.remove(transactionId);
+		} finally {
+			lock.writeLock().unlock();
+		}
 	}
 
 	/**
@@ -691,18 +1607,23 @@ public class Scheduler {
 	public void commit(UUID transactionId, String nodeId) {
 		Objects.requireNonNull(transactionId, "transactionId");
 
-		Transaction transaction = transactions.get(transactionId);
-		Node node = schedule.getNode(nodeId);
+		lock.writeLock().lock();
+		try {
+			Transaction transaction = transactions.get(transactionId);
+			Node node = schedule.getNode(nodeId);
 
-		if (transaction == null)
-			throw new IllegalArgumentException("unknown transaction");
+			if (transaction == null)
+				throw new IllegalArgumentException("unknown transaction");
 
-		ScheduleAlternative alternative = transaction.getAlternative();
+			ScheduleAlternative alternative = transaction.getAlternative();
 
-		schedule.integrate(alternative, node);
+			schedule.integrate(alternative, node);
 
-		if (alternative.isEmpty())
-			transactions.remove(transactionId);
+			if (alternative.isEmpty())
+				transactions.remove(transactionId);
+		} finally {
+			lock.writeLock().unlock();
+		}
 	}
 
 	/**
@@ -718,13 +1639,18 @@ public class Scheduler {
 	public void abort(UUID transactionId) {
 		Objects.requireNonNull(transactionId, "transactionId");
 
-		Transaction transaction = transactions.get(transactionId);
+		lock.writeLock().lock();
+		try {
+			Transaction transaction = transactions.get(transactionId);
 
-		if (transaction == null)
-			throw new IllegalArgumentException("unknown transaction");
+			if (transaction == null)
+				throw new IllegalArgumentException("unknown transaction");
 
-		schedule.eliminate(transaction.getAlternative());
-		transactions.remove(transactionId);
+			schedule.eliminate(transaction.getAlternative());
+			transactions.remove(transactionId);
+		} finally {
+			lock.writeLock().unlock();
+		}
 	}
 
 	/**
@@ -742,23 +1668,155 @@ public class Scheduler {
 	public void abort(UUID transactionId, String nodeId) {
 		Objects.requireNonNull(transactionId, "transactionId");
 
-		Transaction transaction = transactions.get(transactionId);
-		Node node = schedule.getNode(nodeId);
+		lock.writeLock().lock();
+		try {
+			Transaction transaction = transactions.get(transactionId);
+			Node node = schedule.getNode(nodeId);
 
-		if (transaction == null)
-			throw new IllegalArgumentException("unknown transaction");
+			if (transaction == null)
+				throw new IllegalArgumentException("unknown transaction");
 
-		ScheduleAlternative alternative = transaction.getAlternative();
+			ScheduleAlternative alternative = transaction.getAlternative();
 
-		schedule.eliminate(alternative, node);
+			schedule.eliminate(alternative, node);
 
-		if (alternative.isEmpty())
-			transactions.remove(transactionId);
+			if (alternative.isEmpty())
+				transactions.remove(transactionId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * <p>
+	 * Plans a schedule operation using the given planning function and adds
+	 * the resulting alternative to the schedule.
+	 * </p>
+	 *
+	 * <p>
+	 * The planning itself only holds the read lock. Therefore, multiple
+	 * operations might be planned concurrently against the same version of the
+	 * schedule. The alternative is added while holding the write lock. If the
+	 * alternative conflicts with any modification made since the planning
+	 * started or if the world has changed, the operation is planned again.
+	 * </p>
+	 *
+	 * @param planning
+	 *            plans the operation into the given alternative. Returns
+	 *            {@code true} if the planning was successful.
+	 * @return a schedule result.
+	 */
+	private ScheduleResult plan(Predicate<ScheduleAlternative> planning) {
+		for (int i = 0; i <= MAX_CONFLICT_RETRIES; ++i) {
+			ScheduleAlternative alternative = new ScheduleAlternative();
+
+			lock.readLock().lock();
+
+			long version = acquireSnapshot();
+			LocalDateTime snapshotFrozenHorizonTime = frozenHorizonTime;
+			long snapshotWorldVersion = world.getVersion();
+
+			try {
+				boolean status;
+
+				try {
+					status = planning.test(alternative);
+				} finally {
+					lock.readLock().unlock();
+				}
+
+				if (!status)
+					return error();
+
+				// the updates are only accessible once sealed
+				alternative.seal();
+
+				lock.writeLock().lock();
+				try {
+					// the world might have been changed in the meantime
+					if (world.getVersion() != snapshotWorldVersion)
+						continue;
+
+					// the frozen horizon might have been moved in the meantime
+					if (!frozenHorizonTime.equals(snapshotFrozenHorizonTime) &&
+						violatesFrozenHorizon(alternative))
+					{
+						continue;
+					}
+
+					return success(alternative, version);
+				} catch (IllegalArgumentException e) {
+					// without any modifications there cannot be any conflicts
+					if (version == schedule.getVersion())
+						throw e;
+				} finally {
+					lock.writeLock().unlock();
+				}
+			} finally {
+				releaseSnapshot(version);
+			}
+		}
+
+		return error();
+	}
+
+	/**
+	 * Registers a planning operation using the current version of the
+	 * schedule. Requires the read lock.
+	 *
+	 * @return the current version.
+	 */
+	private long acquireSnapshot() {
+		synchronized (snapshots) {
+			long version = schedule.getVersion();
+
+			snapshots.add(version);
+
+			return version;
+		}
+	}
+
+	/**
+	 * Unregisters a planning operation.
+	 *
+	 * @param version
+	 *            the version used by the operation.
+	 */
+	private void releaseSnapshot(long version) {
+		synchronized (snapshots) {
+			snapshots.remove(version);
+		}
 	}
 
-	private ScheduleResult success(ScheduleAlternative alternative) {
-		alternative.seal();
+	/**
+	 * Discards the schedule's change records not needed by any ongoing planning
+	 * operation. Requires the write lock.
+	 */
+	private void discardChanges() {
+		long version;
+
+		synchronized (snapshots) {
+			version = snapshots.isEmpty()
+				? schedule.getVersion()
+				: snapshots.firstEntry().getElement();
+		}
 
+		schedule.discardChanges(version);
+	}
+
+	/**
+	 * Checks if the given alternative locks any time before the frozen horizon.
+	 *
+	 * @param alternative
+	 * @return {@code true} if the frozen horizon is violated.
+	 */
+	private boolean violatesFrozenHorizon(ScheduleAlternative alternative) {
+		return alternative.getUpdates().stream()
+			.map(NodeUpdate::getTrajectoryLock)
+			.anyMatch(l -> l.intersects(BEGIN_OF_TIME, frozenHorizonTime));
+	}
+
+	private ScheduleResult success(ScheduleAlternative alternative, long version) {
 		Collection<NodeUpdate> updates = alternative.getUpdates();
 
 		// collect result information
@@ -791,7 +1849,8 @@ public class Scheduler {
 			transactionId, jobs, removals, trajectories);
 
 		// store alternative and transaction
-		schedule.addAlternative(alternative);
+		discardChanges();
+		schedule.addAlternative(alternative, version);
 		transactions.put(transactionId, new Transaction(transactionId, alternative));
 
 		return result;
@@ -805,7 +1864,12 @@ public class Scheduler {
 	 * Removes finished jobs and trajectories from the schedule.
 	 */
 	public void cleanUp() {
-		schedule.cleanUp(presentTime);
+		lock.writeLock().lock();
+		try {
+			schedule.cleanUp(presentTime);
+		} finally {
+			lock.writeLock().unlock();
+		}
 	}
 
 }
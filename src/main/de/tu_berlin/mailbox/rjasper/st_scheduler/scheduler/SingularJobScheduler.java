@@ -6,23 +6,43 @@ import static java.util.stream.Collectors.toList;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.Point;
 
+import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.pickers.DistanceEstimator;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.pickers.LeastDetourNodeSlotIterator;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.pickers.LocationIterator;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.pickers.NodeSlotIterator;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.pickers.NodeSlotIterator.NodeSlot;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.util.NodeLookupCache;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.World;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.WorldPerspective;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.WorldPerspectiveCache;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.AbstractSpatialPathfinder;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.AbstractVelocityPathfinder;
 
 /**
+ * <p>
  * Specialized scheduler to schedule a singular job.
+ * </p>
+ *
+ * <p>
+ * By default the candidate node slots are planned one after another in least
+ * detour order. If a slot parallelism greater than one is set, the next
+ * candidates are planned concurrently on a {@link ForkJoinPool}, each into its
+ * own branch of the alternative. The first successful candidate in least
+ * detour order is merged while the other branches are deleted. Therefore, the
+ * result is the same as in the sequential case.
+ * </p>
  *
  * @author Rico Jasper
  */
@@ -42,6 +62,16 @@ public class SingularJobScheduler {
 
 	private int maxLocationPicks = 0;
 
+	private int slotParallelism = 1;
+
+	private boolean obstacleAwareDistances = false;
+
+	private boolean parallelForbiddenRegions = false;
+
+	private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+
+	private NodeLookupCache nodeLookups = null;
+
 	public void setWorld(World world) {
 		this.world = Objects.requireNonNull(world, "world");
 	}
@@ -73,6 +103,52 @@ public class SingularJobScheduler {
 		this.maxLocationPicks = maxLocationPicks;
 	}
 
+	public void setSlotParallelism(int slotParallelism) {
+		if (slotParallelism <= 0)
+			throw new IllegalArgumentException("invalid parallelism");
+
+		this.slotParallelism = slotParallelism;
+	}
+
+	/**
+	 * Sets whether the node slots are pre-filtered by the travel distances
+	 * around static obstacles instead of the euclidean distances. The
+	 * distances are provided by the spatial path finder of each node's
+	 * perspective.
+	 *
+	 * @param obstacleAwareDistances
+	 * @see AbstractSpatialPathfinder#distanceLowerBound(Point, Point)
+	 */
+	public void setObstacleAwareDistances(boolean obstacleAwareDistances) {
+		this.obstacleAwareDistances = obstacleAwareDistances;
+	}
+
+	/**
+	 * Sets whether the forbidden regions of obstacles are calculated in
+	 * parallel when planning a job.
+	 *
+	 * @param parallelForbiddenRegions
+	 * @see AbstractVelocityPathfinder#setParallelForbiddenRegions(boolean)
+	 */
+	public void setParallelForbiddenRegions(boolean parallelForbiddenRegions) {
+		this.parallelForbiddenRegions = parallelForbiddenRegions;
+	}
+
+	public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+		this.forkJoinPool = Objects.requireNonNull(forkJoinPool, "forkJoinPool");
+	}
+
+	/**
+	 * Sets the cache of node lookups. A batch of jobs scheduled into the same
+	 * alternative should share a single cache. Without it, each lookup is
+	 * delegated to the perspective cache and the schedule's shape cache.
+	 *
+	 * @param nodeLookups
+	 */
+	public void setNodeLookupCache(NodeLookupCache nodeLookups) {
+		this.nodeLookups = Objects.requireNonNull(nodeLookups, "nodeLookups");
+	}
+
 	private void checkParameters() {
 		Objects.requireNonNull(world, "world");
 		Objects.requireNonNull(perspectiveCache, "perspectiveCache");
@@ -80,6 +156,7 @@ public class SingularJobScheduler {
 		Objects.requireNonNull(schedule, "schedule");
 		Objects.requireNonNull(alternative, "alternative");
 		Objects.requireNonNull(jobSpec, "jobSpec");
+		Objects.requireNonNull(forkJoinPool, "forkJoinPool");
 
 		if (maxLocationPicks <= 0)
 			throw new IllegalStateException("maxLocationPicks undefined");
@@ -89,7 +166,6 @@ public class SingularJobScheduler {
 		checkParameters();
 
 		Geometry locationSpace = world.space(jobSpec.getLocationSpace());
-		UUID jobId = jobSpec.getJobId();
 		LocalDateTime earliest = max(
 			jobSpec.getEarliestStartTime(), frozenHorizonTime);
 		LocalDateTime latest = jobSpec.getLatestStartTime();
@@ -98,13 +174,6 @@ public class SingularJobScheduler {
 		if (latest.isBefore(frozenHorizonTime))
 			return false;
 
-		JobPlanner tp = new JobPlanner();
-
-		tp.setSchedule(schedule);
-		tp.setScheduleAlternative(alternative);
-		tp.setJobId(jobId);
-		tp.setDuration(duration);
-
 		// iterate over possible locations
 
 		// TODO prefilter the nodes who have time without considering their location
@@ -115,9 +184,13 @@ public class SingularJobScheduler {
 			? singleton((Point) locationSpace)
 			: () -> new LocationIterator(locationSpace, maxLocationPicks);
 
-		for (Point location : locations) {
-			tp.setLocation(location);
+		DistanceEstimator distanceEstimator = obstacleAwareDistances
+			? (node, from, to) -> perspectiveFor(node)
+				.getSpatialPathfinder()
+				.distanceLowerBound(from, to)
+			: DistanceEstimator.EUCLIDEAN;
 
+		for (Point location : locations) {
 			// iterate over possible node time slots.
 
 			// Node units have different perspectives of the world.
@@ -129,39 +202,164 @@ public class SingularJobScheduler {
 				alternative,
 				frozenHorizonTime,
 				location,
-				earliest, latest, duration);
+				earliest, latest, duration,
+				distanceEstimator);
 
 			Iterable<NodeSlot> leastDetour = () ->
-				new LeastDetourNodeSlotIterator(nodeSlots, location);
+				new LeastDetourNodeSlotIterator(nodeSlots, location, distanceEstimator);
 
-			for (NodeSlot ns : leastDetour) {
-				Node n = ns.getNode();
-				SpaceTimeSlot s = ns.getSlot();
-				WorldPerspective perspective = perspectiveCache.getPerspectiveFor(n);
+			boolean status = slotParallelism == 1
+				? planSequentially(leastDetour, location, earliest, latest)
+				: planConcurrently(leastDetour, location, earliest, latest);
 
-				// true if there is one job after s.finish
-				boolean fixedEnd = s.getFinishTime().isBefore(Scheduler.END_OF_TIME);
+			if (status)
+				return true;
+		}
 
-				tp.setFixedEnd(fixedEnd);
-				tp.setWorldPerspective(perspective);
-				tp.setNode(n);
-				tp.setSlot(s);
-				tp.setEarliestStartTime(earliest);
-				tp.setLatestStartTime(latest);
+		// all possible variable combinations are exhausted without being able
+		// to schedule a job
+		return false;
+	}
 
-				// plan the routes of affected nodes and schedule job
-				boolean status = tp.plan();
+	/**
+	 * Plans the job at the given location using the first feasible node slot.
+	 *
+	 * @param nodeSlots
+	 * @param location
+	 * @param earliest
+	 * @param latest
+	 * @return {@code true} if the job was planned successfully.
+	 */
+	private boolean planSequentially(
+		Iterable<NodeSlot> nodeSlots,
+		Point location,
+		LocalDateTime earliest,
+		LocalDateTime latest)
+	{
+		for (NodeSlot ns : nodeSlots) {
+			boolean status = plan(alternative, ns, location, earliest, latest);
+
+			if (status)
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Plans the job at the given location using the first feasible node slot.
+	 * Up to {@link #slotParallelism} node slots are planned concurrently each
+	 * into its own branch. Only the branch of the first successful slot is
+	 * merged.
+	 *
+	 * @param nodeSlots
+	 * @param location
+	 * @param earliest
+	 * @param latest
+	 * @return {@code true} if the job was planned successfully.
+	 */
+	private boolean planConcurrently(
+		Iterable<NodeSlot> nodeSlots,
+		Point location,
+		LocalDateTime earliest,
+		LocalDateTime latest)
+	{
+		Iterator<NodeSlot> it = nodeSlots.iterator();
+
+		while (it.hasNext()) {
+			List<ScheduleAlternative> branches = new ArrayList<>(slotParallelism);
+			List<ForkJoinTask<Boolean>> tasks = new ArrayList<>(slotParallelism);
+
+			// branch in the calling thread since branching modifies the alternative
+			while (it.hasNext() && branches.size() < slotParallelism) {
+				NodeSlot ns = it.next();
+				ScheduleAlternative branch = alternative.branch();
+
+				branches.add(branch);
+				tasks.add(forkJoinPool.submit(() ->
+					plan(branch, ns, location, earliest, latest)));
+			}
+
+			// wait for all tasks before touching any branch
+			int winner = -1;
+			RuntimeException exception = null;
+
+			for (int i = 0; i < tasks.size(); ++i) {
+				try {
+					boolean status = tasks.get(i).join();
+
+					if (status && winner == -1)
+						winner = i;
+				} catch (RuntimeException e) {
+					if (exception == null)
+						exception = e;
+				}
+			}
+
+			for (int i = 0; i < branches.size(); ++i) {
+				if (i != winner)
+					branches.get(i).delete();
+			}
+
+			if (exception != null)
+				throw exception;
+
+			if (winner != -1) {
+				branches.get(winner).merge();
 
-				if (status)
-					return true;
+				return true;
 			}
 		}
 
-		// all possible variable combinations are exhausted without being able
-		// to schedule a job
 		return false;
 	}
 
+	/**
+	 * Plans the job using the given node slot.
+	 *
+	 * @param alternative
+	 *            the alternative to plan into.
+	 * @param nodeSlot
+	 * @param location
+	 * @param earliest
+	 * @param latest
+	 * @return {@code true} if the job was planned successfully.
+	 */
+	private boolean plan(
+		ScheduleAlternative alternative,
+		NodeSlot nodeSlot,
+		Point location,
+		LocalDateTime earliest,
+		LocalDateTime latest)
+	{
+		Node n = nodeSlot.getNode();
+		SpaceTimeSlot s = nodeSlot.getSlot();
+		WorldPerspective perspective = perspectiveFor(n);
+
+		// true if there is one job after s.finish
+		boolean fixedEnd = s.getFinishTime().isBefore(Scheduler.END_OF_TIME);
+
+		JobPlanner tp = new JobPlanner();
+
+		tp.setSchedule(schedule);
+		tp.setScheduleAlternative(alternative);
+		tp.setJobId(jobSpec.getJobId());
+		tp.setDuration(jobSpec.getDuration());
+		tp.setLocation(location);
+		tp.setFixedEnd(fixedEnd);
+		tp.setWorldPerspective(perspective);
+		tp.setNode(n);
+		tp.setSlot(s);
+		tp.setEarliestStartTime(earliest);
+		tp.setLatestStartTime(latest);
+		tp.setParallelForbiddenRegions(parallelForbiddenRegions);
+		if (nodeLookups != null)
+			tp.setNodeLookupCache(nodeLookups);
+
+		// plan the routes of affected nodes and schedule job
+		return tp.plan();
+	}
+
 	/**
 	 * Filters the pool of nodes which are able to reach a location in
 	 * regard to their individual size.
@@ -183,10 +381,21 @@ public class SingularJobScheduler {
 	 * @return {@code true} iff node is able to reach the location.
 	 */
 	private boolean checkLocationFor(Point location, Node node) {
-		WorldPerspective perspective = perspectiveCache.getPerspectiveFor(node);
-		Geometry map = perspective.getView().getMap();
+		WorldPerspective perspective = perspectiveFor(node);
+
+		return !perspective.getView().contains(location);
+	}
 
-		return !map.contains(location);
+	/**
+	 * Looks up the perspective of a node.
+	 *
+	 * @param node
+	 * @return the perspective.
+	 */
+	private WorldPerspective perspectiveFor(Node node) {
+		return nodeLookups != null
+			? nodeLookups.getPerspective(node)
+			: perspectiveCache.getPerspectiveFor(node);
 	}
 
 }
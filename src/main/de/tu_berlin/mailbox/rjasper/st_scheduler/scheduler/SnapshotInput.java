@@ -0,0 +1,546 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler;
+
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutableLinearRing;
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutablePoint;
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutablePolygon;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.google.common.collect.ImmutableList;
+import com.vividsolutions.jts.geom.LinearRing;
+
+import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePoint;
+import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePolygon;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.SimpleTrajectory;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.SpatialPath;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.Trajectory;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.World;
+
+/**
+ * <p>
+ * Reads the state of a {@link Scheduler} written by {@link SnapshotOutput}.
+ * </p>
+ *
+ * <p>
+ * The nodes are restored directly without verifying their trajectories and
+ * jobs. The read nodes and jobs are remembered to resolve the references of
+ * the transactions.
+ * </p>
+ *
+ * <p>
+ * The stream is read without buffering so that no byte after the trailer is
+ * consumed. Callers who do not rely on the remaining bytes should pass a
+ * buffered stream.
+ * </p>
+ *
+ * <p>
+ * A corrupted snapshot is reported by a {@link StreamCorruptedException}.
+ * The sizes written in front of arrays and lists are not trusted. Memory is
+ * allocated as the elements are read.
+ * </p>
+ *
+ * @author Rico Jasper
+ */
+class SnapshotInput {
+
+	/**
+	 * The maximum capacity allocated before any element is read.
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * The underlying stream.
+	 */
+	private final DataInputStream in;
+
+	/**
+	 * The read nodes by their IDs.
+	 */
+	private final Map<String, Node> nodes = new HashMap<>();
+
+	/**
+	 * The read jobs by their IDs.
+	 */
+	private final Map<UUID, Job> jobs = new HashMap<>();
+
+	/**
+	 * Constructs a snapshot input reading from the given stream.
+	 *
+	 * @param in
+	 */
+	public SnapshotInput(InputStream in) {
+		// buffering would read past the trailer
+		this.in = new DataInputStream(in);
+	}
+
+	/**
+	 * Wraps an exception of decoding invalid values.
+	 *
+	 * @param cause
+	 * @return the exception reporting the corrupted snapshot.
+	 */
+	static StreamCorruptedException corrupted(RuntimeException cause) {
+		StreamCorruptedException e = new StreamCorruptedException(
+			"invalid snapshot value: " + cause.getMessage());
+		e.initCause(cause);
+
+		return e;
+	}
+
+	/**
+	 * Reads the magic number and the format version.
+	 *
+	 * @throws IOException
+	 * @throws StreamCorruptedException
+	 *             if the stream is not a snapshot or of an unsupported
+	 *             version.
+	 */
+	public void readHeader() throws IOException {
+		if (in.readInt() != SnapshotOutput.MAGIC)
+			throw new StreamCorruptedException("not a snapshot");
+		if (in.readInt() != SnapshotOutput.FORMAT_VERSION)
+			throw new StreamCorruptedException("unsupported snapshot version");
+	}
+
+	/**
+	 * Reads the magic number marking the end of the snapshot.
+	 *
+	 * @throws IOException
+	 * @throws StreamCorruptedException
+	 *             if the end is not marked.
+	 */
+	public void readTrailer() throws IOException {
+		if (in.readInt() != SnapshotOutput.MAGIC)
+			throw new StreamCorruptedException("snapshot end not found");
+	}
+
+	/**
+	 * Reads the fingerprint of the world the snapshot belongs to and compares
+	 * it with the given world.
+	 *
+	 * @param world
+	 * @throws IOException
+	 * @throws IllegalArgumentException
+	 *             if the snapshot belongs to a different world.
+	 */
+	public void readWorld(World world) throws IOException {
+		int staticObstacles = in.readInt();
+		int dynamicObstacles = in.readInt();
+		long fingerprint = in.readLong();
+
+		if (staticObstacles != world.getStaticObstacles().size() ||
+			dynamicObstacles != world.getDynamicObstacles().size() ||
+			fingerprint != SnapshotOutput.fingerprint(world))
+		{
+			throw new IllegalArgumentException("snapshot of a different world");
+		}
+	}
+
+	/**
+	 * Reads an integer.
+	 *
+	 * @return the integer.
+	 * @throws IOException
+	 */
+	public int readInt() throws IOException {
+		return in.readInt();
+	}
+
+	/**
+	 * Reads a long.
+	 *
+	 * @return the long.
+	 * @throws IOException
+	 */
+	public long readLong() throws IOException {
+		return in.readLong();
+	}
+
+	/**
+	 * Reads a double.
+	 *
+	 * @return the double.
+	 * @throws IOException
+	 */
+	public double readDouble() throws IOException {
+		return in.readDouble();
+	}
+
+	/**
+	 * Reads a boolean.
+	 *
+	 * @return the boolean.
+	 * @throws IOException
+	 */
+	public boolean readBoolean() throws IOException {
+		return in.readBoolean();
+	}
+
+	/**
+	 * Reads a time.
+	 *
+	 * @return the time.
+	 * @throws IOException
+	 */
+	public LocalDateTime readTime() throws IOException {
+		long seconds = in.readLong();
+		int nanos = in.readInt();
+
+		return time(seconds, nanos);
+	}
+
+	/**
+	 * Converts an epoch second and its nano adjustment into a time.
+	 *
+	 * @param seconds
+	 * @param nanos
+	 * @return the time.
+	 * @throws StreamCorruptedException
+	 *             if the time is out of range.
+	 */
+	private static LocalDateTime time(long seconds, int nanos) throws StreamCorruptedException {
+		try {
+			return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+		} catch (DateTimeException e) {
+			throw corrupted(e);
+		}
+	}
+
+	/**
+	 * Reads a duration.
+	 *
+	 * @return the duration.
+	 * @throws IOException
+	 */
+	public Duration readDuration() throws IOException {
+		long seconds = in.readLong();
+		int nanos = in.readInt();
+
+		try {
+			return Duration.ofSeconds(seconds, nanos);
+		} catch (ArithmeticException e) {
+			throw corrupted(e);
+		}
+	}
+
+	/**
+	 * Reads a UUID.
+	 *
+	 * @return the UUID.
+	 * @throws IOException
+	 */
+	public UUID readId() throws IOException {
+		long mostSigBits = in.readLong();
+		long leastSigBits = in.readLong();
+
+		return new UUID(mostSigBits, leastSigBits);
+	}
+
+	/**
+	 * Reads a point.
+	 *
+	 * @return the point.
+	 * @throws IOException
+	 */
+	private ImmutablePoint readPoint() throws IOException {
+		double x = in.readDouble();
+		double y = in.readDouble();
+
+		return immutablePoint(x, y);
+	}
+
+	/**
+	 * Reads packed doubles.
+	 *
+	 * @param n
+	 *            the number of doubles.
+	 * @return the doubles.
+	 * @throws IOException
+	 */
+	private double[] readDoubles(int n) throws IOException {
+		double[] values = new double[Math.min(n, INITIAL_CAPACITY)];
+
+		for (int i = 0; i < n; ++i) {
+			if (i == values.length)
+				values = Arrays.copyOf(values, grow(values.length, n));
+
+			values[i] = in.readDouble();
+		}
+
+		return values;
+	}
+
+	/**
+	 * Reads packed longs.
+	 *
+	 * @param n
+	 *            the number of longs.
+	 * @return the longs.
+	 * @throws IOException
+	 */
+	private long[] readLongs(int n) throws IOException {
+		long[] values = new long[Math.min(n, INITIAL_CAPACITY)];
+
+		for (int i = 0; i < n; ++i) {
+			if (i == values.length)
+				values = Arrays.copyOf(values, grow(values.length, n));
+
+			values[i] = in.readLong();
+		}
+
+		return values;
+	}
+
+	/**
+	 * Calculates the grown capacity of an array.
+	 *
+	 * @param capacity
+	 *            the current capacity.
+	 * @param n
+	 *            the final size.
+	 * @return the new capacity.
+	 */
+	private static int grow(int capacity, int n) {
+		return (int) Math.min(n, 2L * capacity);
+	}
+
+	/**
+	 * Reads a non-negative size. The size is not trusted to allocate memory.
+	 *
+	 * @return the size.
+	 * @throws IOException
+	 * @throws StreamCorruptedException
+	 *             if the size is negative.
+	 */
+	public int readSize() throws IOException {
+		int size = in.readInt();
+
+		if (size < 0)
+			throw new StreamCorruptedException("negative size");
+
+		return size;
+	}
+
+	/**
+	 * Reads a ring.
+	 *
+	 * @return the ring.
+	 * @throws IOException
+	 */
+	private LinearRing readRing() throws IOException {
+		int n = readSize();
+		double[] xs = readDoubles(n);
+		double[] ys = readDoubles(n);
+		double[] ordinates = new double[2*n];
+
+		for (int i = 0; i < n; ++i) {
+			ordinates[2*i  ] = xs[i];
+			ordinates[2*i+1] = ys[i];
+		}
+
+		try {
+			return immutableLinearRing(ordinates);
+		} catch (IllegalArgumentException e) {
+			throw corrupted(e);
+		}
+	}
+
+	/**
+	 * Reads a polygon.
+	 *
+	 * @return the polygon.
+	 * @throws IOException
+	 */
+	private ImmutablePolygon readPolygon() throws IOException {
+		int holes = readSize();
+		LinearRing shell = readRing();
+		List<LinearRing> interior = new ArrayList<>(Math.min(holes, INITIAL_CAPACITY));
+
+		for (int i = 0; i < holes; ++i)
+			interior.add(readRing());
+
+		try {
+			return immutablePolygon(shell, interior.toArray(new LinearRing[holes]));
+		} catch (IllegalArgumentException e) {
+			throw corrupted(e);
+		}
+	}
+
+	/**
+	 * Reads a trajectory.
+	 *
+	 * @return the trajectory.
+	 * @throws IOException
+	 */
+	private Trajectory readTrajectory() throws IOException {
+		int n = readSize();
+		double[] xs = readDoubles(n);
+		double[] ys = readDoubles(n);
+		long[] seconds = readLongs(n);
+
+		ImmutableList.Builder<ImmutablePoint> points = ImmutableList.builder();
+		ImmutableList.Builder<LocalDateTime> times = ImmutableList.builder();
+
+		for (int i = 0; i < n; ++i) {
+			points.add(immutablePoint(xs[i], ys[i]));
+			times.add(time(seconds[i], in.readInt()));
+		}
+
+		try {
+			return new SimpleTrajectory(new SpatialPath(points.build()), times.build());
+		} catch (IllegalArgumentException e) {
+			throw corrupted(e);
+		}
+	}
+
+	/**
+	 * Reads trajectories.
+	 *
+	 * @return the trajectories.
+	 * @throws IOException
+	 */
+	private List<Trajectory> readTrajectories() throws IOException {
+		int n = readSize();
+		List<Trajectory> trajectories = new ArrayList<>(Math.min(n, INITIAL_CAPACITY));
+
+		for (int i = 0; i < n; ++i)
+			trajectories.add(readTrajectory());
+
+		return trajectories;
+	}
+
+	/**
+	 * Reads jobs of the given node and remembers them.
+	 *
+	 * @param node
+	 * @return the jobs.
+	 * @throws IOException
+	 */
+	private List<Job> readJobs(Node node) throws IOException {
+		int n = readSize();
+		List<Job> read = new ArrayList<>(Math.min(n, INITIAL_CAPACITY));
+
+		for (int i = 0; i < n; ++i) {
+			UUID id = readId();
+			ImmutablePoint location = readPoint();
+			LocalDateTime startTime = readTime();
+			Duration duration = readDuration();
+
+			Job job;
+			try {
+				job = new Job(id, node.getReference(), location, startTime, duration);
+			} catch (IllegalArgumentException e) {
+				throw corrupted(e);
+			}
+
+			jobs.put(id, job);
+			read.add(job);
+		}
+
+		return read;
+	}
+
+	/**
+	 * Reads a node including its trajectories and jobs.
+	 *
+	 * @return the node.
+	 * @throws IOException
+	 */
+	public Node readNode() throws IOException {
+		String id = in.readUTF();
+		ImmutablePolygon shape = readPolygon();
+		double maxSpeed = in.readDouble();
+		ImmutablePoint initialLocation = readPoint();
+		LocalDateTime initialTime = readTime();
+
+		Node node;
+		try {
+			node = new Node(new NodeSpecification(
+				id, shape, maxSpeed, initialLocation, initialTime));
+		} catch (IllegalArgumentException e) {
+			throw corrupted(e);
+		}
+
+		List<Trajectory> trajectories = readTrajectories();
+		List<Job> nodeJobs = readJobs(node);
+
+		try {
+			node.restoreTrajectories(trajectories);
+
+			for (Job j : nodeJobs)
+				node.addJob(j);
+		} catch (IllegalArgumentException | IllegalStateException e) {
+			throw corrupted(e);
+		}
+
+		nodes.put(id, node);
+
+		return node;
+	}
+
+	/**
+	 * Reads a transaction. The nodes and removed jobs must have been read
+	 * before. The alternative of the transaction is sealed.
+	 *
+	 * @return the transaction.
+	 * @throws IOException
+	 * @throws StreamCorruptedException
+	 *             if a node or job is unknown.
+	 */
+	public Transaction readTransaction() throws IOException {
+		UUID id = readId();
+		int n = readSize();
+		ScheduleAlternative alternative = new ScheduleAlternative();
+
+		for (int i = 0; i < n; ++i) {
+			Node node = nodes.get(in.readUTF());
+
+			if (node == null)
+				throw new StreamCorruptedException("unknown node");
+
+			List<Trajectory> trajectories = readTrajectories();
+			List<Job> alternativeJobs = readJobs(node);
+
+			try {
+				for (Trajectory t : trajectories)
+					alternative.updateTrajectory(node, t);
+				for (Job j : alternativeJobs)
+					alternative.addJob(j);
+			} catch (IllegalArgumentException | IllegalStateException e) {
+				throw corrupted(e);
+			}
+
+			int removals = readSize();
+			for (int k = 0; k < removals; ++k) {
+				Job job = jobs.get(readId());
+
+				if (job == null)
+					throw new StreamCorruptedException("unknown job");
+
+				try {
+					alternative.addJobRemoval(job);
+				} catch (IllegalArgumentException | IllegalStateException e) {
+					throw corrupted(e);
+				}
+			}
+		}
+
+		alternative.seal();
+
+		return new Transaction(id, alternative);
+	}
+
+}
@@ -0,0 +1,375 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+
+import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePoint;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.DynamicObstacle;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.StaticObstacle;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.Trajectory;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.World;
+
+/**
+ * <p>
+ * Writes the state of a {@link Scheduler} in a compact binary format. The
+ * format is read by {@link SnapshotInput}.
+ * </p>
+ *
+ * <p>
+ * Trajectories are written as packed arrays of their ordinates and times
+ * instead of object graphs. A time is written as its epoch second and its
+ * nano adjustment. Trajectories which are not simple are written in their
+ * composed form.
+ * </p>
+ *
+ * <p>
+ * The world is not written. Instead, its fingerprint identifies the world
+ * the snapshot belongs to. The fingerprint consists of the number of static
+ * and dynamic obstacles and a hash of their shapes and trajectories. It is
+ * independent of the order of the obstacles.
+ * </p>
+ *
+ * @author Rico Jasper
+ */
+class SnapshotOutput {
+
+	/**
+	 * The magic number at the beginning and the end of each snapshot.
+	 */
+	static final int MAGIC = 0x53545353;
+
+	/**
+	 * The version of the format.
+	 */
+	static final int FORMAT_VERSION = 2;
+
+	/**
+	 * The underlying stream.
+	 */
+	private final DataOutputStream out;
+
+	/**
+	 * Constructs a snapshot output writing to the given stream.
+	 *
+	 * @param out
+	 */
+	public SnapshotOutput(OutputStream out) {
+		this.out = new DataOutputStream(new BufferedOutputStream(out));
+	}
+
+	/**
+	 * Writes the magic number and the format version.
+	 *
+	 * @throws IOException
+	 */
+	public void writeHeader() throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(FORMAT_VERSION);
+	}
+
+	/**
+	 * Writes the magic number marking the end of the snapshot and flushes the
+	 * stream.
+	 *
+	 * @throws IOException
+	 */
+	public void writeTrailer() throws IOException {
+		out.writeInt(MAGIC);
+		out.flush();
+	}
+
+	/**
+	 * Writes the fingerprint of the given world.
+	 *
+	 * @param world
+	 * @throws IOException
+	 */
+	public void writeWorld(World world) throws IOException {
+		out.writeInt(world.getStaticObstacles().size());
+		out.writeInt(world.getDynamicObstacles().size());
+		out.writeLong(fingerprint(world));
+	}
+
+	/**
+	 * Calculates the hash of the obstacles of the given world.
+	 *
+	 * @param world
+	 * @return the hash.
+	 */
+	static long fingerprint(World world) {
+		long hash = 0L;
+
+		// the sums are independent of the order
+		for (StaticObstacle o : world.getStaticObstacles())
+			hash += hash(1L, o.getShape().getCoordinates());
+
+		for (DynamicObstacle o : world.getDynamicObstacles()) {
+			long h = hash(2L, o.getShape().getCoordinates());
+
+			for (ImmutablePoint p : o.getSpatialPath().getPoints())
+				h = hash(hash(h, p.getX()), p.getY());
+			for (LocalDateTime t : o.getTimes())
+				h = 31L * (31L * h + t.toEpochSecond(ZoneOffset.UTC)) + t.getNano();
+
+			hash += h;
+		}
+
+		return hash;
+	}
+
+	/**
+	 * Continues the given hash with the given coordinates.
+	 *
+	 * @param hash
+	 * @param coordinates
+	 * @return the hash.
+	 */
+	private static long hash(long hash, Coordinate[] coordinates) {
+		for (Coordinate c : coordinates)
+			hash = hash(hash(hash, c.x), c.y);
+
+		return hash;
+	}
+
+	/**
+	 * Continues the given hash with the given value.
+	 *
+	 * @param hash
+	 * @param value
+	 * @return the hash.
+	 */
+	private static long hash(long hash, double value) {
+		// normalizes -0.0
+		return 31L * hash + Double.doubleToLongBits(value + 0.0);
+	}
+
+	/**
+	 * Writes an integer.
+	 *
+	 * @param value
+	 * @throws IOException
+	 */
+	public void writeInt(int value) throws IOException {
+		out.writeInt(value);
+	}
+
+	/**
+	 * Writes a long.
+	 *
+	 * @param value
+	 * @throws IOException
+	 */
+	public void writeLong(long value) throws IOException {
+		out.writeLong(value);
+	}
+
+	/**
+	 * Writes a double.
+	 *
+	 * @param value
+	 * @throws IOException
+	 */
+	public void writeDouble(double value) throws IOException {
+		out.writeDouble(value);
+	}
+
+	/**
+	 * Writes a boolean.
+	 *
+	 * @param value
+	 * @throws IOException
+	 */
+	public void writeBoolean(boolean value) throws IOException {
+		out.writeBoolean(value);
+	}
+
+	/**
+	 * Writes a time.
+	 *
+	 * @param time
+	 * @throws IOException
+	 */
+	public void writeTime(LocalDateTime time) throws IOException {
+		out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+		out.writeInt(time.getNano());
+	}
+
+	/**
+	 * Writes a duration.
+	 *
+	 * @param duration
+	 * @throws IOException
+	 */
+	public void writeDuration(Duration duration) throws IOException {
+		out.writeLong(duration.getSeconds());
+		out.writeInt(duration.getNano());
+	}
+
+	/**
+	 * Writes a UUID.
+	 *
+	 * @param id
+	 * @throws IOException
+	 */
+	public void writeId(UUID id) throws IOException {
+		out.writeLong(id.getMostSignificantBits());
+		out.writeLong(id.getLeastSignificantBits());
+	}
+
+	/**
+	 * Writes a point.
+	 *
+	 * @param point
+	 * @throws IOException
+	 */
+	private void writePoint(Point point) throws IOException {
+		out.writeDouble(point.getX());
+		out.writeDouble(point.getY());
+	}
+
+	/**
+	 * Writes the coordinates of a ring as packed arrays.
+	 *
+	 * @param ring
+	 * @throws IOException
+	 */
+	private void writeRing(LineString ring) throws IOException {
+		int n = ring.getNumPoints();
+
+		out.writeInt(n);
+		for (int i = 0; i < n; ++i)
+			out.writeDouble(ring.getCoordinateN(i).x);
+		for (int i = 0; i < n; ++i)
+			out.writeDouble(ring.getCoordinateN(i).y);
+	}
+
+	/**
+	 * Writes a polygon.
+	 *
+	 * @param polygon
+	 * @throws IOException
+	 */
+	private void writePolygon(Polygon polygon) throws IOException {
+		int holes = polygon.getNumInteriorRing();
+
+		out.writeInt(holes);
+		writeRing(polygon.getExteriorRing());
+		for (int i = 0; i < holes; ++i)
+			writeRing(polygon.getInteriorRingN(i));
+	}
+
+	/**
+	 * Writes the vertices of a trajectory as packed arrays.
+	 *
+	 * @param trajectory
+	 * @throws IOException
+	 */
+	private void writeTrajectory(Trajectory trajectory) throws IOException {
+		List<ImmutablePoint> points = trajectory.getSpatialPath().getPoints();
+		List<LocalDateTime> times = trajectory.getTimes();
+		int n = points.size();
+
+		out.writeInt(n);
+		for (ImmutablePoint p : points)
+			out.writeDouble(p.getX());
+		for (ImmutablePoint p : points)
+			out.writeDouble(p.getY());
+		for (LocalDateTime t : times)
+			out.writeLong(t.toEpochSecond(ZoneOffset.UTC));
+		for (LocalDateTime t : times)
+			out.writeInt(t.getNano());
+	}
+
+	/**
+	 * Writes trajectories.
+	 *
+	 * @param trajectories
+	 * @throws IOException
+	 */
+	private void writeTrajectories(Collection<Trajectory> trajectories) throws IOException {
+		out.writeInt(trajectories.size());
+		for (Trajectory t : trajectories)
+			writeTrajectory(t);
+	}
+
+	/**
+	 * Writes a job without its node.
+	 *
+	 * @param job
+	 * @throws IOException
+	 */
+	private void writeJob(Job job) throws IOException {
+		writeId(job.getId());
+		writePoint(job.getLocation());
+		writeTime(job.getStartTime());
+		writeDuration(job.getDuration());
+	}
+
+	/**
+	 * Writes jobs.
+	 *
+	 * @param jobs
+	 * @throws IOException
+	 */
+	private void writeJobs(Collection<Job> jobs) throws IOException {
+		out.writeInt(jobs.size());
+		for (Job j : jobs)
+			writeJob(j);
+	}
+
+	/**
+	 * Writes a node including its trajectories and jobs.
+	 *
+	 * @param node
+	 * @throws IOException
+	 */
+	public void writeNode(Node node) throws IOException {
+		out.writeUTF(node.getId());
+		writePolygon(node.getShape());
+		out.writeDouble(node.getMaxSpeed());
+		writePoint(node.getInitialLocation());
+		writeTime(node.getInitialTime());
+		writeTrajectories(node.getTrajectories());
+		writeJobs(node.getJobs());
+	}
+
+	/**
+	 * Writes a transaction. The nodes and removed jobs are referenced by
+	 * their IDs.
+	 *
+	 * @param transaction
+	 * @throws IOException
+	 */
+	public void writeTransaction(Transaction transaction) throws IOException {
+		Collection<NodeUpdate> updates = transaction.getAlternative().getUpdates();
+
+		writeId(transaction.getId());
+		out.writeInt(updates.size());
+
+		for (NodeUpdate u : updates) {
+			Collection<Job> removals = u.getJobRemovals();
+
+			out.writeUTF(u.getNode().getId());
+			writeTrajectories(u.getTrajectories());
+			writeJobs(u.getJobs());
+
+			out.writeInt(removals.size());
+			for (Job j : removals)
+				writeId(j.getId());
+		}
+	}
+
+}
@@ -0,0 +1,34 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.pickers;
+
+import com.vividsolutions.jts.geom.Point;
+
+import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.Node;
+
+/**
+ * A {@code DistanceEstimator} estimates the travel distance of a node between
+ * two locations. The estimation must never exceed the actual travel distance
+ * so that pruning by the estimation never rejects a feasible node slot.
+ *
+ * @author Rico Jasper
+ */
+@FunctionalInterface
+public interface DistanceEstimator {
+
+	/**
+	 * Estimates by the euclidean distance. Obstacles are ignored.
+	 */
+	public static final DistanceEstimator EUCLIDEAN = (node, from, to) -> from.distance(to);
+
+	/**
+	 * Estimates the travel distance of the node between the given locations.
+	 *
+	 * @param node
+	 * @param from
+	 * @param to
+	 * @return a lower bound of the travel distance.
+	 *         {@link Double#POSITIVE_INFINITY} if the node cannot travel
+	 *         between both locations.
+	 */
+	public double distance(Node node, Point from, Point to);
+
+}
@@ -1,7 +1,5 @@
 package de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.pickers;
 
-import static com.vividsolutions.jts.operation.distance.DistanceOp.distance;
-
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -10,6 +8,7 @@ import java.util.Objects;
 
 import com.vividsolutions.jts.geom.Point;
 
+import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.Node;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.Scheduler;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.SpaceTimeSlot;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.pickers.NodeSlotIterator.NodeSlot;
@@ -32,19 +31,31 @@ public class LeastDetourNodeSlotIterator implements Iterator<NodeSlot> {
 	}
 
 	public LeastDetourNodeSlotIterator(Iterable<NodeSlot> slots, Point location) {
-		this.iterator = makeIterator( Objects.requireNonNull(slots, "slots"), location );
+		this(slots, location, DistanceEstimator.EUCLIDEAN);
+	}
+
+	public LeastDetourNodeSlotIterator(
+		Iterable<NodeSlot> slots, Point location, DistanceEstimator distanceEstimator)
+	{
+		this.iterator = makeIterator(
+			Objects.requireNonNull(slots, "slots"),
+			location,
+			Objects.requireNonNull(distanceEstimator, "distanceEstimator"));
 	}
 
-	private static Iterator<WeightedNodeSlot> makeIterator(Iterable<NodeSlot> slots, Point location) {
+	private static Iterator<WeightedNodeSlot> makeIterator(
+		Iterable<NodeSlot> slots, Point location, DistanceEstimator distanceEstimator)
+	{
 		List<WeightedNodeSlot> list = new LinkedList<>();
 
 		for (NodeSlot s : slots)
-			list.add(new WeightedNodeSlot(s, calcWeight(s, location)));
+			list.add(new WeightedNodeSlot(s, calcWeight(s, location, distanceEstimator)));
 
 		return list.stream().sorted(COMPARATOR).iterator();
 	}
 
-	private static double calcWeight(NodeSlot slot, Point location) {
+	private static double calcWeight(NodeSlot slot, Point location, DistanceEstimator distanceEstimator) {
+		Node node = slot.getNode();
 		SpaceTimeSlot stSlot = slot.getSlot();
 		Point p1 = stSlot.getStartLocation();
 		Point p2 = location;
@@ -52,11 +63,20 @@ public class LeastDetourNodeSlotIterator implements Iterator<NodeSlot> {
 
 		// TODO bug not reproduced and tested
 
-		// detour
+		double d12 = distanceEstimator.distance(node, p1, p2);
+
 		if (stSlot.getFinishTime().compareTo(Scheduler.END_OF_TIME) == 0)
-			return distance(p1, p2);
-		else
-			return (distance(p1, p2) + distance(p2, p3)) - distance(p1, p3);
+			return d12;
+
+		double d23 = distanceEstimator.distance(node, p2, p3);
+		double d13 = distanceEstimator.distance(node, p1, p3);
+
+		// unreachable locations would yield NaN (inf + inf - inf)
+		if (Double.isInfinite(d12) || Double.isInfinite(d23) || Double.isInfinite(d13))
+			return Double.POSITIVE_INFINITY;
+
+		// detour
+		return d12 + d23 - d13;
 	}
 
 	@Override
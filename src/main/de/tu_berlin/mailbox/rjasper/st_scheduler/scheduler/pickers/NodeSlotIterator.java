@@ -1,6 +1,5 @@
 package de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.pickers;
 
-import static com.vividsolutions.jts.operation.distance.DistanceOp.distance;
 import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutableGeometries.immutable;
 import static de.tu_berlin.mailbox.rjasper.lang.Comparables.max;
 import static de.tu_berlin.mailbox.rjasper.time.TimeConv.secondsToDuration;
@@ -27,7 +26,8 @@ import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.util.NodeSlotBuilder;
  * satisfy the given specifications of a job. To satisfy means that a node is
  * capable to reach the job location while driving at maximum speed without
  * violating any time specification of the new job or other jobs. The
- * avoidance of obstacles are not considered.
+ * travel distances are estimated by a {@link DistanceEstimator}. By default,
+ * the avoidance of obstacles are not considered.
  *
  * @author Rico Jasper
  */
@@ -99,6 +99,11 @@ public class NodeSlotIterator implements Iterator<NodeSlotIterator.NodeSlot> {
 	 */
 	private final Duration duration;
 
+	/**
+	 * Estimates the travel distances of the nodes.
+	 */
+	private final DistanceEstimator distanceEstimator;
+
 	private final NodeSlotBuilder slotBuilder;
 
 	/**
@@ -166,6 +171,51 @@ public class NodeSlotIterator implements Iterator<NodeSlotIterator.NodeSlot> {
 		LocalDateTime earliestStartTime,
 		LocalDateTime latestStartTime,
 		Duration duration)
+	{
+		this(nodes, alternative, frozenHorizonTime, location,
+			earliestStartTime, latestStartTime, duration,
+			DistanceEstimator.EUCLIDEAN);
+	}
+
+	/**
+	 * Constructs a NodeSlotIterator which iterates over the given set of nodes
+	 * to while checking against the given job specifications. The travel
+	 * distances are estimated by the given estimator.
+	 *
+	 * @param nodes
+	 *            the node pool to check
+	 * @param alternative
+	 * @param frozenHorizonTime
+	 * @param location
+	 *            of the job
+	 * @param earliestStartTime
+	 *            the earliest time to begin the job execution
+	 * @param latestStartTime
+	 *            the latest time to begin the job execution
+	 * @param duration
+	 *            of the job
+	 * @param distanceEstimator
+	 *            estimates the travel distances of the nodes
+	 *
+	 * @throws NullPointerException
+	 *             if any argument is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if any of the following is true:
+	 *             <ul>
+	 *             <li>The location is empty or invalid.</li>
+	 *             <li>The earliestStartTime is after the latestStartTime.</li>
+	 *             <li>The duration is negative.</li>
+	 *             </ul>
+	 */
+	public NodeSlotIterator(
+		Iterable<Node> nodes,
+		ScheduleAlternative alternative,
+		LocalDateTime frozenHorizonTime,
+		Point location,
+		LocalDateTime earliestStartTime,
+		LocalDateTime latestStartTime,
+		Duration duration,
+		DistanceEstimator distanceEstimator)
 	{
 		Objects.requireNonNull(nodes, "nodes");
 		Objects.requireNonNull(alternative, "alternative");
@@ -174,6 +224,7 @@ public class NodeSlotIterator implements Iterator<NodeSlotIterator.NodeSlot> {
 		Objects.requireNonNull(earliestStartTime, "earliestStartTime");
 		Objects.requireNonNull(latestStartTime, "latestStartTime");
 		Objects.requireNonNull(duration, "duration");
+		Objects.requireNonNull(distanceEstimator, "distanceEstimator");
 
 		GeometriesRequire.requireValid2DPoint(location, "location");
 
@@ -190,6 +241,7 @@ public class NodeSlotIterator implements Iterator<NodeSlotIterator.NodeSlot> {
 		this.earliestStartTime = earliestStartTime;
 		this.latestStartTime = latestStartTime;
 		this.duration = duration;
+		this.distanceEstimator = distanceEstimator;
 
 		// The next node and idle slot pair is calculated before they are
 		// requested. This enables an easy check whether or not there is a next
@@ -330,8 +382,8 @@ public class NodeSlotIterator implements Iterator<NodeSlotIterator.NodeSlot> {
 	/**
 	 * Checks if a node is able during a given idle slot to drive to a job
 	 * location without violating any time constraints of the new job or
-	 * the next job. It does not considers the presence of any obstacles to
-	 * avoid.
+	 * the next job. The travel distances are estimated by the
+	 * {@link #distanceEstimator}.
 	 *
 	 * @param node
 	 * @param slot
@@ -343,8 +395,12 @@ public class NodeSlotIterator implements Iterator<NodeSlotIterator.NodeSlot> {
 		LocalDateTime t2 = slot.getFinishTime();
 		Point p1 = slot.getStartLocation();
 		Point p2 = slot.getFinishLocation();
-		double l1 = distance(p1, location);
-		double l2 = p2 == null ? 0. : distance(location, p2);
+		double l1 = distanceEstimator.distance(node, p1, location);
+		double l2 = p2 == null ? 0. : distanceEstimator.distance(node, location, p2);
+
+		// location is unreachable
+		if (Double.isInfinite(l1) || Double.isInfinite(l2))
+			return false;
 
 		// job cannot be started in time
 		// t_max - t1 < l1 / v_max
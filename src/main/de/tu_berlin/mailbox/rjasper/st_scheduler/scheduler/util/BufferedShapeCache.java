@@ -0,0 +1,260 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.util;
+
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutableGeometries.immutable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePolygon;
+
+/**
+ * <p>
+ * Caches node shapes buffered by a radius. Nodes of a homogeneous fleet share
+ * only a few distinct shapes and radii. Therefore, the same buffer operation
+ * would otherwise be repeated for each built obstacle.
+ * </p>
+ *
+ * <p>
+ * The memory held by the cache is bounded. Each buffered shape is weighed by
+ * its number of coordinates. If the total weight exceeds the capacity, the
+ * least recently used shapes are evicted. The number of hits, misses, and
+ * evictions are counted.
+ * </p>
+ *
+ * <p>
+ * The cache is thread-safe. Shapes are buffered outside of the cache's
+ * monitor. Concurrent misses of the same shape might buffer it multiple
+ * times, but only the first result is cached.
+ * </p>
+ *
+ * @author Rico Jasper
+ */
+public class BufferedShapeCache {
+
+	/**
+	 * The default maximum number of coordinates of all cached shapes.
+	 */
+	public static final int DEFAULT_CAPACITY = 16_384;
+
+	/**
+	 * The key of a buffered shape.
+	 */
+	private static class Key {
+
+		/**
+		 * The original shape.
+		 */
+		private final ImmutablePolygon shape;
+
+		/**
+		 * The buffer radius.
+		 */
+		private final double radius;
+
+		/**
+		 * Constructs a new key.
+		 *
+		 * @param shape
+		 * @param radius
+		 */
+		public Key(ImmutablePolygon shape, double radius) {
+			this.shape = shape;
+			this.radius = radius;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+			return 31 * shape.getEnvelopeInternal().hashCode() + Double.hashCode(radius);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+
+			Key other = (Key) obj;
+
+			return Double.compare(radius, other.radius) == 0
+				&& (shape == other.shape || shape.equalsExact(other.shape));
+		}
+
+	}
+
+	/**
+	 * The maximum number of coordinates of all cached shapes.
+	 */
+	private final int capacity;
+
+	/**
+	 * The buffered shapes in access order.
+	 */
+	private final Map<Key, ImmutablePolygon> shapes = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * The number of coordinates of all cached shapes.
+	 */
+	private long weight = 0L;
+
+	/**
+	 * The number of lookups which found a cached shape.
+	 */
+	private long hits = 0L;
+
+	/**
+	 * The number of lookups which had to buffer the shape.
+	 */
+	private long misses = 0L;
+
+	/**
+	 * The number of evicted shapes.
+	 */
+	private long evictions = 0L;
+
+	/**
+	 * Constructs a new cache with the default capacity.
+	 */
+	public BufferedShapeCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a new cache holding shapes of up to the given number of
+	 * coordinates in total.
+	 *
+	 * @param capacity
+	 * @throws IllegalArgumentException
+	 *             if {@code capacity} is not positive.
+	 */
+	public BufferedShapeCache(int capacity) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("invalid capacity");
+
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Returns the given shape buffered by the given radius.
+	 *
+	 * @param shape
+	 * @param radius
+	 * @return the buffered shape.
+	 * @throws NullPointerException
+	 *             if {@code shape} is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if {@code radius} is negative or not a number.
+	 */
+	public ImmutablePolygon buffer(ImmutablePolygon shape, double radius) {
+		Objects.requireNonNull(shape, "shape");
+
+		if (Double.isNaN(radius) || radius < 0)
+			throw new IllegalArgumentException("illegal radius");
+
+		Key key = new Key(shape, radius);
+
+		synchronized (this) {
+			ImmutablePolygon cached = shapes.get(key);
+
+			if (cached != null) {
+				++hits;
+				return cached;
+			}
+
+			++misses;
+		}
+
+		// buffers without blocking concurrent lookups
+		ImmutablePolygon buffered = immutable( shape.buffer(radius) );
+
+		synchronized (this) {
+			// a concurrent miss might have cached the shape in the meantime
+			ImmutablePolygon cached = shapes.putIfAbsent(key, buffered);
+
+			if (cached != null)
+				return cached;
+
+			weight += buffered.getNumPoints();
+			evict();
+
+			return buffered;
+		}
+	}
+
+	/**
+	 * Evicts the least recently used shapes until the capacity is met. The
+	 * most recently used shape is never evicted.
+	 */
+	private void evict() {
+		Iterator<ImmutablePolygon> it = shapes.values().iterator();
+
+		while (weight > capacity && shapes.size() > 1) {
+			ImmutablePolygon eldest = it.next();
+
+			weight -= eldest.getNumPoints();
+			it.remove();
+			++evictions;
+		}
+	}
+
+	/**
+	 * @return the maximum number of coordinates of all cached shapes.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return the number of coordinates of all cached shapes.
+	 */
+	public synchronized long getWeight() {
+		return weight;
+	}
+
+	/**
+	 * @return the number of cached shapes.
+	 */
+	public synchronized int size() {
+		return shapes.size();
+	}
+
+	/**
+	 * @return the number of lookups which found a cached shape.
+	 */
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of lookups which had to buffer the shape.
+	 */
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	/**
+	 * @return the number of evicted shapes.
+	 */
+	public synchronized long getEvictionCount() {
+		return evictions;
+	}
+
+	/**
+	 * Removes all cached shapes. The counters are retained.
+	 */
+	public synchronized void clear() {
+		shapes.clear();
+		weight = 0L;
+	}
+
+}
@@ -0,0 +1,115 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.util;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePolygon;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.Node;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.WorldPerspective;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.WorldPerspectiveCache;
+
+/**
+ * <p>
+ * Memorizes the lookups concerning individual nodes which are repeated for
+ * each job of a batch. These are the world perspective of a node and the
+ * shapes of the other nodes as perceived by a node, i.e., buffered by the
+ * node's radius.
+ * </p>
+ *
+ * <p>
+ * Neither lookup depends on the trajectories of the schedule. Therefore, the
+ * cache can be shared by all jobs planned into the same alternative, sparing
+ * the synchronized lookups of the underlying caches. The cache is
+ * thread-safe since node slots might be planned concurrently.
+ * </p>
+ *
+ * @author Rico Jasper
+ */
+public class NodeLookupCache {
+
+	/**
+	 * The cache of the world perspectives.
+	 */
+	private final WorldPerspectiveCache perspectiveCache;
+
+	/**
+	 * The cache of the buffered node shapes.
+	 */
+	private final BufferedShapeCache shapeCache;
+
+	/**
+	 * The perspective of each node.
+	 */
+	private final ConcurrentMap<Node, WorldPerspective> perspectives =
+		new ConcurrentHashMap<>();
+
+	/**
+	 * The shapes of other nodes by the perceiving node.
+	 */
+	private final ConcurrentMap<Node, ConcurrentMap<Node, ImmutablePolygon>> obstacleShapes =
+		new ConcurrentHashMap<>();
+
+	/**
+	 * Constructs a new cache using the given underlying caches.
+	 *
+	 * @param perspectiveCache
+	 * @param shapeCache
+	 * @throws NullPointerException
+	 *             if any argument is {@code null}.
+	 */
+	public NodeLookupCache(WorldPerspectiveCache perspectiveCache, BufferedShapeCache shapeCache) {
+		this.perspectiveCache = Objects.requireNonNull(perspectiveCache, "perspectiveCache");
+		this.shapeCache = Objects.requireNonNull(shapeCache, "shapeCache");
+	}
+
+	/**
+	 * Looks up the world perspective of the given node.
+	 *
+	 * @param node
+	 * @return the perspective.
+	 * @throws NullPointerException
+	 *             if {@code node} is {@code null}.
+	 */
+	public WorldPerspective getPerspective(Node node) {
+		Objects.requireNonNull(node, "node");
+
+		WorldPerspective perspective = perspectives.get(node);
+
+		// the underlying lookup is idempotent, concurrent callers may race
+		if (perspective == null) {
+			perspective = perspectiveCache.getPerspectiveFor(node);
+			perspectives.putIfAbsent(node, perspective);
+		}
+
+		return perspective;
+	}
+
+	/**
+	 * Looks up the shape of a node as perceived by another node. The shape is
+	 * buffered by the radius of the perceiver.
+	 *
+	 * @param perceiver
+	 * @param node
+	 * @return the buffered shape.
+	 * @throws NullPointerException
+	 *             if any argument is {@code null}.
+	 */
+	public ImmutablePolygon getObstacleShape(Node perceiver, Node node) {
+		Objects.requireNonNull(perceiver, "perceiver");
+		Objects.requireNonNull(node, "node");
+
+		ConcurrentMap<Node, ImmutablePolygon> shapes = obstacleShapes
+			.computeIfAbsent(perceiver, k -> new ConcurrentHashMap<>());
+
+		ImmutablePolygon shape = shapes.get(node);
+
+		if (shape == null) {
+			shape = shapeCache.buffer(node.getShape(), perceiver.getRadius());
+			shapes.putIfAbsent(node, shape);
+		}
+
+		return shape;
+	}
+
+}
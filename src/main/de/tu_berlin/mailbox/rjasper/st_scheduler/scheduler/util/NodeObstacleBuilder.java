@@ -1,21 +1,42 @@
 package de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.util;
 
-import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutableGeometries.immutable;
 import static de.tu_berlin.mailbox.rjasper.st_scheduler.world.util.AsDynamicObstacles.asDynamicObstacles;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
+import com.vividsolutions.jts.geom.Envelope;
+
 import de.tu_berlin.mailbox.rjasper.collect.JoinedCollection;
 import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePolygon;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.Node;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.Schedule;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.ScheduleAlternative;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.DynamicObstacle;
-
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.Trajectory;
+
+/**
+ * <p>
+ * Builds the dynamic obstacles formed by all other nodes as perceived by a
+ * given node. This includes the trajectories of the schedule, of the
+ * schedule's alternatives, and of the current alternative.
+ * </p>
+ *
+ * <p>
+ * Only trajectories overlapping the time interval between start and finish
+ * time are considered. Optionally, a corridor can be set to additionally
+ * exclude trajectories which stay spatially apart from it. The candidates are
+ * looked up by the schedule's {@link NodeTrajectoryIndex}.
+ * </p>
+ *
+ * @author Rico Jasper
+ */
 public class NodeObstacleBuilder {
 
 	private Node node = null;
@@ -28,6 +49,10 @@ public class NodeObstacleBuilder {
 
 	private ScheduleAlternative alternative = null;
 
+	private Envelope corridor = null;
+
+	private NodeLookupCache nodeLookups = null;
+
 	public void setNode(Node node) {
 		this.node = Objects.requireNonNull(node, "node");
 	}
@@ -48,37 +73,76 @@ public class NodeObstacleBuilder {
 		this.alternative = Objects.requireNonNull(alternative, "alternative");
 	}
 
+	/**
+	 * Sets the area the node's reference point will stay within. Other nodes
+	 * which do not come close to it are excluded.
+	 *
+	 * @param corridor
+	 */
+	public void setCorridor(Envelope corridor) {
+		this.corridor = Objects.requireNonNull(corridor, "corridor");
+	}
+
+	/**
+	 * Sets the cache used to look up the shapes of the other nodes. Without
+	 * it, the shapes are looked up by the schedule's shape cache.
+	 *
+	 * @param nodeLookups
+	 */
+	public void setNodeLookupCache(NodeLookupCache nodeLookups) {
+		this.nodeLookups = Objects.requireNonNull(nodeLookups, "nodeLookups");
+	}
+
 	public Collection<DynamicObstacle> build() {
 		checkParameters();
 
-		List<Collection<DynamicObstacle>> obstacleCollectionList = new LinkedList<>();
+		Map<Node, List<Trajectory>> trajectories = new LinkedHashMap<>();
+
+		// schedule and alternative trajectories
+		for (NodeTrajectoryIndex.Entry e : queryIndex()) {
+			Node n = e.getNode();
 
-		for (Node n : schedule.getNodes()) {
 			if (n == node)
 				continue;
 
-			ImmutablePolygon shape = shapeOf(n);
+			trajectories.computeIfAbsent(n, k -> new LinkedList<>())
+				.add(e.getTrajectory());
+		}
+
+		// alternative trajectories of current alternative
+		for (Node n : schedule.getNodes()) {
+			if (n == node || !alternative.updatesNode(n))
+				continue;
+
+			trajectories.computeIfAbsent(n, k -> new LinkedList<>())
+				.addAll(alternative.getTrajectoryUpdates(n));
+		}
 
-			// schedule trajectories
-			obstacleCollectionList.add(
-				asDynamicObstacles(shape, n.getTrajectories(startTime, finishTime)));
+		List<Collection<DynamicObstacle>> obstacleCollectionList =
+			new ArrayList<>(trajectories.size());
 
-			// alternative trajectories
-			schedule.getAlternatives().stream()
-				.filter(sa -> sa.updatesNode(n))
-				.map(sa -> sa.getTrajectoryUpdates(n))
-				.map(ts -> asDynamicObstacles(shape, ts))
-				.forEach(obstacleCollectionList::add);
+		for (Map.Entry<Node, List<Trajectory>> e : trajectories.entrySet()) {
+			ImmutablePolygon shape = shapeOf(e.getKey());
 
-			// alternative trajectories of current alternative
-			if (alternative.updatesNode(n))
-				obstacleCollectionList.add(
-					asDynamicObstacles(shape, alternative.getTrajectoryUpdates(n)));
+			obstacleCollectionList.add(asDynamicObstacles(shape, e.getValue()));
 		}
 
 		return JoinedCollection.of(obstacleCollectionList);
 	}
 
+	private Collection<NodeTrajectoryIndex.Entry> queryIndex() {
+		NodeTrajectoryIndex index = schedule.getTrajectoryIndex();
+
+		if (corridor == null)
+			return index.query(startTime, finishTime);
+
+		// the obstacle shapes are additionally buffered by the node's radius
+		Envelope envelope = new Envelope(corridor);
+		envelope.expandBy(node.getRadius());
+
+		return index.query(envelope, startTime, finishTime);
+	}
+
 	private void checkParameters() {
 		Objects.requireNonNull(node, "node");
 		Objects.requireNonNull(startTime, "startTime");
@@ -91,9 +155,12 @@ public class NodeObstacleBuilder {
 	}
 
 	private ImmutablePolygon shapeOf(Node node) {
+		if (nodeLookups != null)
+			return nodeLookups.getObstacleShape(this.node, node);
+
 		double radius = this.node.getRadius();
 
-		return immutable( node.getShape().buffer(radius) );
+		return schedule.getShapeCache().buffer(node.getShape(), radius);
 	}
 
 }
@@ -0,0 +1,287 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.index.quadtree.Quadtree;
+
+import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.Node;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.Trajectory;
+
+/**
+ * <p>
+ * A space-time index over the trajectories of nodes. Each trajectory is
+ * indexed by its spatial envelope expanded by the radius of its node. Queries
+ * return only the trajectories whose envelope intersects a given envelope and
+ * which overlap a given time interval.
+ * </p>
+ *
+ * <p>
+ * Additionally, each trajectory is indexed by its time interval. An interval
+ * is represented as the point of its start and finish time. The intervals
+ * overlapping a queried interval are the points within a quarter-plane.
+ * </p>
+ *
+ * <p>
+ * Trajectories are registered by an arbitrary key (e.g., the node itself or a
+ * node update) which replaces or removes all trajectories registered under
+ * the same key. The keys are compared by identity.
+ * </p>
+ *
+ * @author Rico Jasper
+ */
+public class NodeTrajectoryIndex {
+
+	/**
+	 * An indexed trajectory of a node.
+	 */
+	public static class Entry {
+
+		/**
+		 * The node of the trajectory.
+		 */
+		private final Node node;
+
+		/**
+		 * The trajectory.
+		 */
+		private final Trajectory trajectory;
+
+		/**
+		 * The trajectory's envelope expanded by the node's radius.
+		 */
+		private final Envelope envelope;
+
+		/**
+		 * The point of the trajectory's start and finish time.
+		 */
+		private final Envelope interval;
+
+		/**
+		 * Constructs a new {@code Entry}.
+		 *
+		 * @param node
+		 * @param trajectory
+		 */
+		private Entry(Node node, Trajectory trajectory) {
+			this.node = node;
+			this.trajectory = trajectory;
+			this.envelope = new Envelope(trajectory.getSpatialPath().getEnvelope());
+			this.interval = new Envelope(
+				seconds(trajectory.getStartTime()),
+				seconds(trajectory.getStartTime()),
+				seconds(trajectory.getFinishTime()),
+				seconds(trajectory.getFinishTime()));
+
+			envelope.expandBy(node.getRadius());
+		}
+
+		/**
+		 * @return the node of the trajectory.
+		 */
+		public Node getNode() {
+			return node;
+		}
+
+		/**
+		 * @return the trajectory.
+		 */
+		public Trajectory getTrajectory() {
+			return trajectory;
+		}
+
+		/**
+		 * Determines whether the trajectory overlaps the given closed time
+		 * interval.
+		 *
+		 * @param from
+		 * @param to
+		 * @return {@code true} if the trajectory overlaps the interval.
+		 */
+		private boolean overlaps(LocalDateTime from, LocalDateTime to) {
+			return !trajectory.getStartTime().isAfter(to)
+				&& !trajectory.getFinishTime().isBefore(from);
+		}
+
+	}
+
+	/**
+	 * The margin in seconds to compensate for the imprecision of the time
+	 * index. The candidates are filtered by their exact times afterwards.
+	 */
+	private static final double TIME_MARGIN = 1.0;
+
+	/**
+	 * The smallest time in seconds.
+	 */
+	private static final double MIN_SECONDS = seconds(LocalDateTime.MIN) - TIME_MARGIN;
+
+	/**
+	 * The largest time in seconds.
+	 */
+	private static final double MAX_SECONDS = seconds(LocalDateTime.MAX) + TIME_MARGIN;
+
+	/**
+	 * The spatial index of all entries.
+	 */
+	private final Quadtree tree = new Quadtree();
+
+	/**
+	 * The time index of all entries.
+	 */
+	private final Quadtree timeTree = new Quadtree();
+
+	/**
+	 * Converts the given time into seconds.
+	 *
+	 * @param time
+	 * @return the seconds.
+	 */
+	private static double seconds(LocalDateTime time) {
+		return time.toEpochSecond(ZoneOffset.UTC) + time.getNano() * 1e-9;
+	}
+
+	/**
+	 * Determines the envelope containing the intervals of all trajectories
+	 * which might overlap the given time interval.
+	 *
+	 * @param from
+	 * @param to
+	 * @return the envelope.
+	 */
+	private static Envelope timeEnvelope(LocalDateTime from, LocalDateTime to) {
+		// start <= to and finish >= from
+		return new Envelope(
+			MIN_SECONDS, seconds(to) + TIME_MARGIN,
+			seconds(from) - TIME_MARGIN, MAX_SECONDS);
+	}
+
+	/**
+	 * The entries registered by each key.
+	 */
+	private final Map<Object, Collection<Entry>> entries = new IdentityHashMap<>();
+
+	/**
+	 * Registers the trajectories of a node under the given key. Any
+	 * trajectories previously registered under the same key are removed.
+	 *
+	 * @param key
+	 * @param node
+	 * @param trajectories
+	 * @throws NullPointerException
+	 *             if any argument is {@code null}.
+	 */
+	public void put(Object key, Node node, Collection<Trajectory> trajectories) {
+		Objects.requireNonNull(key, "key");
+		Objects.requireNonNull(node, "node");
+		Objects.requireNonNull(trajectories, "trajectories");
+
+		remove(key);
+
+		List<Entry> keyEntries = new ArrayList<>(trajectories.size());
+
+		for (Trajectory t : trajectories) {
+			if (t.isEmpty())
+				continue;
+
+			Entry e = new Entry(node, t);
+
+			tree.insert(e.envelope, e);
+			timeTree.insert(e.interval, e);
+			keyEntries.add(e);
+		}
+
+		if (!keyEntries.isEmpty())
+			entries.put(key, keyEntries);
+	}
+
+	/**
+	 * Removes all trajectories registered under the given key.
+	 *
+	 * @param key
+	 * @throws NullPointerException
+	 *             if {@code key} is {@code null}.
+	 */
+	public void remove(Object key) {
+		Objects.requireNonNull(key, "key");
+
+		Collection<Entry> keyEntries = entries.remove(key);
+
+		if (keyEntries == null)
+			return;
+
+		for (Entry e : keyEntries) {
+			tree.remove(e.envelope, e);
+			timeTree.remove(e.interval, e);
+		}
+	}
+
+	/**
+	 * Queries all trajectories overlapping the given time interval.
+	 *
+	 * @param from
+	 * @param to
+	 * @return the overlapping entries.
+	 * @throws NullPointerException
+	 *             if any argument is {@code null}.
+	 */
+	public Collection<Entry> query(LocalDateTime from, LocalDateTime to) {
+		Objects.requireNonNull(from, "from");
+		Objects.requireNonNull(to, "to");
+
+		Collection<Entry> result = new ArrayList<>();
+
+		// the quadtree only returns candidates
+		for (Object o : timeTree.query(timeEnvelope(from, to))) {
+			Entry e = (Entry) o;
+
+			if (e.overlaps(from, to))
+				result.add(e);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Queries all trajectories whose expanded envelope intersects the given
+	 * envelope and which overlap the given time interval.
+	 *
+	 * @param envelope
+	 * @param from
+	 * @param to
+	 * @return the intersecting entries.
+	 * @throws NullPointerException
+	 *             if any argument is {@code null}.
+	 */
+	public Collection<Entry> query(Envelope envelope, LocalDateTime from, LocalDateTime to) {
+		Objects.requireNonNull(envelope, "envelope");
+		Objects.requireNonNull(from, "from");
+		Objects.requireNonNull(to, "to");
+
+		Collection<Entry> result = new ArrayList<>();
+
+		// the quadtrees only return candidates, the smaller set is filtered
+		List<?> spatialCandidates = tree.query(envelope);
+		List<?> timeCandidates = timeTree.query(timeEnvelope(from, to));
+		List<?> candidates = spatialCandidates.size() <= timeCandidates.size()
+			? spatialCandidates
+			: timeCandidates;
+
+		for (Object o : candidates) {
+			Entry e = (Entry) o;
+
+			if (e.envelope.intersects(envelope) && e.overlaps(from, to))
+				result.add(e);
+		}
+
+		return result;
+	}
+
+}
@@ -0,0 +1,190 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.world;
+
+import static de.tu_berlin.mailbox.rjasper.lang.Comparables.max;
+import static java.util.Collections.unmodifiableList;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import com.vividsolutions.jts.geom.Envelope;
+
+/**
+ * <p>
+ * A static interval tree over the time intervals of dynamic obstacles. The
+ * obstacles are sorted by their start time. The tree is implicitly given by
+ * the sorted array where each subtree is rooted at the middle of its range.
+ * Each root stores the maximum finish time of its subtree, so subtrees which
+ * finish before a queried interval are skipped.
+ * </p>
+ *
+ * <p>
+ * Additionally, the envelope swept by each obstacle is stored to filter the
+ * obstacles by location. The index is immutable and can be queried
+ * concurrently.
+ * </p>
+ *
+ * @author Rico Jasper
+ */
+class DynamicObstacleIndex {
+
+	/**
+	 * The obstacles sorted by start time.
+	 */
+	private final DynamicObstacle[] obstacles;
+
+	/**
+	 * The start time of each obstacle.
+	 */
+	private final LocalDateTime[] startTimes;
+
+	/**
+	 * The finish time of each obstacle.
+	 */
+	private final LocalDateTime[] finishTimes;
+
+	/**
+	 * The maximum finish time of the subtree rooted at each obstacle.
+	 */
+	private final LocalDateTime[] maxFinishTimes;
+
+	/**
+	 * The envelope swept by each obstacle.
+	 */
+	private final Envelope[] envelopes;
+
+	/**
+	 * Constructs an index of the given obstacles.
+	 *
+	 * @param dynamicObstacles
+	 */
+	public DynamicObstacleIndex(Collection<DynamicObstacle> dynamicObstacles) {
+		int n = dynamicObstacles.size();
+
+		this.obstacles = dynamicObstacles.stream()
+			.sorted(Comparator.comparing(DynamicObstacle::getStartTime))
+			.toArray(DynamicObstacle[]::new);
+		this.startTimes = new LocalDateTime[n];
+		this.finishTimes = new LocalDateTime[n];
+		this.maxFinishTimes = new LocalDateTime[n];
+		this.envelopes = new Envelope[n];
+
+		for (int i = 0; i < n; ++i) {
+			DynamicObstacle o = obstacles[i];
+
+			startTimes[i] = o.getStartTime();
+			finishTimes[i] = o.getFinishTime();
+			envelopes[i] = sweptEnvelope(o);
+		}
+
+		initMaxFinishTimes(0, n);
+	}
+
+	/**
+	 * Calculates the envelope of the area swept by the given obstacle.
+	 *
+	 * @param obstacle
+	 * @return the envelope.
+	 */
+	private static Envelope sweptEnvelope(DynamicObstacle obstacle) {
+		Envelope path = obstacle.getSpatialPath().getEnvelope();
+		Envelope shape = obstacle.getShape().getEnvelopeInternal();
+
+		// the shape is relative to the path
+		return new Envelope(
+			path.getMinX() + shape.getMinX(),
+			path.getMaxX() + shape.getMaxX(),
+			path.getMinY() + shape.getMinY(),
+			path.getMaxY() + shape.getMaxY());
+	}
+
+	/**
+	 * Initializes the maximum finish times of the subtree of the given range.
+	 *
+	 * @param lo
+	 *            the first index of the range (inclusive).
+	 * @param hi
+	 *            the last index of the range (exclusive).
+	 * @return the maximum finish time of the range or {@code null} if the
+	 *         range is empty.
+	 */
+	private LocalDateTime initMaxFinishTimes(int lo, int hi) {
+		if (lo >= hi)
+			return null;
+
+		int mid = (lo + hi) >>> 1;
+
+		LocalDateTime maxFinishTime = finishTimes[mid];
+		LocalDateTime left = initMaxFinishTimes(lo, mid);
+		LocalDateTime right = initMaxFinishTimes(mid+1, hi);
+
+		if (left != null)
+			maxFinishTime = max(maxFinishTime, left);
+		if (right != null)
+			maxFinishTime = max(maxFinishTime, right);
+
+		maxFinishTimes[mid] = maxFinishTime;
+
+		return maxFinishTime;
+	}
+
+	/**
+	 * Queries all obstacles overlapping the given closed time interval whose
+	 * swept envelope intersects the given envelope.
+	 *
+	 * @param from
+	 * @param to
+	 * @param envelope
+	 *            the envelope or {@code null} to consider any location.
+	 * @return the obstacles.
+	 */
+	public List<DynamicObstacle> query(LocalDateTime from, LocalDateTime to, Envelope envelope) {
+		List<DynamicObstacle> result = new ArrayList<>();
+
+		query(0, obstacles.length, from, to, envelope, result);
+
+		return unmodifiableList(result);
+	}
+
+	/**
+	 * Queries the subtree of the given range.
+	 *
+	 * @param lo
+	 * @param hi
+	 * @param from
+	 * @param to
+	 * @param envelope
+	 * @param result
+	 *            the list to add the obstacles to.
+	 */
+	private void query(int lo, int hi,
+		LocalDateTime from, LocalDateTime to, Envelope envelope,
+		List<DynamicObstacle> result)
+	{
+		if (lo >= hi)
+			return;
+
+		int mid = (lo + hi) >>> 1;
+
+		// the whole subtree finishes before the interval
+		if (maxFinishTimes[mid].isBefore(from))
+			return;
+
+		query(lo, mid, from, to, envelope, result);
+
+		// the root and the right subtree start after the interval
+		if (startTimes[mid].isAfter(to))
+			return;
+
+		if (!finishTimes[mid].isBefore(from) &&
+			(envelope == null || envelopes[mid].intersects(envelope)))
+		{
+			result.add(obstacles[mid]);
+		}
+
+		query(mid+1, hi, from, to, envelope, result);
+	}
+
+}
@@ -1,19 +1,62 @@
 package de.tu_berlin.mailbox.rjasper.st_scheduler.world;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
+import com.google.common.base.Throwables;
+
 import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.Node;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.AbstractSpatialPathfinder;
 
 /**
+ * <p>
  * The {@code RadiusBasedWorldPerspectiveCache} is an implementation of the
  * {@link WorldPerspectiveCache}. The perspective on the original world is
  * determined by the radius of the individual node units. Node units of
  * the same radius will perceive the same view on the world.
+ * </p>
+ *
+ * <p>
+ * The radii can be quantized to share perspectives between node units of
+ * similar size. A radius is rounded up to the next multiple of the
+ * quantization. Therefore, the view of a node unit is never smaller than its
+ * actual shape.
+ * </p>
+ *
+ * <p>
+ * A perspective without any perceivers is discarded unless it is pre-warmed
+ * or kept as an idle perspective. The least recently used idle perspectives
+ * are evicted once their number exceeds the maximum.
+ * </p>
+ *
+ * <p>
+ * Changes of the original world are applied to all cached perspectives. Only
+ * the changed obstacle is buffered by the radius of each perspective.
+ * </p>
+ *
+ * <p>
+ * Perspectives are constructed outside of the cache's lock. Perceivers of
+ * different radii do not wait for each other while their perspectives are
+ * constructed. Perspectives can also be pre-warmed asynchronously on a
+ * {@link ForkJoinPool}.
+ * </p>
+ *
+ * <p>
+ * The cache is thread-safe.
+ * </p>
  * 
  * @author Rico Jasper
  */
@@ -31,48 +74,198 @@ public class RadiusBasedWorldPerspectiveCache extends WorldPerspectiveCache {
 	private final Map<Double, WorldPerspectiveReference> radiusReferences =
 		new HashMap<>();
 
+	/**
+	 * The unreferenced perspectives of each radius in access order.
+	 */
+	private final Map<Double, WorldPerspectiveReference> idleReferences =
+		new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * The number of landmarks precomputed for each new perspective.
+	 */
+	private int landmarkCount = 0;
+
+	/**
+	 * The quantization of the radii. Zero disables the quantization.
+	 */
+	private double radiusQuantization = 0.0;
+
+	/**
+	 * The maximum number of idle perspectives.
+	 */
+	private int maxIdlePerspectives = 0;
+
+	/**
+	 * The pool used to construct pre-warmed perspectives asynchronously.
+	 */
+	private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+
+	/**
+	 * The relative tolerance when rounding up a radius. Prevents radii which
+	 * are already a multiple of the quantization to be rounded up due to
+	 * floating point errors.
+	 */
+	private static final double QUANTIZATION_TOLERANCE = 1e-9;
+
 	/**
 	 * A helper class to track the amount of references per world perspective.
 	 */
 	private static class WorldPerspectiveReference {
 		/**
-		 * The referenced perspective.
+		 * The referenced perspective. Completed once it is constructed.
+		 */
+		private final CompletableFuture<WorldPerspective> perspective =
+			new CompletableFuture<>();
+
+		/**
+		 * Constructs the perspective. {@code null} once claimed.
 		 */
-		private final WorldPerspective perspective;
+		private Runnable construction = null;
 		
 		/**
 		 * The radius.
 		 */
 		private final double radius;
 		
+		/**
+		 * The buffered static obstacles of the perspective by their original
+		 * obstacle.
+		 */
+		private final Map<StaticObstacle, StaticObstacle> bufferedObstacles =
+			new IdentityHashMap<>();
+
 		/**
 		 * The amount of perceivers of the perspective.
 		 */
 		private int refCount = 0;
 
 		/**
-		 * Constructs a new reference of a world perspective with the given radius.
+		 * Whether the perspective is pre-warmed.
+		 */
+		private boolean pinned = false;
+
+		/**
+		 * Constructs a new reference of a world perspective with the given
+		 * radius. The perspective is yet to be constructed.
 		 * 
 		 * @param radius
-		 * @param perspective
 		 */
-		public WorldPerspectiveReference(double radius, WorldPerspective perspective) {
-			this.perspective = perspective;
+		public WorldPerspectiveReference(double radius) {
 			this.radius = radius;
 		}
 
 		/**
+		 * Sets the construction of the perspective.
+		 *
+		 * @param construction
+		 */
+		public void setConstruction(Runnable construction) {
+			this.construction = construction;
+		}
+
+		/**
+		 * Claims the construction of the perspective. Only the first caller
+		 * receives the construction and is obliged to run it.
+		 *
+		 * @return the construction or {@code null} if already claimed.
+		 */
+		public Runnable claimConstruction() {
+			Runnable construction = this.construction;
+			this.construction = null;
+
+			return construction;
+		}
+
+		/**
+		 * Completes the construction of the perspective.
+		 *
+		 * @param perspective
+		 */
+		public void complete(WorldPerspective perspective) {
+			this.perspective.complete(perspective);
+		}
+
+		/**
+		 * Completes the construction of the perspective with a failure.
+		 *
+		 * @param failure
+		 */
+		public void fail(Throwable failure) {
+			perspective.completeExceptionally(failure);
+		}
+
+		/**
+		 * Waits until the construction of the perspective is done.
+		 *
+		 * @return {@code true} if the perspective was constructed successfully.
+		 */
+		public boolean awaitConstruction() {
+			try {
+				perspective.join();
+
+				return true;
+			} catch (CompletionException | CancellationException e) {
+				return false;
+			}
+		}
+
+		/**
+		 * Registers the buffered version of an original static obstacle.
+		 *
+		 * @param original
+		 * @param buffered
+		 */
+		public void putBufferedObstacle(StaticObstacle original, StaticObstacle buffered) {
+			bufferedObstacles.put(original, buffered);
+		}
+
+		/**
+		 * Unregisters the buffered version of an original static obstacle.
+		 *
+		 * @param original
+		 * @return the buffered obstacle.
+		 */
+		public StaticObstacle removeBufferedObstacle(StaticObstacle original) {
+			return bufferedObstacles.remove(original);
+		}
+
+		/**
+		 * Waits until the perspective is constructed.
+		 *
 		 * @return the perspective.
+		 * @throws RuntimeException
+		 *             if the construction failed.
 		 */
 		public WorldPerspective getPerspective() {
-			return perspective;
+			try {
+				return perspective.join();
+			} catch (CompletionException e) {
+				throw Throwables.propagate(e.getCause());
+			}
+		}
+
+		/**
+		 * @return a future of the perspective which cannot be completed by the
+		 *         caller.
+		 */
+		public CompletableFuture<WorldPerspective> getFuture() {
+			return perspective.thenApply(Function.identity());
 		}
 		
 		/**
 		 * @return {@code true} if the perspective is referenced.
 		 */
 		public boolean isReferenced() {
-			return refCount > 0;
+			return refCount > 0 || pinned;
+		}
+
+		/**
+		 * Sets whether the perspective is pre-warmed.
+		 *
+		 * @param pinned
+		 */
+		public void setPinned(boolean pinned) {
+			this.pinned = pinned;
 		}
 
 		/**
@@ -127,6 +320,320 @@ public class RadiusBasedWorldPerspectiveCache extends WorldPerspectiveCache {
 		super(world, spatialPathfinderSupplier);
 	}
 
+	/**
+	 * @return the number of landmarks precomputed for each new perspective.
+	 */
+	public synchronized int getLandmarkCount() {
+		return landmarkCount;
+	}
+
+	/**
+	 * Sets the number of landmarks precomputed by the spatial path finder of
+	 * each new perspective. Perspectives which already exist are unaffected.
+	 *
+	 * @param landmarkCount
+	 * @throws IllegalArgumentException
+	 *             if landmarkCount is negative.
+	 * @see AbstractSpatialPathfinder#setLandmarkCount(int)
+	 */
+	public synchronized void setLandmarkCount(int landmarkCount) {
+		if (landmarkCount < 0)
+			throw new IllegalArgumentException("landmarkCount is negative");
+
+		this.landmarkCount = landmarkCount;
+	}
+
+	/**
+	 * @return the quantization of the radii.
+	 */
+	public synchronized double getRadiusQuantization() {
+		return radiusQuantization;
+	}
+
+	/**
+	 * <p>
+	 * Sets the quantization of the radii. A radius is rounded up to the next
+	 * multiple of the quantization. Node units whose radii are rounded to the
+	 * same value share a perspective. A quantization of zero disables the
+	 * quantization.
+	 * </p>
+	 *
+	 * <p>
+	 * Existing perspectives are unaffected.
+	 * </p>
+	 *
+	 * @param radiusQuantization
+	 * @throws IllegalArgumentException
+	 *             if radiusQuantization is negative or not finite.
+	 */
+	public synchronized void setRadiusQuantization(double radiusQuantization) {
+		if (!Double.isFinite(radiusQuantization) || radiusQuantization < 0.0)
+			throw new IllegalArgumentException("illegal radiusQuantization");
+
+		this.radiusQuantization = radiusQuantization;
+	}
+
+	/**
+	 * @return the maximum number of idle perspectives.
+	 */
+	public synchronized int getMaxIdlePerspectives() {
+		return maxIdlePerspectives;
+	}
+
+	/**
+	 * Sets the maximum number of idle perspectives. An idle perspective has no
+	 * perceivers and is not pre-warmed. The least recently used idle
+	 * perspectives are evicted first.
+	 *
+	 * @param maxIdlePerspectives
+	 * @throws IllegalArgumentException
+	 *             if maxIdlePerspectives is negative.
+	 */
+	public synchronized void setMaxIdlePerspectives(int maxIdlePerspectives) {
+		if (maxIdlePerspectives < 0)
+			throw new IllegalArgumentException("maxIdlePerspectives is negative");
+
+		this.maxIdlePerspectives = maxIdlePerspectives;
+
+		evictIdleReferences();
+	}
+
+	/**
+	 * Sets the pool used to construct pre-warmed perspectives asynchronously.
+	 * The default is the common pool.
+	 *
+	 * @param forkJoinPool
+	 * @throws NullPointerException
+	 *             if {@code forkJoinPool} is {@code null}.
+	 * @see #prewarmAsync(double)
+	 */
+	public synchronized void setForkJoinPool(ForkJoinPool forkJoinPool) {
+		this.forkJoinPool = Objects.requireNonNull(forkJoinPool, "forkJoinPool");
+	}
+
+	/**
+	 * @return the number of cached perspectives including the idle ones.
+	 */
+	public synchronized int size() {
+		return radiusReferences.size();
+	}
+
+	/**
+	 * Creates the perspective for the given radius in advance. The
+	 * perspective is kept until it is released, even if it has no perceivers.
+	 *
+	 * @param radius
+	 * @return the perspective.
+	 * @throws IllegalArgumentException
+	 *             if the radius is negative or not finite.
+	 * @see #release(double)
+	 */
+	public WorldPerspective prewarm(double radius) {
+		checkRadius(radius);
+
+		WorldPerspectiveReference reference;
+		Runnable construction;
+
+		synchronized (this) {
+			reference = obtainReference(quantize(radius));
+			reference.setPinned(true);
+			construction = reference.claimConstruction();
+		}
+
+		if (construction != null)
+			construction.run();
+
+		return reference.getPerspective();
+	}
+
+	/**
+	 * Creates the perspective for the given radius asynchronously. The
+	 * perspective is kept until it is released, even if it has no perceivers.
+	 * The perspective is constructed on the pool of this cache.
+	 *
+	 * @param radius
+	 * @return a future of the perspective.
+	 * @throws IllegalArgumentException
+	 *             if the radius is negative or not finite.
+	 * @see #release(double)
+	 * @see #setForkJoinPool(ForkJoinPool)
+	 */
+	public synchronized CompletableFuture<WorldPerspective> prewarmAsync(double radius) {
+		checkRadius(radius);
+
+		WorldPerspectiveReference reference = obtainReference(quantize(radius));
+		reference.setPinned(true);
+
+		Runnable construction = reference.claimConstruction();
+
+		if (construction != null)
+			forkJoinPool.execute(construction);
+
+		return reference.getFuture();
+	}
+
+	/**
+	 * Creates the perspectives for the given radii concurrently. The
+	 * perspectives are kept until they are released, even if they have no
+	 * perceivers.
+	 *
+	 * @param radii
+	 * @return a future which completes when all perspectives are constructed.
+	 * @throws NullPointerException
+	 *             if radii is {@code null} or contains {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if any radius is negative or not finite.
+	 * @see #prewarmAsync(double)
+	 */
+	public synchronized CompletableFuture<Void> prewarmAll(Collection<Double> radii) {
+		Objects.requireNonNull(radii, "radii");
+
+		for (Double radius : radii)
+			checkRadius(Objects.requireNonNull(radius, "radius"));
+
+		CompletableFuture<?>[] futures = radii.stream()
+			.map(this::prewarmAsync)
+			.toArray(CompletableFuture<?>[]::new);
+
+		return CompletableFuture.allOf(futures);
+	}
+
+	/**
+	 * Releases a pre-warmed perspective of the given radius. The perspective
+	 * is discarded or becomes idle if it has no perceivers.
+	 *
+	 * @param radius
+	 * @throws IllegalArgumentException
+	 *             if the radius is negative or not finite.
+	 * @see #prewarm(double)
+	 */
+	public synchronized void release(double radius) {
+		checkRadius(radius);
+
+		WorldPerspectiveReference reference = lookUpByRadius(quantize(radius));
+
+		if (reference == null)
+			return;
+
+		reference.setPinned(false);
+
+		if (!reference.isReferenced())
+			retireReference(reference);
+	}
+
+	/**
+	 * Checks if the given radius is valid.
+	 *
+	 * @param radius
+	 * @throws IllegalArgumentException
+	 *             if the radius is negative or not finite.
+	 */
+	private static void checkRadius(double radius) {
+		if (!Double.isFinite(radius) || radius < 0.0)
+			throw new IllegalArgumentException("illegal radius");
+	}
+
+	/**
+	 * Rounds up the given radius to the next multiple of the quantization.
+	 *
+	 * @param radius
+	 * @return the quantized radius.
+	 */
+	private double quantize(double radius) {
+		if (radiusQuantization == 0.0)
+			return radius;
+
+		double multiple = Math.ceil(radius / radiusQuantization - QUANTIZATION_TOLERANCE);
+
+		return Math.max(0.0, multiple) * radiusQuantization;
+	}
+
+	/**
+	 * Looks up the reference of the given quantized radius. Creates the
+	 * reference if necessary. The construction of a new perspective must be
+	 * claimed and run by the caller outside of the lock. The reference is no
+	 * longer idle.
+	 *
+	 * @param radius
+	 * @return the reference.
+	 */
+	private WorldPerspectiveReference obtainReference(double radius) {
+		// perspective for radius might already exist
+		WorldPerspectiveReference reference = lookUpByRadius(radius);
+
+		// perspective for radius does not exist yet
+		if (reference == null) {
+			reference = createReference(radius);
+			addRadiusReference(radius, reference);
+		} else {
+			idleReferences.remove(radius);
+		}
+
+		return reference;
+	}
+
+	/**
+	 * Discards an unreferenced perspective or keeps it as an idle
+	 * perspective.
+	 *
+	 * @param reference
+	 */
+	private void retireReference(WorldPerspectiveReference reference) {
+		idleReferences.put(reference.getRadius(), reference);
+
+		evictIdleReferences();
+	}
+
+	/**
+	 * Discards a reference whose perspective could not be constructed. Its
+	 * perceivers are forgotten.
+	 *
+	 * @param reference
+	 */
+	private void discardReference(WorldPerspectiveReference reference) {
+		double radius = reference.getRadius();
+
+		if (radiusReferences.get(radius) == reference)
+			removeRadiusReference(radius);
+		if (idleReferences.get(radius) == reference)
+			idleReferences.remove(radius);
+
+		perceiverReferences.values().removeIf(r -> r == reference);
+	}
+
+	/**
+	 * Waits for all pending constructions of cached perspectives. Requires
+	 * the lock. Since the constructions never wait for the lock, this cannot
+	 * deadlock.
+	 *
+	 * @return the references of all constructed perspectives.
+	 */
+	private List<WorldPerspectiveReference> constructedReferences() {
+		List<WorldPerspectiveReference> references = new ArrayList<>(radiusReferences.size());
+
+		for (WorldPerspectiveReference reference : radiusReferences.values()) {
+			if (reference.awaitConstruction())
+				references.add(reference);
+		}
+
+		return references;
+	}
+
+	/**
+	 * Evicts the least recently used idle perspectives until the maximum
+	 * number of idle perspectives is not exceeded.
+	 */
+	private void evictIdleReferences() {
+		Iterator<WorldPerspectiveReference> it = idleReferences.values().iterator();
+
+		while (idleReferences.size() > maxIdlePerspectives) {
+			WorldPerspectiveReference eldest = it.next();
+
+			it.remove();
+			removeRadiusReference(eldest.getRadius());
+		}
+	}
+
 	/**
 	 * Adds a new reference for the given radius.
 	 * 
@@ -193,21 +700,120 @@ public class RadiusBasedWorldPerspectiveCache extends WorldPerspectiveCache {
 	}
 
 	/**
-	 * Creates a new perspective for the given radius.
+	 * Creates a new reference for the given radius. The construction of its
+	 * perspective uses the current world and settings.
 	 * 
 	 * @param radius
+	 * @return the reference.
+	 */
+	private WorldPerspectiveReference createReference(double radius) {
+		World original = getWorld();
+		int landmarkCount = this.landmarkCount;
+
+		WorldPerspectiveReference reference = new WorldPerspectiveReference(radius);
+		reference.setConstruction(() -> construct(reference, original, landmarkCount));
+
+		return reference;
+	}
+
+	/**
+	 * Constructs the perspective of the given reference. Does not require the
+	 * lock.
+	 *
+	 * @param reference
+	 * @param original
+	 *            the original world.
+	 * @param landmarkCount
+	 *            the number of landmarks.
+	 */
+	private void construct(WorldPerspectiveReference reference, World original, int landmarkCount) {
+		WorldPerspective perspective;
+		try {
+			perspective = createPerspective(reference, original, landmarkCount);
+		} catch (RuntimeException | Error e) {
+			// fail before acquiring the lock since updates might wait for it
+			reference.fail(e);
+
+			synchronized (this) {
+				discardReference(reference);
+			}
+
+			return;
+		}
+
+		reference.complete(perspective);
+	}
+
+	/**
+	 * Creates a new perspective for the given reference.
+	 * 
+	 * @param reference
+	 * @param original
+	 *            the original world.
+	 * @param landmarkCount
+	 *            the number of landmarks.
 	 * @return the perspective.
 	 */
-	private WorldPerspectiveReference createPerspective(double radius) {
-		World world = getWorld().buffer(radius);
+	private WorldPerspective createPerspective(
+		WorldPerspectiveReference reference, World original, int landmarkCount)
+	{
+		World world = original.buffer(reference.getRadius());
 	
 		AbstractSpatialPathfinder spatialPathfinder = createSpatialPathfinder();
-		spatialPathfinder.setStaticObstacles(world.getStaticObstacles());
+		spatialPathfinder.setLandmarkCount(landmarkCount);
 	
+		// the perspective sets the static obstacles
 		WorldPerspective perspective = new WorldPerspective(world, spatialPathfinder);
-		WorldPerspectiveReference reference = new WorldPerspectiveReference(radius, perspective);
+
+		// buffering preserves the order of the obstacles
+		Iterator<StaticObstacle> buffered = world.getStaticObstacles().iterator();
+		for (StaticObstacle o : original.getStaticObstacles())
+			reference.putBufferedObstacle(o, buffered.next());
 	
-		return reference;
+		return perspective;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see de.tu_berlin.mailbox.rjasper.st_scheduler.world.WorldPerspectiveCache#addStaticObstacle(de.tu_berlin.mailbox.rjasper.st_scheduler.world.StaticObstacle)
+	 */
+	@Override
+	public synchronized void addStaticObstacle(StaticObstacle obstacle) {
+		setWorld(getWorld().withStaticObstacle(obstacle));
+
+		for (WorldPerspectiveReference reference : constructedReferences()) {
+			StaticObstacle buffered = obstacle.buffer(reference.getRadius());
+
+			reference.putBufferedObstacle(obstacle, buffered);
+			reference.getPerspective().addStaticObstacle(buffered);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see de.tu_berlin.mailbox.rjasper.st_scheduler.world.WorldPerspectiveCache#removeStaticObstacle(de.tu_berlin.mailbox.rjasper.st_scheduler.world.StaticObstacle)
+	 */
+	@Override
+	public synchronized void removeStaticObstacle(StaticObstacle obstacle) {
+		setWorld(getWorld().withoutStaticObstacle(obstacle));
+
+		for (WorldPerspectiveReference reference : constructedReferences()) {
+			StaticObstacle buffered = reference.removeBufferedObstacle(obstacle);
+
+			reference.getPerspective().removeStaticObstacle(buffered);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see de.tu_berlin.mailbox.rjasper.st_scheduler.world.WorldPerspectiveCache#addDynamicObstacle(de.tu_berlin.mailbox.rjasper.st_scheduler.world.DynamicObstacle)
+	 */
+	@Override
+	public synchronized void addDynamicObstacle(DynamicObstacle obstacle) {
+		setWorld(getWorld().withDynamicObstacle(obstacle));
+
+		for (WorldPerspectiveReference reference : constructedReferences())
+			reference.getPerspective().addDynamicObstacle(obstacle.buffer(reference.getRadius()));
 	}
 
 	/*
@@ -219,26 +825,26 @@ public class RadiusBasedWorldPerspectiveCache extends WorldPerspectiveCache {
 		Objects.requireNonNull(perceiver, "perceiver");
 		
 		WorldPerspectiveReference reference;
+		Runnable construction = null;
 
-		// perceiver might already be known
-		reference = lookUpByPerceiver(perceiver);
-
-		// if perceiver is unknown
-		if (reference == null) {
-			double radius = perceiver.getRadius();
-			
-			// perspective for radius might already exist
-			reference = lookUpByRadius(radius);
+		synchronized (this) {
+			// perceiver might already be known
+			reference = lookUpByPerceiver(perceiver);
 
-			// perspective for radius does not exist yet
+			// if perceiver is unknown
 			if (reference == null) {
-				reference = createPerspective(radius);
-				addRadiusReference(radius, reference);
-			}
+				double radius = quantize(perceiver.getRadius());
 
-			addPerceiverReference(perceiver, reference);
+				reference = obtainReference(radius);
+				addPerceiverReference(perceiver, reference);
+				construction = reference.claimConstruction();
+			}
 		}
 
+		// other perceivers are not blocked during the construction
+		if (construction != null)
+			construction.run();
+
 		return reference.getPerspective();
 	}
 
@@ -247,7 +853,7 @@ public class RadiusBasedWorldPerspectiveCache extends WorldPerspectiveCache {
 	 * @see world.WorldPerspectiveCache#removePerceiver(jobs.Node)
 	 */
 	@Override
-	public void removePerceiver(Node perceiver) {
+	public synchronized void removePerceiver(Node perceiver) {
 		Objects.requireNonNull(perceiver, "perceiver");
 		
 		WorldPerspectiveReference reference = lookUpByPerceiver(perceiver);
@@ -259,7 +865,7 @@ public class RadiusBasedWorldPerspectiveCache extends WorldPerspectiveCache {
 		removePerceiverReference(perceiver);
 
 		if (!reference.isReferenced())
-			removeRadiusReference(reference.getRadius());
+			retireReference(reference);
 	}
 
 }
@@ -4,14 +4,26 @@ import static de.tu_berlin.mailbox.rjasper.collect.Immutables.immutable;
 import static de.tu_berlin.mailbox.rjasper.collect.ImmutablesCollectors.toImmutableList;
 import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutableMultiPolygon;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableList;
+import com.vividsolutions.jts.algorithm.PointLocator;
+import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Location;
+import com.vividsolutions.jts.geom.Point;
 import com.vividsolutions.jts.geom.Polygon;
 import com.vividsolutions.jts.geom.util.GeometryExtracter;
+import com.vividsolutions.jts.index.strtree.STRtree;
 
 import de.tu_berlin.mailbox.rjasper.collect.CollectionsRequire;
 import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePolygon;
@@ -20,12 +32,25 @@ import de.tu_berlin.mailbox.rjasper.jts.geom.util.GeometriesRequire;
 /**
  * The {@code World} represents the physical outside world containing any
  * independent static or dynamic obstacles. Once created the world cannot be
- * changed.
+ * changed. Instead, updated worlds are derived from existing ones. Each
+ * derived world has a greater version than its origin.
+ *
+ * <p>
+ * The polygons of the map are indexed by an STR-tree. Queries of the map
+ * only consider the polygons near the queried geometry. The dynamic obstacles
+ * are indexed by their time intervals to look up the obstacles relevant to a
+ * planning window.
+ * </p>
  *
  * @author Rico Jasper
  */
 public class World {
 
+	/**
+	 * The minimum number of obstacles to buffer in parallel.
+	 */
+	private static final int PARALLEL_THRESHOLD = 64;
+
 	/**
 	 * The stationary obstacles of this world.
 	 */
@@ -36,11 +61,26 @@ public class World {
 	 */
 	private final ImmutableCollection<DynamicObstacle> dynamicObstacles;
 
+	/**
+	 * The temporal index of the moving obstacles.
+	 */
+	private final DynamicObstacleIndex dynamicObstacleIndex;
+
 	/**
 	 * The union of all static obstacles.
 	 */
 	private final Geometry map;
 
+	/**
+	 * The spatial index of the polygons of the map.
+	 */
+	private final STRtree mapIndex;
+
+	/**
+	 * The version of this world.
+	 */
+	private final long version;
+
 	/**
 	 * Creates an empty World without any obstacles.
 	 */
@@ -65,7 +105,72 @@ public class World {
 
 		this.staticObstacles = immutable(staticObstacles);
 		this.dynamicObstacles = immutable(dynamicObstacles);
+		this.dynamicObstacleIndex = new DynamicObstacleIndex(dynamicObstacles);
 		this.map = makeMap(staticObstacles);
+		this.mapIndex = makeMapIndex(map);
+		this.version = 0L;
+	}
+
+	/**
+	 * Constructs a new {@code World} from precomputed components.
+	 *
+	 * @param staticObstacles
+	 * @param dynamicObstacles
+	 * @param dynamicObstacleIndex
+	 * @param map
+	 * @param mapIndex
+	 * @param version
+	 */
+	private World(
+		ImmutableCollection<StaticObstacle> staticObstacles,
+		ImmutableCollection<DynamicObstacle> dynamicObstacles,
+		DynamicObstacleIndex dynamicObstacleIndex,
+		Geometry map,
+		STRtree mapIndex,
+		long version)
+	{
+		this.staticObstacles = staticObstacles;
+		this.dynamicObstacles = dynamicObstacles;
+		this.dynamicObstacleIndex = dynamicObstacleIndex;
+		this.map = map;
+		this.mapIndex = mapIndex;
+		this.version = version;
+	}
+
+	/**
+	 * Creates the spatial index of the polygons of the map. The index is
+	 * built eagerly so that it can be queried concurrently.
+	 *
+	 * @param map
+	 * @return the index.
+	 */
+	private static STRtree makeMapIndex(Geometry map) {
+		STRtree index = new STRtree();
+
+		int n = map.getNumGeometries();
+		for (int i = 0; i < n; ++i) {
+			Geometry polygon = map.getGeometryN(i);
+
+			index.insert(polygon.getEnvelopeInternal(), polygon);
+		}
+
+		index.build();
+
+		return index;
+	}
+
+	/**
+	 * Looks up the polygons of the map whose envelopes intersect with the
+	 * envelope of the given geometry.
+	 *
+	 * @param geometry
+	 * @return the candidate polygons.
+	 */
+	private List<Polygon> candidates(Geometry geometry) {
+		@SuppressWarnings("unchecked")
+		List<Polygon> candidates = (List<Polygon>) mapIndex.query(geometry.getEnvelopeInternal());
+
+		return candidates;
 	}
 
 	/**
@@ -94,6 +199,13 @@ public class World {
 		return map;
 	}
 
+	/**
+	 * @return the version of this world.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
 	/**
 	 * @return the stationary obstacles of this world.
 	 */
@@ -108,6 +220,66 @@ public class World {
 		return dynamicObstacles;
 	}
 
+	/**
+	 * Returns the moving obstacles which overlap the given closed time
+	 * interval.
+	 *
+	 * @param from
+	 * @param to
+	 * @return the moving obstacles.
+	 * @throws NullPointerException
+	 *             if any argument is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if {@code from} is after {@code to}.
+	 */
+	public Collection<DynamicObstacle> getDynamicObstacles(LocalDateTime from, LocalDateTime to) {
+		checkTimeInterval(from, to);
+
+		return dynamicObstacleIndex.query(from, to, null);
+	}
+
+	/**
+	 * Returns the moving obstacles which overlap the given closed time
+	 * interval and might come close to the given envelope. An obstacle is
+	 * considered if the envelope of the area it sweeps intersects the given
+	 * envelope.
+	 *
+	 * @param from
+	 * @param to
+	 * @param envelope
+	 * @return the moving obstacles.
+	 * @throws NullPointerException
+	 *             if any argument is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if {@code from} is after {@code to}.
+	 */
+	public Collection<DynamicObstacle> getDynamicObstacles(
+		LocalDateTime from, LocalDateTime to, Envelope envelope)
+	{
+		checkTimeInterval(from, to);
+		Objects.requireNonNull(envelope, "envelope");
+
+		return dynamicObstacleIndex.query(from, to, envelope);
+	}
+
+	/**
+	 * Checks if the given time interval is valid.
+	 *
+	 * @param from
+	 * @param to
+	 * @throws NullPointerException
+	 *             if any argument is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if {@code from} is after {@code to}.
+	 */
+	private static void checkTimeInterval(LocalDateTime from, LocalDateTime to) {
+		Objects.requireNonNull(from, "from");
+		Objects.requireNonNull(to, "to");
+
+		if (from.isAfter(to))
+			throw new IllegalArgumentException("invalid time interval");
+	}
+
 	/**
 	 * @return the map which is the union of all static obstacles.
 	 */
@@ -115,6 +287,40 @@ public class World {
 		return map;
 	}
 
+	/**
+	 * Tests if the given location lies in the interior of the map.
+	 *
+	 * @param location
+	 * @return {@code true} if the location is occupied by a static obstacle.
+	 * @throws NullPointerException
+	 *             if {@code location} is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if {@code location} is empty, invalid, or not 2D.
+	 */
+	public boolean contains(Point location) {
+		GeometriesRequire.requireValid2DPoint(location, "location");
+
+		return candidates(location).stream()
+			// point locators are stateful, one per test keeps this thread-safe
+			.anyMatch(p -> new PointLocator().locate(location.getCoordinate(), p) == Location.INTERIOR);
+	}
+
+	/**
+	 * Tests if the given geometry intersects with the map.
+	 *
+	 * @param geometry
+	 * @return {@code true} if the geometry touches or overlaps any static
+	 *         obstacle.
+	 * @throws NullPointerException
+	 *             if {@code geometry} is {@code null}.
+	 */
+	public boolean intersects(Geometry geometry) {
+		Objects.requireNonNull(geometry, "geometry");
+
+		return candidates(geometry).stream()
+			.anyMatch(p -> p.intersects(geometry));
+	}
+
 	/**
 	 * Calculates the free space of an area of the worlds map.
 	 *
@@ -129,7 +335,9 @@ public class World {
 	public Geometry space(Geometry mask) {
 		GeometriesRequire.requireValidSimple2DGeometry(mask, "mask");
 
-		Geometry map = getMap();
+		// only the polygons near the mask are relevant
+		List<Polygon> candidates = candidates(mask);
+		Geometry map = immutableMultiPolygon(candidates.toArray(new Polygon[candidates.size()]));
 		Geometry space = mask.difference(map);
 
 		return space;
@@ -146,14 +354,172 @@ public class World {
 		if (!Double.isFinite(distance))
 			throw new IllegalArgumentException("distance is not finite");
 
-		ImmutableList<StaticObstacle> staticObstacles = getStaticObstacles().stream()
+		// the obstacles are buffered independently and keep their order
+		ImmutableList<StaticObstacle> staticObstacles = stream(getStaticObstacles())
 			.map(o -> o.buffer(distance)) // buffer always returns a polygon
 			.collect(toImmutableList());
-		ImmutableList<DynamicObstacle> dynamicObstacles = getDynamicObstacles().stream()
+		ImmutableList<DynamicObstacle> dynamicObstacles = stream(getDynamicObstacles())
 			.map(o -> o.buffer(distance))
 			.collect(toImmutableList());
 
-		return new World(staticObstacles, dynamicObstacles);
+		Geometry map = makeMap(staticObstacles);
+
+		return new World(
+			staticObstacles,
+			dynamicObstacles,
+			new DynamicObstacleIndex(dynamicObstacles),
+			map,
+			makeMapIndex(map),
+			version);
+	}
+
+	/**
+	 * Streams the given obstacles. The stream is parallel if there are
+	 * enough obstacles.
+	 *
+	 * @param obstacles
+	 * @return the stream.
+	 */
+	private static <T> Stream<T> stream(Collection<T> obstacles) {
+		return obstacles.size() >= PARALLEL_THRESHOLD
+			? obstacles.parallelStream()
+			: obstacles.stream();
+	}
+
+	/**
+	 * Derives a new World which additionally contains the given static
+	 * obstacle. Only the polygons of the map overlapping with the obstacle
+	 * are merged.
+	 *
+	 * @param obstacle
+	 * @return the new world.
+	 * @throws NullPointerException
+	 *             if {@code obstacle} is {@code null}.
+	 */
+	public World withStaticObstacle(StaticObstacle obstacle) {
+		Objects.requireNonNull(obstacle, "obstacle");
+
+		ImmutableList<StaticObstacle> staticObstacles = ImmutableList.<StaticObstacle>builder()
+			.addAll(getStaticObstacles())
+			.add(obstacle)
+			.build();
+
+		Geometry map = mapWith(obstacle.getShape());
+
+		return new World(
+			staticObstacles,
+			dynamicObstacles,
+			dynamicObstacleIndex,
+			map,
+			makeMapIndex(map),
+			version + 1);
+	}
+
+	/**
+	 * Merges the given shape into the map.
+	 *
+	 * @param shape
+	 * @return the new map.
+	 */
+	private Geometry mapWith(Polygon shape) {
+		Set<Polygon> overlapping = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		for (Polygon p : candidates(shape)) {
+			if (p.intersects(shape))
+				overlapping.add(p);
+		}
+
+		List<Polygon> polygons = new ArrayList<>(map.getNumGeometries() + 1);
+
+		int n = map.getNumGeometries();
+		for (int i = 0; i < n; ++i) {
+			Polygon p = (Polygon) map.getGeometryN(i);
+
+			if (!overlapping.contains(p))
+				polygons.add(p);
+		}
+
+		if (overlapping.isEmpty()) {
+			polygons.add(shape);
+		} else {
+			overlapping.add(shape);
+
+			Geometry union = immutableMultiPolygon(overlapping.toArray(new Polygon[overlapping.size()]))
+				.union(); // produces GeometryCollection
+
+			@SuppressWarnings("unchecked")
+			List<Polygon> merged = (List<Polygon>) GeometryExtracter.extract(union, Polygon.class);
+
+			polygons.addAll(merged);
+		}
+
+		return immutableMultiPolygon(polygons.toArray(new Polygon[polygons.size()]));
+	}
+
+	/**
+	 * Derives a new World which does not contain the given static obstacle.
+	 * The obstacle is identified by reference.
+	 *
+	 * @param obstacle
+	 * @return the new world.
+	 * @throws NullPointerException
+	 *             if {@code obstacle} is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if the obstacle is not part of this world.
+	 */
+	public World withoutStaticObstacle(StaticObstacle obstacle) {
+		Objects.requireNonNull(obstacle, "obstacle");
+
+		ImmutableList.Builder<StaticObstacle> builder = ImmutableList.builder();
+		boolean found = false;
+
+		for (StaticObstacle o : getStaticObstacles()) {
+			if (!found && o == obstacle)
+				found = true;
+			else
+				builder.add(o);
+		}
+
+		if (!found)
+			throw new IllegalArgumentException("unknown obstacle");
+
+		ImmutableList<StaticObstacle> staticObstacles = builder.build();
+
+		Geometry map = makeMap(staticObstacles);
+
+		return new World(
+			staticObstacles,
+			dynamicObstacles,
+			dynamicObstacleIndex,
+			map,
+			makeMapIndex(map),
+			version + 1);
+	}
+
+	/**
+	 * Derives a new World which additionally contains the given dynamic
+	 * obstacle.
+	 *
+	 * @param obstacle
+	 * @return the new world.
+	 * @throws NullPointerException
+	 *             if {@code obstacle} is {@code null}.
+	 */
+	public World withDynamicObstacle(DynamicObstacle obstacle) {
+		Objects.requireNonNull(obstacle, "obstacle");
+
+		ImmutableList<DynamicObstacle> dynamicObstacles = ImmutableList.<DynamicObstacle>builder()
+			.addAll(getDynamicObstacles())
+			.add(obstacle)
+			.build();
+
+		return new World(
+			staticObstacles,
+			dynamicObstacles,
+			new DynamicObstacleIndex(dynamicObstacles),
+			map,
+			mapIndex,
+			version + 1);
 	}
 
 }
@@ -11,6 +11,11 @@ import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.AbstractSpatia
  * collision avoidance the world needs to be buffered by the extend of the
  * node's shape. This enables an easier implementation of navigating through
  * the world.
+ *
+ * <p>
+ * The perspective is updated incrementally by its {@link WorldPerspectiveCache}
+ * when the original world changes.
+ * </p>
  * 
  * @author Rico Jasper
  */
@@ -19,7 +24,7 @@ public class WorldPerspective {
 	/**
 	 * The individual view on the world for this perspective.
 	 */
-	private final World view;
+	private volatile World view;
 
 	/**
 	 * The spatial pathfinder of the view.
@@ -57,4 +62,37 @@ public class WorldPerspective {
 		return spatialPathfinder;
 	}
 
+	/**
+	 * Adds a static obstacle to the view and to the spatial pathfinder.
+	 *
+	 * @param obstacle
+	 *            the obstacle already buffered for this perspective.
+	 */
+	synchronized void addStaticObstacle(StaticObstacle obstacle) {
+		view = view.withStaticObstacle(obstacle);
+		spatialPathfinder.addStaticObstacle(obstacle);
+	}
+
+	/**
+	 * Removes a static obstacle from the view and from the spatial
+	 * pathfinder.
+	 *
+	 * @param obstacle
+	 *            the obstacle as buffered for this perspective.
+	 */
+	synchronized void removeStaticObstacle(StaticObstacle obstacle) {
+		view = view.withoutStaticObstacle(obstacle);
+		spatialPathfinder.removeStaticObstacle(obstacle);
+	}
+
+	/**
+	 * Adds a dynamic obstacle to the view.
+	 *
+	 * @param obstacle
+	 *            the obstacle already buffered for this perspective.
+	 */
+	synchronized void addDynamicObstacle(DynamicObstacle obstacle) {
+		view = view.withDynamicObstacle(obstacle);
+	}
+
 }
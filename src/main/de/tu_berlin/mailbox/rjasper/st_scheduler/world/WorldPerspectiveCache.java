@@ -17,7 +17,7 @@ public abstract class WorldPerspectiveCache {
 	/**
 	 * The original world.
 	 */
-	private final World world;
+	private volatile World world;
 
 	/**
 	 * The spatial pathfinder supplier. Supplies pathfinders for world views.
@@ -86,6 +86,44 @@ public abstract class WorldPerspectiveCache {
 		return world;
 	}
 
+	/**
+	 * Sets the original world.
+	 *
+	 * @param world
+	 * @throws NullPointerException if {@code world} is {@code null}.
+	 */
+	protected void setWorld(World world) {
+		this.world = Objects.requireNonNull(world, "world");
+	}
+
+	/**
+	 * Adds a static obstacle to the original world and to all cached
+	 * perspectives.
+	 *
+	 * @param obstacle
+	 * @throws NullPointerException if {@code obstacle} is {@code null}.
+	 */
+	public abstract void addStaticObstacle(StaticObstacle obstacle);
+
+	/**
+	 * Removes a static obstacle from the original world and from all cached
+	 * perspectives. The obstacle is identified by reference.
+	 *
+	 * @param obstacle
+	 * @throws NullPointerException if {@code obstacle} is {@code null}.
+	 * @throws IllegalArgumentException if the obstacle is unknown.
+	 */
+	public abstract void removeStaticObstacle(StaticObstacle obstacle);
+
+	/**
+	 * Adds a dynamic obstacle to the original world and to all cached
+	 * perspectives.
+	 *
+	 * @param obstacle
+	 * @throws NullPointerException if {@code obstacle} is {@code null}.
+	 */
+	public abstract void addDynamicObstacle(DynamicObstacle obstacle);
+
 	/**
 	 * Returns the perspective of the world for the given perceiver
 	 * 
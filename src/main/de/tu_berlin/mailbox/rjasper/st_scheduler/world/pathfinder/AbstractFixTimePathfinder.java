@@ -29,6 +29,15 @@ public abstract class AbstractFixTimePathfinder extends AbstractVelocityPathfind
 	protected LocalDateTime getBaseTime() {
 		return getStartTime();
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.AbstractVelocityPathfinder#getLatestTime()
+	 */
+	@Override
+	protected LocalDateTime getLatestTime() {
+		return getFinishTime();
+	}
 	
 	/**
 	 * @return the start time.
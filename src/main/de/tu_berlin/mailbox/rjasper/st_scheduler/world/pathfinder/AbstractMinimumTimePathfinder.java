@@ -1,5 +1,6 @@
 package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
 
+import java.time.DateTimeException;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Objects;
@@ -42,6 +43,20 @@ public abstract class AbstractMinimumTimePathfinder extends AbstractVelocityPath
 		return getStartTime();
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.AbstractVelocityPathfinder#getLatestTime()
+	 */
+	@Override
+	protected LocalDateTime getLatestTime() {
+		// the buffer might extend beyond the latest representable time
+		try {
+			return getLatestFinishTime().plus(getBufferDuration());
+		} catch (DateTimeException | ArithmeticException e) {
+			return LocalDateTime.MAX;
+		}
+	}
+
 	/**
 	 * @return the start time.
 	 */
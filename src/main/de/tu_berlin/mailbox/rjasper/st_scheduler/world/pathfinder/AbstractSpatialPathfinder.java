@@ -1,9 +1,15 @@
 package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
 
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.lineString;
 import static java.util.Collections.unmodifiableCollection;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
 
+import com.vividsolutions.jts.geom.LineString;
 import com.vividsolutions.jts.geom.Point;
 
 import de.tu_berlin.mailbox.rjasper.collect.CollectionsRequire;
@@ -60,6 +66,105 @@ public abstract class AbstractSpatialPathfinder {
 		this.staticObstacles = unmodifiableCollection(staticObstacles);
 	}
 
+	/**
+	 * <p>
+	 * Adds a static obstacle to avoid.
+	 * </p>
+	 *
+	 * <p>
+	 * The default implementation sets the static obstacles anew.
+	 * Implementations with precomputed data are encouraged to update it
+	 * incrementally.
+	 * </p>
+	 *
+	 * @param obstacle
+	 * @throws NullPointerException
+	 *             if obstacle is {@code null}.
+	 * @throws IllegalStateException
+	 *             if the static obstacles are not set.
+	 */
+	public void addStaticObstacle(StaticObstacle obstacle) {
+		setStaticObstacles(staticObstaclesWith(obstacle));
+	}
+
+	/**
+	 * <p>
+	 * Removes a static obstacle. The obstacle is identified by reference.
+	 * </p>
+	 *
+	 * <p>
+	 * The default implementation sets the static obstacles anew.
+	 * Implementations with precomputed data are encouraged to update it
+	 * incrementally.
+	 * </p>
+	 *
+	 * @param obstacle
+	 * @throws NullPointerException
+	 *             if obstacle is {@code null}.
+	 * @throws IllegalStateException
+	 *             if the static obstacles are not set.
+	 * @throws IllegalArgumentException
+	 *             if the obstacle is unknown.
+	 */
+	public void removeStaticObstacle(StaticObstacle obstacle) {
+		setStaticObstacles(staticObstaclesWithout(obstacle));
+	}
+
+	/**
+	 * Returns the current static obstacles including the given one.
+	 *
+	 * @param obstacle
+	 * @return the new static obstacles.
+	 * @throws NullPointerException
+	 *             if obstacle is {@code null}.
+	 * @throws IllegalStateException
+	 *             if the static obstacles are not set.
+	 */
+	protected Collection<StaticObstacle> staticObstaclesWith(StaticObstacle obstacle) {
+		Objects.requireNonNull(obstacle, "obstacle");
+
+		if (staticObstacles == null)
+			throw new IllegalStateException("staticObstacles not set");
+
+		List<StaticObstacle> result = new ArrayList<>(staticObstacles.size() + 1);
+
+		result.addAll(staticObstacles);
+		result.add(obstacle);
+
+		return result;
+	}
+
+	/**
+	 * Returns the current static obstacles excluding the given one.
+	 *
+	 * @param obstacle
+	 * @return the new static obstacles.
+	 * @throws NullPointerException
+	 *             if obstacle is {@code null}.
+	 * @throws IllegalStateException
+	 *             if the static obstacles are not set.
+	 * @throws IllegalArgumentException
+	 *             if the obstacle is unknown.
+	 */
+	protected Collection<StaticObstacle> staticObstaclesWithout(StaticObstacle obstacle) {
+		Objects.requireNonNull(obstacle, "obstacle");
+
+		if (staticObstacles == null)
+			throw new IllegalStateException("staticObstacles not set");
+
+		List<StaticObstacle> result = new ArrayList<>(staticObstacles);
+
+		for (Iterator<StaticObstacle> it = result.iterator(); it.hasNext();) {
+			if (it.next() == obstacle) {
+				it.remove();
+
+				return result;
+			}
+		}
+
+		throw new IllegalArgumentException("unknown obstacle");
+	}
+
 	/**
 	 * @return the calculated spatial path.
 	 */
@@ -145,6 +250,97 @@ public abstract class AbstractSpatialPathfinder {
 		return !spatialPath.isEmpty();
 	}
 
+	/**
+	 * <p>
+	 * Calculates the path between the given locations. Avoids the specified
+	 * obstacles.
+	 * </p>
+	 *
+	 * <p>
+	 * Unlike {@link #calculate()} this method is safe to be called by multiple
+	 * threads sharing the same path finder. The default implementation
+	 * serializes the calls. Implementations with a read-only query are
+	 * encouraged to override it.
+	 * </p>
+	 *
+	 * @param startLocation
+	 * @param finishLocation
+	 * @return the path or an empty path if no path could be found.
+	 * @throws NullPointerException
+	 *             if any argument is {@code null}.
+	 * @throws IllegalStateException
+	 *             if the static obstacles are not set.
+	 */
+	public synchronized SpatialPath findSpatialPath(Point startLocation, Point finishLocation) {
+		setStartLocation(startLocation);
+		setFinishLocation(finishLocation);
+
+		calculate();
+
+		return getResultSpatialPath();
+	}
+
+	/**
+	 * Sets the number of landmarks which are precomputed to speed up repeated
+	 * queries. Path finders without landmark support ignore it.
+	 *
+	 * @param landmarkCount
+	 * @throws IllegalArgumentException
+	 *             if landmarkCount is negative.
+	 */
+	public void setLandmarkCount(int landmarkCount) {
+		if (landmarkCount < 0)
+			throw new IllegalArgumentException("landmarkCount is negative");
+	}
+
+	/**
+	 * <p>
+	 * Returns a lower bound of the length of the path between the given
+	 * locations. The default implementation returns the euclidean distance.
+	 * </p>
+	 *
+	 * <p>
+	 * Implementations must be thread-safe.
+	 * </p>
+	 *
+	 * @param from
+	 * @param to
+	 * @return the lower bound. {@link Double#POSITIVE_INFINITY} if the
+	 *         locations are known to be unconnected.
+	 */
+	public double distanceLowerBound(Point from, Point to) {
+		return from.distance(to);
+	}
+
+	/**
+	 * <p>
+	 * Determines whether the straight line between the given locations avoids
+	 * all static obstacles. The default implementation tests whether the line
+	 * intersects the interior of any obstacle.
+	 * </p>
+	 *
+	 * <p>
+	 * Implementations must be thread-safe.
+	 * </p>
+	 *
+	 * @param from
+	 * @param to
+	 * @return {@code true} if the line avoids all static obstacles.
+	 * @throws IllegalStateException
+	 *             if the static obstacles are not set.
+	 */
+	public boolean isVisible(Point from, Point to) {
+		Collection<StaticObstacle> staticObstacles = getStaticObstacles();
+
+		if (staticObstacles == null)
+			throw new IllegalStateException("some parameters are not set");
+
+		LineString line = lineString(from.getX(), from.getY(), to.getX(), to.getY());
+
+		return staticObstacles.stream()
+			.noneMatch(o -> o.getShape().relate(line, "T********"));
+	}
+
 	/**
 	 * The actual implementation to calculate the spatial path.
 	 * 
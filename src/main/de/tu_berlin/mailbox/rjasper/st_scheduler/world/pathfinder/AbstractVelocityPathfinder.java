@@ -15,6 +15,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.function.BiFunction;
+import java.util.function.IntToDoubleFunction;
 
 import de.tu_berlin.mailbox.rjasper.collect.CollectionsRequire;
 import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePoint;
@@ -38,6 +39,23 @@ public abstract class AbstractVelocityPathfinder {
 	protected static final BiFunction<ImmutablePoint, ImmutablePoint, Double> WEIGHT_CALCULATOR =
 		(s, t) -> s.getX() == t.getX() ? 0.0 : t.getY() - s.getY();
 
+	/**
+	 * Creates an A* heuristic for meshes weighted by the
+	 * {@link #WEIGHT_CALCULATOR}. The weight of a path equals the time spent
+	 * moving. Therefore, the remaining arc divided by the maximum speed never
+	 * overestimates the remaining weight.
+	 *
+	 * @param mesh
+	 * @param finishArc
+	 * @param maxSpeed
+	 * @return the heuristic.
+	 */
+	protected static IntToDoubleFunction remainingTimeHeuristic(
+		ArcTimeGraph mesh, double finishArc, double maxSpeed)
+	{
+		return v -> Math.max(0.0, finishArc - mesh.getArc(v)) / maxSpeed;
+	}
+
 	/**
 	 * The forbidden region builder.
 	 */
@@ -93,6 +111,14 @@ public abstract class AbstractVelocityPathfinder {
 	 */
 	protected abstract LocalDateTime getBaseTime();
 
+	/**
+	 * Returns the latest time of interest. Together with the base time it
+	 * bounds the time window in which forbidden regions are relevant.
+	 *
+	 * @return the latest time.
+	 */
+	protected abstract LocalDateTime getLatestTime();
+
 	/**
 	 * @return the forbidden region builder.
 	 */
@@ -204,6 +230,29 @@ public abstract class AbstractVelocityPathfinder {
 		this.dynamicObstacles = unmodifiableCollection(dynamicObstacles);
 	}
 
+	/**
+	 * Sets the cache used to reuse forbidden subregions of previous
+	 * calculations.
+	 *
+	 * @param cache
+	 * @throws NullPointerException
+	 *             if cache is {@code null}.
+	 */
+	public void setForbiddenRegionCache(ForbiddenRegionCache cache) {
+		getForbiddenRegionBuilder().setCache(cache);
+	}
+
+	/**
+	 * Sets whether the forbidden regions of different obstacles are calculated
+	 * in parallel. The default is {@code false}.
+	 *
+	 * @param parallelForbiddenRegions
+	 * @see ForbiddenRegionBuilder#setParallel(boolean)
+	 */
+	public void setParallelForbiddenRegions(boolean parallelForbiddenRegions) {
+		getForbiddenRegionBuilder().setParallel(parallelForbiddenRegions);
+	}
+
 	/**
 	 * @return the spatial path component of the trajectory to be calculated.
 	 */
@@ -352,6 +401,7 @@ public abstract class AbstractVelocityPathfinder {
 		builder.setBaseTime(baseTime);
 		builder.setDynamicObstacles(dynamicObstacles);
 		builder.setSpatialPath(spatialPath);
+		builder.setTimeWindow(baseTime, getLatestTime());
 
 		builder.calculate();
 
@@ -0,0 +1,718 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
+
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutablePoint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+import com.vividsolutions.jts.geom.Point;
+
+import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePoint;
+
+/**
+ * <p>
+ * A compact directed weighted graph of arc-time vertices. Vertices and edges
+ * are identified by {@code int} ids. The ordinates of the vertices and the
+ * weights of the edges are stored in primitive arrays.
+ * </p>
+ *
+ * <p>
+ * Vertices are unique by their arc and time ordinates. Adding a vertex which
+ * already exists returns the id of the existing one. Likewise, there is at
+ * most one edge between an ordered pair of vertices.
+ * </p>
+ *
+ * <p>
+ * The outgoing and incoming edges of a vertex are iterated in insertion order
+ * as follows:
+ * </p>
+ *
+ * <pre>
+ * for (int e = graph.firstOutgoingEdge(v); e != -1; e = graph.nextOutgoingEdge(e)) {
+ *     int target = graph.getEdgeTarget(e);
+ *     // ...
+ * }
+ * </pre>
+ *
+ * <p>
+ * Removed vertices keep their id which will never be reused. Edges of removed
+ * vertices are skipped by the iteration.
+ * </p>
+ *
+ * <p>
+ * Outgoing edges may also be generated on demand. Each registered edge
+ * generator is called at most once per vertex when the outgoing edges of
+ * that vertex are requested for the first time. Requesting incoming edges or
+ * the edge count generates the edges of all vertices.
+ * </p>
+ *
+ * @author Rico Jasper
+ */
+public class ArcTimeGraph {
+
+	/**
+	 * The marker of an empty hash table slot or a missing element.
+	 */
+	private static final int NONE = -1;
+
+	/**
+	 * The initial capacity of the vertex and edge arrays.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * The arc ordinates of the vertices.
+	 */
+	private double[] arcs = new double[INITIAL_CAPACITY];
+
+	/**
+	 * The time ordinates of the vertices.
+	 */
+	private double[] times = new double[INITIAL_CAPACITY];
+
+	/**
+	 * Indicates removed vertices.
+	 */
+	private boolean[] removed = new boolean[INITIAL_CAPACITY];
+
+	/**
+	 * The number of edge generators already applied to each vertex.
+	 */
+	private int[] generated = new int[INITIAL_CAPACITY];
+
+	/**
+	 * The edge generators adding the outgoing edges of a vertex on demand.
+	 */
+	private final List<IntConsumer> edgeGenerators = new ArrayList<>();
+
+	/**
+	 * The lazily created points of the vertices.
+	 */
+	private ImmutablePoint[] points = new ImmutablePoint[INITIAL_CAPACITY];
+
+	/**
+	 * The first outgoing edge of each vertex.
+	 */
+	private int[] firstOut = new int[INITIAL_CAPACITY];
+
+	/**
+	 * The last outgoing edge of each vertex.
+	 */
+	private int[] lastOut = new int[INITIAL_CAPACITY];
+
+	/**
+	 * The first incoming edge of each vertex.
+	 */
+	private int[] firstIn = new int[INITIAL_CAPACITY];
+
+	/**
+	 * The last incoming edge of each vertex.
+	 */
+	private int[] lastIn = new int[INITIAL_CAPACITY];
+
+	/**
+	 * The number of allocated vertex ids.
+	 */
+	private int vertexIdCount = 0;
+
+	/**
+	 * The number of vertices which are not removed.
+	 */
+	private int vertexCount = 0;
+
+	/**
+	 * The open addressing hash table mapping ordinates to vertex ids.
+	 */
+	private int[] vertexTable = newTable(2 * INITIAL_CAPACITY);
+
+	/**
+	 * The source vertices of the edges.
+	 */
+	private int[] sources = new int[INITIAL_CAPACITY];
+
+	/**
+	 * The target vertices of the edges.
+	 */
+	private int[] targets = new int[INITIAL_CAPACITY];
+
+	/**
+	 * The weights of the edges.
+	 */
+	private double[] weights = new double[INITIAL_CAPACITY];
+
+	/**
+	 * The next outgoing edge of the same source.
+	 */
+	private int[] nextOut = new int[INITIAL_CAPACITY];
+
+	/**
+	 * The next incoming edge of the same target.
+	 */
+	private int[] nextIn = new int[INITIAL_CAPACITY];
+
+	/**
+	 * The number of edges.
+	 */
+	private int edgeCount = 0;
+
+	/**
+	 * The open addressing hash table mapping vertex pairs to edge ids.
+	 */
+	private int[] edgeTable = newTable(2 * INITIAL_CAPACITY);
+
+	/**
+	 * Creates an empty hash table.
+	 *
+	 * @param size
+	 *            a power of two.
+	 * @return the table.
+	 */
+	private static int[] newTable(int size) {
+		int[] table = new int[size];
+		Arrays.fill(table, NONE);
+
+		return table;
+	}
+
+	/**
+	 * Mixes a 64 bit hash into a 32 bit hash.
+	 *
+	 * @param h
+	 * @return the mixed hash.
+	 */
+	private static int mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+
+		return (int) h;
+	}
+
+	/**
+	 * Calculates the hash of a vertex. Negative zeros are treated as zeros.
+	 *
+	 * @param arc
+	 * @param time
+	 * @return the hash.
+	 */
+	private static int vertexHash(double arc, double time) {
+		long a = Double.doubleToLongBits(arc + 0.0);
+		long t = Double.doubleToLongBits(time + 0.0);
+
+		return mix(31 * a + t);
+	}
+
+	/**
+	 * Calculates the hash of an edge.
+	 *
+	 * @param source
+	 * @param target
+	 * @return the hash.
+	 */
+	private static int edgeHash(int source, int target) {
+		return mix(((long) source << 32) | (target & 0xffffffffL));
+	}
+
+	/**
+	 * @return the number of vertices.
+	 */
+	public int vertexCount() {
+		return vertexCount;
+	}
+
+	/**
+	 * Returns the upper bound of all vertex ids. Vertex ids are in the range
+	 * {@code [0, vertexIdLimit())} but might have been removed.
+	 *
+	 * @return the upper bound of all vertex ids.
+	 */
+	public int vertexIdLimit() {
+		return vertexIdCount;
+	}
+
+	/**
+	 * @return the number of edges including the ones of removed vertices.
+	 */
+	public int edgeCount() {
+		generateAllEdges();
+
+		return edgeCount;
+	}
+
+	/**
+	 * Registers a generator of outgoing edges. The generator is called with
+	 * a vertex id when the outgoing edges of that vertex are requested for
+	 * the first time. It is expected to add the edges using
+	 * {@link #addEdge(int, int, double)}.
+	 *
+	 * @param generator
+	 * @throws NullPointerException
+	 *             if {@code generator} is {@code null}.
+	 */
+	public void addEdgeGenerator(IntConsumer generator) {
+		edgeGenerators.add(Objects.requireNonNull(generator, "generator"));
+	}
+
+	/**
+	 * Applies all pending edge generators to the given vertex.
+	 *
+	 * @param vertex
+	 */
+	private void generateEdges(int vertex) {
+		while (generated[vertex] < edgeGenerators.size())
+			edgeGenerators.get(generated[vertex]++).accept(vertex);
+	}
+
+	/**
+	 * Applies all pending edge generators to all vertices.
+	 */
+	private void generateAllEdges() {
+		if (edgeGenerators.isEmpty())
+			return;
+
+		for (int v = 0; v < vertexIdCount; ++v) {
+			if (!removed[v])
+				generateEdges(v);
+		}
+	}
+
+	/**
+	 * Returns the ids of all vertices in insertion order.
+	 *
+	 * @return the vertex ids.
+	 */
+	public int[] vertices() {
+		int[] vertices = new int[vertexCount];
+		int k = 0;
+
+		for (int v = 0; v < vertexIdCount; ++v) {
+			if (!removed[v])
+				vertices[k++] = v;
+		}
+
+		return vertices;
+	}
+
+	/**
+	 * Determines whether the given id identifies a vertex of this graph.
+	 *
+	 * @param vertex
+	 * @return {@code true} if the vertex exists.
+	 */
+	public boolean containsVertex(int vertex) {
+		return vertex >= 0 && vertex < vertexIdCount && !removed[vertex];
+	}
+
+	/**
+	 * Returns the id of the vertex with the given ordinates.
+	 *
+	 * @param arc
+	 * @param time
+	 * @return the id or {@code -1} if there is no such vertex.
+	 */
+	public int vertexOf(double arc, double time) {
+		int mask = vertexTable.length - 1;
+
+		for (int i = vertexHash(arc, time) & mask; ; i = (i + 1) & mask) {
+			int v = vertexTable[i];
+
+			if (v == NONE)
+				return NONE;
+			if (arcs[v] == arc && times[v] == time)
+				return v;
+		}
+	}
+
+	/**
+	 * Returns the id of the vertex located at the given point.
+	 *
+	 * @param point
+	 * @return the id or {@code -1} if there is no such vertex.
+	 */
+	public int vertexOf(Point point) {
+		return vertexOf(point.getX(), point.getY());
+	}
+
+	/**
+	 * Adds a vertex if it does not exist yet.
+	 *
+	 * @param arc
+	 * @param time
+	 * @return the id of the new or existing vertex.
+	 */
+	public int addVertex(double arc, double time) {
+		int existing = vertexOf(arc, time);
+
+		if (existing != NONE)
+			return existing;
+
+		int v = vertexIdCount;
+
+		ensureVertexCapacity(v + 1);
+
+		arcs[v] = arc;
+		times[v] = time;
+		removed[v] = false;
+		generated[v] = 0;
+		points[v] = null;
+		firstOut[v] = lastOut[v] = NONE;
+		firstIn[v] = lastIn[v] = NONE;
+
+		++vertexIdCount;
+		++vertexCount;
+
+		if (2 * vertexCount > vertexTable.length)
+			rehashVertices(2 * vertexTable.length);
+		else
+			insertVertex(vertexTable, v);
+
+		return v;
+	}
+
+	/**
+	 * Adds a vertex located at the given point if it does not exist yet.
+	 *
+	 * @param point
+	 * @return the id of the new or existing vertex.
+	 */
+	public int addVertex(Point point) {
+		int v = addVertex(point.getX(), point.getY());
+
+		if (points[v] == null && point instanceof ImmutablePoint)
+			points[v] = (ImmutablePoint) point;
+
+		return v;
+	}
+
+	/**
+	 * Removes a vertex. Its id will not be reused. Adding a vertex with the
+	 * same ordinates later on will result in a new vertex without any edges.
+	 *
+	 * @param vertex
+	 * @throws IllegalArgumentException
+	 *             if the vertex does not exist.
+	 */
+	public void removeVertex(int vertex) {
+		checkVertex(vertex);
+
+		removed[vertex] = true;
+		points[vertex] = null;
+		--vertexCount;
+
+		rehashVertices(vertexTable.length);
+	}
+
+	/**
+	 * @param vertex
+	 * @return the arc ordinate of the vertex.
+	 */
+	public double getArc(int vertex) {
+		return arcs[vertex];
+	}
+
+	/**
+	 * @param vertex
+	 * @return the time ordinate of the vertex.
+	 */
+	public double getTime(int vertex) {
+		return times[vertex];
+	}
+
+	/**
+	 * Returns the point of the vertex. The point is created on first request.
+	 *
+	 * @param vertex
+	 * @return the point.
+	 */
+	public ImmutablePoint getPoint(int vertex) {
+		ImmutablePoint point = points[vertex];
+
+		if (point == null)
+			point = points[vertex] = immutablePoint(arcs[vertex], times[vertex]);
+
+		return point;
+	}
+
+	/**
+	 * Adds an edge if there is none between the given vertices yet.
+	 *
+	 * @param source
+	 * @param target
+	 * @param weight
+	 * @return {@code true} if the edge was added.
+	 * @throws IllegalArgumentException
+	 *             if any vertex does not exist.
+	 */
+	public boolean addEdge(int source, int target, double weight) {
+		checkVertex(source);
+		checkVertex(target);
+
+		if (getEdge(source, target) != NONE)
+			return false;
+
+		int e = edgeCount;
+
+		ensureEdgeCapacity(e + 1);
+
+		sources[e] = source;
+		targets[e] = target;
+		weights[e] = weight;
+		nextOut[e] = NONE;
+		nextIn[e] = NONE;
+
+		if (lastOut[source] == NONE)
+			firstOut[source] = e;
+		else
+			nextOut[lastOut[source]] = e;
+		lastOut[source] = e;
+
+		if (lastIn[target] == NONE)
+			firstIn[target] = e;
+		else
+			nextIn[lastIn[target]] = e;
+		lastIn[target] = e;
+
+		++edgeCount;
+
+		if (2 * edgeCount > edgeTable.length)
+			rehashEdges(2 * edgeTable.length);
+		else
+			insertEdge(edgeTable, e);
+
+		return true;
+	}
+
+	/**
+	 * Returns the edge between the given vertices.
+	 *
+	 * @param source
+	 * @param target
+	 * @return the edge id or {@code -1} if there is no such edge.
+	 */
+	public int getEdge(int source, int target) {
+		int mask = edgeTable.length - 1;
+
+		for (int i = edgeHash(source, target) & mask; ; i = (i + 1) & mask) {
+			int e = edgeTable[i];
+
+			if (e == NONE)
+				return NONE;
+			if (sources[e] == source && targets[e] == target)
+				return e;
+		}
+	}
+
+	/**
+	 * @param edge
+	 * @return the source vertex of the edge.
+	 */
+	public int getEdgeSource(int edge) {
+		return sources[edge];
+	}
+
+	/**
+	 * @param edge
+	 * @return the target vertex of the edge.
+	 */
+	public int getEdgeTarget(int edge) {
+		return targets[edge];
+	}
+
+	/**
+	 * @param edge
+	 * @return the weight of the edge.
+	 */
+	public double getEdgeWeight(int edge) {
+		return weights[edge];
+	}
+
+	/**
+	 * @param vertex
+	 * @return the first outgoing edge or {@code -1} if there is none.
+	 */
+	public int firstOutgoingEdge(int vertex) {
+		if (removed[vertex])
+			return NONE;
+
+		generateEdges(vertex);
+
+		return skipOutgoing(firstOut[vertex]);
+	}
+
+	/**
+	 * @param edge
+	 * @return the next outgoing edge of the same source or {@code -1} if
+	 *         there is none.
+	 */
+	public int nextOutgoingEdge(int edge) {
+		return skipOutgoing(nextOut[edge]);
+	}
+
+	/**
+	 * @param vertex
+	 * @return the first incoming edge or {@code -1} if there is none.
+	 */
+	public int firstIncomingEdge(int vertex) {
+		if (removed[vertex])
+			return NONE;
+
+		generateAllEdges();
+
+		return skipIncoming(firstIn[vertex]);
+	}
+
+	/**
+	 * @param edge
+	 * @return the next incoming edge of the same target or {@code -1} if
+	 *         there is none.
+	 */
+	public int nextIncomingEdge(int edge) {
+		return skipIncoming(nextIn[edge]);
+	}
+
+	/**
+	 * Skips outgoing edges leading to removed vertices.
+	 *
+	 * @param edge
+	 * @return the first edge not leading to a removed vertex.
+	 */
+	private int skipOutgoing(int edge) {
+		while (edge != NONE && removed[targets[edge]])
+			edge = nextOut[edge];
+
+		return edge;
+	}
+
+	/**
+	 * Skips incoming edges coming from removed vertices.
+	 *
+	 * @param edge
+	 * @return the first edge not coming from a removed vertex.
+	 */
+	private int skipIncoming(int edge) {
+		while (edge != NONE && removed[sources[edge]])
+			edge = nextIn[edge];
+
+		return edge;
+	}
+
+	/**
+	 * Checks if the given vertex exists.
+	 *
+	 * @param vertex
+	 * @throws IllegalArgumentException
+	 *             if the vertex does not exist.
+	 */
+	private void checkVertex(int vertex) {
+		if (!containsVertex(vertex))
+			throw new IllegalArgumentException("unknown vertex");
+	}
+
+	/**
+	 * Inserts a vertex into the given hash table.
+	 *
+	 * @param table
+	 * @param vertex
+	 */
+	private void insertVertex(int[] table, int vertex) {
+		int mask = table.length - 1;
+		int i = vertexHash(arcs[vertex], times[vertex]) & mask;
+
+		while (table[i] != NONE)
+			i = (i + 1) & mask;
+
+		table[i] = vertex;
+	}
+
+	/**
+	 * Rebuilds the vertex hash table without removed vertices.
+	 *
+	 * @param size
+	 *            the new table size.
+	 */
+	private void rehashVertices(int size) {
+		int[] table = newTable(size);
+
+		for (int v = 0; v < vertexIdCount; ++v) {
+			if (!removed[v])
+				insertVertex(table, v);
+		}
+
+		vertexTable = table;
+	}
+
+	/**
+	 * Inserts an edge into the given hash table.
+	 *
+	 * @param table
+	 * @param edge
+	 */
+	private void insertEdge(int[] table, int edge) {
+		int mask = table.length - 1;
+		int i = edgeHash(sources[edge], targets[edge]) & mask;
+
+		while (table[i] != NONE)
+			i = (i + 1) & mask;
+
+		table[i] = edge;
+	}
+
+	/**
+	 * Rebuilds the edge hash table.
+	 *
+	 * @param size
+	 *            the new table size.
+	 */
+	private void rehashEdges(int size) {
+		int[] table = newTable(size);
+
+		for (int e = 0; e < edgeCount; ++e)
+			insertEdge(table, e);
+
+		edgeTable = table;
+	}
+
+	/**
+	 * Ensures that the vertex arrays can hold the given number of vertices.
+	 *
+	 * @param capacity
+	 */
+	private void ensureVertexCapacity(int capacity) {
+		if (capacity <= arcs.length)
+			return;
+
+		int n = Math.max(capacity, 2 * arcs.length);
+
+		arcs = Arrays.copyOf(arcs, n);
+		times = Arrays.copyOf(times, n);
+		removed = Arrays.copyOf(removed, n);
+		generated = Arrays.copyOf(generated, n);
+		points = Arrays.copyOf(points, n);
+		firstOut = Arrays.copyOf(firstOut, n);
+		lastOut = Arrays.copyOf(lastOut, n);
+		firstIn = Arrays.copyOf(firstIn, n);
+		lastIn = Arrays.copyOf(lastIn, n);
+	}
+
+	/**
+	 * Ensures that the edge arrays can hold the given number of edges.
+	 *
+	 * @param capacity
+	 */
+	private void ensureEdgeCapacity(int capacity) {
+		if (capacity <= sources.length)
+			return;
+
+		int n = Math.max(capacity, 2 * sources.length);
+
+		sources = Arrays.copyOf(sources, n);
+		targets = Arrays.copyOf(targets, n);
+		weights = Arrays.copyOf(weights, n);
+		nextOut = Arrays.copyOf(nextOut, n);
+		nextIn = Arrays.copyOf(nextIn, n);
+	}
+
+}
@@ -0,0 +1,374 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
+
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutablePoint;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Point;
+
+import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePoint;
+import de.tu_berlin.mailbox.rjasper.jts.geom.util.GeometriesRequire;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.SpatialPath;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.StaticObstacle;
+
+/**
+ * <p>
+ * The {@code CachingSpatialPathfinder} puts a bounded cache in front of
+ * another spatial path finder. Since each {@code WorldPerspective} has its own
+ * path finder, the cache is effectively keyed by the perspective, the start
+ * location, and the finish location.
+ * </p>
+ *
+ * <p>
+ * The locations are quantized to a grid before they are looked up. With the
+ * default quantization of zero only identical locations share a path. For a
+ * positive quantization, the cached path of a nearby location pair is reused.
+ * Its first and last vertex are then replaced by the requested locations. If
+ * the replaced first or last segment is blocked by a static obstacle, the
+ * path is calculated by the delegate instead.
+ * </p>
+ *
+ * <p>
+ * The least recently used paths are evicted once the total number of cached
+ * vertices exceeds the maximum weight. Setting or removing static obstacles
+ * invalidates all cached paths. Adding a static obstacle only invalidates
+ * the paths which come close to it since any other path remains the
+ * shortest one.
+ * </p>
+ *
+ * @author Rico Jasper
+ */
+public class CachingSpatialPathfinder extends AbstractSpatialPathfinder {
+
+	/**
+	 * The key of a cached path.
+	 */
+	private static final class Key {
+
+		private final long startX;
+		private final long startY;
+		private final long finishX;
+		private final long finishY;
+
+		public Key(long startX, long startY, long finishX, long finishY) {
+			this.startX = startX;
+			this.startY = startY;
+			this.finishX = finishX;
+			this.finishY = finishY;
+		}
+
+		@Override
+		public int hashCode() {
+			int result = 1;
+			result = 31 * result + Long.hashCode(startX);
+			result = 31 * result + Long.hashCode(startY);
+			result = 31 * result + Long.hashCode(finishX);
+			result = 31 * result + Long.hashCode(finishY);
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+
+			Key other = (Key) obj;
+
+			return startX  == other.startX
+				&& startY  == other.startY
+				&& finishX == other.finishX
+				&& finishY == other.finishY;
+		}
+
+	}
+
+	/**
+	 * The path finder calculating missing paths.
+	 */
+	private final AbstractSpatialPathfinder delegate;
+
+	/**
+	 * The grid size of the quantized locations.
+	 */
+	private final double quantization;
+
+	/**
+	 * The cached paths.
+	 */
+	private final Cache<Key, SpatialPath> cache;
+
+	/**
+	 * Constructs a cache in front of the given path finder. Only identical
+	 * locations share a path.
+	 *
+	 * @param delegate
+	 *            the path finder calculating missing paths.
+	 * @param maximumWeight
+	 *            the maximum number of cached vertices.
+	 * @throws NullPointerException
+	 *             if delegate is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if maximumWeight is negative.
+	 */
+	public CachingSpatialPathfinder(AbstractSpatialPathfinder delegate, long maximumWeight) {
+		this(delegate, maximumWeight, 0.0);
+	}
+
+	/**
+	 * Constructs a cache in front of the given path finder.
+	 *
+	 * @param delegate
+	 *            the path finder calculating missing paths.
+	 * @param maximumWeight
+	 *            the maximum number of cached vertices.
+	 * @param quantization
+	 *            the grid size of the quantized locations.
+	 * @throws NullPointerException
+	 *             if delegate is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if maximumWeight is negative or if the quantization is
+	 *             negative or not finite.
+	 */
+	public CachingSpatialPathfinder(
+		AbstractSpatialPathfinder delegate, long maximumWeight, double quantization)
+	{
+		if (maximumWeight < 0)
+			throw new IllegalArgumentException("maximumWeight is negative");
+		if (!Double.isFinite(quantization) || quantization < 0.0)
+			throw new IllegalArgumentException("illegal quantization");
+
+		this.delegate = Objects.requireNonNull(delegate, "delegate");
+		this.quantization = quantization;
+		this.cache = CacheBuilder.newBuilder()
+			.maximumWeight(maximumWeight)
+			.weigher((Key k, SpatialPath p) -> Math.max(1, p.size()))
+			.recordStats()
+			.build();
+	}
+
+	/**
+	 * @return the path finder calculating missing paths.
+	 */
+	public AbstractSpatialPathfinder getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * @return the statistics of the cache such as the hit rate.
+	 */
+	public CacheStats getStats() {
+		return cache.stats();
+	}
+
+	/**
+	 * @return the number of cached paths.
+	 */
+	public long size() {
+		return cache.size();
+	}
+
+	/**
+	 * Removes all cached paths.
+	 */
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.AbstractSpatialPathfinder#setStaticObstacles(java.util.Collection)
+	 */
+	@Override
+	public void setStaticObstacles(Collection<StaticObstacle> staticObstacles) {
+		super.setStaticObstacles(staticObstacles);
+		delegate.setStaticObstacles(staticObstacles);
+		cache.invalidateAll();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.AbstractSpatialPathfinder#addStaticObstacle(de.tu_berlin.mailbox.rjasper.st_scheduler.world.StaticObstacle)
+	 */
+	@Override
+	public void addStaticObstacle(StaticObstacle obstacle) {
+		Collection<StaticObstacle> staticObstacles = staticObstaclesWith(obstacle);
+
+		super.setStaticObstacles(staticObstacles);
+		delegate.addStaticObstacle(obstacle);
+
+		Envelope envelope = obstacle.getShape().getEnvelopeInternal();
+
+		cache.asMap().values().removeIf(p -> !p.isEmpty() && p.getEnvelope().intersects(envelope));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.AbstractSpatialPathfinder#removeStaticObstacle(de.tu_berlin.mailbox.rjasper.st_scheduler.world.StaticObstacle)
+	 */
+	@Override
+	public void removeStaticObstacle(StaticObstacle obstacle) {
+		Collection<StaticObstacle> staticObstacles = staticObstaclesWithout(obstacle);
+
+		super.setStaticObstacles(staticObstacles);
+		delegate.removeStaticObstacle(obstacle);
+		cache.invalidateAll();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.AbstractSpatialPathfinder#findSpatialPath(com.vividsolutions.jts.geom.Point, com.vividsolutions.jts.geom.Point)
+	 */
+	@Override
+	public SpatialPath findSpatialPath(Point startLocation, Point finishLocation) {
+		GeometriesRequire.requireValid2DPoint(startLocation, "startLocation");
+		GeometriesRequire.requireValid2DPoint(finishLocation, "finishLocation");
+
+		if (getStaticObstacles() == null)
+			throw new IllegalStateException("some parameters are not set");
+
+		return lookup(startLocation, finishLocation);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.AbstractSpatialPathfinder#setLandmarkCount(int)
+	 */
+	@Override
+	public void setLandmarkCount(int landmarkCount) {
+		delegate.setLandmarkCount(landmarkCount);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.AbstractSpatialPathfinder#distanceLowerBound(com.vividsolutions.jts.geom.Point, com.vividsolutions.jts.geom.Point)
+	 */
+	@Override
+	public double distanceLowerBound(Point from, Point to) {
+		return delegate.distanceLowerBound(from, to);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.AbstractSpatialPathfinder#isVisible(com.vividsolutions.jts.geom.Point, com.vividsolutions.jts.geom.Point)
+	 */
+	@Override
+	public boolean isVisible(Point from, Point to) {
+		return delegate.isVisible(from, to);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.AbstractSpatialPathfinder#calculateSpatialPath()
+	 */
+	@Override
+	protected SpatialPath calculateSpatialPath() {
+		return lookup(getStartLocation(), getFinishLocation());
+	}
+
+	/**
+	 * Looks up the path between the given locations. Calculates and caches the
+	 * path if it is missing.
+	 *
+	 * @param startLocation
+	 * @param finishLocation
+	 * @return the path.
+	 */
+	private SpatialPath lookup(Point startLocation, Point finishLocation) {
+		Key key = new Key(
+			quantize(startLocation.getX()),
+			quantize(startLocation.getY()),
+			quantize(finishLocation.getX()),
+			quantize(finishLocation.getY()));
+
+		SpatialPath path;
+		try {
+			path = cache.get(key, () -> delegate.findSpatialPath(startLocation, finishLocation));
+		} catch (UncheckedExecutionException e) {
+			throw Throwables.propagate(e.getCause());
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+
+		if (quantization == 0.0 || path.isEmpty())
+			return path;
+
+		SpatialPath adjusted = withEndpoints(path, startLocation, finishLocation);
+
+		// the moved endpoints might not see the remaining path
+		if (adjusted == path || isEndSegmentsVisible(adjusted))
+			return adjusted;
+		else
+			return delegate.findSpatialPath(startLocation, finishLocation);
+	}
+
+	/**
+	 * Determines whether the first and last segment of the given path avoid
+	 * all static obstacles.
+	 *
+	 * @param path
+	 * @return {@code true} if both segments are visible.
+	 */
+	private boolean isEndSegmentsVisible(SpatialPath path) {
+		ImmutableList<ImmutablePoint> points = path.getPoints();
+		int n = points.size();
+
+		if (!delegate.isVisible(points.get(0), points.get(1)))
+			return false;
+
+		return n == 2 || delegate.isVisible(points.get(n-2), points.get(n-1));
+	}
+
+	/**
+	 * Quantizes the given ordinate.
+	 *
+	 * @param ordinate
+	 * @return the quantized ordinate.
+	 */
+	private long quantize(double ordinate) {
+		// normalizes -0.0
+		if (quantization == 0.0)
+			return Double.doubleToLongBits(ordinate + 0.0);
+		else
+			return Math.round(ordinate / quantization);
+	}
+
+	/**
+	 * Replaces the first and last vertex of the given path.
+	 *
+	 * @param path
+	 * @param startLocation
+	 * @param finishLocation
+	 * @return the path starting and finishing at the given locations.
+	 */
+	private static SpatialPath withEndpoints(SpatialPath path, Point startLocation, Point finishLocation) {
+		ImmutableList<ImmutablePoint> points = path.getPoints();
+		int n = points.size();
+
+		if (n < 2
+			|| points.get(0).equalsExact(startLocation)
+			&& points.get(n-1).equalsExact(finishLocation))
+		{
+			return path;
+		}
+
+		ImmutableList.Builder<ImmutablePoint> builder = ImmutableList.builder();
+
+		builder.add(immutablePoint(startLocation.getX(), startLocation.getY()));
+		builder.addAll(points.subList(1, n-1));
+		builder.add(immutablePoint(finishLocation.getX(), finishLocation.getY()));
+
+		return new SpatialPath(builder.build());
+	}
+
+}
@@ -0,0 +1,247 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
+
+import static com.vividsolutions.jts.geom.IntersectionMatrix.isTrue;
+import static com.vividsolutions.jts.geom.Location.INTERIOR;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryCollection;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
+import com.vividsolutions.jts.index.strtree.STRtree;
+
+import de.tu_berlin.mailbox.rjasper.jts.geom.util.GeometryIterable;
+
+/**
+ * <p>
+ * Indexes the forbidden map of a mesh. The primitive geometries of the map
+ * are stored in an STR-tree by their envelopes. Polygons are additionally
+ * prepared to speed up repeated predicates.
+ * </p>
+ *
+ * <p>
+ * The index is meant to be built once per mesh and to be shared by all edge
+ * and ray checks. Each check only touches the geometries whose envelope
+ * intersects the envelope of the checked geometry.
+ * </p>
+ *
+ * <p>
+ * The index is not thread-safe since prepared geometries build their internal
+ * structures lazily.
+ * </p>
+ *
+ * @author Rico Jasper
+ */
+public class ForbiddenMapIndex {
+
+	/**
+	 * A primitive geometry of the forbidden map.
+	 */
+	private static class Entry {
+
+		/**
+		 * The index of the top-level geometry containing the primitive.
+		 */
+		private final int element;
+
+		/**
+		 * The primitive geometry.
+		 */
+		private final Geometry geometry;
+
+		/**
+		 * The prepared polygon or {@code null} if the primitive is no polygon.
+		 */
+		private final PreparedGeometry prepared;
+
+		public Entry(int element, Geometry geometry, PreparedGeometry prepared) {
+			this.element = element;
+			this.geometry = geometry;
+			this.prepared = prepared;
+		}
+
+	}
+
+	/**
+	 * The forbidden map.
+	 */
+	private final Geometry forbiddenMap;
+
+	/**
+	 * The top-level geometries of the forbidden map.
+	 */
+	private final Geometry[] elements;
+
+	/**
+	 * The primitives indexed by their envelopes.
+	 */
+	private final STRtree tree = new STRtree();
+
+	/**
+	 * Builds the index of the given forbidden map.
+	 *
+	 * @param forbiddenMap
+	 * @throws NullPointerException
+	 *             if {@code forbiddenMap} is {@code null}.
+	 */
+	public ForbiddenMapIndex(Geometry forbiddenMap) {
+		this.forbiddenMap = requireNonNull(forbiddenMap, "forbiddenMap");
+		this.elements = splitElements(forbiddenMap);
+
+		PreparedGeometryFactory factory = new PreparedGeometryFactory();
+
+		for (int i = 0; i < elements.length; ++i) {
+			for (Geometry g : new GeometryIterable(elements[i], true, false, false)) {
+				if (g.isEmpty())
+					continue;
+
+				PreparedGeometry prepared = g instanceof Polygon ? factory.create(g) : null;
+
+				tree.insert(g.getEnvelopeInternal(), new Entry(i, g, prepared));
+			}
+		}
+
+		tree.build();
+	}
+
+	/**
+	 * Splits a plain geometry collection into its top-level geometries. Any
+	 * other geometry is treated as a single element.
+	 *
+	 * @param geometry
+	 * @return the elements.
+	 */
+	private static Geometry[] splitElements(Geometry geometry) {
+		if (!isPlainCollection(geometry))
+			return new Geometry[] { geometry };
+
+		int n = geometry.getNumGeometries();
+		Geometry[] elements = new Geometry[n];
+
+		for (int i = 0; i < n; ++i)
+			elements[i] = geometry.getGeometryN(i);
+
+		return elements;
+	}
+
+	/**
+	 * Determines whether the given geometry is a {@link GeometryCollection}
+	 * but no sub-type of it.
+	 *
+	 * @param geometry
+	 * @return {@code true} if the geometry is a plain collection.
+	 */
+	private static boolean isPlainCollection(Geometry geometry) {
+		return geometry.getClass() == GeometryCollection.class;
+	}
+
+	/**
+	 * @return the forbidden map.
+	 */
+	public Geometry getForbiddenMap() {
+		return forbiddenMap;
+	}
+
+	/**
+	 * Queries all primitives whose envelope intersects the given one.
+	 *
+	 * @param envelope
+	 * @return the primitives.
+	 */
+	@SuppressWarnings("unchecked")
+	private List<Entry> query(Envelope envelope) {
+		return tree.query(envelope);
+	}
+
+	/**
+	 * Determines whether the given line crosses the interior of any polygon.
+	 *
+	 * @param line
+	 * @return {@code true} if a polygon blocks the line.
+	 */
+	public boolean blocks(LineString line) {
+		for (Entry e : query(line.getEnvelopeInternal())) {
+			// only polygons block the line of sight
+			if (e.prepared == null || !e.prepared.intersects(line))
+				continue;
+
+			if (isTrue(line.relate(e.geometry).get(INTERIOR, INTERIOR)))
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Determines whether the given point lies within any primitive.
+	 *
+	 * @param point
+	 * @return {@code true} if the point is within the forbidden map.
+	 */
+	public boolean within(Point point) {
+		for (Entry e : query(point.getEnvelopeInternal())) {
+			boolean within = e.prepared == null
+				? point.within(e.geometry)
+				: e.prepared.containsProperly(point);
+
+			if (within)
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns the part of the forbidden map which might interact with
+	 * geometries inside the given envelope. If the forbidden map is a plain
+	 * geometry collection, the result is a collection of the relevant
+	 * top-level geometries in their original order. Overlay operations on the
+	 * result therefore yield the same geometries as on the whole map.
+	 *
+	 * @param envelope
+	 * @return the relevant part of the forbidden map.
+	 */
+	public Geometry near(Envelope envelope) {
+		List<Entry> entries = query(envelope);
+
+		if (!isPlainCollection(forbiddenMap)) {
+			return entries.isEmpty()
+				? forbiddenMap.getFactory().createGeometryCollection(new Geometry[0])
+				: forbiddenMap;
+		}
+
+		boolean[] relevant = new boolean[elements.length];
+		for (Entry e : entries)
+			relevant[e.element] = true;
+
+		List<Geometry> near = new ArrayList<>(entries.size());
+		for (int i = 0; i < elements.length; ++i) {
+			if (relevant[i])
+				near.add(elements[i]);
+		}
+
+		if (near.size() == elements.length)
+			return forbiddenMap;
+
+		return forbiddenMap.getFactory().createGeometryCollection(
+			near.toArray(new Geometry[near.size()]));
+	}
+
+	/**
+	 * Calculates the intersection of the forbidden map and the given geometry.
+	 *
+	 * @param geometry
+	 * @return the intersection.
+	 */
+	public Geometry intersection(Geometry geometry) {
+		return near(geometry.getEnvelopeInternal()).intersection(geometry);
+	}
+
+}
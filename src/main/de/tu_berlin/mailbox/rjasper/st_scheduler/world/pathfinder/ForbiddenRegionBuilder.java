@@ -9,6 +9,7 @@ import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuil
 import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.polygon;
 import static java.lang.Math.abs;
 import static java.lang.Math.max;
+import static java.lang.Math.sqrt;
 import static java.lang.Math.ulp;
 import static java.util.Collections.unmodifiableCollection;
 import static java.util.stream.Collectors.toList;
@@ -17,23 +18,23 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
-
-import org.la4j.LinearAlgebra;
-import org.la4j.matrix.Matrix;
-import org.la4j.matrix.dense.Basic1DMatrix;
-import org.la4j.vector.Vector;
-import org.la4j.vector.Vectors;
-import org.la4j.vector.dense.BasicVector;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.MultiPolygon;
 import com.vividsolutions.jts.geom.Point;
 import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.geom.TopologyException;
 import com.vividsolutions.jts.geom.util.LineStringExtracter;
 import com.vividsolutions.jts.operation.linemerge.LineMerger;
 
@@ -43,14 +44,54 @@ import de.tu_berlin.mailbox.rjasper.st_scheduler.world.SpatialPath;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.Trajectory;
 
 /**
+ * <p>
  * The {@code ForbiddenRegion} calculates the forbidden regions for spatial
  * paths introduced by dynamic obstacles.
+ * </p>
+ *
+ * <p>
+ * Optionally, a {@link ForbiddenRegionCache} can be provided to reuse the
+ * subregions of previous calculations. After a calculation, obstacles can be
+ * added or removed incrementally without recalculating the regions of the
+ * other obstacles.
+ * </p>
+ *
+ * <p>
+ * The forbidden regions of different obstacles are independent of each other.
+ * In parallel mode, the regions are calculated concurrently on a
+ * {@link ForkJoinPool} if the number of obstacles reaches a threshold. The
+ * order of the result is the same as in sequential mode.
+ * </p>
+ *
+ * <p>
+ * The transformations into the arc-time plane are calculated on primitive
+ * values by a {@link ForbiddenRegionKernel}. Convex obstacle shapes are also
+ * clipped by the kernel. JTS' overlay operations are only used for non-convex
+ * shapes and the parallel and stationary cases.
+ * </p>
+ *
+ * <p>
+ * Optionally, a time window can be provided. Obstacle trajectory segments
+ * outside the window are skipped. The relevant segments are found by a binary
+ * search on the trajectory's times.
+ * </p>
  *
  * @see ForbiddenRegion
  * @author Rico Jasper
  */
 public class ForbiddenRegionBuilder {
 
+	/**
+	 * The default minimum number of obstacles to calculate in parallel.
+	 */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 64;
+
+	/**
+	 * The kernel of each calculating thread.
+	 */
+	private static final ThreadLocal<ForbiddenRegionKernel> KERNEL =
+		ThreadLocal.withInitial(ForbiddenRegionKernel::new);
+
 	/**
 	 * The dynamic obstacles.
 	 */
@@ -64,13 +105,48 @@ public class ForbiddenRegionBuilder {
 	/**
 	 * The calculated forbidden regions.
 	 */
-	private Collection<ForbiddenRegion> resultForbiddenRegions = null;
+	private List<ForbiddenRegion> resultForbiddenRegions = null;
+
+	/**
+	 * Indicates if the result corresponds to the current parameters.
+	 */
+	private boolean calculated = false;
+
+	/**
+	 * The subregion cache.
+	 */
+	private ForbiddenRegionCache cache = null;
+
+	/**
+	 * Indicates if the forbidden regions are calculated in parallel.
+	 */
+	private boolean parallel = false;
+
+	/**
+	 * The minimum number of obstacles to calculate in parallel.
+	 */
+	private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+	/**
+	 * The pool used to calculate in parallel.
+	 */
+	private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
 
 	/**
 	 * The base time.
 	 */
 	private LocalDateTime baseTime = null;
 
+	/**
+	 * The start of the time window. {@code null} if unbounded.
+	 */
+	private LocalDateTime windowStartTime = null;
+
+	/**
+	 * The finish of the time window. {@code null} if unbounded.
+	 */
+	private LocalDateTime windowFinishTime = null;
+
 	/**
 	 * @return the dynamic obstacles.
 	 */
@@ -96,6 +172,7 @@ public class ForbiddenRegionBuilder {
 		CollectionsRequire.requireNonNull(dynamicObstacles, "dynamicObstacles");
 
 		this.dynamicObstacles = unmodifiableCollection(dynamicObstacles);
+		this.calculated = false;
 	}
 
 	/**
@@ -122,6 +199,7 @@ public class ForbiddenRegionBuilder {
 	 */
 	public void setSpatialPath(SpatialPath spatialPath) {
 		this.spatialPath = Objects.requireNonNull(spatialPath, "spatialPath");
+		this.calculated = false;
 	}
 
 	/**
@@ -171,6 +249,94 @@ public class ForbiddenRegionBuilder {
 	 */
 	public void setBaseTime(LocalDateTime baseTime) {
 		this.baseTime = baseTime;
+		this.calculated = false;
+	}
+
+	/**
+	 * <p>
+	 * Sets the time window of interest.
+	 * </p>
+	 *
+	 * <p>
+	 * Obstacle trajectory segments which do not overlap the closed interval
+	 * are skipped. Forbidden regions might still extend beyond the window.
+	 * </p>
+	 *
+	 * @param startTime
+	 * @param finishTime
+	 * @throws NullPointerException
+	 *             if any argument is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if {@code startTime} is after {@code finishTime}.
+	 */
+	public void setTimeWindow(LocalDateTime startTime, LocalDateTime finishTime) {
+		Objects.requireNonNull(startTime, "startTime");
+		Objects.requireNonNull(finishTime, "finishTime");
+
+		if (startTime.isAfter(finishTime))
+			throw new IllegalArgumentException("startTime is after finishTime");
+
+		this.windowStartTime = startTime;
+		this.windowFinishTime = finishTime;
+		this.calculated = false;
+	}
+
+	/**
+	 * Removes the time window. All obstacle trajectory segments will be
+	 * considered.
+	 */
+	public void clearTimeWindow() {
+		this.windowStartTime = null;
+		this.windowFinishTime = null;
+		this.calculated = false;
+	}
+
+	/**
+	 * Sets the cache used to look up and store forbidden subregions.
+	 *
+	 * @param cache
+	 * @throws NullPointerException
+	 *             if {@code cache} is {@code null}.
+	 */
+	public void setCache(ForbiddenRegionCache cache) {
+		this.cache = Objects.requireNonNull(cache, "cache");
+	}
+
+	/**
+	 * Sets whether the forbidden regions of different obstacles are calculated
+	 * in parallel. The default is {@code false}.
+	 *
+	 * @param parallel
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 * Sets the minimum number of obstacles to calculate in parallel. Fewer
+	 * obstacles are always calculated sequentially.
+	 *
+	 * @param parallelThreshold
+	 * @throws IllegalArgumentException
+	 *             if {@code parallelThreshold} is not positive.
+	 */
+	public void setParallelThreshold(int parallelThreshold) {
+		if (parallelThreshold <= 0)
+			throw new IllegalArgumentException("invalid threshold");
+
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	/**
+	 * Sets the pool used to calculate in parallel. The default is the common
+	 * pool.
+	 *
+	 * @param forkJoinPool
+	 * @throws NullPointerException
+	 *             if {@code forkJoinPool} is {@code null}.
+	 */
+	public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+		this.forkJoinPool = Objects.requireNonNull(forkJoinPool, "forkJoinPool");
 	}
 
 	/**
@@ -202,82 +368,419 @@ public class ForbiddenRegionBuilder {
 	public void calculate() {
 		checkParameters();
 
-		SpatialPath spatialPath = getSpatialPath();
-		List<ForbiddenRegion> forbiddenRegions = new LinkedList<>();
+		List<ForbiddenRegion> forbiddenRegions =
+			calcForbiddenRegions(getDynamicObstacles());
 
-		Iterable<SpatialPath.Segment> spatialPathSegments = () ->
-			spatialPath.segmentIterator();
+		setResultForbiddenRegions(forbiddenRegions);
+		calculated = true;
+	}
+
+	/**
+	 * Adds dynamic obstacles to the last calculation. Only the forbidden
+	 * regions of the new obstacles are calculated and added to the result.
+	 *
+	 * @param dynamicObstacles
+	 * @return the forbidden regions introduced by the new obstacles.
+	 * @throws NullPointerException
+	 *             if {@code dynamicObstacles} is {@code null} or contains
+	 *             {@code null}.
+	 * @throws IllegalStateException
+	 *             if the forbidden regions of the current parameters were not
+	 *             calculated.
+	 */
+	public Collection<ForbiddenRegion> addDynamicObstacles(
+		Collection<? extends DynamicObstacle> dynamicObstacles)
+	{
+		CollectionsRequire.requireNonNull(dynamicObstacles, "dynamicObstacles");
+		checkCalculated();
+
+		List<ForbiddenRegion> addedRegions = calcForbiddenRegions(dynamicObstacles);
+
+		List<DynamicObstacle> obstacles = new ArrayList<>(
+			this.dynamicObstacles.size() + dynamicObstacles.size());
+		obstacles.addAll(this.dynamicObstacles);
+		obstacles.addAll(dynamicObstacles);
+
+		this.dynamicObstacles = unmodifiableCollection(obstacles);
+		resultForbiddenRegions.addAll(addedRegions);
+
+		return unmodifiableCollection(addedRegions);
+	}
+
+	/**
+	 * Removes dynamic obstacles from the last calculation. The forbidden
+	 * regions of the removed obstacles are removed from the result. Obstacles
+	 * are compared by identity.
+	 *
+	 * @param dynamicObstacles
+	 * @return the forbidden regions of the removed obstacles.
+	 * @throws NullPointerException
+	 *             if {@code dynamicObstacles} is {@code null} or contains
+	 *             {@code null}.
+	 * @throws IllegalStateException
+	 *             if the forbidden regions of the current parameters were not
+	 *             calculated.
+	 */
+	public Collection<ForbiddenRegion> removeDynamicObstacles(
+		Collection<? extends DynamicObstacle> dynamicObstacles)
+	{
+		CollectionsRequire.requireNonNull(dynamicObstacles, "dynamicObstacles");
+		checkCalculated();
+
+		Set<DynamicObstacle> removals = Collections.newSetFromMap(new IdentityHashMap<>());
+		removals.addAll(dynamicObstacles);
+
+		List<ForbiddenRegion> removedRegions = resultForbiddenRegions.stream()
+			.filter(r -> removals.contains(r.getDynamicObstacle()))
+			.collect(toList());
+		List<DynamicObstacle> obstacles = this.dynamicObstacles.stream()
+			.filter(o -> !removals.contains(o))
+			.collect(toList());
+
+		this.dynamicObstacles = unmodifiableCollection(obstacles);
+		resultForbiddenRegions.removeIf(r -> removals.contains(r.getDynamicObstacle()));
+
+		return unmodifiableCollection(removedRegions);
+	}
+
+	/**
+	 * Checks if the result corresponds to the current parameters.
+	 *
+	 * @throws IllegalStateException
+	 *             if the result is outdated.
+	 */
+	private void checkCalculated() {
+		if (!calculated)
+			throw new IllegalStateException("forbidden regions not calculated");
+	}
+
+	/**
+	 * Calculates the forbidden regions introduced by the given obstacles. The
+	 * regions are in the same order as their obstacles.
+	 *
+	 * @param obstacles
+	 * @return the forbidden regions.
+	 */
+	private List<ForbiddenRegion> calcForbiddenRegions(
+		Collection<? extends DynamicObstacle> obstacles)
+	{
+		if (parallel && obstacles.size() >= parallelThreshold) {
+			// a list keeps the encounter order of any collection
+			List<DynamicObstacle> ordered = new ArrayList<>(obstacles);
+
+			// the stream runs on the pool which executes it
+			return forkJoinPool.submit(() -> ordered.parallelStream()
+				.map(this::calcForbiddenRegion)
+				.filter(Objects::nonNull)
+				.collect(toList()))
+			.join();
+		}
+
+		List<ForbiddenRegion> forbiddenRegions = new LinkedList<>();
 
 		// for each dynamic obstacle its forbidden region
-		for (DynamicObstacle obstacle : getDynamicObstacles()) {
-			if (!quickObstacleEnvelopeCheck(obstacle))
-				continue;
+		for (DynamicObstacle obstacle : obstacles) {
+			ForbiddenRegion region = calcForbiddenRegion(obstacle);
 
-			Iterable<Trajectory.Segment> obstacleTrajectorySegments = () ->
-				obstacle.getTrajectory().segmentIterator();
+			if (region != null)
+				forbiddenRegions.add(region);
+		}
 
-			Polygon obstacleShape = obstacle.getShape();
+		return forbiddenRegions;
+	}
 
-			// Stores the sub regions of a forbidden region. Each trajectory
-			// segment might produce a sub region.
-			List<Geometry> subregions = new LinkedList<>();
-			// for each trajectory segment and spatial path segment pair
-			for (Trajectory.Segment obstacleTrajectorySegment : obstacleTrajectorySegments) {
-				if (!quickObstacleTrajectorySegmentCheck(obstacle, obstacleTrajectorySegment))
+	/**
+	 * Calculates the forbidden region introduced by the given obstacle.
+	 *
+	 * @param obstacle
+	 * @return the forbidden region or {@code null} if the obstacle does not
+	 *         block the spatial path.
+	 */
+	private ForbiddenRegion calcForbiddenRegion(DynamicObstacle obstacle) {
+		if (!quickObstacleEnvelopeCheck(obstacle))
+			return null;
+
+		SpatialPath spatialPath = getSpatialPath();
+		Trajectory trajectory = obstacle.getTrajectory();
+
+		// the index range [fromSegment, toSegment) of relevant trajectory segments
+		int fromSegment = firstRelevantSegment(trajectory);
+		int toSegment = lastRelevantSegment(trajectory) + 1;
+
+		if (fromSegment >= toSegment)
+			return null;
+
+		Iterable<SpatialPath.Segment> spatialPathSegments = () ->
+			spatialPath.segmentIterator();
+		Iterable<Trajectory.Segment> obstacleTrajectorySegments = () ->
+			IntStream.range(fromSegment, toSegment)
+				.mapToObj(trajectory::getSegment)
+				.iterator();
+
+		Polygon obstacleShape = obstacle.getShape();
+
+		// Stores the sub regions of a forbidden region. Each trajectory
+		// segment might produce a sub region. The sub regions are ordered by
+		// time.
+		List<Geometry> subregions = new ArrayList<>();
+		// for each trajectory segment and spatial path segment pair
+		for (Trajectory.Segment obstacleTrajectorySegment : obstacleTrajectorySegments) {
+			if (!quickObstacleTrajectorySegmentCheck(obstacle, obstacleTrajectorySegment))
+				continue;
+
+			for (SpatialPath.Segment spatialPathSegment : spatialPathSegments) {
+				if (!quickSpatialPathSegmentCheck(obstacle, obstacleTrajectorySegment, spatialPathSegment))
 					continue;
 
-				for (SpatialPath.Segment spatialPathSegment : spatialPathSegments) {
-					if (!quickSpatialPathSegmentCheck(obstacle, obstacleTrajectorySegment, spatialPathSegment))
-						continue;
-
-					// The current spatial path segments unit vector.
-					// Also the direction and unit length of the arc dimension.
-					Vector arcUnitVector = makeUnitVector(
-						spatialPathSegment.getStartPoint(),
-						spatialPathSegment.getFinishPoint());
-
-					// current subregion to be calculated
-					Geometry region;
-
-					// if there is no unit vector (stationary segment)
-					if (arcUnitVector == null) {
-						region = calcStationaryCase(
-							spatialPathSegment,
-							obstacleTrajectorySegment,
-							obstacleShape);
-					} else {
-						Matrix arcVelocityBase = makeArcVelocityBase(arcUnitVector, obstacleTrajectorySegment);
-						Matrix transformationMatrix = calcTransformationMatrix(arcVelocityBase);
-
-						// if arcVelocityBase is not invertible
-						// e.g. velocity vector is parallel to arc vector or zero
-						if (transformationMatrix == null || isParallel(arcVelocityBase)) {
-							region = calcParallelCase(
-								spatialPathSegment,
-								obstacleTrajectorySegment,
-								arcUnitVector,
-								obstacleShape);
-						} else {
-							region = calcRegularCase(
-								spatialPathSegment,
-								obstacleTrajectorySegment,
-								transformationMatrix,
-								obstacleShape);
-						}
-					}
-
-					if (!region.isEmpty())
-						subregions.add(region);
-				}
+				Geometry region = cache == null
+					? calcSubregion(spatialPathSegment, obstacleTrajectorySegment, obstacleShape)
+					: lookUpSubregion(spatialPathSegment, obstacleTrajectorySegment, obstacleShape);
+
+				if (!region.isEmpty())
+					subregions.add(region);
 			}
+		}
+
+		Geometry region = unionSubregions(subregions);
+
+		if (region.isEmpty())
+			return null;
 
-			Geometry region = geometry(subregions).union();
+		return new ForbiddenRegion(region.norm(), obstacle);
+	}
+
+	/**
+	 * Determines the index of the first trajectory segment which does not
+	 * finish before the time window.
+	 *
+	 * @param trajectory
+	 * @return the segment index.
+	 */
+	private int firstRelevantSegment(Trajectory trajectory) {
+		if (windowStartTime == null)
+			return 0;
 
-			if (!region.isEmpty())
-				forbiddenRegions.add(new ForbiddenRegion(region.norm(), obstacle));
+		// the first segment finishing at or after the window's start
+		int k = lowerBound(trajectory.getTimes(), windowStartTime);
+
+		return max(0, k-1);
+	}
+
+	/**
+	 * Determines the index of the last trajectory segment which does not
+	 * start after the time window.
+	 *
+	 * @param trajectory
+	 * @return the segment index. Might be less than the first relevant
+	 *         segment if there is none.
+	 */
+	private int lastRelevantSegment(Trajectory trajectory) {
+		int lastSegment = trajectory.size() - 2;
+
+		if (windowFinishTime == null)
+			return lastSegment;
+
+		// the last segment starting at or before the window's finish
+		int k = upperBound(trajectory.getTimes(), windowFinishTime);
+
+		return Math.min(lastSegment, k-1);
+	}
+
+	/**
+	 * Returns the index of the first time which is not before the given time.
+	 *
+	 * @param times
+	 *            ordered
+	 * @param time
+	 * @return the index or {@code times.size()} if there is none.
+	 */
+	private static int lowerBound(List<LocalDateTime> times, LocalDateTime time) {
+		int lo = 0, hi = times.size();
+
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+
+			if (times.get(mid).isBefore(time))
+				lo = mid + 1;
+			else
+				hi = mid;
 		}
 
-		setResultForbiddenRegions(forbiddenRegions);
+		return lo;
+	}
+
+	/**
+	 * Returns the index of the first time which is after the given time.
+	 *
+	 * @param times
+	 *            ordered
+	 * @param time
+	 * @return the index or {@code times.size()} if there is none.
+	 */
+	private static int upperBound(List<LocalDateTime> times, LocalDateTime time) {
+		int lo = 0, hi = times.size();
+
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+
+			if (times.get(mid).isAfter(time))
+				hi = mid;
+			else
+				lo = mid + 1;
+		}
+
+		return lo;
+	}
+
+	/**
+	 * <p>
+	 * Unions the subregions of a single forbidden region.
+	 * </p>
+	 *
+	 * <p>
+	 * The subregions are expected to be ordered by time. The subregions of a
+	 * trajectory segment are confined to the segment's time interval.
+	 * Therefore, a subregion only touches its neighbors in time. The
+	 * subregions are merged pairwise with their neighbors in a balanced manner.
+	 * This avoids the spatial grouping of a cascaded union which disregards
+	 * the time order.
+	 * </p>
+	 *
+	 * <p>
+	 * Non-polygonal subregions and robustness failures fall back to a cascaded
+	 * union.
+	 * </p>
+	 *
+	 * @param subregions
+	 * @return the union.
+	 */
+	private static Geometry unionSubregions(List<Geometry> subregions) {
+		boolean polygonal = !subregions.isEmpty() && subregions.stream()
+			.allMatch(g -> g instanceof Polygon || g instanceof MultiPolygon);
+
+		if (!polygonal)
+			return geometry(subregions).union();
+
+		try {
+			return mergeAdjacentSubregions(subregions, 0, subregions.size());
+		} catch (TopologyException e) {
+			return geometry(subregions).union();
+		}
+	}
+
+	/**
+	 * Merges the subregions of the index range {@code [from, to)} pairwise
+	 * with their neighbors.
+	 *
+	 * @param subregions
+	 * @param from
+	 *            inclusive
+	 * @param to
+	 *            exclusive
+	 * @return the union of the range.
+	 */
+	private static Geometry mergeAdjacentSubregions(List<Geometry> subregions, int from, int to) {
+		if (to - from == 1) {
+			Geometry subregion = subregions.get(from);
+
+			// the components of a multi polygon might overlap
+			return subregion.getNumGeometries() > 1
+				? subregion.union()
+				: subregion;
+		}
+
+		int mid = (from + to) >>> 1;
+
+		Geometry lhs = mergeAdjacentSubregions(subregions, from, mid);
+		Geometry rhs = mergeAdjacentSubregions(subregions, mid, to);
+
+		return lhs.union(rhs);
+	}
+
+	/**
+	 * Looks up the forbidden subregion of the given segments in the cache.
+	 * The subregion is calculated if it is not cached yet.
+	 *
+	 * @param spatialPathSegment
+	 * @param obstacleTrajectorySegment
+	 * @param obstacleShape
+	 * @return the subregion.
+	 */
+	private Geometry lookUpSubregion(
+		SpatialPath.Segment spatialPathSegment,
+		Trajectory.Segment obstacleTrajectorySegment,
+		Polygon obstacleShape)
+	{
+		ForbiddenRegionCache.Key key = new ForbiddenRegionCache.Key(
+			spatialPathSegment,
+			obstacleTrajectorySegment,
+			obstacleShape,
+			obstacleTrajectorySegment.getStartTimeInSeconds(getBaseTime()),
+			obstacleTrajectorySegment.getFinishTimeInSeconds(getBaseTime()));
+
+		return cache.get(key, () ->
+			calcSubregion(spatialPathSegment, obstacleTrajectorySegment, obstacleShape));
+	}
+
+	/**
+	 * Calculates the forbidden subregion introduced by a pair of segments.
+	 *
+	 * @param spatialPathSegment
+	 * @param obstacleTrajectorySegment
+	 * @param obstacleShape
+	 * @return the subregion.
+	 */
+	private Geometry calcSubregion(
+		SpatialPath.Segment spatialPathSegment,
+		Trajectory.Segment obstacleTrajectorySegment,
+		Polygon obstacleShape)
+	{
+		Point startPoint = spatialPathSegment.getStartPoint();
+		Point finishPoint = spatialPathSegment.getFinishPoint();
+		double dx = finishPoint.getX() - startPoint.getX();
+		double dy = finishPoint.getY() - startPoint.getY();
+		double norm = sqrt(dx*dx + dy*dy);
+
+		// if there is no unit vector (stationary segment)
+		if (norm == 0.0) {
+			return calcStationaryCase(
+				spatialPathSegment,
+				obstacleTrajectorySegment,
+				obstacleShape);
+		}
+
+		// The current spatial path segments unit vector.
+		// Also the direction and unit length of the arc dimension.
+		double ux = dx / norm;
+		double uy = dy / norm;
+
+		// the velocity vector of the obstacle
+		Point obstacleStartPoint = obstacleTrajectorySegment.getStartLocation();
+		Point obstacleFinishPoint = obstacleTrajectorySegment.getFinishLocation();
+		double duration = obstacleTrajectorySegment.durationInSeconds();
+		double vx = (obstacleFinishPoint.getX() - obstacleStartPoint.getX()) / duration;
+		double vy = (obstacleFinishPoint.getY() - obstacleStartPoint.getY()) / duration;
+
+		// the arc-velocity base [u, -v] and its inverse
+		double a00 = ux, a01 = -vx, a10 = uy, a11 = -vy;
+		double[] transformationMatrix = new double[4];
+		boolean invertible = ForbiddenRegionKernel.invert(a00, a01, a10, a11, transformationMatrix);
+
+		// if arcVelocityBase is not invertible
+		// e.g. velocity vector is parallel to arc vector or zero
+		if (!invertible || isParallel(a00, a01, a10, a11)) {
+			return calcParallelCase(
+				spatialPathSegment,
+				obstacleTrajectorySegment,
+				ux, uy,
+				obstacleShape);
+		} else {
+			return calcRegularCase(
+				spatialPathSegment,
+				obstacleTrajectorySegment,
+				transformationMatrix,
+				obstacleShape);
+		}
 	}
 
 	/**
@@ -338,7 +841,7 @@ public class ForbiddenRegionBuilder {
 	}
 
 	/**
-	 * The threshold used by {@link #isParallel(Matrix)}.
+	 * The threshold used by {@link #isParallel(double, double, double, double)}.
 	 */
 	private static double PARALLEL_THRESHOLD = 1e-10;
 
@@ -348,12 +851,15 @@ public class ForbiddenRegionBuilder {
 	 * between both vectors. {@code true} is returned if tan(alpha) is equal or
 	 * below {@link #PARALLEL_THRESHOLD}.
 	 *
-	 * @param base
+	 * @param a00
+	 * @param a01
+	 * @param a10
+	 * @param a11
 	 * @return whether the spanning vectors are parallel.
 	 */
-	private static boolean isParallel(Matrix base) {
-		double xArc = base.get(0, 0), yArc = base.get(0, 1);
-		double xVelocity = base.get(1, 0), yVelocity = base.get(1, 1);
+	private static boolean isParallel(double a00, double a01, double a10, double a11) {
+		double xArc = a00, yArc = a01;
+		double xVelocity = a10, yVelocity = a11;
 
 		double numerator = xArc * yVelocity - yArc * xVelocity;
 
@@ -466,16 +972,16 @@ public class ForbiddenRegionBuilder {
 		// first and last point are expected to be the same
 		// equal to getFinishPoint()
 		Point spatialPathPoint = spatialPathSegment.getStartPoint();
-		Vector s = makeVector(spatialPathPoint);
 
 		// first and last point are expected to differ
-		Vector vt = makeVector(
-			obstacleTrajectorySegment.getStartLocation(),
-			obstacleTrajectorySegment.getFinishLocation());
+		Point vt1 = obstacleTrajectorySegment.getStartLocation();
+		Point vt2 = obstacleTrajectorySegment.getFinishLocation();
 
 		return lineString(
 			spatialPathPoint,
-			makePoint( s.subtract(vt) ));
+			point(
+				spatialPathPoint.getX() - (vt2.getX() - vt1.getX()),
+				spatialPathPoint.getY() - (vt2.getY() - vt1.getY())));
 	}
 
 	/**
@@ -497,10 +1003,12 @@ public class ForbiddenRegionBuilder {
 		Point vt2 = obstacleTrajectorySegment.getFinishLocation();
 		double dt = obstacleTrajectorySegment.durationInSeconds();
 		// note that the start is vt2 and finish vt1
-		Vector vt = makeVector(vt2, vt1);
+		double vtx = vt1.getX() - vt2.getX();
+		double vty = vt1.getY() - vt2.getY();
 		// M = dt*vt / vt^2 = v / v^2
-		Matrix M = vt.multiply(dt).divide(
-				vt.toRowMatrix().multiply( vt.toColumnMatrix()).get(0, 0) ).toRowMatrix();
+		double vt2norm = vtx*vtx + vty*vty;
+		double mx = vtx * dt / vt2norm;
+		double my = vty * dt / vt2norm;
 
 		// origin
 		double x0 = xy0.getX();
@@ -512,13 +1020,14 @@ public class ForbiddenRegionBuilder {
 
 		transformed.apply((Coordinate c) -> {
 			// translated xy-vector with (x0, y0) as origin
-			Vector xyT = new BasicVector(new double[] {c.x - x0, c.y - y0});
+			double xT = c.x - x0;
+			double yT = c.y - y0;
 
 			// s = s0
 			c.x = s0;
 
 			// t = t0 + dt*vt / vt^2 * (xy - xy0) = t0 + v/v^2 * (xy - xy0)
-			c.y = t0 + M.multiply(xyT).get(0);
+			c.y = t0 + mx*xT + my*yT;
 		});
 
 		return transformed;
@@ -618,14 +1127,17 @@ public class ForbiddenRegionBuilder {
 	 *
 	 * @param spatialPathSegment
 	 * @param obstacleTrajectorySegment
-	 * @param arcUnitVector
+	 * @param ux
+	 *            the x-ordinate of the arc unit vector.
+	 * @param uy
+	 *            the y-ordinate of the arc unit vector.
 	 * @param obstacleShape
 	 * @return the subregion
 	 */
 	private Geometry calcParallelCase(
 		SpatialPath.Segment spatialPathSegment,
 		Trajectory.Segment obstacleTrajectorySegment,
-		Vector arcUnitVector,
+		double ux, double uy,
 		Polygon obstacleShape)
 	{
 		LineString spatialMask = makeSpatialLineMask(
@@ -645,7 +1157,7 @@ public class ForbiddenRegionBuilder {
 
 		Geometry transformedObstacleShape = transformParallelObstacle(
 			spatialPathSegment,
-			arcUnitVector,
+			ux, uy,
 			obstacleTrajectorySegment,
 			obstaclePathIntersection);
 
@@ -668,12 +1180,14 @@ public class ForbiddenRegionBuilder {
 		SpatialPath.Segment spatialPathSegment,
 		Trajectory.Segment obstacleTrajectorySegment)
 	{
-		Vector s1 = makeVector(spatialPathSegment.getStartPoint());
-		Vector s2 = makeVector(spatialPathSegment.getFinishPoint());
-		Vector s = s2.subtract(s1);
-		Vector vt = makeVector(
-			obstacleTrajectorySegment.getStartLocation(),
-			obstacleTrajectorySegment.getFinishLocation());
+		Point s1 = spatialPathSegment.getStartPoint();
+		Point s2 = spatialPathSegment.getFinishPoint();
+		Point vt1 = obstacleTrajectorySegment.getStartLocation();
+		Point vt2 = obstacleTrajectorySegment.getFinishLocation();
+		double sx = s2.getX() - s1.getX();
+		double sy = s2.getY() - s1.getY();
+		double vtx = vt2.getX() - vt1.getX();
+		double vty = vt2.getY() - vt1.getY();
 
 		double snorm = spatialPathSegment.length();
 
@@ -681,15 +1195,13 @@ public class ForbiddenRegionBuilder {
 		// the buffer will have the size of the obstacle trajectory segment
 
 		// alpha = abs( s * vt / ||s||^2 )
-		double alpha = Math.abs( s.toRowMatrix().multiply(vt).get(0) / (snorm*snorm) );
-		Vector salpha = s.multiply(alpha);
+		double alpha = Math.abs( (sx*vtx + sy*vty) / (snorm*snorm) );
+		double salphax = sx * alpha;
+		double salphay = sy * alpha;
 
 		// buffer path segment to create mask
-		Vector p1 = s1.subtract(salpha);
-		Vector p2 = s2.add(salpha);
-
-		// extract mask ordinates
-		double x1 = p1.get(0), y1 = p1.get(1), x2 = p2.get(0), y2 = p2.get(1);
+		double x1 = s1.getX() - salphax, y1 = s1.getY() - salphay;
+		double x2 = s2.getX() + salphax, y2 = s2.getY() + salphay;
 
 		return lineString(x1, y1, x2, y2);
 	}
@@ -732,23 +1244,26 @@ public class ForbiddenRegionBuilder {
 	 * the parallel case.
 	 *
 	 * @param spatialPathSegment
-	 * @param arcUnitVector
+	 * @param ux
+	 *            the x-ordinate of the arc unit vector.
+	 * @param uy
+	 *            the y-ordinate of the arc unit vector.
 	 * @param obstacleTrajectorySegment
 	 * @param obstaclePathIntersection
 	 * @return
 	 */
 	private Geometry transformParallelObstacle(
 		SpatialPath.Segment spatialPathSegment,
-		Vector arcUnitVector,
+		double ux, double uy,
 		Trajectory.Segment obstacleTrajectorySegment,
 		Geometry obstaclePathIntersection)
 	{
 		int n = obstaclePathIntersection.getNumGeometries();
-		Matrix arcUnitRowMatrix = arcUnitVector.toRowMatrix();
 		Point xy0 = spatialPathSegment.getStartPoint();
 		Point vt1 = obstacleTrajectorySegment.getStartLocation();
 		Point vt2 = obstacleTrajectorySegment.getFinishLocation();
-		Vector vt = makeVector(vt1, vt2);
+		double vtx = vt2.getX() - vt1.getX();
+		double vty = vt2.getY() - vt1.getY();
 
 		// origin
 		double x0 = xy0.getX();
@@ -757,7 +1272,7 @@ public class ForbiddenRegionBuilder {
 		double t0 = obstacleTrajectorySegment.getStartTimeInSeconds(getBaseTime());
 
 		double duration = obstacleTrajectorySegment.durationInSeconds();
-		double displacement = arcUnitRowMatrix.multiply(vt).get(0);
+		double displacement = ux*vtx + uy*vty;
 
 		List<Polygon> subregions = new ArrayList<>(n);
 		// for each line string
@@ -775,9 +1290,7 @@ public class ForbiddenRegionBuilder {
 			// for each coordinate
 			for (int k = 0; k < m; ++k) {
 				Coordinate c = coords[k];
-				Vector coordVector = new BasicVector(new double[] {c.x - x0, c.y - y0});
-
-				double s1 = s0 + arcUnitRowMatrix.multiply(coordVector).get(0);
+				double s1 = s0 + ux*(c.x - x0) + uy*(c.y - y0);
 				double s2 = s1 + displacement;
 				double t1 = t0;
 				double t2 = t1 + duration;
@@ -809,9 +1322,18 @@ public class ForbiddenRegionBuilder {
 	private Geometry calcRegularCase(
 		SpatialPath.Segment spatialPathSegment,
 		Trajectory.Segment obstacleTrajectorySegment,
-		Matrix transformationMatrix,
+		double[] transformationMatrix,
 		Polygon obstacleShape)
 	{
+		// convex shapes stay convex and are clipped by the kernel
+		if (ForbiddenRegionKernel.isConvex(obstacleShape)) {
+			return calcConvexRegularCase(
+				spatialPathSegment,
+				obstacleTrajectorySegment,
+				transformationMatrix,
+				obstacleShape);
+		}
+
 		Polygon movedObstacleShape =
 			translateGeometry(obstacleShape, obstacleTrajectorySegment.getStartLocation());
 		Geometry transformed = transformRegularObstacle(
@@ -827,159 +1349,86 @@ public class ForbiddenRegionBuilder {
 	}
 
 	/**
-	 * Calculates the subregion by transforming the masked obstacle's shape in
-	 * the regular case.
+	 * Calculates the forbidden subregion for the regular case of a convex
+	 * obstacle shape. The shape is transformed and clipped to the arc-time
+	 * mask on primitive values.
 	 *
 	 * @param spatialPathSegment
 	 * @param obstacleTrajectorySegment
-	 * @param movedObstacleShape
 	 * @param transformationMatrix
-	 * @return the subregion
+	 * @param obstacleShape
+	 * @return the subregion.
 	 */
-	private Geometry transformRegularObstacle(
+	private Geometry calcConvexRegularCase(
 		SpatialPath.Segment spatialPathSegment,
 		Trajectory.Segment obstacleTrajectorySegment,
-		Geometry movedObstacleShape,
-		Matrix transformationMatrix)
+		double[] transformationMatrix,
+		Polygon obstacleShape)
 	{
-		Geometry region = (Geometry) movedObstacleShape.clone();
-		Vector spatialOffset = makeVector( spatialPathSegment.getStartPoint() );
-		Vector arcTimeOffset = new BasicVector(new double[] {
-			spatialPathSegment.getStartVertex().getArc(),
-			obstacleTrajectorySegment.getStartTimeInSeconds(getBaseTime())
-		});
-
-		region.apply((Coordinate c) -> {
-			Vector spatialVector = new BasicVector(new double[] {c.x, c.y});
-
-			// ST = M * (XY - XY_0) + ST_0
-			Vector arcTimeVector = transformationMatrix
-				.multiply( spatialVector.subtract(spatialOffset) )
-				.add     ( arcTimeOffset );
-			c.x = arcTimeVector.get(0);
-			c.y = arcTimeVector.get(1);
-		});
-
-		return region;
-	}
-
-	/**
-	 * Converts a vector to a point.
-	 *
-	 * @param vector
-	 * @return the point.
-	 */
-	private static Point makePoint(Vector vector) {
-		return point(vector.get(0), vector.get(1));
-	}
-
-	/**
-	 * Converts a point to a vector.
-	 *
-	 * @param point
-	 * @return the vector.
-	 */
-	private static Vector makeVector(Point point) {
-		return new BasicVector(new double[] {point.getX(), point.getY()});
-	}
-
-	/**
-	 * Converts two point to a vector connecting both points.
-	 *
-	 * @param startPoint
-	 * @param finishPoint
-	 * @return the vector.
-	 */
-	private static Vector makeVector(Point startPoint, Point finishPoint) {
-		double x1 = startPoint.getX();
-		double y1 = startPoint.getY();
-		double x2 = finishPoint.getX();
-		double y2 = finishPoint.getY();
-
-		return new BasicVector(new double[] {x2 - x1, y2 - y1});
-	}
+		Point xy0 = spatialPathSegment.getStartPoint();
+		Point translation = obstacleTrajectorySegment.getStartLocation();
 
-	/**
-	 * Calculates the unit vector between to points.
-	 *
-	 * @param startPoint
-	 * @param finishPoint
-	 * @return the unit vector.
-	 */
-	private static Vector makeUnitVector(Point startPoint, Point finishPoint) {
-		Vector vec = makeVector(startPoint, finishPoint);
-		double norm = vec.fold(Vectors.mkEuclideanNormAccumulator());
+		// boundaries (see makeArcRectangularMask)
+		double smin = spatialPathSegment.getStartVertex().getArc();
+		double smax = smin + spatialPathSegment.length();
+		double tmin = obstacleTrajectorySegment.getStartTimeInSeconds(getBaseTime());
+		double tmax = tmin + obstacleTrajectorySegment.durationInSeconds();
 
-		if (norm == 0.0)
-			return null;
+		if (spatialPathSegment.isFirst())
+			smin = leftBuffer(smin);
+		if (spatialPathSegment.isLast())
+			smax = rightBuffer(smax);
 
-		return vec.divide(norm);
-	}
+		ForbiddenRegionKernel kernel = KERNEL.get();
 
-	/**
-	 * Calculates the velocity vector {@code s/t} where {@code s} is the
-	 * distance vector between two points and {@code t} is the duration.
-	 *
-	 * @param startPoint
-	 * @param finishPoint
-	 * @param duration
-	 * @return the velocity vector.
-	 */
-	private static Vector makeVelocityVector(Point startPoint, Point finishPoint, double duration) {
-		Vector vec = makeVector(startPoint, finishPoint);
+		kernel.loadTransformed(
+			obstacleShape,
+			translation.getX(), translation.getY(),
+			transformationMatrix,
+			xy0.getX(), xy0.getY(),
+			spatialPathSegment.getStartVertex().getArc(),
+			obstacleTrajectorySegment.getStartTimeInSeconds(getBaseTime()));
+		kernel.clip(smin, tmin, smax, tmax);
 
-		return vec.divide(duration);
+		return kernel.toPolygon();
 	}
 
 	/**
-	 * Calculates the arc-velocity base.
+	 * Calculates the subregion by transforming the masked obstacle's shape in
+	 * the regular case.
 	 *
-	 * @param arcUnitVector
+	 * @param spatialPathSegment
 	 * @param obstacleTrajectorySegment
-	 * @return
+	 * @param movedObstacleShape
+	 * @param transformationMatrix
+	 *            in row-major order.
+	 * @return the subregion
 	 */
-	private static Matrix makeArcVelocityBase(
-		Vector arcUnitVector,
-		Trajectory.Segment obstacleTrajectorySegment)
+	private Geometry transformRegularObstacle(
+		SpatialPath.Segment spatialPathSegment,
+		Trajectory.Segment obstacleTrajectorySegment,
+		Geometry movedObstacleShape,
+		double[] transformationMatrix)
 	{
-		Point obstacleStartPoint = obstacleTrajectorySegment.getStartLocation();
-		Point obstacleFinishPoint = obstacleTrajectorySegment.getFinishLocation();
-		double obstacleDuration = obstacleTrajectorySegment.durationInSeconds();
-
-		Vector velocityVector = makeVelocityVector(
-			obstacleStartPoint,
-			obstacleFinishPoint,
-			obstacleDuration);
-
-		Matrix arcVelocityBase = new Basic1DMatrix(2, 2);
-		arcVelocityBase.setColumn(0, arcUnitVector);
-		arcVelocityBase.setColumn(1, velocityVector.multiply(-1.));
-
-		return arcVelocityBase;
-	}
-
-	/**
-	 * Calculates the inverted arc-velocity base.
-	 *
-	 * @param arcVelocityBase
-	 * @return the inverted matrix. {@code null} if no inversion exists.
-	 */
-	private static Matrix calcTransformationMatrix(Matrix arcVelocityBase) {
-		Matrix transformationMatrix;
+		Geometry region = (Geometry) movedObstacleShape.clone();
+		Point xy0 = spatialPathSegment.getStartPoint();
+		double x0 = xy0.getX();
+		double y0 = xy0.getY();
+		double s0 = spatialPathSegment.getStartVertex().getArc();
+		double t0 = obstacleTrajectorySegment.getStartTimeInSeconds(getBaseTime());
+		double m00 = transformationMatrix[0], m01 = transformationMatrix[1];
+		double m10 = transformationMatrix[2], m11 = transformationMatrix[3];
 
-		try {
-			transformationMatrix =
-				arcVelocityBase.withInverter(LinearAlgebra.INVERTER).inverse();
-		} catch (IllegalArgumentException e) {
-			// what an appropriate exception to catch :P
+		region.apply((Coordinate c) -> {
+			double x = c.x - x0;
+			double y = c.y - y0;
 
-			if (e.getMessage().equals("This matrix is not invertible."))
-				transformationMatrix = null;
-			else
-				throw e;
-		}
+			// ST = M * (XY - XY_0) + ST_0
+			c.x = m00*x + m01*y + s0;
+			c.y = m10*x + m11*y + t0;
+		});
 
-		return transformationMatrix;
+		return region;
 	}
 
 	/**
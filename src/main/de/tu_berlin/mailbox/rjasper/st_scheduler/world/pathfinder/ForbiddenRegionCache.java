@@ -0,0 +1,333 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.SpatialPath;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.Trajectory;
+
+/**
+ * <p>
+ * Caches the forbidden subregions calculated by the
+ * {@link ForbiddenRegionBuilder}. A subregion is introduced by a single pair
+ * of a spatial path segment and an obstacle's trajectory segment. It only
+ * depends on the segments' ordinates, the obstacle's shape, and the
+ * trajectory segment's times relative to the base time. Therefore, a
+ * subregion can be reused by any calculation sharing those properties.
+ * </p>
+ *
+ * <p>
+ * The cache holds a bounded number of subregions. If the capacity is
+ * exceeded, the least recently used subregion is evicted. The number of hits,
+ * misses, and evictions are counted.
+ * </p>
+ *
+ * <p>
+ * The cache is thread-safe.
+ * </p>
+ *
+ * @author Rico Jasper
+ */
+public class ForbiddenRegionCache {
+
+	/**
+	 * The default maximum number of cached subregions.
+	 */
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	/**
+	 * Identifies a subregion.
+	 */
+	static class Key {
+
+		/**
+		 * The ordinates of the spatial path segment.
+		 */
+		private final double x1, y1, x2, y2;
+
+		/**
+		 * The arcs of the spatial path segment.
+		 */
+		private final double s1, s2;
+
+		/**
+		 * Indicates if the spatial path segment is the first one.
+		 */
+		private final boolean first;
+
+		/**
+		 * Indicates if the spatial path segment is the last one.
+		 */
+		private final boolean last;
+
+		/**
+		 * The ordinates of the obstacle's trajectory segment.
+		 */
+		private final double ox1, oy1, ox2, oy2;
+
+		/**
+		 * The times of the obstacle's trajectory segment in seconds relative
+		 * to the base time.
+		 */
+		private final double t1, t2;
+
+		/**
+		 * The duration of the obstacle's trajectory segment in seconds.
+		 */
+		private final double duration;
+
+		/**
+		 * The obstacle's shape.
+		 */
+		private final Polygon shape;
+
+		/**
+		 * The hash code.
+		 */
+		private final int hash;
+
+		/**
+		 * Constructs a key identifying the subregion of the given segments.
+		 *
+		 * @param spatialPathSegment
+		 * @param obstacleTrajectorySegment
+		 * @param obstacleShape
+		 * @param t1
+		 *            the trajectory segment's start time in seconds.
+		 * @param t2
+		 *            the trajectory segment's finish time in seconds.
+		 */
+		Key(
+			SpatialPath.Segment spatialPathSegment,
+			Trajectory.Segment obstacleTrajectorySegment,
+			Polygon obstacleShape,
+			double t1, double t2)
+		{
+			Point p1 = spatialPathSegment.getStartPoint();
+			Point p2 = spatialPathSegment.getFinishPoint();
+			Point o1 = obstacleTrajectorySegment.getStartLocation();
+			Point o2 = obstacleTrajectorySegment.getFinishLocation();
+
+			this.x1 = p1.getX();
+			this.y1 = p1.getY();
+			this.x2 = p2.getX();
+			this.y2 = p2.getY();
+			this.s1 = spatialPathSegment.getStartVertex().getArc();
+			this.s2 = spatialPathSegment.getFinishVertex().getArc();
+			this.first = spatialPathSegment.isFirst();
+			this.last = spatialPathSegment.isLast();
+			this.ox1 = o1.getX();
+			this.oy1 = o1.getY();
+			this.ox2 = o2.getX();
+			this.oy2 = o2.getY();
+			this.t1 = t1;
+			this.t2 = t2;
+			this.duration = obstacleTrajectorySegment.durationInSeconds();
+			this.shape = obstacleShape;
+			this.hash = calcHashCode();
+		}
+
+		/**
+		 * Calculates the hash code. The shape only contributes by its envelope.
+		 *
+		 * @return the hash code.
+		 */
+		private int calcHashCode() {
+			double[] ordinates = {x1, y1, x2, y2, s1, s2, ox1, oy1, ox2, oy2, t1, t2, duration};
+
+			int result = 1;
+
+			for (double d : ordinates)
+				result = 31 * result + Double.hashCode(d);
+
+			result = 31 * result + Boolean.hashCode(first);
+			result = 31 * result + Boolean.hashCode(last);
+			result = 31 * result + shape.getEnvelopeInternal().hashCode();
+
+			return result;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+
+			Key other = (Key) obj;
+
+			return hash == other.hash
+				&& Double.compare(x1, other.x1) == 0
+				&& Double.compare(y1, other.y1) == 0
+				&& Double.compare(x2, other.x2) == 0
+				&& Double.compare(y2, other.y2) == 0
+				&& Double.compare(s1, other.s1) == 0
+				&& Double.compare(s2, other.s2) == 0
+				&& first == other.first
+				&& last == other.last
+				&& Double.compare(ox1, other.ox1) == 0
+				&& Double.compare(oy1, other.oy1) == 0
+				&& Double.compare(ox2, other.ox2) == 0
+				&& Double.compare(oy2, other.oy2) == 0
+				&& Double.compare(t1, other.t1) == 0
+				&& Double.compare(t2, other.t2) == 0
+				&& Double.compare(duration, other.duration) == 0
+				&& (shape == other.shape || shape.equalsExact(other.shape));
+		}
+
+	}
+
+	/**
+	 * The maximum number of cached subregions.
+	 */
+	private final int capacity;
+
+	/**
+	 * The subregions in access order.
+	 */
+	private final Map<Key, Geometry> subregions;
+
+	/**
+	 * The number of lookups which found a cached subregion.
+	 */
+	private long hits = 0L;
+
+	/**
+	 * The number of lookups which had to calculate the subregion.
+	 */
+	private long misses = 0L;
+
+	/**
+	 * The number of evicted subregions.
+	 */
+	private long evictions = 0L;
+
+	/**
+	 * Constructs a new cache with the default capacity.
+	 */
+	public ForbiddenRegionCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a new cache holding up to the given number of subregions.
+	 *
+	 * @param capacity
+	 * @throws IllegalArgumentException
+	 *             if {@code capacity} is not positive.
+	 */
+	public ForbiddenRegionCache(int capacity) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("invalid capacity");
+
+		this.capacity = capacity;
+		this.subregions = new LinkedHashMap<Key, Geometry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Geometry> eldest) {
+				boolean evict = size() > ForbiddenRegionCache.this.capacity;
+
+				if (evict)
+					++evictions;
+
+				return evict;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cached subregion of the given key. If there is none, the
+	 * subregion is calculated by the given supplier and cached. The
+	 * calculation itself does not hold the cache's lock.
+	 *
+	 * @param key
+	 * @param calculation
+	 * @return the subregion.
+	 */
+	Geometry get(Key key, Supplier<Geometry> calculation) {
+		Objects.requireNonNull(key, "key");
+		Objects.requireNonNull(calculation, "calculation");
+
+		synchronized (this) {
+			Geometry subregion = subregions.get(key);
+
+			if (subregion != null) {
+				++hits;
+				return subregion;
+			}
+
+			++misses;
+		}
+
+		Geometry subregion = calculation.get();
+
+		synchronized (this) {
+			subregions.put(key, subregion);
+		}
+
+		return subregion;
+	}
+
+	/**
+	 * @return the maximum number of cached subregions.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return the number of cached subregions.
+	 */
+	public synchronized int size() {
+		return subregions.size();
+	}
+
+	/**
+	 * @return the number of lookups which found a cached subregion.
+	 */
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of lookups which had to calculate the subregion.
+	 */
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	/**
+	 * @return the number of evicted subregions.
+	 */
+	public synchronized long getEvictionCount() {
+		return evictions;
+	}
+
+	/**
+	 * Removes all cached subregions. The counters are retained.
+	 */
+	public synchronized void clear() {
+		subregions.clear();
+	}
+
+}
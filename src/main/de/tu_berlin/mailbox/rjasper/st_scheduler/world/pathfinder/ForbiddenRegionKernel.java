@@ -0,0 +1,318 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
+
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.polygon;
+import static java.lang.Math.abs;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.Polygon;
+
+/**
+ * <p>
+ * The {@code ForbiddenRegionKernel} implements the arithmetic of the
+ * {@link ForbiddenRegionBuilder} on primitive values. The 2x2 arc-time
+ * transformation is stored in a {@code double[4]} array in row-major order.
+ * </p>
+ *
+ * <p>
+ * Convex obstacle shapes are transformed and clipped on reusable coordinate
+ * buffers. Only the final subregion is materialized as a JTS geometry.
+ * </p>
+ *
+ * <p>
+ * A kernel is not thread-safe due to its buffers.
+ * </p>
+ *
+ * @author Rico Jasper
+ */
+class ForbiddenRegionKernel {
+
+	/**
+	 * The threshold of the absolute determinant below which a matrix is
+	 * considered to be singular. Equals the machine epsilon used by la4j's
+	 * Gaussian solver which was previously used to invert the matrix.
+	 */
+	private static final double SINGULAR_THRESHOLD = 1.1102230246251565E-14;
+
+	/**
+	 * The x-ordinates of the current polygon.
+	 */
+	private double[] xs = new double[16];
+
+	/**
+	 * The y-ordinates of the current polygon.
+	 */
+	private double[] ys = new double[16];
+
+	/**
+	 * The x-ordinates of the clipping output.
+	 */
+	private double[] xsOut = new double[16];
+
+	/**
+	 * The y-ordinates of the clipping output.
+	 */
+	private double[] ysOut = new double[16];
+
+	/**
+	 * The number of vertices of the current polygon.
+	 */
+	private int size = 0;
+
+	/**
+	 * Inverts the 2x2 matrix {@code [[a00, a01], [a10, a11]]}.
+	 *
+	 * @param a00
+	 * @param a01
+	 * @param a10
+	 * @param a11
+	 * @param inverse
+	 *            the array to store the inverse in row-major order.
+	 * @return {@code false} if the matrix is singular.
+	 */
+	public static boolean invert(double a00, double a01, double a10, double a11, double[] inverse) {
+		double det = a00 * a11 - a01 * a10;
+
+		if (abs(det) < SINGULAR_THRESHOLD)
+			return false;
+
+		inverse[0] =  a11 / det;
+		inverse[1] = -a01 / det;
+		inverse[2] = -a10 / det;
+		inverse[3] =  a00 / det;
+
+		return true;
+	}
+
+	/**
+	 * Determines whether the given polygon is convex and has no holes.
+	 * Collinear vertices are tolerated.
+	 *
+	 * @param polygon
+	 * @return {@code true} if the polygon is convex.
+	 */
+	public static boolean isConvex(Polygon polygon) {
+		if (polygon.isEmpty() || polygon.getNumInteriorRing() > 0)
+			return false;
+
+		CoordinateSequence ring = polygon.getExteriorRing().getCoordinateSequence();
+		int n = ring.size() - 1; // last equals first
+
+		int sign = 0;
+		for (int i = 0; i < n; ++i) {
+			int j = (i + 1) % n;
+			int k = (i + 2) % n;
+
+			double cross =
+				(ring.getX(j) - ring.getX(i)) * (ring.getY(k) - ring.getY(j)) -
+				(ring.getY(j) - ring.getY(i)) * (ring.getX(k) - ring.getX(j));
+
+			if (cross == 0.0)
+				continue;
+
+			int s = cross > 0.0 ? 1 : -1;
+
+			if (sign == 0)
+				sign = s;
+			else if (s != sign)
+				return false;
+		}
+
+		return sign != 0;
+	}
+
+	/**
+	 * <p>
+	 * Loads the exterior ring of the given polygon translated by
+	 * {@code (dx, dy)} and transformed into the arc-time plane.
+	 * </p>
+	 *
+	 * <p>
+	 * ST = M * (XY + D - XY_0) + ST_0
+	 * </p>
+	 *
+	 * @param polygon
+	 * @param dx
+	 * @param dy
+	 * @param matrix
+	 *            the transformation matrix in row-major order.
+	 * @param x0
+	 * @param y0
+	 * @param s0
+	 * @param t0
+	 */
+	public void loadTransformed(
+		Polygon polygon,
+		double dx, double dy,
+		double[] matrix,
+		double x0, double y0,
+		double s0, double t0)
+	{
+		CoordinateSequence ring = polygon.getExteriorRing().getCoordinateSequence();
+		int n = ring.size() - 1; // last equals first
+
+		ensureCapacity(n);
+
+		double m00 = matrix[0], m01 = matrix[1], m10 = matrix[2], m11 = matrix[3];
+		for (int i = 0; i < n; ++i) {
+			double x = ring.getX(i) + dx - x0;
+			double y = ring.getY(i) + dy - y0;
+
+			xs[i] = m00 * x + m01 * y + s0;
+			ys[i] = m10 * x + m11 * y + t0;
+		}
+
+		size = n;
+	}
+
+	/**
+	 * Clips the loaded polygon to the given box using the Sutherland-Hodgman
+	 * algorithm. The loaded polygon is required to be convex.
+	 *
+	 * @param minX
+	 * @param minY
+	 * @param maxX
+	 * @param maxY
+	 */
+	public void clip(double minX, double minY, double maxX, double maxY) {
+		clip(0,  1.0, minX); // x >= minX
+		clip(0, -1.0, maxX); // x <= maxX
+		clip(1,  1.0, minY); // y >= minY
+		clip(1, -1.0, maxY); // y <= maxY
+	}
+
+	/**
+	 * Clips the loaded polygon to a half plane {@code sign * (v - bound) >= 0}
+	 * where {@code v} is the ordinate of the given dimension.
+	 *
+	 * @param dim
+	 *            0 for x, 1 for y.
+	 * @param sign
+	 * @param bound
+	 */
+	private void clip(int dim, double sign, double bound) {
+		int n = size;
+
+		if (n == 0)
+			return;
+
+		ensureOutCapacity(2*n);
+
+		double[] vs = dim == 0 ? xs : ys;
+		int m = 0;
+
+		for (int i = 0; i < n; ++i) {
+			int j = (i + 1) % n;
+
+			double di = sign * (vs[i] - bound);
+			double dj = sign * (vs[j] - bound);
+			boolean inI = di >= 0.0;
+			boolean inJ = dj >= 0.0;
+
+			if (inI) {
+				xsOut[m] = xs[i];
+				ysOut[m] = ys[i];
+				++m;
+			}
+
+			if (inI != inJ) {
+				double alpha = di / (di - dj);
+				double x, y;
+
+				// snap the clipped ordinate to the bound exactly
+				if (dim == 0) {
+					x = bound;
+					y = ys[i] + alpha * (ys[j] - ys[i]);
+				} else {
+					x = xs[i] + alpha * (xs[j] - xs[i]);
+					y = bound;
+				}
+
+				xsOut[m] = x;
+				ysOut[m] = y;
+				++m;
+			}
+		}
+
+		double[] tmp;
+		tmp = xs; xs = xsOut; xsOut = tmp;
+		tmp = ys; ys = ysOut; ysOut = tmp;
+		size = m;
+	}
+
+	/**
+	 * Materializes the loaded polygon. Consecutive duplicate vertices are
+	 * dropped. Returns an empty polygon if the loaded polygon has no area.
+	 *
+	 * @return the polygon.
+	 */
+	public Polygon toPolygon() {
+		int m = 0;
+
+		// drop consecutive duplicates in place
+		for (int i = 0; i < size; ++i) {
+			if (m > 0 && xs[i] == xs[m-1] && ys[i] == ys[m-1])
+				continue;
+
+			xs[m] = xs[i];
+			ys[m] = ys[i];
+			++m;
+		}
+		if (m > 1 && xs[0] == xs[m-1] && ys[0] == ys[m-1])
+			--m;
+
+		if (m < 3 || area(m) == 0.0)
+			return polygon();
+
+		Coordinate[] coords = new Coordinate[m + 1];
+		for (int i = 0; i < m; ++i)
+			coords[i] = new Coordinate(xs[i], ys[i]);
+		// first and last coordinate have to be equal
+		coords[m] = new Coordinate(xs[0], ys[0]);
+
+		return polygon(coords);
+	}
+
+	/**
+	 * Calculates the absolute area of the first {@code n} loaded vertices.
+	 *
+	 * @param n
+	 * @return the area.
+	 */
+	private double area(int n) {
+		double sum = 0.0;
+
+		for (int i = 0; i < n; ++i) {
+			int j = (i + 1) % n;
+
+			sum += xs[i] * ys[j] - xs[j] * ys[i];
+		}
+
+		return abs(sum) / 2.0;
+	}
+
+	/**
+	 * Ensures that the polygon buffers hold at least {@code n} vertices.
+	 *
+	 * @param n
+	 */
+	private void ensureCapacity(int n) {
+		if (xs.length < n) {
+			xs = new double[n];
+			ys = new double[n];
+		}
+	}
+
+	/**
+	 * Ensures that the output buffers hold at least {@code n} vertices.
+	 *
+	 * @param n
+	 */
+	private void ensureOutCapacity(int n) {
+		if (xsOut.length < n) {
+			xsOut = new double[n];
+			ysOut = new double[n];
+		}
+	}
+
+}
@@ -0,0 +1,232 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * A binary min-heap of {@code int} elements in the range {@code [0, capacity)}.
+ * Each element is prioritized by a weight and a depth. Lower weights come
+ * first. Equal weights are ordered by lower depth.
+ * </p>
+ *
+ * <p>
+ * The position of each element within the heap is tracked. Therefore, the
+ * priority of a queued element can be decreased in O(log n).
+ * </p>
+ *
+ * @author Rico Jasper
+ */
+class IndexedHeap {
+
+	/**
+	 * The marker of elements which are not queued.
+	 */
+	private static final int NONE = -1;
+
+	/**
+	 * The queued elements in heap order.
+	 */
+	private final int[] heap;
+
+	/**
+	 * The position of each element within the heap.
+	 */
+	private final int[] positions;
+
+	/**
+	 * The weight of each element.
+	 */
+	private final double[] weights;
+
+	/**
+	 * The depth of each element.
+	 */
+	private final int[] depths;
+
+	/**
+	 * The number of queued elements.
+	 */
+	private int size = 0;
+
+	/**
+	 * Constructs an empty heap for elements in the range
+	 * {@code [0, capacity)}.
+	 *
+	 * @param capacity
+	 * @throws IllegalArgumentException
+	 *             if {@code capacity} is negative.
+	 */
+	public IndexedHeap(int capacity) {
+		if (capacity < 0)
+			throw new IllegalArgumentException("invalid capacity");
+
+		this.heap = new int[capacity];
+		this.positions = new int[capacity];
+		this.weights = new double[capacity];
+		this.depths = new int[capacity];
+
+		Arrays.fill(positions, NONE);
+	}
+
+	/**
+	 * @return {@code true} if no element is queued.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return the number of queued elements.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param element
+	 * @return {@code true} if the element is queued.
+	 */
+	public boolean contains(int element) {
+		return positions[element] != NONE;
+	}
+
+	/**
+	 * Inserts an element or updates the priority of an already queued one.
+	 *
+	 * @param element
+	 * @param weight
+	 * @param depth
+	 */
+	public void insertOrUpdate(int element, double weight, int depth) {
+		int pos = positions[element];
+
+		if (pos == NONE) {
+			pos = size++;
+			heap[pos] = element;
+			positions[element] = pos;
+		}
+
+		double oldWeight = weights[element];
+		int oldDepth = depths[element];
+
+		weights[element] = weight;
+		depths[element] = depth;
+
+		if (pos == size-1 || less(weight, depth, oldWeight, oldDepth))
+			siftUp(pos);
+		else
+			siftDown(pos);
+	}
+
+	/**
+	 * Removes the element with the lowest priority.
+	 *
+	 * @return the element.
+	 * @throws NoSuchElementException
+	 *             if the heap is empty.
+	 */
+	public int poll() {
+		if (size == 0)
+			throw new NoSuchElementException("heap is empty");
+
+		int top = heap[0];
+		int last = heap[--size];
+
+		positions[top] = NONE;
+
+		if (size > 0) {
+			heap[0] = last;
+			positions[last] = 0;
+			siftDown(0);
+		}
+
+		return top;
+	}
+
+	/**
+	 * Moves the element at the given position up until the heap order is
+	 * restored.
+	 *
+	 * @param pos
+	 */
+	private void siftUp(int pos) {
+		int element = heap[pos];
+
+		while (pos > 0) {
+			int parentPos = (pos - 1) >>> 1;
+			int parent = heap[parentPos];
+
+			if (!less(element, parent))
+				break;
+
+			heap[pos] = parent;
+			positions[parent] = pos;
+			pos = parentPos;
+		}
+
+		heap[pos] = element;
+		positions[element] = pos;
+	}
+
+	/**
+	 * Moves the element at the given position down until the heap order is
+	 * restored.
+	 *
+	 * @param pos
+	 */
+	private void siftDown(int pos) {
+		int element = heap[pos];
+		int half = size >>> 1;
+
+		while (pos < half) {
+			int childPos = 2*pos + 1;
+			int child = heap[childPos];
+			int rightPos = childPos + 1;
+
+			if (rightPos < size && less(heap[rightPos], child)) {
+				childPos = rightPos;
+				child = heap[childPos];
+			}
+
+			if (!less(child, element))
+				break;
+
+			heap[pos] = child;
+			positions[child] = pos;
+			pos = childPos;
+		}
+
+		heap[pos] = element;
+		positions[element] = pos;
+	}
+
+	/**
+	 * @param lhs
+	 * @param rhs
+	 * @return {@code true} if the left element has a lower priority.
+	 */
+	private boolean less(int lhs, int rhs) {
+		return less(weights[lhs], depths[lhs], weights[rhs], depths[rhs]);
+	}
+
+	/**
+	 * Compares priorities in the same manner as {@link Double#compare} and
+	 * {@link Integer#compare}.
+	 *
+	 * @param lhsWeight
+	 * @param lhsDepth
+	 * @param rhsWeight
+	 * @param rhsDepth
+	 * @return {@code true} if the left priority is lower.
+	 */
+	private static boolean less(double lhsWeight, int lhsDepth, double rhsWeight, int rhsDepth) {
+		int weightCmp = Double.compare(lhsWeight, rhsWeight);
+
+		if (weightCmp != 0)
+			return weightCmp < 0;
+		else
+			return lhsDepth < rhsDepth;
+	}
+
+}
@@ -0,0 +1,192 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <p>
+ * The {@code Landmarks} of a {@link VisibilityGraph} enable the ALT variant of
+ * A* (A*, landmarks, triangle inequality). The shortest distances from a few
+ * landmark nodes to all other nodes are precomputed. By the triangle
+ * inequality, the distance between a node {@code v} and the finish
+ * {@code f} is at least {@code |d(L, f) - d(L, v)|} for any landmark
+ * {@code L}. The best such bound usually is a lot tighter than the euclidean
+ * distance in maze-like worlds.
+ * </p>
+ *
+ * <p>
+ * The landmarks are chosen greedily. Each landmark is the node farthest away
+ * from all previously chosen landmarks.
+ * </p>
+ *
+ * <p>
+ * The bounds are only admissible if the connections between obstacle nodes
+ * are not limited by a maximum connection distance. The landmarks are
+ * immutable and can be used concurrently.
+ * </p>
+ *
+ * @author Rico Jasper
+ */
+public class Landmarks {
+
+	/**
+	 * The visibility graph.
+	 */
+	private final VisibilityGraph graph;
+
+	/**
+	 * The landmark nodes.
+	 */
+	private final int[] nodes;
+
+	/**
+	 * The shortest distances from each landmark to all nodes.
+	 */
+	private final double[][] distances;
+
+	/**
+	 * Chooses the given number of landmarks of the graph and precomputes their
+	 * distances. Fewer landmarks are chosen if the graph has fewer nodes.
+	 *
+	 * @param graph
+	 * @param count
+	 *            the number of landmarks.
+	 * @throws NullPointerException
+	 *             if graph is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if count is negative.
+	 */
+	public Landmarks(VisibilityGraph graph, int count) {
+		Objects.requireNonNull(graph, "graph");
+
+		if (count < 0)
+			throw new IllegalArgumentException("count is negative");
+
+		int n = graph.nodeCount();
+		int k = Math.min(count, n);
+
+		this.graph = graph;
+		this.nodes = new int[k];
+		this.distances = new double[k][];
+
+		// the minimum distance of each node to the chosen landmarks
+		double[] separation = new double[n];
+		Arrays.fill(separation, Double.POSITIVE_INFINITY);
+
+		int next = 0;
+		for (int i = 0; i < k; ++i) {
+			nodes[i] = next;
+			distances[i] = graph.distancesFrom(next);
+
+			for (int v = 0; v < n; ++v) {
+				double d = distances[i][v];
+
+				// unreachable nodes are covered by landmarks of their own component
+				if (d < separation[v])
+					separation[v] = d;
+			}
+
+			next = farthest(separation);
+		}
+	}
+
+	/**
+	 * Determines the node with the greatest separation. Infinitely separated
+	 * nodes are preferred since they are not covered by any landmark.
+	 *
+	 * @param separation
+	 * @return the node.
+	 */
+	private static int farthest(double[] separation) {
+		int farthest = 0;
+
+		for (int v = 1; v < separation.length; ++v) {
+			if (separation[v] > separation[farthest])
+				farthest = v;
+		}
+
+		return farthest;
+	}
+
+	/**
+	 * @return the visibility graph of the landmarks.
+	 */
+	public VisibilityGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * @return the number of landmarks.
+	 */
+	public int size() {
+		return nodes.length;
+	}
+
+	/**
+	 * Calculates the distances from each landmark to a location which is
+	 * connected to the given visible nodes.
+	 *
+	 * @param visible
+	 *            the nodes visible from the location.
+	 * @param x
+	 *            the x-ordinate of the location.
+	 * @param y
+	 *            the y-ordinate of the location.
+	 * @return the distances.
+	 */
+	double[] distancesTo(boolean[] visible, double x, double y) {
+		int k = nodes.length;
+		double[] result = new double[k];
+
+		for (int i = 0; i < k; ++i) {
+			double[] row = distances[i];
+			double min = Double.POSITIVE_INFINITY;
+
+			for (int v = 0; v < visible.length; ++v) {
+				if (!visible[v])
+					continue;
+
+				double d = row[v] + graph.distance(v, x, y);
+
+				if (d < min)
+					min = d;
+			}
+
+			result[i] = min;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Calculates the lower bound of the distance from the given node to a
+	 * location.
+	 *
+	 * @param v
+	 *            the node.
+	 * @param distancesToLocation
+	 *            the distances from each landmark to the location.
+	 * @return the lower bound.
+	 * @see #distancesTo(boolean[], double, double)
+	 */
+	double lowerBound(int v, double[] distancesToLocation) {
+		double bound = 0.0;
+
+		for (int i = 0; i < nodes.length; ++i) {
+			double dv = distances[i][v];
+			double df = distancesToLocation[i];
+
+			// the bound is meaningless if the landmark is disconnected
+			if (Double.isInfinite(dv) || Double.isInfinite(df))
+				continue;
+
+			double d = Math.abs(df - dv);
+
+			if (d > bound)
+				bound = d;
+		}
+
+		return bound;
+	}
+
+}
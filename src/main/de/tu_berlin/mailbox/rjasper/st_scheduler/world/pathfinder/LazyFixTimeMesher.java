@@ -4,17 +4,14 @@ import static de.tu_berlin.mailbox.rjasper.collect.CollectionsRequire.requireNon
 import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.geometryCollection;
 import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutablePoint;
 import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collectors.toSet;
 
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Set;
+import java.util.Deque;
 import java.util.function.BiFunction;
 import java.util.stream.Stream;
 
-import org.jgrapht.graph.DefaultDirectedWeightedGraph;
-import org.jgrapht.graph.DefaultWeightedEdge;
-import org.jgrapht.traverse.DepthFirstIterator;
 
 import com.vividsolutions.jts.geom.Geometry;
 
@@ -41,11 +38,11 @@ public class LazyFixTimeMesher {
 
 	private BiFunction<ImmutablePoint, ImmutablePoint, Double> weightCalculator = null;
 
-	private transient DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> graph;
+	private transient ArcTimeGraph graph;
 
-	private transient Set<ImmutablePoint> originalVertices;
+	private transient int[] originalVertices;
 
-	private transient Geometry forbiddenMap;
+	private transient ForbiddenMapIndex forbiddenMap;
 
 	public void setStartVertex(ImmutablePoint startVertex) {
 		this.startVertex = requireNonNull(startVertex, "startVertex");
@@ -85,9 +82,9 @@ public class LazyFixTimeMesher {
 	}
 
 	public static class MeshResult {
-		public final DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> graph;
+		public final ArcTimeGraph graph;
 
-		private MeshResult(DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> graph) {
+		private MeshResult(ArcTimeGraph graph) {
 			this.graph = graph;
 		}
 
@@ -96,7 +93,7 @@ public class LazyFixTimeMesher {
 		}
 	}
 
-	public DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> mesh() {
+	public ArcTimeGraph mesh() {
 		checkParameters();
 		init();
 
@@ -105,7 +102,7 @@ public class LazyFixTimeMesher {
 		if (!checkReachability())
 			meshInterconnection();
 
-		DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> result = graph;
+		ArcTimeGraph result = graph;
 		cleanUp();
 		return result;
 	}
@@ -127,19 +124,35 @@ public class LazyFixTimeMesher {
 	}
 
 	private boolean checkReachability() {
-		DepthFirstIterator<ImmutablePoint, DefaultWeightedEdge> it =
-			new DepthFirstIterator<>(graph, startVertex);
+		int start = graph.vertexOf(startVertex);
+		int finish = graph.vertexOf(finishVertex);
+		boolean[] seen = new boolean[graph.vertexIdLimit()];
 
-		while (it.hasNext()) {
-			if (it.next().equals(finishVertex))
+		Deque<Integer> stack = new ArrayDeque<>();
+		seen[start] = true;
+		stack.push(start);
+
+		while (!stack.isEmpty()) {
+			int v = stack.pop();
+
+			if (v == finish)
 				return true;
+
+			for (int e = graph.firstOutgoingEdge(v); e != -1; e = graph.nextOutgoingEdge(e)) {
+				int u = graph.getEdgeTarget(e);
+
+				if (!seen[u]) {
+					seen[u] = true;
+					stack.push(u);
+				}
+			}
 		}
 
 		return false;
 	}
 
 	private void init() {
-		graph = new DefaultDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+		graph = new ArcTimeGraph();
 
 		originalVertices =
 			Stream.concat(
@@ -149,16 +162,15 @@ public class LazyFixTimeMesher {
 					.map(Geometry::getCoordinates)
 					.flatMap(Arrays::stream)
 					.map(c -> immutablePoint(c.x, c.y)))
-			.collect(toSet());
-
-		for (ImmutablePoint v : originalVertices)
-			graph.addVertex(v);
+			.mapToInt(graph::addVertex)
+			.distinct()
+			.toArray();
 
 		Geometry[] regions = forbiddenRegions.stream()
 			.map(ForbiddenRegion::getRegion)
 			.toArray(n -> new Geometry[n]);
 
-		forbiddenMap = geometryCollection(regions);
+		forbiddenMap = new ForbiddenMapIndex(geometryCollection(regions));
 	}
 
 	private void cleanUp() {
@@ -195,6 +207,8 @@ public class LazyFixTimeMesher {
 		connector.setMaxVelocity(maxVelocity);
 		connector.setForbiddenMap(forbiddenMap);
 		connector.setWeightCalculator(weightCalculator);
+		// only vertices expanded by the search need to be connected
+		connector.setLazy(true);
 
 		connector.connect();
 	}
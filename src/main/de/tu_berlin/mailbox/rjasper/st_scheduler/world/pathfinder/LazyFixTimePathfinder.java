@@ -6,10 +6,6 @@ import static java.util.Objects.requireNonNull;
 
 import java.time.Duration;
 import java.util.Collection;
-import java.util.List;
-
-import org.jgrapht.graph.DefaultDirectedWeightedGraph;
-import org.jgrapht.graph.DefaultWeightedEdge;
 
 import com.google.common.collect.ImmutableList;
 
@@ -28,6 +24,11 @@ public class LazyFixTimePathfinder extends AbstractFixTimePathfinder {
 
 	private Duration minStopDuration = null;
 
+	/**
+	 * Indicates whether to search the mesh using A* instead of Dijkstra.
+	 */
+	private boolean heuristicSearch = false;
+
 	public void setMinStopDuration(Duration minStopDuration) {
 		requireNonNull(minStopDuration);
 
@@ -37,6 +38,17 @@ public class LazyFixTimePathfinder extends AbstractFixTimePathfinder {
 		this.minStopDuration = minStopDuration;
 	}
 
+	/**
+	 * Sets whether to search the mesh using A* instead of Dijkstra. The
+	 * heuristic estimates the remaining time by the remaining arc and the
+	 * maximum speed. Disabled by default.
+	 *
+	 * @param heuristicSearch
+	 */
+	public void setHeuristicSearch(boolean heuristicSearch) {
+		this.heuristicSearch = heuristicSearch;
+	}
+
 	@Override
 	protected void checkParameters() {
 		super.checkParameters();
@@ -54,7 +66,7 @@ public class LazyFixTimePathfinder extends AbstractFixTimePathfinder {
 		ImmutablePoint startVertex = immutablePoint(getStartArc(), inSeconds(getStartTime()));
 		ImmutablePoint finishVertex = immutablePoint(getFinishArc(), inSeconds(getFinishTime()));
 
-		DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> mesh =
+		ArcTimeGraph mesh =
 			buildMesh(forbiddenRegions, startVertex, finishVertex);
 
 		ArcTimePath arcTimePath =
@@ -69,7 +81,7 @@ public class LazyFixTimePathfinder extends AbstractFixTimePathfinder {
 	 * @param forbiddenRegions
 	 * @return the mesh
 	 */
-	private DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> buildMesh(
+	private ArcTimeGraph buildMesh(
 		Collection<ForbiddenRegion> forbiddenRegions,
 		ImmutablePoint startVertex,
 		ImmutablePoint finishVertex)
@@ -95,27 +107,29 @@ public class LazyFixTimePathfinder extends AbstractFixTimePathfinder {
 	 * @return the fastest path
 	 */
 	private ArcTimePath calculateShortestPath(
-		DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> mesh,
+		ArcTimeGraph mesh,
 		ImmutablePoint startVertex,
 		ImmutablePoint finishVertex)
 	{
 		if (startVertex.equalsTopo(finishVertex))
 			return new ArcTimePath(ImmutableList.of(startVertex, finishVertex));
 
-		List<DefaultWeightedEdge> edges =
-			ModifiedDijkstraAlgorithm.findPathBetween(mesh, startVertex, finishVertex);
+		int start = mesh.vertexOf(startVertex);
+		int finish = mesh.vertexOf(finishVertex);
+
+		int[] path = heuristicSearch
+			? ModifiedDijkstraAlgorithm.findPathBetween(mesh, start, finish,
+				remainingTimeHeuristic(mesh, finishVertex.getX(), getMaxSpeed()))
+			: ModifiedDijkstraAlgorithm.findPathBetween(mesh, start, finish);
 
-		if (edges.isEmpty())
+		if (path.length == 0)
 			return ArcTimePath.empty();
 
-		Iterable<ImmutablePoint> targets = () -> edges.stream()
-			.map(mesh::getEdgeTarget)
-			.iterator();
+		ImmutableList.Builder<ImmutablePoint> builder = ImmutableList.builder();
+		for (int v : path)
+			builder.add(mesh.getPoint(v));
 
-		ImmutableList<ImmutablePoint> vertices = ImmutableList.<ImmutablePoint>builder()
-			.add(startVertex)
-			.addAll(targets)
-			.build();
+		ImmutableList<ImmutablePoint> vertices = builder.build();
 
 		return new ArcTimePath(vertices);
 	}
@@ -4,7 +4,6 @@ import static de.tu_berlin.mailbox.rjasper.collect.CollectionsRequire.requireNon
 import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.geometryCollection;
 import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutablePoint;
 import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collectors.toSet;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -12,8 +11,6 @@ import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.stream.Stream;
 
-import org.jgrapht.graph.DefaultDirectedWeightedGraph;
-import org.jgrapht.graph.DefaultWeightedEdge;
 
 import com.vividsolutions.jts.geom.Geometry;
 
@@ -47,11 +44,11 @@ public class LazyMinimumTimeMesher {
 
 	private BiFunction<ImmutablePoint, ImmutablePoint, Double> weightCalculator = null;
 
-	private transient DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> graph;
+	private transient ArcTimeGraph graph;
 
-	private transient Set<ImmutablePoint> originalVertices;
+	private transient int[] originalVertices;
 
-	private transient Geometry forbiddenMap;
+	private transient ForbiddenMapIndex forbiddenMap;
 
 	public void setStartVertex(ImmutablePoint startVertex) {
 		this.startVertex = requireNonNull(startVertex, "startVertex");
@@ -115,11 +112,11 @@ public class LazyMinimumTimeMesher {
 	}
 
 	public static class MeshResult {
-		public final DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> graph;
+		public final ArcTimeGraph graph;
 		public final ImmutablePoint finishVertex;
 
 		private MeshResult(
-			DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> graph,
+			ArcTimeGraph graph,
 			ImmutablePoint finishVertex)
 		{
 			this.graph = graph;
@@ -182,7 +179,7 @@ public class LazyMinimumTimeMesher {
 	}
 
 	private void init() {
-		graph = new DefaultDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+		graph = new ArcTimeGraph();
 
 		originalVertices =
 			Stream.concat(
@@ -192,16 +189,15 @@ public class LazyMinimumTimeMesher {
 					.map(Geometry::getCoordinates)
 					.flatMap(Arrays::stream)
 					.map(c -> immutablePoint(c.x, c.y)))
-			.collect(toSet());
-
-		for (ImmutablePoint v : originalVertices)
-			graph.addVertex(v);
+			.mapToInt(graph::addVertex)
+			.distinct()
+			.toArray();
 
 		Geometry[] regions = forbiddenRegions.stream()
 			.map(ForbiddenRegion::getRegion)
 			.toArray(n -> new Geometry[n]);
 
-		forbiddenMap = geometryCollection(regions);
+		forbiddenMap = new ForbiddenMapIndex(geometryCollection(regions));
 	}
 
 	private void cleanUp() {
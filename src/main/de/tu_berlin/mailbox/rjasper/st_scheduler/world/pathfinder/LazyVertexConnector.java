@@ -6,14 +6,12 @@ import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuil
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.function.BiFunction;
 
-import org.jgrapht.graph.DefaultDirectedWeightedGraph;
-import org.jgrapht.graph.DefaultWeightedEdge;
-
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.LineString;
 import com.vividsolutions.jts.geom.MultiLineString;
@@ -29,7 +27,7 @@ import de.tu_berlin.mailbox.rjasper.jts.geom.util.GeometryIterator;
  */
 public class LazyVertexConnector {
 
-	private DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> graph;
+	private ArcTimeGraph graph;
 
 	private double minArc = Double.NaN;
 
@@ -43,7 +41,7 @@ public class LazyVertexConnector {
 
 	private double lazyVelocity = Double.NaN;
 
-	private Geometry forbiddenMap;
+	private ForbiddenMapIndex forbiddenMap;
 
 	private BiFunction<ImmutablePoint, ImmutablePoint, Double> weightCalculator = null;
 
@@ -60,8 +58,7 @@ public class LazyVertexConnector {
 		}
 	}
 
-	public void setGraph(
-		DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> graph) {
+	public void setGraph(ArcTimeGraph graph) {
 		this.graph = requireNonNull(graph, "graph");
 	}
 
@@ -108,6 +105,10 @@ public class LazyVertexConnector {
 	}
 
 	public void setForbiddenMap(Geometry forbiddenMap) {
+		this.forbiddenMap = new ForbiddenMapIndex(forbiddenMap);
+	}
+
+	public void setForbiddenMap(ForbiddenMapIndex forbiddenMap) {
 		this.forbiddenMap = requireNonNull(forbiddenMap, "forbiddenMap");
 	}
 
@@ -147,7 +148,8 @@ public class LazyVertexConnector {
 	}
 
 	private void calcMotionRays() {
-		motionRays = graph.vertexSet().stream()
+		motionRays = Arrays.stream(graph.vertices())
+			.mapToObj(graph::getPoint)
 			.filter(this::within)
 			.map(this::calcMotionRay)
 			.filter(r -> r != null)
@@ -199,7 +201,8 @@ public class LazyVertexConnector {
 	}
 
 	private void calcStationaryRays() {
-		stationaryRays = graph.vertexSet().stream()
+		stationaryRays = Arrays.stream(graph.vertices())
+			.mapToObj(graph::getPoint)
 			.filter(this::within)
 			.map(this::calcStationaryRay)
 			.filter(r -> r != null)
@@ -220,7 +223,7 @@ public class LazyVertexConnector {
 		MultiLineString fullIntersection = toMultiLineString(
 			forbiddenMap.intersection(fullLine));
 		MultiLineString boundaryIntersection = toMultiLineString(
-			boundary(forbiddenMap).intersection(fullLine));
+			boundary(forbiddenMap.near(fullLine.getEnvelopeInternal())).intersection(fullLine));
 		Geometry intersection = fullIntersection.difference(boundaryIntersection);
 
 		double s3 = s2;
@@ -329,11 +332,12 @@ public class LazyVertexConnector {
 		if (source.equalsTopo(target))
 			return;
 
-		DefaultWeightedEdge e = graph.addEdge(source, target);
+		int s = graph.addVertex(source);
+		int t = graph.addVertex(target);
 
 		// if new edge
-		if (e != null)
-			graph.setEdgeWeight(e, weightCalculator.apply(source, target));
+		if (graph.getEdge(s, t) == -1)
+			graph.addEdge(s, t, weightCalculator.apply(source, target));
 	}
 
 }
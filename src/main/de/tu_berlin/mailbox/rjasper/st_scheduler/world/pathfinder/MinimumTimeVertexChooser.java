@@ -3,15 +3,14 @@ package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
 import static de.tu_berlin.mailbox.rjasper.collect.CollectionsRequire.requireNonNull;
 import static java.util.Objects.requireNonNull;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
-import org.jgrapht.graph.DefaultDirectedWeightedGraph;
-import org.jgrapht.graph.DefaultWeightedEdge;
-import org.jgrapht.traverse.BreadthFirstIterator;
-
 import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePoint;
 
 /**
@@ -21,13 +20,13 @@ import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePoint;
  */
 public class MinimumTimeVertexChooser {
 
-	private DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> graph = null;
+	private ArcTimeGraph graph = null;
 
 	private ImmutablePoint startVertex = null;
 
 	private Set<ImmutablePoint> finishVertices = null;
 
-	public void setGraph(DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> graph) {
+	public void setGraph(ArcTimeGraph graph) {
 		this.graph = requireNonNull(graph, "graph");
 	}
 
@@ -45,16 +44,32 @@ public class MinimumTimeVertexChooser {
 		if (finishVertices.isEmpty())
 			return null;
 
-		Set<ImmutablePoint> reachable = new HashSet<>();
+		List<ImmutablePoint> reachable = new ArrayList<>();
+		boolean[] seen = new boolean[graph.vertexIdLimit()];
+		int start = graph.vertexOf(startVertex);
 
-		BreadthFirstIterator<ImmutablePoint, DefaultWeightedEdge> it =
-			new BreadthFirstIterator<ImmutablePoint, DefaultWeightedEdge>(graph, startVertex);
+		if (start == -1)
+			return null;
 
-		while (it.hasNext()) {
-			ImmutablePoint v = it.next();
+		Deque<Integer> queue = new ArrayDeque<>();
+		seen[start] = true;
+		queue.add(start);
 
-			if (finishVertices.contains(v))
-				reachable.add(v);
+		while (!queue.isEmpty()) {
+			int v = queue.poll();
+			ImmutablePoint point = graph.getPoint(v);
+
+			if (finishVertices.contains(point))
+				reachable.add(point);
+
+			for (int e = graph.firstOutgoingEdge(v); e != -1; e = graph.nextOutgoingEdge(e)) {
+				int u = graph.getEdgeTarget(e);
+
+				if (!seen[u]) {
+					seen[u] = true;
+					queue.add(u);
+				}
+			}
 		}
 
 		return choose(reachable);
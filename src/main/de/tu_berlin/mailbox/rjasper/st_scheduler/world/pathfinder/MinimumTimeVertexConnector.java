@@ -3,15 +3,10 @@ package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
 import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutablePoint;
 import static java.util.Objects.requireNonNull;
 
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.function.BiFunction;
 
-import org.jgrapht.graph.DefaultDirectedWeightedGraph;
-import org.jgrapht.graph.DefaultWeightedEdge;
-
 import com.vividsolutions.jts.geom.Geometry;
 
 import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePoint;
@@ -24,7 +19,7 @@ import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePoint;
  */
 public class MinimumTimeVertexConnector {
 
-	private DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> graph;
+	private ArcTimeGraph graph;
 
 	private double minArc = Double.NaN;
 
@@ -40,7 +35,7 @@ public class MinimumTimeVertexConnector {
 
 	private double maxVelocity = Double.NaN;
 
-	private Geometry forbiddenMap = null;
+	private ForbiddenMapIndex forbiddenMap = null;
 
 	private BiFunction<ImmutablePoint, ImmutablePoint, Double> weightCalculator = null;
 
@@ -48,7 +43,7 @@ public class MinimumTimeVertexConnector {
 
 	private transient BiFunction<ImmutablePoint, ImmutablePoint, Boolean> nonVelocityEdgeChecker = null;
 
-	public void setGraph(DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> graph) {
+	public void setGraph(ArcTimeGraph graph) {
 		this.graph = requireNonNull(graph, "graph");
 	}
 
@@ -102,6 +97,10 @@ public class MinimumTimeVertexConnector {
 	}
 
 	public void setForbiddenMap(Geometry forbiddenMap) {
+		this.forbiddenMap = new ForbiddenMapIndex(forbiddenMap);
+	}
+
+	public void setForbiddenMap(ForbiddenMapIndex forbiddenMap) {
 		this.forbiddenMap = requireNonNull(forbiddenMap, "forbiddenMap");
 	}
 
@@ -139,10 +138,11 @@ public class MinimumTimeVertexConnector {
 		ImmutablePoint minFinishVertex = immutablePoint(finishArc, minFinishTime);
 		graph.addVertex(minFinishVertex);
 
-		Collection<ImmutablePoint> vertices = new ArrayList<>(graph.vertexSet());
+		int[] vertices = graph.vertices();
 
 		// connect finish vertices
-		for (ImmutablePoint v : vertices) {
+		for (int i : vertices) {
+			ImmutablePoint v = graph.getPoint(i);
 			// TODO don't add candidates which are idendical to their origin
 			ImmutablePoint candidate = calcCandidate(v);
 			graph.addVertex(candidate);
@@ -200,10 +200,11 @@ public class MinimumTimeVertexConnector {
 			return false;
 
 		if (!source.equalsTopo(target)) {
-			DefaultWeightedEdge edge = graph.addEdge(source, target);
+			int s = graph.vertexOf(source);
+			int t = graph.vertexOf(target);
 
-			if (edge != null)
-				graph.setEdgeWeight(edge, weightCalculator.apply(source, target));
+			if (graph.getEdge(s, t) == -1)
+				graph.addEdge(s, t, weightCalculator.apply(source, target));
 		}
 
 		return true;
@@ -1,176 +1,252 @@
 package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
 
-import java.lang.reflect.Array;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.PriorityQueue;
-import java.util.stream.Stream;
-
-import org.jgrapht.DirectedGraph;
-import org.jgrapht.Graph;
-
-public class ModifiedDijkstraAlgorithm<V, E> {
-
-	public static <V, E> List<E> findPathBetween(DirectedGraph<V, E> graph, V startVertex, V endVertex) {
-		return new ModifiedDijkstraAlgorithm<>(graph, startVertex, endVertex).getPath();
+import java.util.Objects;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * <p>
+ * Finds the shortest path between two vertices of an {@link ArcTimeGraph}.
+ * Paths are compared by their weight first and by their number of edges
+ * second. Among paths of equal weight and number of edges the first
+ * discovered one is kept.
+ * </p>
+ *
+ * <p>
+ * A discovered vertex is relaxed by any better path until it is expanded.
+ * The priority of a queued vertex is decreased in place.
+ * </p>
+ *
+ * @author Rico Jasper
+ */
+public class ModifiedDijkstraAlgorithm {
+
+	private static final int[] EMPTY_PATH = new int[0];
+
+	/**
+	 * The heuristic turning the search into a plain Dijkstra search.
+	 */
+	private static final IntToDoubleFunction NO_HEURISTIC = v -> 0.0;
+
+	/**
+	 * Finds the shortest path between two vertices. Among paths of equal
+	 * weight the one with fewer edges is preferred.
+	 *
+	 * @param graph
+	 * @param startVertex
+	 * @param endVertex
+	 * @return the vertices of the path including the start and end vertex or
+	 *         an empty array if there is no path.
+	 */
+	public static int[] findPathBetween(ArcTimeGraph graph, int startVertex, int endVertex) {
+		return new ModifiedDijkstraAlgorithm(graph, startVertex, endVertex).getPath();
 	}
 
-	private DirectedGraph<V, E> graph;
+	/**
+	 * Finds the shortest path between two vertices using an A* search. The
+	 * heuristic estimates the remaining weight from a vertex to the end
+	 * vertex. It must never overestimate the remaining weight and must be
+	 * zero for the end vertex.
+	 *
+	 * @param graph
+	 * @param startVertex
+	 * @param endVertex
+	 * @param heuristic
+	 * @return the vertices of the path including the start and end vertex or
+	 *         an empty array if there is no path.
+	 */
+	public static int[] findPathBetween(
+		ArcTimeGraph graph,
+		int startVertex,
+		int endVertex,
+		IntToDoubleFunction heuristic)
+	{
+		return new ModifiedDijkstraAlgorithm(graph, startVertex, endVertex, heuristic).getPath();
+	}
 
-	private V startVertex;
+	private ArcTimeGraph graph;
 
-	private V endVertex;
+	private int startVertex;
 
-	private List<E> path = null;
+	private int endVertex;
 
-	private Map<V, TraversalNode> seen = new HashMap<>();
+	private IntToDoubleFunction heuristic;
 
-	private PriorityQueue<TraversalNode> queue = new PriorityQueue<>();
+	private int[] path = null;
 
-	private TraversalNode bestTargetNode;
+	/**
+	 * The number of vertices polled from the queue.
+	 */
+	private int expandedVertexCount = 0;
 
-	private class TraversalNode implements Comparable<TraversalNode> {
+	/**
+	 * Indicates discovered vertices.
+	 */
+	private boolean[] seen;
 
-		private final V vertex;
+	/**
+	 * Indicates expanded vertices. The best path to an expanded vertex is
+	 * final.
+	 */
+	private boolean[] closed;
 
-		private final TraversalNode predecessor;
+	/**
+	 * The weight of the best known path to each discovered vertex.
+	 */
+	private double[] weights;
 
-		private final E edge;
+	/**
+	 * The number of edges of the best known path to each discovered vertex.
+	 */
+	private int[] depths;
 
-		private final double weight;
+	/**
+	 * The predecessor of each discovered vertex on its best known path.
+	 */
+	private int[] predecessors;
 
-		private final int depth;
+	private IndexedHeap queue;
 
-		public TraversalNode(V vertex, TraversalNode predecessor, E edge, double weight, int depth) {
-			this.vertex = vertex;
-			this.predecessor = predecessor;
-			this.edge = edge;
-			this.weight = weight;
-			this.depth = depth;
-		}
+	private double bestTargetWeight;
 
-		@Override
-		public int compareTo(TraversalNode o) {
-			int weightCmp = Double.compare(weight, o.weight);
-
-			if (weightCmp != 0)
-				return weightCmp;
-			else
-				return Integer.compare(depth, o.depth);
-		}
+	private int bestTargetDepth;
 
+	public ModifiedDijkstraAlgorithm(ArcTimeGraph graph, int startVertex, int endVertex) {
+		this(graph, startVertex, endVertex, NO_HEURISTIC);
 	}
 
-	public ModifiedDijkstraAlgorithm(DirectedGraph<V, E> graph, V startVertex, V endVertex) {
+	public ModifiedDijkstraAlgorithm(
+		ArcTimeGraph graph,
+		int startVertex,
+		int endVertex,
+		IntToDoubleFunction heuristic)
+	{
 		this.graph = graph;
 		this.startVertex = startVertex;
 		this.endVertex = endVertex;
+		this.heuristic = Objects.requireNonNull(heuristic, "heuristic");
 
 		calculate();
 	}
 
-	public Graph<V, E> getGraph() {
+	public ArcTimeGraph getGraph() {
 		return graph;
 	}
 
-	public V getStartVertex() {
+	public int getStartVertex() {
 		return startVertex;
 	}
 
-	public V getEndVertex() {
+	public int getEndVertex() {
 		return endVertex;
 	}
 
-	public List<E> getPath() {
+	public int[] getPath() {
 		return path;
 	}
 
+	/**
+	 * @return the number of vertices expanded by the search.
+	 */
+	public int getExpandedVertexCount() {
+		return expandedVertexCount;
+	}
+
 	private void calculate() {
-		bestTargetNode = new TraversalNode(endVertex, null, null, Double.POSITIVE_INFINITY, Integer.MAX_VALUE);
-		TraversalNode initial = new TraversalNode(startVertex, null, null, 0.0, 0);
+		if (!graph.containsVertex(startVertex) || !graph.containsVertex(endVertex)) {
+			buildEmptyPath();
+			return;
+		}
+
+		int n = graph.vertexIdLimit();
+
+		seen = new boolean[n];
+		closed = new boolean[n];
+		weights = new double[n];
+		depths = new int[n];
+		predecessors = new int[n];
+		queue = new IndexedHeap(n);
 
-		queue.add(initial);
-		seen.put(startVertex, initial);
+		bestTargetWeight = Double.POSITIVE_INFINITY;
+		bestTargetDepth = Integer.MAX_VALUE;
+
+		seen[startVertex] = true;
+		weights[startVertex] = 0.0;
+		depths[startVertex] = 0;
+		predecessors[startVertex] = -1;
+		queue.insertOrUpdate(startVertex, heuristic.applyAsDouble(startVertex), 0);
 
 		while (!queue.isEmpty()) {
-			TraversalNode curr = queue.poll();
+			int curr = queue.poll();
+			closed[curr] = true;
+			++expandedVertexCount;
 
-			if (curr.vertex.equals(endVertex)) {
+			if (curr == endVertex) {
 				buildPath();
 				return;
 			}
 
-			// discover fills queue
-			unseenOf(curr.vertex)
-				.forEach(this::discover);
+			// discover fills queue and relaxes queued vertices
+			for (int e = graph.firstOutgoingEdge(curr); e != -1; e = graph.nextOutgoingEdge(e)) {
+				if (!closed[graph.getEdgeTarget(e)])
+					discover(e);
+			}
 		}
 
 		buildEmptyPath();
 	}
 
-	private void discover(E edge) {
-		V vertex = graph.getEdgeTarget(edge);
-		V predVertex = graph.getEdgeSource(edge);
-		TraversalNode predNode = seen.get(predVertex);
-
-		double edgeWeight = graph.getEdgeWeight(edge);
-		double weight = predNode.weight + edgeWeight;
-		int depth = predNode.depth + 1;
+	private void discover(int edge) {
+		int vertex = graph.getEdgeTarget(edge);
+		int predVertex = graph.getEdgeSource(edge);
 
-		TraversalNode node = new TraversalNode(vertex, predNode, edge, weight, depth);
+		double weight = weights[predVertex] + graph.getEdgeWeight(edge);
+		int depth = depths[predVertex] + 1;
 
 		// refuse nodes worse than the best
-		if (node.compareTo(bestTargetNode) >= 0)
+		if (compare(weight, depth, bestTargetWeight, bestTargetDepth) >= 0)
 			return;
 
-		TraversalNode seenNode = seen.get(vertex);
-
 		// keep seen node if better, otherwise replace
-		if (seenNode != null) {
-			if (node.compareTo(seenNode) < 0) {
-				queue.remove(seenNode); // replace seen node
-			} else {
-				return; // don't add new node
-			}
-		}
+		if (seen[vertex] && compare(weight, depth, weights[vertex], depths[vertex]) >= 0)
+			return; // don't add new node
 
 		// must be best target node if endVertex
-		if (vertex.equals(endVertex))
-			bestTargetNode = node;
+		if (vertex == endVertex) {
+			bestTargetWeight = weight;
+			bestTargetDepth = depth;
+		}
 
-		queue.add(node);
-		seen.put(vertex, node);
+		seen[vertex] = true;
+		weights[vertex] = weight;
+		depths[vertex] = depth;
+		predecessors[vertex] = predVertex;
+		// decreases key if queued
+		queue.insertOrUpdate(vertex, weight + heuristic.applyAsDouble(vertex), depth);
 	}
 
-	private boolean seen(V vertex) {
-		return seen.containsKey(vertex);
-	}
+	private static int compare(double lhsWeight, int lhsDepth, double rhsWeight, int rhsDepth) {
+		int weightCmp = Double.compare(lhsWeight, rhsWeight);
 
-	private Stream<E> unseenOf(V vertex) {
-		return graph.outgoingEdgesOf(vertex).stream()
-			.filter(e -> !seen( graph.getEdgeTarget(e) ));
+		if (weightCmp != 0)
+			return weightCmp;
+		else
+			return Integer.compare(lhsDepth, rhsDepth);
 	}
 
 	private void buildPath() {
-		TraversalNode curr = bestTargetNode;
-		int pathLength = curr.depth;
-
-		@SuppressWarnings("unchecked")
-		E[] arr = (E[]) Array.newInstance(bestTargetNode.edge.getClass(), curr.depth);
+		int[] arr = new int[depths[endVertex] + 1];
+		int curr = endVertex;
 
-		for (int i = 0; i < pathLength; ++i) {
-			arr[curr.depth-1] = curr.edge;
-			curr = curr.predecessor;
+		for (int i = arr.length-1; i >= 0; --i) {
+			arr[i] = curr;
+			curr = predecessors[curr];
 		}
 
-		path = Arrays.asList(arr);
+		path = arr;
 	}
 
 	private void buildEmptyPath() {
-		path = Collections.emptyList();
+		path = EMPTY_PATH;
 	}
 
 }
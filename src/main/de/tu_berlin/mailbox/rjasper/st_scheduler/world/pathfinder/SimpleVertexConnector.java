@@ -1,28 +1,34 @@
 package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
 
-import static de.tu_berlin.mailbox.rjasper.collect.CollectionsRequire.requireNonNull;
 import static java.util.Objects.requireNonNull;
 
-import java.util.Set;
+import java.util.Arrays;
 import java.util.function.BiFunction;
-
-import org.jgrapht.graph.DefaultDirectedWeightedGraph;
-import org.jgrapht.graph.DefaultWeightedEdge;
+import java.util.function.IntConsumer;
 
 import com.vividsolutions.jts.geom.Geometry;
 
 import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePoint;
 
 /**
+ * <p>
  * Adds Edges between any pairs of vertices visible to each other.
+ * </p>
+ *
+ * <p>
+ * In lazy mode, {@link #connect()} does not check any pair of vertices.
+ * Instead, it registers an edge generator at the graph. The outgoing edges of
+ * a vertex are then checked and added when a search requests them for the
+ * first time.
+ * </p>
  *
  * @author Rico Jasper
  */
 public class SimpleVertexConnector {
 
-	private DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> graph;
+	private ArcTimeGraph graph;
 
-	private Set<ImmutablePoint> vertices;
+	private int[] vertices;
 
 	private double minArc = Double.NaN;
 
@@ -34,18 +40,17 @@ public class SimpleVertexConnector {
 
 	private double maxVelocity = Double.NaN;
 
-	private Geometry forbiddenMap;
+	private boolean lazy = false;
 
-	private BiFunction<ImmutablePoint, ImmutablePoint, Double> weightCalculator = null;
+	private ForbiddenMapIndex forbiddenMap;
 
-	private transient BiFunction<ImmutablePoint, ImmutablePoint, Boolean> edgeChecker = null;
+	private BiFunction<ImmutablePoint, ImmutablePoint, Double> weightCalculator = null;
 
-	public void setGraph(
-		DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> graph) {
+	public void setGraph(ArcTimeGraph graph) {
 		this.graph = requireNonNull(graph, "graph");
 	}
 
-	public void setVertices(Set<ImmutablePoint> vertices) {
+	public void setVertices(int[] vertices) {
 		this.vertices = requireNonNull(vertices, "vertices");
 	}
 
@@ -78,6 +83,10 @@ public class SimpleVertexConnector {
 	}
 
 	public void setForbiddenMap(Geometry forbiddenMap) {
+		this.forbiddenMap = new ForbiddenMapIndex(forbiddenMap);
+	}
+
+	public void setForbiddenMap(ForbiddenMapIndex forbiddenMap) {
 		this.forbiddenMap = requireNonNull(forbiddenMap, "forbiddenMap");
 	}
 
@@ -92,6 +101,15 @@ public class SimpleVertexConnector {
 		this.maxVelocity = maxVelocity;
 	}
 
+	/**
+	 * Sets whether to generate the edges on demand. Disabled by default.
+	 *
+	 * @param lazy
+	 */
+	public void setLazy(boolean lazy) {
+		this.lazy = lazy;
+	}
+
 	private void checkParameters() {
 		if (
 			graph == null ||
@@ -113,39 +131,59 @@ public class SimpleVertexConnector {
 
 	public void connect() {
 		checkParameters();
-		init();
 
-		for (ImmutablePoint source : vertices) {
-			for (ImmutablePoint target : vertices) {
-				if (source.equalsTopo(target))
-					continue;
+		int[] vertices = this.vertices.clone();
+		ImmutablePoint[] points = new ImmutablePoint[vertices.length];
+		for (int i = 0; i < vertices.length; ++i)
+			points[i] = graph.getPoint(vertices[i]);
 
-				if (edgeChecker.apply(source, target)) {
-					DefaultWeightedEdge edge = graph.addEdge(source, target);
+		BiFunction<ImmutablePoint, ImmutablePoint, Boolean> edgeChecker = makeEdgeChecker();
+		BiFunction<ImmutablePoint, ImmutablePoint, Double> weightCalculator = this.weightCalculator;
+		ArcTimeGraph graph = this.graph;
 
-					if (edge != null)
-						graph.setEdgeWeight(edge, weightCalculator.apply(source, target));
-				}
+		IntConsumer connectSource = i -> {
+			ImmutablePoint source = points[i];
+
+			for (int j = 0; j < vertices.length; ++j) {
+				ImmutablePoint target = points[j];
+
+				if (vertices[i] == vertices[j])
+					continue;
+				if (graph.getEdge(vertices[i], vertices[j]) != -1)
+					continue;
+
+				if (edgeChecker.apply(source, target))
+					graph.addEdge(vertices[i], vertices[j], weightCalculator.apply(source, target));
 			}
+		};
+
+		if (lazy) {
+			// maps vertex ids to their position within vertices
+			int[] positions = new int[graph.vertexIdLimit()];
+			Arrays.fill(positions, -1);
+			for (int i = 0; i < vertices.length; ++i)
+				positions[vertices[i]] = i;
+
+			graph.addEdgeGenerator(v -> {
+				if (v < positions.length && positions[v] != -1)
+					connectSource.accept(positions[v]);
+			});
+		} else {
+			for (int i = 0; i < vertices.length; ++i)
+				connectSource.accept(i);
 		}
-
-		cleanUp();
 	}
 
-	private void init() {
+	private BiFunction<ImmutablePoint, ImmutablePoint, Boolean> makeEdgeChecker() {
 		BoundsEdgeChecker boundsChecker = new BoundsEdgeChecker(
 			minArc, maxArc, minTime, maxTime);
 		VelocityEdgeChecker velocityEdgeChecker = new VelocityEdgeChecker(maxVelocity);
 		VisibilityEdgeChecker visibilityChecker = new VisibilityEdgeChecker(forbiddenMap);
 
-		edgeChecker = (v1, v2) ->
+		return (v1, v2) ->
 			boundsChecker.check(v1, v2) &&
 			velocityEdgeChecker.check(v1, v2) &&
 			visibilityChecker.check(v1, v2);
 	}
 
-	private void cleanUp() {
-		edgeChecker = null;
-	}
-
 }
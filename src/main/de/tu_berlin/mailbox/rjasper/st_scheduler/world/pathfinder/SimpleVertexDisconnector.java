@@ -2,16 +2,8 @@ package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
 
 import static java.util.Objects.requireNonNull;
 
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Set;
-
-import org.jgrapht.Graph;
-import org.jgrapht.graph.DefaultDirectedWeightedGraph;
-import org.jgrapht.graph.DefaultWeightedEdge;
-import org.jgrapht.graph.EdgeReversedGraph;
-import org.jgrapht.traverse.BreadthFirstIterator;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePoint;
 
@@ -22,13 +14,13 @@ import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePoint;
  */
 public class SimpleVertexDisconnector {
 
-	private DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> graph = null;
+	private ArcTimeGraph graph = null;
 
 	private ImmutablePoint startVertex = null;
 
 	private ImmutablePoint finishVertex = null;
 
-	public void setGraph(DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> graph) {
+	public void setGraph(ArcTimeGraph graph) {
 		this.graph = requireNonNull(graph, "graph");
 	}
 
@@ -43,26 +35,35 @@ public class SimpleVertexDisconnector {
 	public void disconnect() {
 		checkParameters();
 
-		Graph<ImmutablePoint, DefaultWeightedEdge> reversed = new EdgeReversedGraph<>(graph);
+		boolean[] reachable = new boolean[graph.vertexIdLimit()];
+		int finish = graph.vertexOf(finishVertex);
+
+		if (finish == -1)
+			throw new IllegalArgumentException("finishVertex not found");
 
-		BreadthFirstIterator<ImmutablePoint, DefaultWeightedEdge> it =
-			new BreadthFirstIterator<ImmutablePoint, DefaultWeightedEdge>(reversed, finishVertex);
+		// collect vertices reaching the finish vertex by reversed edges
+		Deque<Integer> queue = new ArrayDeque<>();
+		reachable[finish] = true;
+		queue.add(finish);
 
-		// collect reachable vertices
-		Set<ImmutablePoint> reachable = new HashSet<>();
-		while (it.hasNext())
-			reachable.add( it.next() );
+		while (!queue.isEmpty()) {
+			int v = queue.poll();
 
-		// determine unreachable vertices
-		Collection<ImmutablePoint> unreachable = new LinkedList<>();
-		for (ImmutablePoint v : graph.vertexSet()) {
-			if (!reachable.contains(v))
-				unreachable.add(v);
+			for (int e = graph.firstIncomingEdge(v); e != -1; e = graph.nextIncomingEdge(e)) {
+				int u = graph.getEdgeSource(e);
+
+				if (!reachable[u]) {
+					reachable[u] = true;
+					queue.add(u);
+				}
+			}
 		}
 
 		// remove unreachable vertices
-		for (ImmutablePoint v : unreachable)
-			graph.removeVertex(v);
+		for (int v : graph.vertices()) {
+			if (!reachable[v])
+				graph.removeVertex(v);
+		}
 
 		// ensure inclusion of start vertex
 		graph.addVertex(startVertex);
@@ -0,0 +1,383 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Point;
+
+/**
+ * <p>
+ * The {@code SpatialDistanceTable} determines the length of the shortest
+ * obstacle-free path between two locations without building the path itself.
+ * It is based on the {@link VisibilityGraph} of a world perspective.
+ * </p>
+ *
+ * <p>
+ * The table stores the shortest distances between all pairs of obstacle nodes.
+ * A row of the table is calculated the first time it is needed and kept
+ * afterwards. {@link #precompute()} calculates all rows in advance. The nodes
+ * visible from frequently queried locations are cached, too.
+ * </p>
+ *
+ * <p>
+ * When a single obstacle is added or removed, the rows of the previous table
+ * which cannot be affected by the obstacle are kept. A row remains valid if
+ * the obstacle is farther away from its node than the longest distance of
+ * the row since no path of the row can come close to the obstacle.
+ * </p>
+ *
+ * <p>
+ * The distances are exactly the lengths of the paths found by the
+ * {@link VisibilityGraph}. Therefore, they are tight lower bounds for the
+ * travel distance of a node. The table is thread-safe.
+ * </p>
+ *
+ * @author Rico Jasper
+ */
+public class SpatialDistanceTable {
+
+	/**
+	 * The default maximum number of locations whose visible nodes are cached.
+	 */
+	private static final long DEFAULT_MAX_LOCATIONS = 1024;
+
+	/**
+	 * The nodes visible from a location.
+	 */
+	private static class Visibility {
+
+		/**
+		 * The visible nodes.
+		 */
+		private final int[] nodes;
+
+		/**
+		 * The distances to the visible nodes.
+		 */
+		private final double[] distances;
+
+		public Visibility(int[] nodes, double[] distances) {
+			this.nodes = nodes;
+			this.distances = distances;
+		}
+
+	}
+
+	/**
+	 * The visibility graph.
+	 */
+	private final VisibilityGraph graph;
+
+	/**
+	 * The maximum distance of connections of locations to the obstacle nodes.
+	 */
+	private final double maxConnectionDistance;
+
+	/**
+	 * The shortest distances from each node to all nodes.
+	 */
+	private final AtomicReferenceArray<double[]> rows;
+
+	/**
+	 * The nodes visible from recently queried locations.
+	 */
+	private final Cache<Coordinate, Visibility> visibilities;
+
+	/**
+	 * Constructs a distance table of the given visibility graph.
+	 *
+	 * @param graph
+	 * @param maxConnectionDistance
+	 *            the maximum distance of connections of locations to the
+	 *            obstacle nodes.
+	 * @throws NullPointerException
+	 *             if graph is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if maxConnectionDistance is not positive.
+	 */
+	public SpatialDistanceTable(VisibilityGraph graph, double maxConnectionDistance) {
+		this(graph, maxConnectionDistance, DEFAULT_MAX_LOCATIONS);
+	}
+
+	/**
+	 * Constructs a distance table of the given visibility graph.
+	 *
+	 * @param graph
+	 * @param maxConnectionDistance
+	 *            the maximum distance of connections of locations to the
+	 *            obstacle nodes.
+	 * @param maxLocations
+	 *            the maximum number of locations whose visible nodes are
+	 *            cached.
+	 * @throws NullPointerException
+	 *             if graph is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if maxConnectionDistance is not positive or maxLocations is
+	 *             negative.
+	 */
+	public SpatialDistanceTable(VisibilityGraph graph, double maxConnectionDistance, long maxLocations) {
+		if (Double.isNaN(maxConnectionDistance) || maxConnectionDistance <= 0.0)
+			throw new IllegalArgumentException("maxConnectionDistance is not positive");
+		if (maxLocations < 0)
+			throw new IllegalArgumentException("maxLocations is negative");
+
+		this.graph = Objects.requireNonNull(graph, "graph");
+		this.maxConnectionDistance = maxConnectionDistance;
+		this.rows = new AtomicReferenceArray<>(graph.nodeCount());
+		this.visibilities = CacheBuilder.newBuilder()
+			.maximumSize(maxLocations)
+			.build();
+	}
+
+	/**
+	 * Constructs a distance table of the given visibility graph which differs
+	 * from the graph of the previous table by a single added or removed
+	 * obstacle. The unaffected rows of the previous table are kept.
+	 *
+	 * @param graph
+	 * @param maxConnectionDistance
+	 *            the maximum distance of connections of locations to the
+	 *            obstacle nodes.
+	 * @param previous
+	 *            the table of the graph before the change.
+	 * @param changed
+	 *            the envelope of the added or removed obstacle.
+	 * @throws NullPointerException
+	 *             if any argument is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if maxConnectionDistance is not positive.
+	 */
+	SpatialDistanceTable(
+		VisibilityGraph graph,
+		double maxConnectionDistance,
+		SpatialDistanceTable previous,
+		Envelope changed)
+	{
+		this(graph, maxConnectionDistance);
+
+		Objects.requireNonNull(previous, "previous");
+		Objects.requireNonNull(changed, "changed");
+
+		keepRows(previous, changed);
+	}
+
+	/**
+	 * Copies the rows of the previous table which are not affected by the
+	 * changed obstacle. The nodes of both graphs are matched by their
+	 * locations.
+	 *
+	 * @param previous
+	 *            the table of the graph before the change.
+	 * @param changed
+	 *            the envelope of the added or removed obstacle.
+	 */
+	private void keepRows(SpatialDistanceTable previous, Envelope changed) {
+		VisibilityGraph old = previous.graph;
+		int n = graph.nodeCount();
+		int[] oldNodes = matchNodes(old);
+		int[] added = new int[n];
+		int addedCount = 0;
+
+		for (int v = 0; v < n; ++v) {
+			if (oldNodes[v] == -1)
+				added[addedCount++] = v;
+		}
+
+		for (int u = 0; u < n; ++u) {
+			int ou = oldNodes[u];
+
+			if (ou == -1)
+				continue;
+
+			double[] oldRow = previous.rows.get(ou);
+
+			if (oldRow == null || !isUnaffected(oldRow, old.x(ou), old.y(ou), changed))
+				continue;
+
+			double[] row = new double[n];
+
+			for (int v = 0; v < n; ++v)
+				row[v] = oldNodes[v] == -1 ? Double.NaN : oldRow[oldNodes[v]];
+
+			// the distances are symmetric
+			for (int i = 0; i < addedCount; ++i)
+				row[added[i]] = row(added[i])[u];
+
+			rows.set(u, row);
+		}
+	}
+
+	/**
+	 * Determines whether the given row cannot be affected by the changed
+	 * obstacle. Unreachable nodes might become reachable by a removal.
+	 *
+	 * @param row
+	 * @param x
+	 *            the x-ordinate of the node of the row.
+	 * @param y
+	 *            the y-ordinate of the node of the row.
+	 * @param changed
+	 *            the envelope of the added or removed obstacle.
+	 * @return {@code true} if the row is unaffected.
+	 */
+	private static boolean isUnaffected(double[] row, double x, double y, Envelope changed) {
+		double max = Arrays.stream(row).max().orElse(0.0);
+
+		return Double.isFinite(max) && changed.distance(new Envelope(x, x, y, y)) > max;
+	}
+
+	/**
+	 * Matches the nodes of this graph with the nodes of the given graph by
+	 * their locations. Ambiguous locations are not matched.
+	 *
+	 * @param old
+	 * @return the node of the given graph for each node of this graph or -1
+	 *         if there is none.
+	 */
+	private int[] matchNodes(VisibilityGraph old) {
+		Map<Coordinate, Integer> ids = new HashMap<>();
+
+		for (int v = 0; v < old.nodeCount(); ++v)
+			ids.merge(new Coordinate(old.x(v), old.y(v)), v, (a, b) -> -1);
+
+		int n = graph.nodeCount();
+		Map<Coordinate, Integer> counts = new HashMap<>();
+
+		for (int v = 0; v < n; ++v)
+			counts.merge(new Coordinate(graph.x(v), graph.y(v)), 1, Integer::sum);
+
+		int[] oldNodes = new int[n];
+
+		for (int v = 0; v < n; ++v) {
+			Coordinate c = new Coordinate(graph.x(v), graph.y(v));
+
+			oldNodes[v] = counts.get(c) == 1 ? ids.getOrDefault(c, -1) : -1;
+		}
+
+		return oldNodes;
+	}
+
+	/**
+	 * @return the visibility graph.
+	 */
+	public VisibilityGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Calculates all rows of the table which are not calculated yet.
+	 */
+	public void precompute() {
+		for (int u = 0; u < rows.length(); ++u)
+			row(u);
+	}
+
+	/**
+	 * Returns the shortest distances from the given node to all nodes.
+	 * Calculates the row if necessary.
+	 *
+	 * @param u
+	 * @return the row.
+	 */
+	private double[] row(int u) {
+		double[] row = rows.get(u);
+
+		// concurrent calculations yield the same row
+		if (row == null) {
+			row = graph.distancesFrom(u);
+			rows.set(u, row);
+		}
+
+		return row;
+	}
+
+	/**
+	 * Determines the nodes visible from the given location.
+	 *
+	 * @param x
+	 * @param y
+	 * @return the visibility.
+	 */
+	private Visibility visibility(double x, double y) {
+		try {
+			return visibilities.get(new Coordinate(x, y), () -> calcVisibility(x, y));
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Calculates the nodes visible from the given location.
+	 *
+	 * @param x
+	 * @param y
+	 * @return the visibility.
+	 */
+	private Visibility calcVisibility(double x, double y) {
+		boolean[] visible = graph.visibleNodes(x, y, maxConnectionDistance);
+
+		int count = 0;
+		for (boolean v : visible) {
+			if (v)
+				++count;
+		}
+
+		int[] nodes = new int[count];
+		double[] distances = new double[count];
+
+		for (int v = 0, i = 0; v < visible.length; ++v) {
+			if (!visible[v])
+				continue;
+
+			nodes[i] = v;
+			distances[i] = graph.distance(v, x, y);
+			++i;
+		}
+
+		return new Visibility(nodes, distances);
+	}
+
+	/**
+	 * Calculates the length of the shortest obstacle-free path between the
+	 * given locations.
+	 *
+	 * @param from
+	 * @param to
+	 * @return the distance or {@link Double#POSITIVE_INFINITY} if the
+	 *         locations are not connected.
+	 */
+	public double distance(Point from, Point to) {
+		double x1 = from.getX(), y1 = from.getY();
+		double x2 = to.getX(), y2 = to.getY();
+
+		if (!graph.isBlocked(x1, y1, x2, y2))
+			return Math.hypot(x2 - x1, y2 - y1);
+
+		Visibility source = visibility(x1, y1);
+		Visibility target = visibility(x2, y2);
+
+		double distance = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < source.nodes.length; ++i) {
+			double[] row = row(source.nodes[i]);
+			double head = source.distances[i];
+
+			for (int j = 0; j < target.nodes.length; ++j) {
+				double d = head + row[target.nodes[j]] + target.distances[j];
+
+				if (d < distance)
+					distance = d;
+			}
+		}
+
+		return distance;
+	}
+
+}
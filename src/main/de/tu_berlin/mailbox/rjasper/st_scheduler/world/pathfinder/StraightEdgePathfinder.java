@@ -1,143 +1,211 @@
 package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
 
-import static de.tu_berlin.mailbox.rjasper.collect.ImmutablesCollectors.toImmutableList;
-import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutablePoint;
-
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
-import java.util.stream.Stream;
 
-import com.google.common.collect.ImmutableList;
-import com.vividsolutions.jts.geom.LineString;
 import com.vividsolutions.jts.geom.Point;
 
-import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePoint;
+import de.tu_berlin.mailbox.rjasper.jts.geom.util.GeometriesRequire;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.SpatialPath;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.StaticObstacle;
-import straightedge.geom.KPoint;
-import straightedge.geom.PolygonConverter;
-import straightedge.geom.path.NodeConnector;
-import straightedge.geom.path.PathBlockingObstacle;
-import straightedge.geom.path.PathBlockingObstacleImpl;
-import straightedge.geom.path.PathData;
-import straightedge.geom.path.PathFinder;
 
 /**
+ * <p>
  * The {@code StraightEdgePathfinder} is a {@link AbstractSpatialPathfinder} which
- * implements a minimum distance path finder. It wraps a {@link PathFinder}
- * of the StraightEdge library.
+ * implements a minimum distance path finder. It uses the node connector of
+ * the StraightEdge library to build a {@link VisibilityGraph}.
+ * </p>
+ *
+ * <p>
+ * The visibility graph is built once when the static obstacles are set. Each
+ * query only connects the start and finish location to the graph. Therefore,
+ * {@link #findSpatialPath(Point, Point)} is thread-safe and does not lock.
+ * </p>
+ *
+ * <p>
+ * Added or removed static obstacles only reconnect the nodes near the changed
+ * obstacle. The updated graph replaces the previous one atomically.
+ * </p>
  *
  * @author Rico Jasper
  */
 public class StraightEdgePathfinder extends AbstractSpatialPathfinder {
 
 	/**
-	 * The underlying path finder implementation.
+	 * The builder maintaining the connections of the visibility graph.
 	 */
-	private PathFinder pathFinder = new PathFinder();
+	private VisibilityGraphBuilder graphBuilder = null;
 
 	/**
-	 * The node connector.
+	 * The precomputed visibility graph of the static obstacles.
 	 */
-	private NodeConnector<PathBlockingObstacle> nodeConnector = new NodeConnector<>();
+	private volatile VisibilityGraph visibilityGraph = null;
 
 	/**
-	 * The path blocking obstacles.
+	 * The distance table of the visibility graph.
 	 */
-	private ArrayList<PathBlockingObstacle> pathBlockingObstacles = new ArrayList<>();
+	private volatile SpatialDistanceTable distanceTable = null;
 
 	/**
-	 * The maximum connection distance.
+	 * The landmarks of the visibility graph or {@code null}.
 	 */
-	private double maxConnectionDistance = Double.POSITIVE_INFINITY;
+	private volatile Landmarks landmarks = null;
 
 	/**
-	 * @return the path finder.
+	 * The number of landmarks.
 	 */
-	private PathFinder getPathFinder() {
-		return pathFinder;
-	}
+	private volatile int landmarkCount = 0;
+
+	/**
+	 * The maximum connection distance.
+	 */
+	private volatile double maxConnectionDistance = Double.POSITIVE_INFINITY;
 
 	/*
 	 * (non-Javadoc)
 	 * @see world.pathfinder.SpatialPathfinder#setStaticObstacles(java.util.Collection)
 	 */
 	@Override
-	public void setStaticObstacles(Collection<StaticObstacle> staticObstacles) {
+	public synchronized void setStaticObstacles(Collection<StaticObstacle> staticObstacles) {
 		super.setStaticObstacles(staticObstacles);
 
-		// Convertes the static obstacles to PathBlockingObstacles and
-		// configures the node connector.
+		VisibilityGraphBuilder builder = new VisibilityGraphBuilder(getMaxConnectionDistance());
+		builder.addStaticObstacles(staticObstacles);
 
-		NodeConnector<PathBlockingObstacle> nc = new NodeConnector<>();
-		PolygonConverter conv = new PolygonConverter();
+		graphBuilder = builder;
+		updateVisibilityGraph(builder.build());
+	}
 
-		double maxConnectionDistance = getMaxConnectionDistance();
+	/*
+	 * (non-Javadoc)
+	 * @see de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.AbstractSpatialPathfinder#addStaticObstacle(de.tu_berlin.mailbox.rjasper.st_scheduler.world.StaticObstacle)
+	 */
+	@Override
+	public synchronized void addStaticObstacle(StaticObstacle obstacle) {
+		Collection<StaticObstacle> staticObstacles = staticObstaclesWith(obstacle);
 
-		ArrayList<PathBlockingObstacle> pathBlockingObstacles = new ArrayList<>(staticObstacles.size());
+		super.setStaticObstacles(staticObstacles);
+		graphBuilder.addStaticObstacle(obstacle);
+		updateVisibilityGraph(graphBuilder.build(), obstacle);
+	}
 
-		Stream<PathBlockingObstacle> shells = staticObstacles.stream()
-			.map(StaticObstacle::getShape)
-			.map(conv::makeKPolygonFromExterior)
-			.map(PathBlockingObstacleImpl::createObstacleFromInnerPolygon);
+	/*
+	 * (non-Javadoc)
+	 * @see de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.AbstractSpatialPathfinder#removeStaticObstacle(de.tu_berlin.mailbox.rjasper.st_scheduler.world.StaticObstacle)
+	 */
+	@Override
+	public synchronized void removeStaticObstacle(StaticObstacle obstacle) {
+		Collection<StaticObstacle> staticObstacles = staticObstaclesWithout(obstacle);
 
-		Stream<PathBlockingObstacle> holes = staticObstacles.stream()
-			.map(StaticObstacle::getShape)
-			.filter(p -> p.getNumInteriorRing() > 0)
-			.flatMap(p -> {
-				Stream.Builder<LineString> builder = Stream.builder();
+		super.setStaticObstacles(staticObstacles);
+		graphBuilder.removeStaticObstacle(obstacle);
+		updateVisibilityGraph(graphBuilder.build(), obstacle);
+	}
 
-				for (int i = 0; i < p.getNumInteriorRing(); ++i)
-					builder.add(p.getInteriorRingN(i));
+	/**
+	 * Replaces the visibility graph and its derived data.
+	 *
+	 * @param graph
+	 */
+	private void updateVisibilityGraph(VisibilityGraph graph) {
+		distanceTable = new SpatialDistanceTable(graph, getMaxConnectionDistance());
+		landmarks = makeLandmarks(graph, landmarkCount);
+		visibilityGraph = graph;
+	}
 
-				return builder.build();
-			})
-			.map(conv::makeKPolygonFrom)
-			.map(PathBlockingObstacleImpl::createObstacleFromOuterPolygon);
+	/**
+	 * Replaces the visibility graph after the given obstacle was added or
+	 * removed. The distances which cannot be affected by the obstacle are
+	 * kept.
+	 *
+	 * @param graph
+	 * @param changed
+	 *            the added or removed obstacle.
+	 */
+	private void updateVisibilityGraph(VisibilityGraph graph, StaticObstacle changed) {
+		distanceTable = new SpatialDistanceTable(graph, getMaxConnectionDistance(),
+			distanceTable, changed.getShape().getEnvelopeInternal());
+		landmarks = makeLandmarks(graph, landmarkCount);
+		visibilityGraph = graph;
+	}
 
-		Stream.concat(shells, holes)
-			.forEach(pbo -> {
-				pathBlockingObstacles.add(pbo);
-				nc.addObstacle(pbo, pathBlockingObstacles, maxConnectionDistance);
-			});
+	/**
+	 * Precomputes the landmarks of the given graph. No landmarks are used
+	 * with a finite maximum connection distance.
+	 *
+	 * @param graph
+	 * @param count
+	 * @return the landmarks or {@code null} if no landmarks are used.
+	 */
+	private Landmarks makeLandmarks(VisibilityGraph graph, int count) {
+		if (count == 0 || Double.isFinite(getMaxConnectionDistance()))
+			return null;
+		else
+			return new Landmarks(graph, count);
+	}
 
-		setNodeConnector(nc);
-		setPathBlockingObstacles(pathBlockingObstacles);
+	/**
+	 * <p>
+	 * Sets the number of landmarks which guide the search. The landmarks are
+	 * precomputed immediately if the static obstacles are already set.
+	 * </p>
+	 *
+	 * <p>
+	 * The default value is zero. The landmarks are ignored while the maximum
+	 * connection distance is finite since they would not bound the distances
+	 * of limited connections.
+	 * </p>
+	 *
+	 * @param landmarkCount
+	 * @throws IllegalArgumentException
+	 *             if landmarkCount is negative.
+	 * @see Landmarks
+	 * @see AbstractSpatialPathfinder#setLandmarkCount(int)
+	 */
+	@Override
+	public void setLandmarkCount(int landmarkCount) {
+		if (landmarkCount < 0)
+			throw new IllegalArgumentException("landmarkCount is negative");
+
+		this.landmarkCount = landmarkCount;
+
+		VisibilityGraph graph = visibilityGraph;
+
+		if (graph != null)
+			landmarks = makeLandmarks(graph, landmarkCount);
 	}
 
 	/**
-	 * @return the node connector.
+	 * @return the landmarks of the visibility graph or {@code null}.
 	 */
-	private NodeConnector<PathBlockingObstacle> getNodeConnector() {
-		return nodeConnector;
+	public Landmarks getLandmarks() {
+		return landmarks;
 	}
 
 	/**
-	 * Sets the node connector.
+	 * Returns the landmarks if they belong to the given graph.
 	 *
-	 * @param nodeConnector
+	 * @param graph
+	 * @return the landmarks or {@code null}.
 	 */
-	private void setNodeConnector(NodeConnector<PathBlockingObstacle> nodeConnector) {
-		this.nodeConnector = nodeConnector;
+	private Landmarks landmarksOf(VisibilityGraph graph) {
+		Landmarks landmarks = this.landmarks;
+
+		// the landmarks might be replaced concurrently
+		return landmarks != null && landmarks.getGraph() == graph ? landmarks : null;
 	}
 
 	/**
-	 * @return the path blocking obstacles.
+	 * @return the visibility graph of the static obstacles.
 	 */
-	private ArrayList<PathBlockingObstacle> getPathBlockingObstacles() {
-		return pathBlockingObstacles;
+	public VisibilityGraph getVisibilityGraph() {
+		return visibilityGraph;
 	}
 
 	/**
-	 * Sets the path blocking obstacles.
-	 *
-	 * @param pathBlockingObstacles
+	 * @return the distance table of the visibility graph.
 	 */
-	private void setPathBlockingObstacles(
-		ArrayList<PathBlockingObstacle> pathBlockingObstacles)
-	{
-		this.pathBlockingObstacles = pathBlockingObstacles;
+	public SpatialDistanceTable getDistanceTable() {
+		return distanceTable;
 	}
 
 	/**
@@ -153,77 +221,87 @@ public class StraightEdgePathfinder extends AbstractSpatialPathfinder {
 	 * </p>
 	 *
 	 * <p>
-	 * The default value is {@link Double#POSITIVE_INFINITY}.
+	 * The default value is {@link Double#POSITIVE_INFINITY}. The connections
+	 * between obstacles are only affected if the distance is set before the
+	 * static obstacles. A finite distance disables the landmarks.
 	 * </p>
 	 *
 	 * @param maxConnectionDistance
 	 * @throws IllegalArgumentException
 	 *             if maxConnectionDistance is not positive.
+	 * @see #setLandmarkCount(int)
 	 */
 	public void setMaxConnectionDistance(double maxConnectionDistance) {
 		if (Double.isNaN(maxConnectionDistance) || maxConnectionDistance <= 0.0)
 			throw new IllegalArgumentException("maxConnectionDistance is not positive");
 
 		this.maxConnectionDistance = maxConnectionDistance;
+
+		VisibilityGraph graph = visibilityGraph;
+
+		if (graph != null)
+			landmarks = makeLandmarks(graph, landmarkCount);
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * @see world.pathfinder.SpatialPathfinder#calculateSpatialPath()
+	 * @see de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.AbstractSpatialPathfinder#findSpatialPath(com.vividsolutions.jts.geom.Point, com.vividsolutions.jts.geom.Point)
 	 */
 	@Override
-	protected SpatialPath calculateSpatialPath() {
-		PathFinder pf = getPathFinder();
-		NodeConnector<PathBlockingObstacle> nodeConnector = getNodeConnector();
-		KPoint startPoint = makeKPoint( getStartLocation() );
-		KPoint finishPoint = makeKPoint( getFinishLocation() );
-		List<PathBlockingObstacle> obstacles = getPathBlockingObstacles();
-		double maxDistance = getMaxConnectionDistance();
+	public SpatialPath findSpatialPath(Point startLocation, Point finishLocation) {
+		GeometriesRequire.requireValid2DPoint(startLocation, "startLocation");
+		GeometriesRequire.requireValid2DPoint(finishLocation, "finishLocation");
 
-		PathData pathData = pf.calc(startPoint, finishPoint, maxDistance, nodeConnector, obstacles);
+		VisibilityGraph graph = visibilityGraph;
 
-		// if path finder couldn't find a path
-		if (pathData.isError())
-			return SpatialPath.empty();
+		if (graph == null)
+			throw new IllegalStateException("some parameters are not set");
 
-		SpatialPath path = makeSpatialPath(pathData);
-
-		return path;
+		return graph.findPath(startLocation, finishLocation, getMaxConnectionDistance(), landmarksOf(graph));
 	}
 
 	/**
-	 * Converts a JTS Point to a KPoint.
+	 * Returns the length of the shortest path between the given locations
+	 * using the distance table. Falls back to the euclidean distance if the
+	 * static obstacles are not set.
 	 *
-	 * @param point the JTS Point
-	 * @return the KPoint
+	 * @see AbstractSpatialPathfinder#distanceLowerBound(Point, Point)
 	 */
-	private static KPoint makeKPoint(Point point) {
-		return new KPoint(point.getX(), point.getY());
+	@Override
+	public double distanceLowerBound(Point from, Point to) {
+		SpatialDistanceTable table = distanceTable;
+
+		if (table == null)
+			return super.distanceLowerBound(from, to);
+
+		return table.distance(from, to);
 	}
 
 	/**
-	 * Converts a KPoint to a JTS Point
+	 * Determines the visibility using the precomputed obstacles of the
+	 * visibility graph.
 	 *
-	 * @param point the KPoint
-	 * @return the JTS Point
+	 * @see AbstractSpatialPathfinder#isVisible(Point, Point)
 	 */
-	private static ImmutablePoint makeJtsPoint(KPoint point) {
-		return immutablePoint(point.getX(), point.getY());
+	@Override
+	public boolean isVisible(Point from, Point to) {
+		VisibilityGraph graph = visibilityGraph;
+
+		if (graph == null)
+			throw new IllegalStateException("some parameters are not set");
+
+		return !graph.isBlocked(from.getX(), from.getY(), to.getX(), to.getY());
 	}
 
-	/**
-	 * Converts the PathData to a path.
-	 *
-	 * @param path
-	 * @return the converted path
+	/*
+	 * (non-Javadoc)
+	 * @see world.pathfinder.SpatialPathfinder#calculateSpatialPath()
 	 */
-	private SpatialPath makeSpatialPath(PathData path) {
-		List<KPoint> points = path.getPoints();
-		ImmutableList<ImmutablePoint> jtsPoints = points.stream()
-			.map(StraightEdgePathfinder::makeJtsPoint)
-			.collect(toImmutableList());
+	@Override
+	protected SpatialPath calculateSpatialPath() {
+		VisibilityGraph graph = getVisibilityGraph();
 
-		return new SpatialPath(jtsPoints);
+		return graph.findPath(getStartLocation(), getFinishLocation(), getMaxConnectionDistance(), landmarksOf(graph));
 	}
 
 }
@@ -0,0 +1,566 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
+
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutablePoint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.vividsolutions.jts.geom.Point;
+
+import de.tu_berlin.mailbox.rjasper.collect.CollectionsRequire;
+import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePoint;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.SpatialPath;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.StaticObstacle;
+import straightedge.geom.KPoint;
+import straightedge.geom.KPolygon;
+import straightedge.geom.path.KNode;
+import straightedge.geom.path.KNodeOfObstacle;
+import straightedge.geom.path.NodeConnector;
+import straightedge.geom.path.PathBlockingObstacle;
+
+/**
+ * <p>
+ * The {@code VisibilityGraph} is the precomputed visibility graph of a set of
+ * static obstacles. The obstacle nodes and their connections are calculated
+ * by the {@link NodeConnector} of the StraightEdge library and then frozen
+ * into primitive arrays. The {@link VisibilityGraphBuilder} updates the
+ * connections incrementally when obstacles are added or removed.
+ * </p>
+ *
+ * <p>
+ * A query only connects the start and finish location to the visible nodes
+ * and searches the graph with A*. All search state is local to the query.
+ * Therefore, the graph is immutable and can be queried concurrently.
+ * </p>
+ *
+ * @author Rico Jasper
+ */
+public class VisibilityGraph {
+
+	/**
+	 * Tolerance of the usefulness check of a connection.
+	 */
+	private static final double SMALL_AMOUNT = 0.0001;
+
+	/**
+	 * The inner polygons of the path blocking obstacles.
+	 */
+	private final KPolygon[] polygons;
+
+	/**
+	 * The x-ordinates of the nodes.
+	 */
+	private final double[] xs;
+
+	/**
+	 * The y-ordinates of the nodes.
+	 */
+	private final double[] ys;
+
+	/**
+	 * The preceding node of each node along its obstacle.
+	 */
+	private final int[] previous;
+
+	/**
+	 * The succeeding node of each node along its obstacle.
+	 */
+	private final int[] next;
+
+	/**
+	 * Whether a node might be connected to a query location. Concave nodes and
+	 * nodes within other obstacles are never useful.
+	 */
+	private final boolean[] connectable;
+
+	/**
+	 * The offsets of each node's connections in {@link #connections}.
+	 */
+	private final int[] firstConnection;
+
+	/**
+	 * The connected nodes of all nodes.
+	 */
+	private final int[] connections;
+
+	/**
+	 * The lengths of the connections.
+	 */
+	private final double[] connectionLengths;
+
+	/**
+	 * Builds the visibility graph of the given static obstacles.
+	 *
+	 * @param staticObstacles
+	 * @param maxConnectionDistance
+	 *            the maximum distance of connected nodes.
+	 * @throws NullPointerException
+	 *             if staticObstacles is {@code null}.
+	 * @throws IllegalArgumentException
+	 *             if maxConnectionDistance is not positive.
+	 */
+	public VisibilityGraph(Collection<StaticObstacle> staticObstacles, double maxConnectionDistance) {
+		this(connect(staticObstacles, maxConnectionDistance));
+	}
+
+	/**
+	 * Freezes the given connected path blocking obstacles.
+	 *
+	 * @param pathBlockingObstacles
+	 * @see VisibilityGraphBuilder
+	 */
+	VisibilityGraph(List<PathBlockingObstacle> pathBlockingObstacles) {
+		int m = pathBlockingObstacles.size();
+		polygons = new KPolygon[m];
+
+		Map<KNode, Integer> ids = new IdentityHashMap<>();
+		for (int i = 0; i < m; ++i) {
+			PathBlockingObstacle pbo = pathBlockingObstacles.get(i);
+
+			polygons[i] = pbo.getInnerPolygon();
+			for (KNodeOfObstacle node : pbo.getNodes())
+				ids.put(node, ids.size());
+		}
+
+		int n = ids.size();
+		xs = new double[n];
+		ys = new double[n];
+		previous = new int[n];
+		next = new int[n];
+		connectable = new boolean[n];
+		firstConnection = new int[n+1];
+
+		List<KNode> connected = new ArrayList<>();
+		for (int i = 0; i < m; ++i) {
+			List<KNodeOfObstacle> nodes = pathBlockingObstacles.get(i).getNodes();
+			int k = nodes.size();
+
+			for (int j = 0; j < k; ++j) {
+				KNodeOfObstacle node = nodes.get(j);
+				int id = ids.get(node);
+				KPoint p = node.getPoint();
+
+				xs[id] = p.x;
+				ys[id] = p.y;
+				previous[id] = ids.get(nodes.get(j == 0 ? k-1 : j-1));
+				next[id] = ids.get(nodes.get(j == k-1 ? 0 : j+1));
+				connectable[id] = !node.isConcave() && !isContained(p, i);
+				firstConnection[id] = connected.size();
+				connected.addAll(node.getConnectedNodes());
+			}
+		}
+		firstConnection[n] = connected.size();
+
+		connections = new int[connected.size()];
+		connectionLengths = new double[connected.size()];
+		for (int u = 0; u < n; ++u) {
+			for (int c = firstConnection[u]; c < firstConnection[u+1]; ++c) {
+				int v = ids.get(connected.get(c));
+
+				connections[c] = v;
+				connectionLengths[c] = distance(u, v);
+			}
+		}
+	}
+
+	/**
+	 * Connects the nodes of the given static obstacles.
+	 *
+	 * @param staticObstacles
+	 * @param maxConnectionDistance
+	 * @return the connected path blocking obstacles.
+	 */
+	private static List<PathBlockingObstacle> connect(
+		Collection<StaticObstacle> staticObstacles, double maxConnectionDistance)
+	{
+		CollectionsRequire.requireNonNull(staticObstacles, "staticObstacles");
+
+		VisibilityGraphBuilder builder = new VisibilityGraphBuilder(maxConnectionDistance);
+
+		for (StaticObstacle o : staticObstacles)
+			builder.addStaticObstacle(o);
+
+		return builder.getPathBlockingObstacles();
+	}
+
+	/**
+	 * Determines whether the point is contained by any obstacle other than the
+	 * given one.
+	 *
+	 * @param point
+	 * @param obstacle
+	 *            the obstacle to ignore.
+	 * @return {@code true} if the point is contained.
+	 */
+	private boolean isContained(KPoint point, int obstacle) {
+		for (int i = 0; i < polygons.length; ++i) {
+			KPolygon polygon = polygons[i];
+
+			if (i == obstacle || polygon.getCenter().distance(point) > polygon.getRadius())
+				continue;
+			if (polygon.contains(point))
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * @return the number of obstacle nodes.
+	 */
+	public int nodeCount() {
+		return xs.length;
+	}
+
+	/**
+	 * @return the number of directed connections between obstacle nodes.
+	 */
+	public int connectionCount() {
+		return connections.length;
+	}
+
+	/**
+	 * @param v
+	 * @return the x-ordinate of the given node.
+	 */
+	double x(int v) {
+		return xs[v];
+	}
+
+	/**
+	 * @param v
+	 * @return the y-ordinate of the given node.
+	 */
+	double y(int v) {
+		return ys[v];
+	}
+
+	/**
+	 * Calculates the distance between two nodes.
+	 *
+	 * @param u
+	 * @param v
+	 * @return the distance.
+	 */
+	private double distance(int u, int v) {
+		return Math.hypot(xs[u] - xs[v], ys[u] - ys[v]);
+	}
+
+	/**
+	 * Determines whether the line between two locations crosses any obstacle.
+	 *
+	 * @param x1
+	 * @param y1
+	 * @param x2
+	 * @param y2
+	 * @return {@code true} if the line is blocked.
+	 */
+	boolean isBlocked(double x1, double y1, double x2, double y2) {
+		for (KPolygon polygon : polygons) {
+			if (polygon.intersectionPossible(x1, y1, x2, y2) && polygon.intersectsLine(x1, y1, x2, y2))
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Determines the nodes visible from the given location.
+	 *
+	 * @param x
+	 * @param y
+	 * @param maxConnectionDistance
+	 * @return the visible nodes.
+	 */
+	boolean[] visibleNodes(double x, double y, double maxConnectionDistance) {
+		int n = nodeCount();
+		double maxDistanceSq = maxConnectionDistance * maxConnectionDistance;
+		boolean[] visible = new boolean[n];
+
+		for (int v = 0; v < n; ++v) {
+			if (!connectable[v] || !isUseful(x, y, v))
+				continue;
+
+			double dx = xs[v] - x;
+			double dy = ys[v] - y;
+
+			if (dx*dx + dy*dy > maxDistanceSq)
+				continue;
+
+			visible[v] = !isBlocked(x, y, xs[v], ys[v]);
+		}
+
+		return visible;
+	}
+
+	/**
+	 * Determines whether a connection from the given location to the node
+	 * might be part of a shortest path. This is only the case if the location
+	 * does not lie strictly on the same side of both adjacent obstacle edges.
+	 *
+	 * @param x
+	 * @param y
+	 * @param v
+	 * @return {@code true} if the connection might be useful.
+	 */
+	private boolean isUseful(double x, double y, int v) {
+		int prev = previous[v];
+		int succ = next[v];
+
+		double prevToV = relCCW(x, y, xs[prev], ys[prev], xs[v], ys[v]);
+		double vToSucc = relCCW(x, y, xs[v], ys[v], xs[succ], ys[succ]);
+
+		if (prevToV * vToSucc <= 0.0)
+			return true;
+
+		return KPoint.ptLineDistSq(xs[prev], ys[prev], xs[v], ys[v], x, y) < SMALL_AMOUNT
+			|| KPoint.ptLineDistSq(xs[v], ys[v], xs[succ], ys[succ], x, y) < SMALL_AMOUNT;
+	}
+
+	/**
+	 * Calculates on which side of the line from {@code (x1, y1)} to
+	 * {@code (x2, y2)} the point {@code (x, y)} lies.
+	 *
+	 * @return the signed doubled area of the triangle.
+	 */
+	private static double relCCW(double x, double y, double x1, double y1, double x2, double y2) {
+		return (y - y1) * (x2 - x1) - (x - x1) * (y2 - y1);
+	}
+
+	/**
+	 * Calculates the distance between a node and the given location.
+	 *
+	 * @param v
+	 * @param x
+	 * @param y
+	 * @return the distance.
+	 */
+	double distance(int v, double x, double y) {
+		return Math.hypot(xs[v] - x, ys[v] - y);
+	}
+
+	/**
+	 * Calculates the shortest distances from the given node to all other
+	 * nodes using only the connections between obstacle nodes.
+	 *
+	 * @param source
+	 * @return the distances. Unreachable nodes have an infinite distance.
+	 */
+	double[] distancesFrom(int source) {
+		int n = nodeCount();
+		double[] distances = new double[n];
+		boolean[] closed = new boolean[n];
+		IndexedHeap heap = new IndexedHeap(n);
+
+		Arrays.fill(distances, Double.POSITIVE_INFINITY);
+		distances[source] = 0.0;
+		heap.insertOrUpdate(source, 0.0, 0);
+
+		while (!heap.isEmpty()) {
+			int u = heap.poll();
+			closed[u] = true;
+
+			for (int c = firstConnection[u]; c < firstConnection[u+1]; ++c) {
+				int v = connections[c];
+				double distance = distances[u] + connectionLengths[c];
+
+				if (closed[v] || distance >= distances[v])
+					continue;
+
+				distances[v] = distance;
+				heap.insertOrUpdate(v, distance, 0);
+			}
+		}
+
+		return distances;
+	}
+
+	/**
+	 * Finds the shortest path between the given locations.
+	 *
+	 * @param startLocation
+	 * @param finishLocation
+	 * @param maxConnectionDistance
+	 *            the maximum distance of connections of the locations to the
+	 *            obstacle nodes.
+	 * @return the path or an empty path if no path exists.
+	 */
+	public SpatialPath findPath(Point startLocation, Point finishLocation, double maxConnectionDistance) {
+		return findPath(startLocation, finishLocation, maxConnectionDistance, null);
+	}
+
+	/**
+	 * Finds the shortest path between the given locations. The search is
+	 * guided by the given landmarks in addition to the euclidean distance.
+	 *
+	 * @param startLocation
+	 * @param finishLocation
+	 * @param maxConnectionDistance
+	 *            the maximum distance of connections of the locations to the
+	 *            obstacle nodes.
+	 * @param landmarks
+	 *            the landmarks of this graph or {@code null}.
+	 * @return the path or an empty path if no path exists.
+	 * @throws IllegalArgumentException
+	 *             if the landmarks belong to another graph.
+	 */
+	public SpatialPath findPath(
+		Point startLocation, Point finishLocation, double maxConnectionDistance, Landmarks landmarks)
+	{
+		if (landmarks != null && landmarks.getGraph() != this)
+			throw new IllegalArgumentException("landmarks of another graph");
+
+		double sx = startLocation.getX();
+		double sy = startLocation.getY();
+		double fx = finishLocation.getX();
+		double fy = finishLocation.getY();
+
+		if (!isBlocked(sx, sy, fx, fy))
+			return makePath(startLocation, finishLocation, new int[0]);
+
+		boolean[] fromStart = visibleNodes(sx, sy, maxConnectionDistance);
+		boolean[] toFinish = visibleNodes(fx, fy, maxConnectionDistance);
+
+		int n = nodeCount();
+		int finish = n;
+		double[] heuristics = heuristics(fx, fy, toFinish, landmarks);
+		double[] costs = new double[n+1];
+		int[] predecessors = new int[n+1];
+		boolean[] closed = new boolean[n+1];
+		IndexedHeap heap = new IndexedHeap(n+1);
+
+		Arrays.fill(costs, Double.POSITIVE_INFINITY);
+
+		for (int v = 0; v < n; ++v) {
+			if (!fromStart[v])
+				continue;
+
+			costs[v] = Math.hypot(xs[v] - sx, ys[v] - sy);
+			predecessors[v] = -1;
+			heap.insertOrUpdate(v, costs[v] + heuristics[v], 0);
+		}
+
+		while (!heap.isEmpty()) {
+			int u = heap.poll();
+
+			if (u == finish)
+				return makePath(startLocation, finishLocation, backtrack(predecessors, finish));
+
+			closed[u] = true;
+
+			if (toFinish[u])
+				relax(u, finish, Math.hypot(fx - xs[u], fy - ys[u]), 0.0, costs, predecessors, closed, heap);
+
+			for (int c = firstConnection[u]; c < firstConnection[u+1]; ++c) {
+				int v = connections[c];
+
+				relax(u, v, connectionLengths[c], heuristics[v],
+					costs, predecessors, closed, heap);
+			}
+		}
+
+		return SpatialPath.empty();
+	}
+
+	/**
+	 * Estimates the remaining distance of each node to the finish location.
+	 *
+	 * @param fx
+	 * @param fy
+	 * @param toFinish
+	 *            the nodes visible from the finish location.
+	 * @param landmarks
+	 *            the landmarks or {@code null}.
+	 * @return the estimations.
+	 */
+	private double[] heuristics(double fx, double fy, boolean[] toFinish, Landmarks landmarks) {
+		int n = nodeCount();
+		double[] heuristics = new double[n];
+
+		for (int v = 0; v < n; ++v)
+			heuristics[v] = Math.hypot(fx - xs[v], fy - ys[v]);
+
+		if (landmarks == null || landmarks.size() == 0)
+			return heuristics;
+
+		double[] toLocation = landmarks.distancesTo(toFinish, fx, fy);
+
+		for (int v = 0; v < n; ++v)
+			heuristics[v] = Math.max(heuristics[v], landmarks.lowerBound(v, toLocation));
+
+		return heuristics;
+	}
+
+	/**
+	 * Relaxes the connection from u to v.
+	 *
+	 * @param u
+	 * @param v
+	 * @param length
+	 *            the length of the connection.
+	 * @param heuristic
+	 *            the estimated remaining distance from v.
+	 * @param costs
+	 * @param predecessors
+	 * @param closed
+	 * @param heap
+	 */
+	private static void relax(
+		int u, int v, double length, double heuristic,
+		double[] costs, int[] predecessors, boolean[] closed, IndexedHeap heap)
+	{
+		double cost = costs[u] + length;
+
+		if (closed[v] || cost >= costs[v])
+			return;
+
+		costs[v] = cost;
+		predecessors[v] = u;
+		heap.insertOrUpdate(v, cost + heuristic, 0);
+	}
+
+	/**
+	 * Collects the intermediate nodes leading to the given node.
+	 *
+	 * @param predecessors
+	 * @param last
+	 * @return the nodes in path order.
+	 */
+	private static int[] backtrack(int[] predecessors, int last) {
+		int count = 0;
+		for (int v = predecessors[last]; v != -1; v = predecessors[v])
+			++count;
+
+		int[] nodes = new int[count];
+		for (int v = predecessors[last], i = count-1; v != -1; v = predecessors[v], --i)
+			nodes[i] = v;
+
+		return nodes;
+	}
+
+	/**
+	 * Builds the spatial path from the start location over the given nodes to
+	 * the finish location.
+	 *
+	 * @param startLocation
+	 * @param finishLocation
+	 * @param nodes
+	 * @return the path.
+	 */
+	private SpatialPath makePath(Point startLocation, Point finishLocation, int[] nodes) {
+		ImmutableList.Builder<ImmutablePoint> builder = ImmutableList.builder();
+
+		builder.add(immutablePoint(startLocation.getX(), startLocation.getY()));
+		for (int v : nodes)
+			builder.add(immutablePoint(xs[v], ys[v]));
+		builder.add(immutablePoint(finishLocation.getX(), finishLocation.getY()));
+
+		return new SpatialPath(builder.build());
+	}
+
+}
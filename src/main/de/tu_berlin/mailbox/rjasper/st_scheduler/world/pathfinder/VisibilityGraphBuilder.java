@@ -0,0 +1,254 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
+
+import static java.util.stream.Collectors.toList;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.vividsolutions.jts.geom.Polygon;
+
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.StaticObstacle;
+import straightedge.geom.KPolygon;
+import straightedge.geom.PolygonConverter;
+import straightedge.geom.path.KNodeOfObstacle;
+import straightedge.geom.path.NodeConnector;
+import straightedge.geom.path.PathBlockingObstacle;
+import straightedge.geom.path.PathBlockingObstacleImpl;
+
+/**
+ * <p>
+ * The {@code VisibilityGraphBuilder} maintains the connected obstacle nodes of
+ * the StraightEdge library while static obstacles are added and removed.
+ * Only the connections near a changed obstacle are recalculated. A
+ * {@link VisibilityGraph} is a frozen snapshot of the current state.
+ * </p>
+ *
+ * <p>
+ * The conversion of the obstacles into the StraightEdge representation is
+ * independent for each obstacle. Adding many obstacles at once converts them
+ * in parallel while the nodes are still connected sequentially.
+ * </p>
+ *
+ * <p>
+ * The builder is not thread-safe. However, the snapshots are independent of
+ * the builder and can be queried concurrently.
+ * </p>
+ *
+ * @author Rico Jasper
+ */
+class VisibilityGraphBuilder {
+
+	/**
+	 * The minimum number of obstacles to convert in parallel.
+	 */
+	private static final int PARALLEL_THRESHOLD = 64;
+
+	/**
+	 * The node connector.
+	 */
+	private final NodeConnector<PathBlockingObstacle> nodeConnector = new NodeConnector<>();
+
+	/**
+	 * The converter of JTS geometries.
+	 */
+	private final PolygonConverter converter = new PolygonConverter();
+
+	/**
+	 * The maximum distance of connected nodes.
+	 */
+	private final double maxConnectionDistance;
+
+	/**
+	 * The path blocking obstacles of all static obstacles.
+	 */
+	private final ArrayList<PathBlockingObstacle> pathBlockingObstacles = new ArrayList<>();
+
+	/**
+	 * The path blocking obstacles of each static obstacle. An obstacle might
+	 * be added multiple times.
+	 */
+	private final Map<StaticObstacle, LinkedList<List<PathBlockingObstacle>>> obstacleMap =
+		new IdentityHashMap<>();
+
+	/**
+	 * Constructs a builder without any obstacles.
+	 *
+	 * @param maxConnectionDistance
+	 *            the maximum distance of connected nodes.
+	 * @throws IllegalArgumentException
+	 *             if maxConnectionDistance is not positive.
+	 */
+	public VisibilityGraphBuilder(double maxConnectionDistance) {
+		if (Double.isNaN(maxConnectionDistance) || maxConnectionDistance <= 0.0)
+			throw new IllegalArgumentException("maxConnectionDistance is not positive");
+
+		this.maxConnectionDistance = maxConnectionDistance;
+	}
+
+	/**
+	 * Adds a static obstacle. Connections blocked by the obstacle are removed
+	 * and the nodes of the obstacle are connected.
+	 *
+	 * @param obstacle
+	 * @throws NullPointerException
+	 *             if obstacle is {@code null}.
+	 */
+	public void addStaticObstacle(StaticObstacle obstacle) {
+		Objects.requireNonNull(obstacle, "obstacle");
+
+		connect(obstacle, convert(obstacle));
+	}
+
+	/**
+	 * Adds multiple static obstacles. The obstacles are converted in parallel
+	 * if there are enough of them. The parallel conversion runs on the
+	 * {@link java.util.concurrent.ForkJoinPool ForkJoinPool} of the calling
+	 * task or on the common pool.
+	 *
+	 * @param obstacles
+	 * @throws NullPointerException
+	 *             if obstacles is {@code null} or contains {@code null}.
+	 */
+	public void addStaticObstacles(Collection<StaticObstacle> obstacles) {
+		Objects.requireNonNull(obstacles, "obstacles");
+
+		List<List<PathBlockingObstacle>> converted;
+		if (obstacles.size() >= PARALLEL_THRESHOLD) {
+			converted = obstacles.parallelStream()
+				.map(this::convert)
+				.collect(toList());
+		} else {
+			converted = obstacles.stream()
+				.map(this::convert)
+				.collect(toList());
+		}
+
+		Iterator<List<PathBlockingObstacle>> it = converted.iterator();
+		for (StaticObstacle o : obstacles)
+			connect(o, it.next());
+	}
+
+	/**
+	 * Converts a static obstacle into path blocking obstacles. The first one
+	 * is the shell, the others are the holes.
+	 *
+	 * @param obstacle
+	 * @return the path blocking obstacles.
+	 */
+	private List<PathBlockingObstacle> convert(StaticObstacle obstacle) {
+		Polygon shape = obstacle.getShape();
+		List<PathBlockingObstacle> converted = new ArrayList<>(1 + shape.getNumInteriorRing());
+
+		// the converter is stateless
+		converted.add(PathBlockingObstacleImpl.createObstacleFromInnerPolygon(
+			converter.makeKPolygonFromExterior(shape)));
+
+		for (int i = 0; i < shape.getNumInteriorRing(); ++i) {
+			converted.add(PathBlockingObstacleImpl.createObstacleFromOuterPolygon(
+				converter.makeKPolygonFrom(shape.getInteriorRingN(i))));
+		}
+
+		return converted;
+	}
+
+	/**
+	 * Connects the nodes of the converted static obstacle. Connections
+	 * blocked by the obstacle are removed.
+	 *
+	 * @param obstacle
+	 * @param converted
+	 *            the path blocking obstacles of the static obstacle.
+	 */
+	private void connect(StaticObstacle obstacle, List<PathBlockingObstacle> converted) {
+		for (PathBlockingObstacle pbo : converted) {
+			pathBlockingObstacles.add(pbo);
+			nodeConnector.addObstacle(pbo, pathBlockingObstacles, maxConnectionDistance);
+		}
+
+		obstacleMap.computeIfAbsent(obstacle, k -> new LinkedList<>())
+			.add(converted);
+	}
+
+	/**
+	 * Removes a static obstacle. The nodes which were contained by the
+	 * obstacle and the connections which were blocked by it are restored.
+	 *
+	 * @param obstacle
+	 * @return {@code true} if the obstacle was known.
+	 * @throws NullPointerException
+	 *             if obstacle is {@code null}.
+	 */
+	public boolean removeStaticObstacle(StaticObstacle obstacle) {
+		Objects.requireNonNull(obstacle, "obstacle");
+
+		LinkedList<List<PathBlockingObstacle>> entries = obstacleMap.get(obstacle);
+
+		if (entries == null)
+			return false;
+
+		List<PathBlockingObstacle> removed = entries.removeLast();
+
+		if (entries.isEmpty())
+			obstacleMap.remove(obstacle);
+
+		for (PathBlockingObstacle pbo : removed) {
+			pathBlockingObstacles.remove(pbo);
+			nodeConnector.clearConnectionsToRemovedObstacleNodes(pbo);
+		}
+
+		for (PathBlockingObstacle pbo : removed)
+			reconnectAround(pbo);
+
+		return true;
+	}
+
+	/**
+	 * Reconnects the nodes around a removed obstacle.
+	 *
+	 * @param removed
+	 *            the removed obstacle.
+	 */
+	private void reconnectAround(PathBlockingObstacle removed) {
+		KPolygon polygon = removed.getInnerPolygon();
+		ArrayList<KNodeOfObstacle> nodes = new ArrayList<>();
+
+		for (PathBlockingObstacle pbo : pathBlockingObstacles) {
+			for (KNodeOfObstacle node : pbo.getNodes()) {
+				// nodes within the removed obstacle might be uncovered
+				if (node.getContained() == KNodeOfObstacle.TRUE_VALUE &&
+					polygon.contains(node.getPoint()))
+				{
+					node.resetContainedToUnknown();
+					nodeConnector.reConnectNode(node, maxConnectionDistance, pathBlockingObstacles);
+				}
+
+				nodes.add(node);
+			}
+		}
+
+		// consumes the node list
+		nodeConnector.reConnectNodesAroundRemovedObstacle(
+			removed, nodes, pathBlockingObstacles, maxConnectionDistance);
+	}
+
+	/**
+	 * @return the connected path blocking obstacles.
+	 */
+	List<PathBlockingObstacle> getPathBlockingObstacles() {
+		return pathBlockingObstacles;
+	}
+
+	/**
+	 * @return a snapshot of the current visibility graph.
+	 */
+	public VisibilityGraph build() {
+		return new VisibilityGraph(pathBlockingObstacles);
+	}
+
+}
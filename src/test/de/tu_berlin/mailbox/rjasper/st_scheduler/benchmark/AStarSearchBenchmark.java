@@ -0,0 +1,14 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.benchmark;
+
+import java.util.function.IntToDoubleFunction;
+
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.ArcTimeGraph;
+
+public class AStarSearchBenchmark extends DijkstraSearchBenchmark {
+
+	@Override
+	protected IntToDoubleFunction heuristic(ArcTimeGraph mesh) {
+		return v -> Math.max(0.0, MAX_ARC - mesh.getArc(v)) / MAX_VELOCITY;
+	}
+
+}
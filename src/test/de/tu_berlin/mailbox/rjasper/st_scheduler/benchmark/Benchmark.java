@@ -13,9 +13,12 @@ public class Benchmark {
 		benchmarks.add(FrbObstacleTrajectorySegmentsBenchmark.class);
 		benchmarks.add(FrbObstacleShapeDetailBenchmark.class);
 		benchmarks.add(FrbObstacleNumberBenchmark.class);
+		benchmarks.add(FrbObstacleNumberParallelBenchmark.class);
 		benchmarks.add(SimpleVertexConnectorBenchmark.class);
 		benchmarks.add(LazyVertexConnectorBenchmark.class);
 		benchmarks.add(MinimumTimeVertexConnectorBenchmark.class);
+		benchmarks.add(DijkstraSearchBenchmark.class);
+		benchmarks.add(AStarSearchBenchmark.class);
 //		benchmarks.add(SpatialPathfinderBenchmark.class);
 		benchmarks.add(SingularJobSchedulerNodeNumberSuccessBenchmark.class);
 		benchmarks.add(SingularJobSchedulerNodeNumberErrorBenchmark.class);
@@ -0,0 +1,158 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.benchmark;
+
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.circle;
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutablePoint;
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.multiPolygon;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.IntToDoubleFunction;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+
+import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePoint;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.ArcTimeGraph;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.LazyVertexConnector;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.ModifiedDijkstraAlgorithm;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.SimpleVertexConnector;
+
+/**
+ * Benchmarks the mesh search on the scenarios of the
+ * {@link LazyVertexConnectorBenchmark}. Run {@link #main(String[])} to compare
+ * the number of expanded vertices of Dijkstra and A*.
+ */
+public class DijkstraSearchBenchmark implements Benchmarkable {
+
+	protected static final double MAX_VELOCITY = 5.0;
+
+	protected static final double MAX_ARC = 13.0;
+
+	protected static final double MAX_TIME = 13.0;
+
+	/**
+	 * Weights edges by the time spent moving like the velocity pathfinders do.
+	 */
+	private static final BiFunction<ImmutablePoint, ImmutablePoint, Double> WEIGHT_CALCULATOR =
+		(s, t) -> s.getX() == t.getX() ? 0.0 : t.getY() - s.getY();
+
+	private StopWatch sw = new StopWatch();
+
+	private Map<Integer, ArcTimeGraph> meshes = new HashMap<>();
+
+	@Override
+	public int minProblemSize() {
+		return 20;
+	}
+
+	@Override
+	public int maxProblemSize() {
+		return 150;
+	}
+
+	@Override
+	public int stepProblemSize() {
+		return 10;
+	}
+
+	/**
+	 * Returns the heuristic of the search. Dijkstra uses none.
+	 *
+	 * @param mesh
+	 * @return the heuristic or {@code null}.
+	 */
+	protected IntToDoubleFunction heuristic(ArcTimeGraph mesh) {
+		return null;
+	}
+
+	@Override
+	public Duration benchmark(int n) {
+		sw.reset();
+
+		ArcTimeGraph mesh = meshes.computeIfAbsent(n, DijkstraSearchBenchmark::makeMesh);
+
+		sw.start();
+		search(mesh);
+		sw.stop();
+
+		return sw.duration();
+	}
+
+	private ModifiedDijkstraAlgorithm search(ArcTimeGraph mesh) {
+		int start = mesh.vertexOf(0, 0);
+		int finish = mesh.vertexOf(MAX_ARC, MAX_TIME);
+		IntToDoubleFunction heuristic = heuristic(mesh);
+
+		if (heuristic == null)
+			return new ModifiedDijkstraAlgorithm(mesh, start, finish);
+		else
+			return new ModifiedDijkstraAlgorithm(mesh, start, finish, heuristic);
+	}
+
+	private static ArcTimeGraph makeMesh(int n) {
+		ArcTimeGraph graph = new ArcTimeGraph();
+		Geometry forbiddenMap = makeForbiddenMap(n);
+
+		graph.addVertex(0, 0);
+		forbiddenMap.apply((Coordinate coord) -> {
+			graph.addVertex( immutablePoint(coord.x, coord.y) );
+		});
+		graph.addVertex(MAX_ARC, MAX_TIME);
+
+		SimpleVertexConnector simple = new SimpleVertexConnector();
+
+		simple.setGraph(graph);
+		simple.setVertices(graph.vertices());
+		simple.setForbiddenMap(forbiddenMap);
+		simple.setMaxVelocity(MAX_VELOCITY);
+		simple.setMinArc(0);
+		simple.setMaxArc(MAX_ARC);
+		simple.setMinTime(0);
+		simple.setMaxTime(MAX_TIME);
+		simple.setWeightCalculator(WEIGHT_CALCULATOR);
+		simple.connect();
+
+		LazyVertexConnector lazy = new LazyVertexConnector();
+
+		lazy.setGraph(graph);
+		lazy.setForbiddenMap(forbiddenMap);
+		lazy.setLazyVelocity(MAX_VELOCITY);
+		lazy.setMinStopDuration(0);
+		lazy.setMinArc(0);
+		lazy.setMaxArc(MAX_ARC);
+		lazy.setMinTime(0);
+		lazy.setMaxTime(MAX_TIME);
+		lazy.setWeightCalculator(WEIGHT_CALCULATOR);
+		lazy.connect();
+
+		return graph;
+	}
+
+	private static Geometry makeForbiddenMap(int n) {
+		return multiPolygon(
+			circle(4, 4, 1, n),  // bottom left
+			circle(9, 4, 1, n),  // bottom right
+			circle(4, 9, 1, n),  // top left
+			circle(9, 9, 1, n)); // top right
+	}
+
+	public static void main(String[] args) {
+		DijkstraSearchBenchmark dijkstra = new DijkstraSearchBenchmark();
+		DijkstraSearchBenchmark aStar = new AStarSearchBenchmark();
+
+		System.out.println("n; vertices; dijkstra expanded; a* expanded;");
+
+		for (int n = dijkstra.minProblemSize(); n <= dijkstra.maxProblemSize(); n += dijkstra.stepProblemSize()) {
+			ArcTimeGraph mesh = makeMesh(n);
+
+			System.out.printf("%d; %d; %d; %d;\n",
+				n,
+				mesh.vertexCount(),
+				dijkstra.search(mesh).getExpandedVertexCount(),
+				aStar.search(mesh).getExpandedVertexCount());
+		}
+	}
+
+}
@@ -43,6 +43,7 @@ public class FrbObstacleNumberBenchmark implements Benchmarkable {
 		frb.setBaseTime(BASE_TIME);
 		frb.setDynamicObstacles(makeDynamicObstacles(n));
 		frb.setSpatialPath(makeSpatialPath(n));
+		configure(frb);
 
 		sw.start();
 		frb.calculate();
@@ -56,6 +57,9 @@ public class FrbObstacleNumberBenchmark implements Benchmarkable {
 		return sw.duration();
 	}
 
+	protected void configure(ForbiddenRegionBuilder frb) {
+	}
+
 	private static final ImmutablePolygon SHAPE = immutableBox(-1, -1, 1, 1);
 
 	private Collection<DynamicObstacle> makeDynamicObstacles(int n) {
@@ -0,0 +1,12 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.benchmark;
+
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.ForbiddenRegionBuilder;
+
+public class FrbObstacleNumberParallelBenchmark extends FrbObstacleNumberBenchmark {
+
+	@Override
+	protected void configure(ForbiddenRegionBuilder frb) {
+		frb.setParallel(true);
+	}
+
+}
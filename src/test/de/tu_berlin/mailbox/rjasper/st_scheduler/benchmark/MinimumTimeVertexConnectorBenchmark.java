@@ -7,13 +7,11 @@ import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuil
 import java.time.Duration;
 import java.util.function.BiFunction;
 
-import org.jgrapht.graph.DefaultDirectedWeightedGraph;
-import org.jgrapht.graph.DefaultWeightedEdge;
-
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.Geometry;
 
 import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePoint;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.ArcTimeGraph;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.MinimumTimeVertexConnector;
 
 public class MinimumTimeVertexConnectorBenchmark implements Benchmarkable {
@@ -44,8 +42,7 @@ public class MinimumTimeVertexConnectorBenchmark implements Benchmarkable {
 
 		MinimumTimeVertexConnector connector = new MinimumTimeVertexConnector();
 
-		DefaultDirectedWeightedGraph<ImmutablePoint, DefaultWeightedEdge> graph =
-			new DefaultDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+		ArcTimeGraph graph = new ArcTimeGraph();
 
 		Geometry forbiddenMap = makeForbiddenMap(n);
 
@@ -193,6 +193,87 @@ public class ScheduleTest {
 		schedule.addAlternative(sa2);
 	}
 
+	@Test
+	public void testConcurrentTrajectoryViolation() {
+		Node n1 = node("n1", 0, 0);
+		Node n2 = node("n2", 2, -2);
+		
+		Schedule schedule = new Schedule();
+		schedule.addNode(n1);
+		schedule.addNode(n2);
+		
+		long version = schedule.getVersion();
+		
+		ScheduleAlternative sa1 = new ScheduleAlternative();
+		ScheduleAlternative sa2 = new ScheduleAlternative();
+		
+		// both trajectories cross (2, 0) at second 2
+		Trajectory traj1 = trajectory(0, 4, 0, 0, 0, 0, 0, 4, 8);
+		Trajectory traj2 = trajectory(2, 2, 2, -2, 2, -2, 0, 4, 8);
+		
+		sa1.updateTrajectory(n1, traj1);
+		sa2.updateTrajectory(n2, traj2);
+		
+		sa1.seal();
+		sa2.seal();
+		
+		schedule.addAlternative(sa1, version);
+		
+		thrown.expect(IllegalArgumentException.class);
+		schedule.addAlternative(sa2, version);
+	}
+	
+	@Test
+	public void testConcurrentTrajectoryNoViolation() {
+		Node n1 = node("n1", 0, 0);
+		Node n2 = node("n2", 2, -2);
+		
+		Schedule schedule = new Schedule();
+		schedule.addNode(n1);
+		schedule.addNode(n2);
+		
+		long version = schedule.getVersion();
+		
+		ScheduleAlternative sa1 = new ScheduleAlternative();
+		ScheduleAlternative sa2 = new ScheduleAlternative();
+		
+		// n2 crosses (2, 0) after n1 has returned
+		Trajectory traj1 = trajectory(0, 4, 0, 0, 0, 0, 0, 4, 8);
+		Trajectory traj2 = trajectory(2, 2, 2, -2, 2, -2, 10, 14, 18);
+		
+		sa1.updateTrajectory(n1, traj1);
+		sa2.updateTrajectory(n2, traj2);
+		
+		sa1.seal();
+		sa2.seal();
+		
+		schedule.addAlternative(sa1, version);
+		schedule.addAlternative(sa2, version);
+		
+		assertThat(schedule.hasAlternative(sa2), is(true));
+	}
+	
+	@Test
+	public void testDiscardedVersion() {
+		Node n1 = node("n1", 0, 0);
+		Node n2 = node("n2", 2, -2);
+		
+		Schedule schedule = new Schedule();
+		schedule.addNode(n1);
+		
+		long version = schedule.getVersion();
+		
+		schedule.addNode(n2);
+		schedule.discardChanges(schedule.getVersion());
+		
+		ScheduleAlternative sa = new ScheduleAlternative();
+		sa.updateTrajectory(n1, trajectory(0, 4, 0, 0, 0, 0, 0, 4, 8));
+		sa.seal();
+		
+		thrown.expect(IllegalArgumentException.class);
+		schedule.addAlternative(sa, version);
+	}
+
 	@Test
 	public void testContinuousTrajectoryViolation() {
 		Node n = node("n", 0, 0);
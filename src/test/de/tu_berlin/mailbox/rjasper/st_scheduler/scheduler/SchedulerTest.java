@@ -14,6 +14,7 @@ import static de.tu_berlin.mailbox.rjasper.time.TimeFactory.atSecond;
 import static de.tu_berlin.mailbox.rjasper.util.UUIDFactory.uuid;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
@@ -21,10 +22,23 @@ import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.jgrapht.graph.DefaultEdge;
 import org.jgrapht.graph.SimpleDirectedGraph;
@@ -525,6 +539,219 @@ public class SchedulerTest {
 		assertThat(res.getJobs().get(uuid("j2")), satisfies(js2));
 	}
 
+	@Test
+	public void testScheduleAll() throws CollisionException {
+		Scheduler sc = new Scheduler(new World());
+		sc.addNode(nodeSpec("n", 0, 0));
+
+		JobSpecification js1 = jobSpec("j1", 1, 0, 10, 1);
+		JobSpecification js2 = jobSpec("j2", 2, 0, 5, 1);
+		JobSpecification js3 = jobSpec("j3", 100, 0, 1, 1); // unreachable
+
+		BatchScheduleResult res = sc.scheduleAll(Arrays.asList(js1, js2, js3));
+
+		assertThat("scheduling was no success",
+			res.isSuccess(), is(true));
+		assertThat("job was not correctly scheduled",
+			res.getJobs().get(uuid("j1")), satisfies(js1));
+		assertThat("job was not correctly scheduled",
+			res.getJobs().get(uuid("j2")), satisfies(js2));
+		assertThat("unreachable job was scheduled",
+			res.isScheduled(uuid("j3")), is(false));
+
+		NodeReference wref = sc.getNodeReference("n");
+		Job job1 = res.getJobs().get(uuid("j1"));
+
+		assertThat("batch was committed without being asked to",
+			wref.hasJob(job1), is(false));
+
+		sc.commit(res.getTransactionId());
+
+		assertThat(sc.getJob(uuid("j1")), satisfies(js1));
+		assertThat(sc.getJob(uuid("j2")), satisfies(js2));
+	}
+
+	@Test
+	public void testScheduleAllAbort() throws CollisionException {
+		Scheduler sc = new Scheduler(new World());
+		sc.addNode(nodeSpec("n", 0, 0));
+
+		JobSpecification js1 = jobSpec("j1", 1, 0, 10, 1);
+		JobSpecification js2 = jobSpec("j2", 2, 0, 5, 1);
+
+		BatchScheduleResult res = sc.scheduleAll(Arrays.asList(js1, js2));
+
+		assertThat("scheduling was no success",
+			res.isSuccess(), is(true));
+
+		sc.abort(res.getTransactionId());
+
+		NodeReference wref = sc.getNodeReference("n");
+
+		assertThat("aborted job was assigned to node",
+			wref.hasJob(res.getJobs().get(uuid("j1"))), is(false));
+		assertThat("aborted job was assigned to node",
+			wref.hasJob(res.getJobs().get(uuid("j2"))), is(false));
+
+		// the trajectories are no longer locked
+		ScheduleResult again = scheduleJob(sc, js1);
+
+		assertThat("job was not scheduled after abort",
+			again.isSuccess(), is(true));
+	}
+
+	@Test
+	public void testScheduleAllInfeasible() throws CollisionException {
+		Scheduler sc = new Scheduler(new World());
+		sc.addNode(nodeSpec("n", 0, 0));
+
+		BatchScheduleResult res = sc.scheduleAll(singleton(jobSpec("j", 100, 0, 1, 1)));
+
+		assertThat("scheduled job when it shouldn't have",
+			res.isError(), is(true));
+		assertThat("scheduled job when it shouldn't have",
+			res.isScheduled(uuid("j")), is(false));
+	}
+
+	@Test
+	public void testScheduleAllEmpty() throws CollisionException {
+		Scheduler sc = new Scheduler(new World());
+		sc.addNode(nodeSpec("n", 0, 0));
+
+		BatchScheduleResult res = sc.scheduleAll(emptyList());
+
+		assertThat("empty batch was successful",
+			res.isError(), is(true));
+	}
+
+	@Test
+	public void testScheduleAllChunks() throws CollisionException {
+		Scheduler sc = new Scheduler(new World());
+		sc.addNode(nodeSpec("n", 0, 0));
+
+		int n = Scheduler.BATCH_CHUNK_SIZE + 1;
+		List<JobSpecification> specs = IntStream.range(0, n)
+			.mapToObj(i -> jobSpec("j" + i, i % 2, 0, 2*i + 1, 1))
+			.collect(Collectors.toList());
+
+		BatchScheduleResult res = sc.scheduleAll(specs);
+
+		// all chunks belong to a single transaction
+		sc.commit(res.getTransactionId());
+
+		for (JobSpecification spec : specs) {
+			assertThat("job was not scheduled",
+				res.isScheduled(spec.getJobId()), is(true));
+			assertThat(sc.getJob(spec.getJobId()), satisfies(spec));
+		}
+	}
+
+	@Test
+	public void testSpatialPathCache() throws CollisionException {
+		StaticObstacle obstacle = new StaticObstacle(immutableBox(10, -5, 20, 5));
+		World world = new World(ImmutableList.of(obstacle), ImmutableList.of());
+
+		Scheduler sc = new Scheduler(world);
+		sc.setSpatialPathCache(1000, 0.5);
+		sc.addNode(nodeSpec("n", 0, 0));
+
+		JobSpecification js1 = jobSpec("j1", 30, 0, 100, 1);
+		JobSpecification js2 = jobSpec("j2", 0, 0.1, 200, 1);
+
+		scheduleJob(sc, js1);
+		scheduleJob(sc, js2);
+
+		assertThat(sc.getJob(js1.getJobId()), satisfies(js1));
+		assertThat(sc.getJob(js2.getJobId()), satisfies(js2));
+	}
+
+	@Test
+	public void testLandmarks() throws CollisionException {
+		Scheduler sc = new Scheduler(WorldFixtures.twoRooms());
+		sc.setLandmarkCount(4);
+		sc.addNode(nodeSpec("n", 6, 24));
+
+		JobSpecification js = jobSpec("j", 30, 4, 100, 1);
+
+		scheduleJob(sc, js);
+
+		assertThat(sc.getLandmarkCount(), is(4));
+		assertThat(sc.getJob(js.getJobId()), satisfies(js));
+	}
+
+	@Test
+	public void testPerspectiveSettings() throws CollisionException {
+		Scheduler sc = new Scheduler(WorldFixtures.twoRooms());
+		sc.setRadiusQuantization(1.0);
+		sc.setMaxIdlePerspectives(2);
+
+		sc.addNode(nodeSpec("n1", 6, 24));
+		sc.removeNode("n1");
+		sc.addNode(nodeSpec("n2", 6, 24));
+
+		JobSpecification js = jobSpec("j", 30, 4, 100, 1);
+
+		scheduleJob(sc, js);
+
+		assertThat(sc.getRadiusQuantization(), is(1.0));
+		assertThat(sc.getMaxIdlePerspectives(), is(2));
+		assertThat(sc.getJob(js.getJobId()), satisfies(js));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeRadiusQuantization() {
+		new Scheduler(new World()).setRadiusQuantization(-1.0);
+	}
+
+	@Test
+	public void testReleasePerspectives() {
+		Scheduler sc = new Scheduler(new World());
+		List<NodeSpecification> specs = singletonList(nodeSpec("n", 0, 0));
+
+		sc.prewarmPerspectives(specs).join();
+
+		assertThat(sc.getPerspectiveCount(), is(1));
+
+		sc.releasePerspectives(specs);
+
+		assertThat(sc.getPerspectiveCount(), is(0));
+	}
+
+	@Test
+	public void testAddNodeKeepsReleasedPerspective() throws CollisionException {
+		Scheduler sc = new Scheduler(new World());
+		List<NodeSpecification> specs = singletonList(nodeSpec("n", 0, 0));
+
+		sc.prewarmPerspectives(specs).join();
+		sc.addNode(specs.get(0));
+		sc.releasePerspectives(specs);
+
+		assertThat(sc.getPerspectiveCount(), is(1));
+	}
+
+	@Test
+	public void testAddNodeDuplicateRemovesPerceiver() throws CollisionException {
+		Scheduler sc = new Scheduler(new World());
+		sc.addNode(nodeSpec("n", 0, 0));
+
+		NodeSpecification duplicate = new NodeSpecification(
+			"n", immutableBox(-2, -2, 2, 2), NODE_SPEED, immutablePoint(10, 10), atSecond(0));
+
+		try {
+			sc.addNode(duplicate);
+			fail("duplicate node was added");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+
+		assertThat(sc.getPerspectiveCount(), is(1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSpatialPathCacheNegativeWeight() {
+		new Scheduler(new World()).setSpatialPathCache(-1, 0.0);
+	}
+
 	@Test
 	public void testScheduleDependenciesEmpty() {
 		Scheduler sc = new Scheduler(new World());
@@ -1041,4 +1268,248 @@ public class SchedulerTest {
 		sc.removeJob(uuid("job"));
 	}
 
+	@Test
+	public void testConcurrentSchedule() throws Exception {
+		Scheduler sc = new Scheduler(new World());
+
+		for (int i = 0; i < 8; ++i)
+			sc.addNode(nodeSpec("w" + i, 10 * i, 0));
+
+		// each job can only be reached in time by a single node
+		List<JobSpecification> specs = IntStream.range(0, 8)
+			.mapToObj(i -> jobSpec("job" + i, 10 * i, 5, 6, 1))
+			.collect(Collectors.toList());
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<ScheduleResult>> futures;
+
+		try {
+			futures = specs.stream()
+				.map(s -> executor.submit(() -> {
+					ScheduleResult result = sc.schedule(s);
+
+					if (result.isSuccess())
+						sc.commit(result.getTransactionId());
+
+					return result;
+				}))
+				.collect(Collectors.toList());
+
+			for (Future<ScheduleResult> f : futures) {
+				assertThat("unable to schedule job",
+					f.get().isSuccess(), is(true));
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		for (int i = 0; i < 8; ++i) {
+			JobSpecification s = specs.get(i);
+			Job job = sc.getJob(s.getJobId());
+
+			assertThat("scheduled job doesn't meet specification",
+				job, satisfies(s));
+			assertThat("job assigned to wrong node",
+				job.getNodeReference(), is(sc.getNodeReference("w" + i)));
+		}
+	}
+
+	@Test
+	public void testSnapshot() throws CollisionException, IOException {
+		World world = WorldFixtures.twoRooms();
+		ImmutablePolygon shape = immutableBox(-0.5, -0.5, 0.5, 0.5);
+
+		Scheduler sc = new Scheduler(world);
+		sc.addNode(nFact.createNodeSpecification("w1", shape, 1.0, 11, 31, 0));
+		sc.addNode(nFact.createNodeSpecification("w2", shape, 1.0, 25, 11, 0));
+		sc.setFrozenHorizonDuration(Duration.ofSeconds(5));
+
+		scheduleJob(sc, jobSpec("job1", 27, 35, 60, 10));
+		ScheduleResult pending = sc.schedule(jobSpec("job2", 11, 11, 120, 10));
+		sc.setPresentTime(atSecond(1));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		sc.writeSnapshot(out);
+		Scheduler restored = Scheduler.readSnapshot(world,
+			new ByteArrayInputStream(out.toByteArray()));
+
+		assertThat(restored.getPresentTime(), equalTo(sc.getPresentTime()));
+		assertThat(restored.getFrozenHorizonTime(), equalTo(sc.getFrozenHorizonTime()));
+		assertThat(restored.getFrozenHorizonDuration(), equalTo(sc.getFrozenHorizonDuration()));
+
+		for (String nodeId : Arrays.asList("w1", "w2")) {
+			List<Trajectory> expected = new ArrayList<>(sc.getNodeReference(nodeId).getTrajectories());
+			List<Trajectory> actual = new ArrayList<>(restored.getNodeReference(nodeId).getTrajectories());
+
+			assertThat(actual.size(), is(expected.size()));
+			for (int i = 0; i < expected.size(); ++i) {
+				assertThat(actual.get(i).getSpatialPath(), equalTo(expected.get(i).getSpatialPath()));
+				assertThat(actual.get(i).getTimes(), equalTo(expected.get(i).getTimes()));
+			}
+		}
+
+		Job job1 = restored.getJob(uuid("job1"));
+		assertThat(job1.getStartTime(), equalTo(sc.getJob(uuid("job1")).getStartTime()));
+		assertThat(job1.getLocation(), equalTo(sc.getJob(uuid("job1")).getLocation()));
+
+		assertThat(restored.hasTransaction(pending.getTransactionId()), is(true));
+		restored.commit(pending.getTransactionId());
+		assertThat(restored.getJob(uuid("job2")).getStartTime(),
+			equalTo(pending.getJobs().get(uuid("job2")).getStartTime()));
+	}
+
+	@Test
+	public void testSnapshotSettings() throws IOException {
+		Scheduler sc = new Scheduler(new World());
+		sc.setParallelForbiddenRegions(true);
+		sc.setSpatialPathCache(1000, 0.5);
+		sc.setLandmarkCount(3);
+		sc.setRadiusQuantization(0.25);
+		sc.setMaxIdlePerspectives(2);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		sc.writeSnapshot(out);
+		Scheduler restored = Scheduler.readSnapshot(new World(),
+			new ByteArrayInputStream(out.toByteArray()));
+
+		assertThat(restored.isParallelForbiddenRegions(), is(true));
+		assertThat(restored.getSpatialPathCacheWeight(), is(1000L));
+		assertThat(restored.getSpatialPathQuantization(), is(0.5));
+		assertThat(restored.getLandmarkCount(), is(3));
+		assertThat(restored.getRadiusQuantization(), is(0.25));
+		assertThat(restored.getMaxIdlePerspectives(), is(2));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSnapshotDifferentWorld() throws IOException {
+		World world = WorldFixtures.twoRooms();
+		Scheduler sc = new Scheduler(world);
+		sc.addStaticObstacle(new StaticObstacle(immutableBox(100, 100, 102, 102)));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		sc.writeSnapshot(out);
+
+		// the obstacle is missing
+		Scheduler.readSnapshot(world, new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	@Test
+	public void testSnapshotTrailingBytes() throws IOException {
+		Scheduler sc = new Scheduler(new World());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		sc.writeSnapshot(out);
+		out.write(42);
+
+		ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+		Scheduler.readSnapshot(new World(), in);
+
+		assertThat(in.read(), is(42));
+	}
+
+	/**
+	 * Writes the beginning of a snapshot of an empty world up to the present
+	 * time.
+	 */
+	private static DataOutputStream snapshotOfEmptyWorld(ByteArrayOutputStream bytes) throws IOException {
+		DataOutputStream out = new DataOutputStream(bytes);
+
+		out.writeInt(SnapshotOutput.MAGIC);
+		out.writeInt(SnapshotOutput.FORMAT_VERSION);
+		out.writeInt(0);
+		out.writeInt(0);
+		out.writeLong(SnapshotOutput.fingerprint(new World()));
+
+		return out;
+	}
+
+	/**
+	 * Writes valid settings with a present time of zero.
+	 */
+	private static void writeSettings(DataOutputStream out) throws IOException {
+		for (int i = 0; i < 4; ++i) {
+			out.writeLong(0L);
+			out.writeInt(0);
+		}
+
+		out.writeInt(1);
+		out.writeBoolean(false);
+		out.writeBoolean(false);
+		out.writeLong(0L);
+		out.writeDouble(0.0);
+		out.writeInt(0);
+		out.writeDouble(0.0);
+		out.writeInt(0);
+	}
+
+	@Test(expected = StreamCorruptedException.class)
+	public void testSnapshotInvalidTime() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = snapshotOfEmptyWorld(bytes);
+
+		out.writeLong(0L);
+		out.writeInt(2_000_000_000);
+
+		Scheduler.readSnapshot(new World(), new ByteArrayInputStream(bytes.toByteArray()));
+	}
+
+	@Test(expected = StreamCorruptedException.class)
+	public void testSnapshotInvalidSlotParallelism() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = snapshotOfEmptyWorld(bytes);
+
+		for (int i = 0; i < 4; ++i) {
+			out.writeLong(0L);
+			out.writeInt(0);
+		}
+		out.writeInt(0);
+
+		Scheduler.readSnapshot(new World(), new ByteArrayInputStream(bytes.toByteArray()));
+	}
+
+	@Test(expected = EOFException.class)
+	public void testSnapshotHugeSize() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = snapshotOfEmptyWorld(bytes);
+
+		writeSettings(out);
+		out.writeInt(1);
+		out.writeUTF("n");
+		out.writeInt(0);
+		// the ring ends right after its size
+		out.writeInt(Integer.MAX_VALUE);
+
+		Scheduler.readSnapshot(new World(), new ByteArrayInputStream(bytes.toByteArray()));
+	}
+
+	@Test(expected = StreamCorruptedException.class)
+	public void testSnapshotInvalidNode() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = snapshotOfEmptyWorld(bytes);
+
+		writeSettings(out);
+		out.writeInt(1);
+		out.writeUTF("n");
+		out.writeInt(0);
+		out.writeInt(5);
+		for (double x : new double[] {-1, 1, 1, -1, -1})
+			out.writeDouble(x);
+		for (double y : new double[] {-1, -1, 1, 1, -1})
+			out.writeDouble(y);
+		// negative speed
+		out.writeDouble(-1.0);
+		out.writeDouble(0.0);
+		out.writeDouble(0.0);
+		out.writeLong(0L);
+		out.writeInt(0);
+
+		Scheduler.readSnapshot(new World(), new ByteArrayInputStream(bytes.toByteArray()));
+	}
+
+	@Test(expected = StreamCorruptedException.class)
+	public void testSnapshotCorrupted() throws IOException {
+		Scheduler.readSnapshot(new World(),
+			new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }));
+	}
+
 }
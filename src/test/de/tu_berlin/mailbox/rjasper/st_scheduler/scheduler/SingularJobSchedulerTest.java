@@ -7,18 +7,23 @@ import static de.tu_berlin.mailbox.rjasper.time.TimeConv.secondsToDuration;
 import static de.tu_berlin.mailbox.rjasper.time.TimeConv.secondsToTime;
 import static de.tu_berlin.mailbox.rjasper.time.TimeFactory.atSecond;
 import static de.tu_berlin.mailbox.rjasper.util.UUIDFactory.uuid;
+import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+
 import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePoint;
 import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePolygon;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.RadiusBasedWorldPerspectiveCache;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.StaticObstacle;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.World;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.StraightEdgePathfinder;
 
@@ -89,4 +94,100 @@ public class SingularJobSchedulerTest {
 		assertThat(schedule.getJob(uuid("job#1")), satisfies(js1));
 	}
 
+	private static String scheduleNodeId(int slotParallelism, ForkJoinPool pool) {
+		SingularJobScheduler sc = new SingularJobScheduler();
+
+		World world = new World();
+		RadiusBasedWorldPerspectiveCache perspectiveCache =
+			new RadiusBasedWorldPerspectiveCache(world, StraightEdgePathfinder.class);
+
+		Schedule schedule = new Schedule();
+		for (int i = 0; i < 6; ++i)
+			schedule.addNode(new Node(nodeSpec("node#" + i, 3 * i, 0)));
+
+		ScheduleAlternative alternative = new ScheduleAlternative();
+
+		sc.setWorld(world);
+		sc.setPerspectiveCache(perspectiveCache);
+		sc.setFrozenHorizonTime(Scheduler.BEGIN_OF_TIME);
+		sc.setSchedule(schedule);
+		sc.setAlternative(alternative);
+		sc.setMaxLocationPicks(1);
+		sc.setSlotParallelism(slotParallelism);
+		sc.setForkJoinPool(pool);
+
+		JobSpecification js = jobSpec("job", 8, 3, 10, 1);
+		sc.setSpecification(js);
+		boolean status = sc.schedule();
+
+		assertThat("unable to schedule job",
+			status, is(true));
+
+		alternative.seal();
+		schedule.addAlternative(alternative);
+		schedule.integrate(alternative);
+
+		Job job = schedule.getJob(uuid("job"));
+
+		assertThat(job, satisfies(js));
+
+		return job.getNodeReference().getId();
+	}
+
+	@Test
+	public void testObstacleAwareDistances() {
+		SingularJobScheduler sc = new SingularJobScheduler();
+
+		// separates the blocked node from the job location
+		StaticObstacle wall = new StaticObstacle(immutableBox(-10, 1.5, 10, 2.5));
+		World world = new World(ImmutableList.of(wall), ImmutableList.of());
+		RadiusBasedWorldPerspectiveCache perspectiveCache =
+			new RadiusBasedWorldPerspectiveCache(world, StraightEdgePathfinder.class);
+
+		Schedule schedule = new Schedule();
+		schedule.addNode(new Node(nodeSpec("blocked", 0, 0)));
+		schedule.addNode(new Node(nodeSpec("free", 0, 8.5)));
+
+		ScheduleAlternative alternative = new ScheduleAlternative();
+
+		sc.setWorld(world);
+		sc.setPerspectiveCache(perspectiveCache);
+		sc.setFrozenHorizonTime(Scheduler.BEGIN_OF_TIME);
+		sc.setSchedule(schedule);
+		sc.setAlternative(alternative);
+		sc.setMaxLocationPicks(1);
+		sc.setObstacleAwareDistances(true);
+
+		JobSpecification js = jobSpec("job", 0, 4, 5, 1);
+		sc.setSpecification(js);
+		boolean status = sc.schedule();
+
+		assertThat("unable to schedule job",
+			status, is(true));
+
+		alternative.seal();
+		schedule.addAlternative(alternative);
+		schedule.integrate(alternative);
+
+		Job job = schedule.getJob(uuid("job"));
+
+		assertThat(job, satisfies(js));
+		assertThat(job.getNodeReference().getId(), equalTo("free"));
+	}
+
+	@Test
+	public void testConcurrentSlotPlanning() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+
+		try {
+			String sequential = scheduleNodeId(1, pool);
+			String concurrent = scheduleNodeId(4, pool);
+
+			assertThat(concurrent, equalTo(sequential));
+			assertThat(sequential, equalTo("node#3"));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
 }
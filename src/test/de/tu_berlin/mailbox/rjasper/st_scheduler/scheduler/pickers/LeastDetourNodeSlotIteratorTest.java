@@ -17,6 +17,7 @@ import java.util.List;
 import org.junit.Test;
 
 import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePoint;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.Scheduler;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.SpaceTimeSlot;
 import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.pickers.NodeSlotIterator.NodeSlot;
 
@@ -90,4 +91,27 @@ public class LeastDetourNodeSlotIteratorTest {
 		assertThat(collect(it), equalTo( Arrays.asList(slot2, slot1)) );
 	}
 
+	@Test
+	public void testUnreachable() {
+		// locations right of x = 5 are separated from the others
+		DistanceEstimator estimator = (node, from, to) ->
+			(from.getX() > 5) == (to.getX() > 5) ? from.distance(to) : Double.POSITIVE_INFINITY;
+
+		ImmutablePoint location = immutablePoint(6, 0);
+		NodeSlot slot1 = slot(0, 0, 0, 7, 0, 1);
+		NodeSlot slot2 = new NodeSlot(
+			null,
+			new SpaceTimeSlot(
+				immutablePoint(0, 2),
+				immutablePoint(0, 2),
+				atSecond(2),
+				Scheduler.END_OF_TIME));
+		Collection<NodeSlot> slots = Arrays.asList(slot1, slot2);
+
+		LeastDetourNodeSlotIterator it = new LeastDetourNodeSlotIterator(slots, location, estimator);
+
+		// both detours are infinite and keep their order
+		assertThat(collect(it), equalTo( Arrays.asList(slot1, slot2)) );
+	}
+
 }
@@ -132,6 +132,28 @@ public class NodeSlotIteratorTest {
 		assertThat(picker.getCurrentNode(), is(n));
 	}
 
+	@Test
+	public void testDistanceEstimator() {
+		Node n = withTwoJobs1();
+
+		Collection<Node> nodes = Collections.singleton(n);
+
+		Point location = point(0., 0.);
+		LocalDateTime earliest = atHour(3.0);
+		LocalDateTime latest = atHour(6.5);
+		Duration duration = Duration.ofHours(1L);
+
+		// a detour doubles the distance
+		DistanceEstimator detour = (node, from, to) -> 2.0 * from.distance(to);
+
+		NodeSlotIterator picker = new NodeSlotIterator(
+			nodes, new ScheduleAlternative(), BEGIN_OF_TIME, location,
+			earliest, latest, duration, detour);
+
+		assertThat("picker has next when it shouldn't",
+			picker.hasNext(), is(false));
+	}
+
 	@Test
 	public void testCheckStartTimeNegative() {
 		Node n = withTwoJobs1();
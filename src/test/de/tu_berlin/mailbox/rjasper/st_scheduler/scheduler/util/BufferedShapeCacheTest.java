@@ -0,0 +1,69 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.util;
+
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutableBox;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePolygon;
+
+public class BufferedShapeCacheTest {
+
+	@Test
+	public void testBuffer() {
+		ImmutablePolygon shape = immutableBox(-1, -1, 1, 1);
+
+		BufferedShapeCache cache = new BufferedShapeCache();
+		ImmutablePolygon buffered = cache.buffer(shape, 1.0);
+
+		assertThat(buffered.equalsTopo(shape.buffer(1.0)), is(true));
+	}
+
+	@Test
+	public void testHit() {
+		BufferedShapeCache cache = new BufferedShapeCache();
+
+		ImmutablePolygon buffered = cache.buffer(immutableBox(-1, -1, 1, 1), 1.0);
+
+		// equal shape of a different instance
+		assertThat(cache.buffer(immutableBox(-1, -1, 1, 1), 1.0), sameInstance(buffered));
+		assertThat(cache.getHitCount(), is(1L));
+		assertThat(cache.getMissCount(), is(1L));
+	}
+
+	@Test
+	public void testMissDifferentRadius() {
+		ImmutablePolygon shape = immutableBox(-1, -1, 1, 1);
+
+		BufferedShapeCache cache = new BufferedShapeCache();
+		cache.buffer(shape, 1.0);
+		cache.buffer(shape, 2.0);
+
+		assertThat(cache.getHitCount(), is(0L));
+		assertThat(cache.getMissCount(), is(2L));
+	}
+
+	@Test
+	public void testEviction() {
+		ImmutablePolygon shape = immutableBox(-1, -1, 1, 1);
+
+		// room for two buffered shapes
+		int capacity = 2 * shape.buffer(1.0).getNumPoints();
+
+		BufferedShapeCache cache = new BufferedShapeCache(capacity);
+		cache.buffer(shape, 1.0);
+		cache.buffer(shape, 2.0);
+		cache.buffer(shape, 1.0); // 2.0 is least recently used
+		cache.buffer(shape, 3.0);
+		cache.buffer(shape, 1.0);
+
+		assertThat(cache.size(), is(2));
+		assertThat(cache.getWeight() <= capacity, is(true));
+		assertThat(cache.getEvictionCount(), is(1L));
+		assertThat(cache.getHitCount(), is(2L));
+		assertThat(cache.getMissCount(), is(3L));
+	}
+
+}
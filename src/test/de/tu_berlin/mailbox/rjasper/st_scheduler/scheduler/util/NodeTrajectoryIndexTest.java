@@ -0,0 +1,121 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.util;
+
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutableBox;
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutablePoint;
+import static de.tu_berlin.mailbox.rjasper.st_scheduler.world.factories.TrajectoryFactory.trajectory;
+import static de.tu_berlin.mailbox.rjasper.time.TimeFactory.atSecond;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Envelope;
+
+import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePolygon;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.Node;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.scheduler.NodeSpecification;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.Trajectory;
+
+public class NodeTrajectoryIndexTest {
+
+	private static final ImmutablePolygon NODE_SHAPE = immutableBox(
+		-0.5, -0.5, 0.5, 0.5);
+
+	private static final double NODE_SPEED = 1.0;
+
+	private static Node node(String nodeId, double x, double y) {
+		NodeSpecification spec = new NodeSpecification(
+			nodeId, NODE_SHAPE, NODE_SPEED, immutablePoint(x, y), atSecond(0));
+
+		return new Node(spec);
+	}
+
+	private static List<Trajectory> trajectories(Collection<NodeTrajectoryIndex.Entry> entries) {
+		return entries.stream()
+			.map(NodeTrajectoryIndex.Entry::getTrajectory)
+			.collect(toList());
+	}
+
+	@Test
+	public void testQuerySpace() {
+		Node node = node("node", 0, 0);
+		Trajectory t1 = trajectory(0, 4, 0, 0, 0, 4);
+		Trajectory t2 = trajectory(10, 10, 10, 14, 4, 8);
+
+		NodeTrajectoryIndex index = new NodeTrajectoryIndex();
+		index.put(node, node, Arrays.asList(t1, t2));
+
+		Collection<NodeTrajectoryIndex.Entry> entries =
+			index.query(new Envelope(3, 6, 0, 1), atSecond(0), atSecond(8));
+
+		assertThat(trajectories(entries), equalTo(singletonList(t1)));
+	}
+
+	@Test
+	public void testQueryTime() {
+		Node node = node("node", 0, 0);
+		Trajectory t1 = trajectory(0, 4, 0, 0, 0, 4);
+		Trajectory t2 = trajectory(4, 0, 0, 0, 4, 8);
+
+		NodeTrajectoryIndex index = new NodeTrajectoryIndex();
+		index.put(node, node, Arrays.asList(t1, t2));
+
+		Collection<NodeTrajectoryIndex.Entry> entries =
+			index.query(new Envelope(0, 4, 0, 0), atSecond(5), atSecond(6));
+
+		assertThat(trajectories(entries), equalTo(singletonList(t2)));
+	}
+
+	@Test
+	public void testQueryTimeOnly() {
+		Node node = node("node", 0, 0);
+		Trajectory t1 = trajectory(0, 4, 0, 0, 0, 4);
+		Trajectory t2 = trajectory(4, 4, 0, 0, 4, 100);
+		Trajectory t3 = trajectory(4, 0, 0, 0, 100, 104);
+
+		NodeTrajectoryIndex index = new NodeTrajectoryIndex();
+		index.put(node, node, Arrays.asList(t1, t2, t3));
+
+		assertThat(trajectories(index.query(atSecond(50), atSecond(60))),
+			equalTo(singletonList(t2)));
+	}
+
+	@Test
+	public void testPutReplaces() {
+		Node node = node("node", 0, 0);
+		Trajectory t1 = trajectory(0, 4, 0, 0, 0, 4);
+		Trajectory t2 = trajectory(0, 0, 0, 4, 0, 4);
+
+		NodeTrajectoryIndex index = new NodeTrajectoryIndex();
+		index.put(node, node, singletonList(t1));
+		index.put(node, node, singletonList(t2));
+
+		assertThat(trajectories(index.query(atSecond(0), atSecond(4))),
+			equalTo(singletonList(t2)));
+	}
+
+	@Test
+	public void testRemove() {
+		Node node = node("node", 0, 0);
+		Object key = new Object();
+
+		NodeTrajectoryIndex index = new NodeTrajectoryIndex();
+		index.put(node, node, singletonList(trajectory(0, 4, 0, 0, 0, 4)));
+		index.put(key, node, singletonList(trajectory(4, 4, 0, 4, 4, 8)));
+		index.remove(node);
+
+		Collection<NodeTrajectoryIndex.Entry> entries =
+			index.query(new Envelope(0, 4, 0, 4), atSecond(0), atSecond(8));
+
+		assertThat(entries.size(), is(1));
+		assertThat(entries.iterator().next().getNode(), is(node));
+	}
+
+}
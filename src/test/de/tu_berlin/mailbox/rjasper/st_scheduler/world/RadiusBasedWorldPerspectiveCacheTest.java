@@ -4,6 +4,8 @@ import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuil
 import static de.tu_berlin.mailbox.rjasper.st_scheduler.matchers.GeometryMatchers.topologicallyEqualTo;
 import static de.tu_berlin.mailbox.rjasper.st_scheduler.world.factories.PerspectiveCacheFactory.emptyPerspectiveCache;
 import static de.tu_berlin.mailbox.rjasper.st_scheduler.world.factories.PerspectiveCacheFactory.perspectiveCache;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
@@ -11,7 +13,9 @@ import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 import org.junit.Test;
 
@@ -126,4 +130,142 @@ public class RadiusBasedWorldPerspectiveCacheTest {
 			bufferedShape, is(topologicallyEqualTo(obstacle.getShape().buffer(radius))));
 	}
 
+	@Test
+	public void testQuantizedRadius() {
+		ImmutablePolygon shape1 = immutableBox(-1.0, -1.0, 1.0, 1.0);
+		ImmutablePolygon shape2 = immutableBox(-0.8, -0.8, 0.8, 0.8);
+		Node perceiver1 = wFact.createNode("perceiver1", shape1, 1.0,  0.0,  0.0, 0.0);
+		Node perceiver2 = wFact.createNode("perceiver2", shape2, 1.0, 50.0, 50.0, 0.0);
+		StaticObstacle obstacle = new StaticObstacle(
+			immutableBox(10.0, 10.0, 20.0, 20.0));
+		RadiusBasedWorldPerspectiveCache cache = new RadiusBasedWorldPerspectiveCache(
+			new World(ImmutableList.of(obstacle), ImmutableList.of()), StraightEdgePathfinder.class);
+		cache.setRadiusQuantization(0.5);
+
+		WorldPerspective perspective1 = cache.getPerspectiveFor(perceiver1);
+		WorldPerspective perspective2 = cache.getPerspectiveFor(perceiver2);
+
+		assertThat("did not share perspective",
+			perspective1, is(sameInstance(perspective2)));
+
+		Polygon bufferedShape = perspective1.getView().getStaticObstacles().iterator().next().getShape();
+
+		assertThat("did not round up radius",
+			bufferedShape, is(topologicallyEqualTo(obstacle.getShape().buffer(1.5))));
+	}
+
+	@Test
+	public void testIdlePerspective() {
+		Node perceiver = wFact.createNode("perceiver", 0.0, 0.0);
+		RadiusBasedWorldPerspectiveCache cache = new RadiusBasedWorldPerspectiveCache(
+			new World(), StraightEdgePathfinder.class);
+		cache.setMaxIdlePerspectives(1);
+
+		WorldPerspective perspective1 = cache.getPerspectiveFor(perceiver);
+		cache.removePerceiver(perceiver);
+		WorldPerspective perspective2 = cache.getPerspectiveFor(perceiver);
+
+		assertThat("did not keep idle perspective",
+			perspective1, is(sameInstance(perspective2)));
+	}
+
+	@Test
+	public void testEvictIdlePerspective() {
+		RadiusBasedWorldPerspectiveCache cache = new RadiusBasedWorldPerspectiveCache(
+			new World(), StraightEdgePathfinder.class);
+		cache.setMaxIdlePerspectives(1);
+
+		cache.prewarm(1.0);
+		cache.prewarm(2.0);
+		cache.release(1.0);
+		cache.release(2.0);
+
+		assertThat(cache.size(), is(1));
+	}
+
+	@Test
+	public void testPrewarm() {
+		Node perceiver = wFact.createNode("perceiver", 0.0, 0.0);
+		RadiusBasedWorldPerspectiveCache cache = new RadiusBasedWorldPerspectiveCache(
+			new World(), StraightEdgePathfinder.class);
+
+		WorldPerspective perspective1 = cache.prewarm(perceiver.getRadius());
+		WorldPerspective perspective2 = cache.getPerspectiveFor(perceiver);
+		cache.removePerceiver(perceiver);
+
+		assertThat("did not use pre-warmed perspective",
+			perspective1, is(sameInstance(perspective2)));
+		assertThat("did not keep pre-warmed perspective",
+			cache.size(), is(equalTo(1)));
+	}
+
+	@Test
+	public void testUpdatePerspective() {
+		Node perceiver = wFact.createNode("perceiver", 0.0, 0.0);
+		StaticObstacle obstacle = new StaticObstacle(
+			immutableBox(10.0, 10.0, 20.0, 20.0));
+		WorldPerspectiveCache cache = emptyPerspectiveCache();
+
+		WorldPerspective perspective = cache.getPerspectiveFor(perceiver);
+		cache.addStaticObstacle(obstacle);
+
+		Polygon expected = (Polygon) obstacle.getShape().buffer(perceiver.getRadius());
+
+		assertThat("did not add obstacle to perspective",
+			perspective.getView().getMap(), is(topologicallyEqualTo(expected)));
+
+		cache.removeStaticObstacle(obstacle);
+
+		assertThat("did not remove obstacle from perspective",
+			perspective.getView().getStaticObstacles().isEmpty(), is(true));
+	}
+
+	@Test
+	public void testPrewarmAsync() {
+		Node perceiver = wFact.createNode("perceiver", 0.0, 0.0);
+		RadiusBasedWorldPerspectiveCache cache = new RadiusBasedWorldPerspectiveCache(
+			new World(), StraightEdgePathfinder.class);
+
+		WorldPerspective perspective1 = cache.prewarmAsync(perceiver.getRadius()).join();
+		WorldPerspective perspective2 = cache.getPerspectiveFor(perceiver);
+
+		assertThat("did not use pre-warmed perspective",
+			perspective1, is(sameInstance(perspective2)));
+	}
+
+	@Test
+	public void testPrewarmAll() {
+		StaticObstacle obstacle = new StaticObstacle(
+			immutableBox(10.0, 10.0, 20.0, 20.0));
+		RadiusBasedWorldPerspectiveCache cache = new RadiusBasedWorldPerspectiveCache(
+			new World(ImmutableList.of(obstacle), ImmutableList.of()),
+			StraightEdgePathfinder.class);
+
+		cache.prewarmAll(ImmutableList.of(1.0, 2.0, 3.0, 2.0)).join();
+
+		assertThat(cache.size(), is(3));
+	}
+
+	@Test
+	public void testConcurrentPerspectives() {
+		ImmutablePolygon shape1 = immutableBox(-1.0, -1.0, 1.0, 1.0);
+		ImmutablePolygon shape2 = immutableBox(-2.0, -2.0, 2.0, 2.0);
+		List<Node> perceivers = IntStream.range(0, 32)
+			.mapToObj(i -> wFact.createNode("perceiver" + i,
+				i % 2 == 0 ? shape1 : shape2, 1.0, 0.0, 0.0, 0.0))
+			.collect(toList());
+		RadiusBasedWorldPerspectiveCache cache = new RadiusBasedWorldPerspectiveCache(
+			new World(), StraightEdgePathfinder.class);
+
+		List<WorldPerspective> perspectives = perceivers.parallelStream()
+			.map(cache::getPerspectiveFor)
+			.collect(toList());
+
+		for (int i = 2; i < perspectives.size(); ++i) {
+			assertThat("did not share perspective",
+				perspectives.get(i), is(sameInstance(perspectives.get(i % 2))));
+		}
+		assertThat(cache.size(), is(2));
+	}
+
 }
@@ -2,15 +2,23 @@ package de.tu_berlin.mailbox.rjasper.st_scheduler.world;
 
 import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutableBox;
 import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutablePolygon;
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.lineString;
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.point;
 import static de.tu_berlin.mailbox.rjasper.st_scheduler.matchers.GeometryMatchers.isEmpty;
 import static de.tu_berlin.mailbox.rjasper.st_scheduler.matchers.GeometryMatchers.topologicallyEqualTo;
+import static de.tu_berlin.mailbox.rjasper.st_scheduler.world.factories.TrajectoryFactory.trajectory;
+import static de.tu_berlin.mailbox.rjasper.time.TimeFactory.atSecond;
+import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
+import java.util.Collection;
+
 import org.junit.Test;
 
 import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableList;
+import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.MultiPolygon;
 
@@ -82,4 +90,124 @@ public class WorldTest {
 			bufferedMap instanceof MultiPolygon, is(true));
 	}
 
+	@Test
+	public void testContains() {
+		World world = new World(
+			ImmutableList.of(
+				new StaticObstacle(immutableBox(0, 0, 10, 10)),
+				new StaticObstacle(immutableBox(20, 0, 30, 10))),
+			ImmutableList.of());
+
+		assertThat(world.contains(point(5, 5)), is(true));
+		assertThat(world.contains(point(25, 5)), is(true));
+		assertThat(world.contains(point(15, 5)), is(false));
+		assertThat(world.contains(point(10, 5)), is(false));
+	}
+
+	@Test
+	public void testIntersects() {
+		World world = new World(
+			ImmutableList.of(new StaticObstacle(immutableBox(0, 0, 10, 10))),
+			ImmutableList.of());
+
+		assertThat(world.intersects(lineString(-5, 5, 5, 5)), is(true));
+		assertThat(world.intersects(lineString(-5, 15, 15, 15)), is(false));
+	}
+
+	@Test
+	public void testSpace() {
+		StaticObstacle o1 = new StaticObstacle(immutableBox(0, 0, 10, 10));
+		StaticObstacle o2 = new StaticObstacle(immutableBox(20, 0, 30, 10));
+		World world = new World(ImmutableList.of(o1, o2), ImmutableList.of());
+
+		Geometry mask = immutableBox(5, 0, 15, 10);
+
+		assertThat(world.space(mask),
+			topologicallyEqualTo(immutableBox(10, 0, 15, 10)));
+	}
+
+	@Test
+	public void testDynamicObstaclesByTime() {
+		DynamicObstacle o1 = new DynamicObstacle(immutableBox(-1, -1, 1, 1),
+			trajectory(0, 0, 0, 0, 0, 10));
+		DynamicObstacle o2 = new DynamicObstacle(immutableBox(-1, -1, 1, 1),
+			trajectory(0, 0, 0, 0, 20, 30));
+		DynamicObstacle o3 = new DynamicObstacle(immutableBox(-1, -1, 1, 1),
+			trajectory(0, 0, 0, 0, 5, 40));
+		World world = new World(ImmutableList.of(), ImmutableList.of(o1, o2, o3));
+
+		Collection<DynamicObstacle> obstacles = world.getDynamicObstacles(atSecond(12), atSecond(20));
+
+		assertThat(obstacles.size(), is(2));
+		assertThat(obstacles.contains(o2), is(true));
+		assertThat(obstacles.contains(o3), is(true));
+	}
+
+	@Test
+	public void testDynamicObstaclesByEnvelope() {
+		DynamicObstacle o1 = new DynamicObstacle(immutableBox(-1, -1, 1, 1),
+			trajectory(0, 10, 0, 0, 0, 10));
+		DynamicObstacle o2 = new DynamicObstacle(immutableBox(-1, -1, 1, 1),
+			trajectory(20, 30, 0, 0, 0, 10));
+		World world = new World(ImmutableList.of(), ImmutableList.of(o1, o2));
+
+		// o1 sweeps until x = 11
+		Collection<DynamicObstacle> obstacles = world.getDynamicObstacles(
+			atSecond(0), atSecond(10), new Envelope(11, 15, -5, 5));
+
+		assertThat(obstacles.size(), is(1));
+		assertThat(obstacles.iterator().next(), is(equalTo(o1)));
+	}
+
+	@Test
+	public void testWithStaticObstacle() {
+		StaticObstacle o1 = new StaticObstacle(immutableBox(0, 0, 10, 10));
+		StaticObstacle o2 = new StaticObstacle(immutableBox(5, 5, 15, 15));
+		StaticObstacle o3 = new StaticObstacle(immutableBox(20, 20, 30, 30));
+		World world = new World(ImmutableList.of(o1), ImmutableList.of());
+
+		World updated = world.withStaticObstacle(o2).withStaticObstacle(o3);
+
+		assertThat(updated.getVersion(), is(world.getVersion() + 2));
+		assertThat(updated.getStaticObstacles().size(), is(3));
+		assertThat(updated.getMap(), topologicallyEqualTo(
+			o1.getShape().union(o2.getShape()).union(o3.getShape())));
+		assertThat(updated.contains(point(12, 12)), is(true));
+		assertThat(world.contains(point(12, 12)), is(false));
+	}
+
+	@Test
+	public void testWithoutStaticObstacle() {
+		StaticObstacle o1 = new StaticObstacle(immutableBox(0, 0, 10, 10));
+		StaticObstacle o2 = new StaticObstacle(immutableBox(5, 5, 15, 15));
+		World world = new World(ImmutableList.of(o1, o2), ImmutableList.of());
+
+		World updated = world.withoutStaticObstacle(o2);
+
+		assertThat(updated.getVersion(), is(world.getVersion() + 1));
+		assertThat(updated.getStaticObstacles().size(), is(1));
+		assertThat(updated.getMap(), topologicallyEqualTo(o1.getShape()));
+		assertThat(updated.contains(point(12, 12)), is(false));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testWithoutUnknownStaticObstacle() {
+		World world = new World();
+
+		world.withoutStaticObstacle(new StaticObstacle(immutableBox(0, 0, 10, 10)));
+	}
+
+	@Test
+	public void testWithDynamicObstacle() {
+		DynamicObstacle o = new DynamicObstacle(immutableBox(-1, -1, 1, 1),
+			trajectory(0, 0, 0, 0, 0, 10));
+		World world = new World();
+
+		World updated = world.withDynamicObstacle(o);
+
+		assertThat(updated.getVersion(), is(world.getVersion() + 1));
+		assertThat(updated.getDynamicObstacles(atSecond(5), atSecond(6)).size(), is(1));
+		assertThat(world.getDynamicObstacles(atSecond(5), atSecond(6)).size(), is(0));
+	}
+
 }
@@ -0,0 +1,134 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
+
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutablePoint;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class ArcTimeGraphTest {
+
+	@Test
+	public void testAddVertexExisting() {
+		ArcTimeGraph graph = new ArcTimeGraph();
+
+		int v1 = graph.addVertex(1., 2.);
+		int v2 = graph.addVertex(immutablePoint(1., 2.));
+
+		assertThat(v2, is(v1));
+		assertThat(graph.vertexCount(), is(1));
+	}
+
+	@Test
+	public void testAddVertexNegativeZero() {
+		ArcTimeGraph graph = new ArcTimeGraph();
+
+		int v = graph.addVertex(0., 0.);
+
+		assertThat(graph.vertexOf(-0., -0.), is(v));
+	}
+
+	@Test
+	public void testAddEdgeExisting() {
+		ArcTimeGraph graph = new ArcTimeGraph();
+
+		int v1 = graph.addVertex(0., 0.);
+		int v2 = graph.addVertex(1., 1.);
+
+		assertThat(graph.addEdge(v1, v2, 1.), is(true));
+		assertThat(graph.addEdge(v1, v2, 2.), is(false));
+		assertThat(graph.edgeCount(), is(1));
+		assertThat(graph.getEdgeWeight(graph.getEdge(v1, v2)), is(1.));
+	}
+
+	@Test
+	public void testOutgoingEdgeOrder() {
+		ArcTimeGraph graph = new ArcTimeGraph();
+
+		int s = graph.addVertex(0., 0.);
+		int[] targets = new int[100];
+
+		for (int i = 0; i < targets.length; ++i) {
+			targets[i] = graph.addVertex(i, 1.);
+			graph.addEdge(s, targets[i], i);
+		}
+
+		int i = 0;
+		for (int e = graph.firstOutgoingEdge(s); e != -1; e = graph.nextOutgoingEdge(e))
+			assertThat(graph.getEdgeTarget(e), is(targets[i++]));
+
+		assertThat(i, is(targets.length));
+	}
+
+	@Test
+	public void testRemoveVertex() {
+		ArcTimeGraph graph = new ArcTimeGraph();
+
+		int v1 = graph.addVertex(0., 0.);
+		int v2 = graph.addVertex(1., 1.);
+		int v3 = graph.addVertex(2., 2.);
+		graph.addEdge(v1, v2, 1.);
+		graph.addEdge(v1, v3, 1.);
+		graph.addEdge(v2, v3, 1.);
+
+		graph.removeVertex(v2);
+
+		assertThat(graph.containsVertex(v2), is(false));
+		assertThat(graph.vertexOf(1., 1.), is(-1));
+		assertThat(graph.vertices(), equalTo(new int[] {v1, v3}));
+		assertThat(graph.getEdgeTarget(graph.firstOutgoingEdge(v1)), is(v3));
+		assertThat(graph.getEdgeSource(graph.firstIncomingEdge(v3)), is(v1));
+		assertThat(graph.nextIncomingEdge(graph.firstIncomingEdge(v3)), is(-1));
+
+		int v2new = graph.addVertex(1., 1.);
+
+		assertThat(v2new, not(v2));
+		assertThat(graph.firstOutgoingEdge(v2new), is(-1));
+	}
+
+	@Test
+	public void testEdgeGenerator() {
+		ArcTimeGraph graph = new ArcTimeGraph();
+
+		int v1 = graph.addVertex(0., 0.);
+		int v2 = graph.addVertex(1., 1.);
+		int v3 = graph.addVertex(2., 2.);
+		int[] calls = new int[3];
+
+		graph.addEdgeGenerator(v -> {
+			++calls[v];
+			if (v != v3)
+				graph.addEdge(v, v + 1, 1.);
+		});
+
+		assertThat(graph.getEdgeTarget(graph.firstOutgoingEdge(v1)), is(v2));
+		graph.firstOutgoingEdge(v1);
+		assertThat(calls, equalTo(new int[] {1, 0, 0}));
+
+		// incoming edges require all edges
+		assertThat(graph.getEdgeSource(graph.firstIncomingEdge(v3)), is(v2));
+		assertThat(calls, equalTo(new int[] {1, 1, 1}));
+		assertThat(graph.edgeCount(), is(2));
+	}
+
+	@Test
+	public void testShortestPath() {
+		ArcTimeGraph graph = new ArcTimeGraph();
+
+		int v1 = graph.addVertex(0., 0.);
+		int v2 = graph.addVertex(1., 1.);
+		int v3 = graph.addVertex(2., 2.);
+		int v4 = graph.addVertex(3., 3.);
+		graph.addEdge(v1, v2, 1.);
+		graph.addEdge(v2, v3, 1.);
+		graph.addEdge(v4, v3, 1.);
+
+		assertThat(ModifiedDijkstraAlgorithm.findPathBetween(graph, v1, v3),
+			equalTo(new int[] {v1, v2, v3}));
+		assertThat(ModifiedDijkstraAlgorithm.findPathBetween(graph, v1, v4),
+			equalTo(new int[0]));
+	}
+
+}
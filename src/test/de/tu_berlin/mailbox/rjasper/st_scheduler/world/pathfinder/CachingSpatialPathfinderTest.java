@@ -0,0 +1,95 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
+
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutableBox;
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutablePoint;
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.point;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.SpatialPath;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.StaticObstacle;
+
+public class CachingSpatialPathfinderTest extends AbstractSpatialPathfinderTest {
+
+	@Override
+	protected AbstractSpatialPathfinder createPathfinder() {
+		return new CachingSpatialPathfinder(new StraightEdgePathfinder(), 100);
+	}
+
+	private static CachingSpatialPathfinder makePathfinder(long maximumWeight, double quantization) {
+		CachingSpatialPathfinder pf = new CachingSpatialPathfinder(
+			new StraightEdgePathfinder(), maximumWeight, quantization);
+
+		pf.setStaticObstacles(singletonList(new StaticObstacle(immutableBox(2, -1, 4, 1))));
+
+		return pf;
+	}
+
+	@Test
+	public void testHit() {
+		CachingSpatialPathfinder pf = makePathfinder(100, 0.0);
+
+		SpatialPath first = pf.findSpatialPath(point(0, 0), point(6, 0));
+		SpatialPath second = pf.findSpatialPath(point(0, 0), point(6, 0));
+
+		assertThat(second, equalTo(first));
+		assertThat(pf.getStats().hitCount(), is(1L));
+		assertThat(pf.getStats().missCount(), is(1L));
+	}
+
+	@Test
+	public void testQuantization() {
+		CachingSpatialPathfinder pf = makePathfinder(100, 0.5);
+
+		pf.findSpatialPath(point(0, 0), point(6, 0));
+		SpatialPath path = pf.findSpatialPath(point(0.1, 0), point(6, 0.1));
+
+		assertThat(pf.getStats().hitCount(), is(1L));
+		assertThat(path.getPoints().get(0), equalTo(immutablePoint(0.1, 0)));
+		assertThat(path.getPoints().get(path.size()-1), equalTo(immutablePoint(6, 0.1)));
+	}
+
+	@Test
+	public void testQuantizationBlocked() {
+		CachingSpatialPathfinder pf = makePathfinder(100, 1.0);
+
+		pf.findSpatialPath(point(0, 1.2), point(6, 1.2));
+		// the straight line of the cached path would cut the obstacle
+		SpatialPath path = pf.findSpatialPath(point(0, 0.8), point(6, 1.2));
+
+		assertThat(pf.getStats().hitCount(), is(1L));
+		assertThat(path.size() > 2, is(true));
+		assertThat(path.getPoints().get(0), equalTo(immutablePoint(0, 0.8)));
+		assertThat(path.getPoints().get(path.size()-1), equalTo(immutablePoint(6, 1.2)));
+	}
+
+	@Test
+	public void testEviction() {
+		CachingSpatialPathfinder pf = makePathfinder(4, 0.0);
+
+		// weighs 4 vertices
+		pf.findSpatialPath(point(0, 0), point(6, 0));
+		// weighs 2 vertices
+		pf.findSpatialPath(point(0, 2), point(6, 2));
+
+		assertThat(pf.size(), is(1L));
+	}
+
+	@Test
+	public void testInvalidation() {
+		CachingSpatialPathfinder pf = makePathfinder(100, 0.0);
+
+		pf.findSpatialPath(point(0, 0), point(6, 0));
+		pf.setStaticObstacles(singletonList(new StaticObstacle(immutableBox(2, 2, 4, 4))));
+
+		SpatialPath path = pf.findSpatialPath(point(0, 0), point(6, 0));
+
+		assertThat(pf.getStats().hitCount(), is(0L));
+		assertThat(path.size(), is(2));
+	}
+
+}
@@ -0,0 +1,57 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
+
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.box;
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.geometryCollection;
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.lineString;
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.point;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.LineString;
+
+public class ForbiddenMapIndexTest {
+
+	private static final Geometry FORBIDDEN_MAP = geometryCollection(
+		box(0, 0, 2, 2),
+		box(10, 0, 12, 2));
+
+	@Test
+	public void testBlocks() {
+		ForbiddenMapIndex index = new ForbiddenMapIndex(FORBIDDEN_MAP);
+
+		assertThat(index.blocks(lineString(-1, 1, 3, 1)), is(true));
+		assertThat(index.blocks(lineString(3, 1, 9, 1)), is(false));
+	}
+
+	@Test
+	public void testBlocksBoundary() {
+		ForbiddenMapIndex index = new ForbiddenMapIndex(FORBIDDEN_MAP);
+
+		assertThat(index.blocks(lineString(0, 0, 2, 0)), is(false));
+	}
+
+	@Test
+	public void testWithin() {
+		ForbiddenMapIndex index = new ForbiddenMapIndex(FORBIDDEN_MAP);
+
+		assertThat(index.within(point(11, 1)), is(true));
+		assertThat(index.within(point(10, 1)), is(false));
+		assertThat(index.within(point(5, 1)), is(false));
+	}
+
+	@Test
+	public void testIntersection() {
+		ForbiddenMapIndex index = new ForbiddenMapIndex(FORBIDDEN_MAP);
+		LineString line = lineString(-1, 1, 5, 1);
+
+		Geometry expected = FORBIDDEN_MAP.intersection(line);
+
+		assertThat(index.intersection(line).getLength(), is(expected.getLength()));
+		assertThat(expected.getLength(), is(2.0));
+		assertThat(index.near(line.getEnvelopeInternal()).getNumGeometries(), is(1));
+	}
+
+}
@@ -11,20 +11,27 @@ import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuil
 import static de.tu_berlin.mailbox.rjasper.st_scheduler.matchers.GeometryMatchers.contains;
 import static de.tu_berlin.mailbox.rjasper.st_scheduler.world.factories.PathFactory.spatialPath;
 import static de.tu_berlin.mailbox.rjasper.st_scheduler.world.factories.TrajectoryFactory.trajectory;
+import static de.tu_berlin.mailbox.rjasper.time.TimeFactory.atSecond;
 import static java.lang.Math.ulp;
 import static java.util.Collections.singleton;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
 
 import de.tu_berlin.mailbox.rjasper.jts.geom.immutable.ImmutablePolygon;
@@ -283,4 +290,196 @@ public class ForbiddenRegionBuilderTest {
 			expected.norm().equalsExact( mutable(region.getRegion()), 1e-6 ), is(true));
 	}
 
+	@Test
+	public void testCache() {
+		SpatialPath path = spatialPath(2, 2, 8, 8);
+		DynamicObstacle obstacle = new DynamicObstacle(
+			immutableBox(-1, -1, 1, 1),
+			trajectory(3, 7, 7, 3, 0, 4));
+
+		ForbiddenRegionCache cache = new ForbiddenRegionCache();
+		ForbiddenRegionBuilder builder = new ForbiddenRegionBuilder();
+		builder.setBaseTime(TimeFactory.BASE_TIME);
+		builder.setSpatialPath(path);
+		builder.setDynamicObstacles(singleton(obstacle));
+		builder.setCache(cache);
+
+		builder.calculate();
+		Geometry first = builder.getResultForbiddenRegions().iterator().next().getRegion();
+		long misses = cache.getMissCount();
+
+		builder.calculate();
+		Geometry second = builder.getResultForbiddenRegions().iterator().next().getRegion();
+
+		assertThat(misses > 0, is(true));
+		assertThat(cache.getMissCount(), is(misses));
+		assertThat(cache.getHitCount(), is(misses));
+		assertThat(second.equalsExact(first), is(true));
+	}
+
+	@Test
+	public void testAddDynamicObstacles() {
+		SpatialPath path = spatialPath(2, 2, 8, 8);
+		DynamicObstacle obstacle1 = new DynamicObstacle(
+			immutableBox(-1, -1, 1, 1),
+			trajectory(3, 7, 7, 3, 0, 4));
+		DynamicObstacle obstacle2 = new DynamicObstacle(
+			immutableBox(-1, -1, 1, 1),
+			trajectory(3, 7, 7, 3, 6, 10));
+
+		ForbiddenRegionBuilder builder = new ForbiddenRegionBuilder();
+		builder.setBaseTime(TimeFactory.BASE_TIME);
+		builder.setSpatialPath(path);
+		builder.setDynamicObstacles(singleton(obstacle1));
+
+		builder.calculate();
+		Collection<ForbiddenRegion> added = builder.addDynamicObstacles(singleton(obstacle2));
+
+		assertThat(added.size(), is(1));
+		assertThat(added.iterator().next().getDynamicObstacle(), is(obstacle2));
+		assertThat(builder.getResultForbiddenRegions().size(), is(2));
+	}
+
+	@Test
+	public void testRemoveDynamicObstacles() {
+		SpatialPath path = spatialPath(2, 2, 8, 8);
+		DynamicObstacle obstacle1 = new DynamicObstacle(
+			immutableBox(-1, -1, 1, 1),
+			trajectory(3, 7, 7, 3, 0, 4));
+		DynamicObstacle obstacle2 = new DynamicObstacle(
+			immutableBox(-1, -1, 1, 1),
+			trajectory(3, 7, 7, 3, 6, 10));
+
+		ForbiddenRegionBuilder builder = new ForbiddenRegionBuilder();
+		builder.setBaseTime(TimeFactory.BASE_TIME);
+		builder.setSpatialPath(path);
+		builder.setDynamicObstacles(ImmutableList.of(obstacle1, obstacle2));
+
+		builder.calculate();
+		Collection<ForbiddenRegion> removed = builder.removeDynamicObstacles(singleton(obstacle1));
+		Collection<ForbiddenRegion> regions = builder.getResultForbiddenRegions();
+
+		assertThat(removed.size(), is(1));
+		assertThat(removed.iterator().next().getDynamicObstacle(), is(obstacle1));
+		assertThat(regions.size(), is(1));
+		assertThat(regions.iterator().next().getDynamicObstacle(), is(obstacle2));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testAddDynamicObstaclesUncalculated() {
+		ForbiddenRegionBuilder builder = new ForbiddenRegionBuilder();
+		builder.setBaseTime(TimeFactory.BASE_TIME);
+		builder.setSpatialPath(spatialPath(2, 2, 8, 8));
+		builder.setDynamicObstacles(Collections.emptyList());
+
+		builder.addDynamicObstacles(Collections.emptyList());
+	}
+
+	@Test
+	public void testParallel() {
+		SpatialPath path = spatialPath(0, 0, 31, 0);
+		ImmutablePolygon shape = immutableBox(-1, -1, 1, 1);
+
+		List<DynamicObstacle> obstacles = new ArrayList<>(10);
+		for (int i = 0; i < 10; ++i) {
+			double x = 3*i + 2;
+			obstacles.add(new DynamicObstacle(shape, trajectory(x, x, 2, -2, 0, 4)));
+		}
+
+		ForbiddenRegionBuilder builder = new ForbiddenRegionBuilder();
+		builder.setBaseTime(TimeFactory.BASE_TIME);
+		builder.setSpatialPath(path);
+		builder.setDynamicObstacles(obstacles);
+		builder.setParallel(true);
+		builder.setParallelThreshold(2);
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+
+		try {
+			builder.setForkJoinPool(pool);
+			builder.calculate();
+		} finally {
+			pool.shutdown();
+		}
+
+		List<DynamicObstacle> regionObstacles = builder.getResultForbiddenRegions().stream()
+			.map(ForbiddenRegion::getDynamicObstacle)
+			.collect(toList());
+
+		assertThat(regionObstacles, equalTo(obstacles));
+	}
+
+	@Test
+	public void testManyTrajectorySegments() {
+		int n = 20;
+		int m = 2*n + 1;
+		// xs, ys, ts
+		double[] ordinates = new double[3*m];
+
+		for (int i = 0; i < m; ++i) {
+			ordinates[i] = 2.0;
+			ordinates[m + i] = i % 2 == 0 ? 0.5 : -0.5;
+			ordinates[2*m + i] = 4*i;
+		}
+
+		DynamicObstacle obstacle = new DynamicObstacle(
+			immutableBox(-1, -1, 1, 1),
+			trajectory(ordinates));
+
+		Collection<ForbiddenRegion> regions =
+			buildRegions(spatialPath(0, 0, 4, 0), singleton(obstacle));
+
+		assertThat(regions.size(), is(1));
+
+		Geometry region = regions.iterator().next().getRegion();
+
+		assertThat(region.equalsTopo(box(1, 0, 3, 8*n)), is(true));
+	}
+
+	@Test
+	public void testTimeWindow() {
+		SpatialPath path = spatialPath(2, 2, 8, 8);
+		// crosses the path twice, waits in between
+		DynamicObstacle obstacle = new DynamicObstacle(
+			immutableBox(-1, -1, 1, 1),
+			trajectory(
+				3, 7, 7, 3,
+				7, 3, 3, 7,
+				0, 4, 100, 104));
+
+		ForbiddenRegionBuilder builder = new ForbiddenRegionBuilder();
+		builder.setBaseTime(TimeFactory.BASE_TIME);
+		builder.setSpatialPath(path);
+		builder.setDynamicObstacles(singleton(obstacle));
+		builder.setTimeWindow(atSecond(90), atSecond(110));
+
+		builder.calculate();
+		Collection<ForbiddenRegion> regions = builder.getResultForbiddenRegions();
+
+		assertThat(regions.size(), is(1));
+
+		Envelope envelope = regions.iterator().next().getRegion().getEnvelopeInternal();
+
+		assertThat(envelope.getMinY() >= 100, is(true));
+		assertThat(envelope.getMaxY() <= 104, is(true));
+	}
+
+	@Test
+	public void testTimeWindowDisjoint() {
+		SpatialPath path = spatialPath(2, 2, 8, 8);
+		DynamicObstacle obstacle = new DynamicObstacle(
+			immutableBox(-1, -1, 1, 1),
+			trajectory(3, 7, 7, 3, 0, 4));
+
+		ForbiddenRegionBuilder builder = new ForbiddenRegionBuilder();
+		builder.setBaseTime(TimeFactory.BASE_TIME);
+		builder.setSpatialPath(path);
+		builder.setDynamicObstacles(singleton(obstacle));
+		builder.setTimeWindow(atSecond(5), atSecond(10));
+
+		builder.calculate();
+
+		assertThat(builder.getResultForbiddenRegions().isEmpty(), is(true));
+	}
+
 }
@@ -0,0 +1,66 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
+
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.box;
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutableBox;
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutablePolygon;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Geometry;
+
+public class ForbiddenRegionKernelTest {
+
+	private static final double[] IDENTITY = {1., 0., 0., 1.};
+
+	@Test
+	public void testInvert() {
+		double[] inverse = new double[4];
+
+		boolean invertible = ForbiddenRegionKernel.invert(2., 1., 1., 1., inverse);
+
+		assertThat(invertible, is(true));
+		assertThat(inverse[0], is(1.));
+		assertThat(inverse[1], is(-1.));
+		assertThat(inverse[2], is(-1.));
+		assertThat(inverse[3], is(2.));
+	}
+
+	@Test
+	public void testInvertSingular() {
+		double[] inverse = new double[4];
+
+		assertThat(ForbiddenRegionKernel.invert(1., 2., 2., 4., inverse), is(false));
+	}
+
+	@Test
+	public void testIsConvex() {
+		assertThat(ForbiddenRegionKernel.isConvex(immutableBox(-1, -1, 1, 1)), is(true));
+		assertThat(ForbiddenRegionKernel.isConvex(immutablePolygon(
+			0, 0, 4, 0, 4, 4, 2, 1, 0, 4, 0, 0)), is(false));
+	}
+
+	@Test
+	public void testClip() {
+		ForbiddenRegionKernel kernel = new ForbiddenRegionKernel();
+
+		kernel.loadTransformed(immutableBox(-1, -1, 1, 1), 2., 0., IDENTITY, 0., 0., 0., 0.);
+		kernel.clip(0., 0., 2., 2.);
+
+		Geometry expected = box(1, 0, 2, 1);
+
+		assertThat(kernel.toPolygon().equalsTopo(expected), is(true));
+	}
+
+	@Test
+	public void testClipDisjoint() {
+		ForbiddenRegionKernel kernel = new ForbiddenRegionKernel();
+
+		kernel.loadTransformed(immutableBox(-1, -1, 1, 1), 0., 0., IDENTITY, 0., 0., 0., 0.);
+		kernel.clip(1., 1., 2., 2.);
+
+		assertThat(kernel.toPolygon().isEmpty(), is(true));
+	}
+
+}
@@ -0,0 +1,55 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class IndexedHeapTest {
+
+	@Test
+	public void testPollOrder() {
+		IndexedHeap heap = new IndexedHeap(5);
+
+		heap.insertOrUpdate(0, 3., 0);
+		heap.insertOrUpdate(1, 1., 0);
+		heap.insertOrUpdate(2, 4., 0);
+		heap.insertOrUpdate(3, 2., 0);
+		heap.insertOrUpdate(4, 0., 0);
+
+		assertThat(heap.poll(), is(4));
+		assertThat(heap.poll(), is(1));
+		assertThat(heap.poll(), is(3));
+		assertThat(heap.poll(), is(0));
+		assertThat(heap.poll(), is(2));
+		assertThat(heap.isEmpty(), is(true));
+	}
+
+	@Test
+	public void testDepthTieBreak() {
+		IndexedHeap heap = new IndexedHeap(2);
+
+		heap.insertOrUpdate(0, 1., 3);
+		heap.insertOrUpdate(1, 1., 2);
+
+		assertThat(heap.poll(), is(1));
+		assertThat(heap.poll(), is(0));
+	}
+
+	@Test
+	public void testDecreaseKey() {
+		IndexedHeap heap = new IndexedHeap(3);
+
+		heap.insertOrUpdate(0, 1., 0);
+		heap.insertOrUpdate(1, 2., 0);
+		heap.insertOrUpdate(2, 3., 0);
+		heap.insertOrUpdate(2, 0., 0);
+
+		assertThat(heap.size(), is(3));
+		assertThat(heap.poll(), is(2));
+		assertThat(heap.contains(2), is(false));
+		assertThat(heap.poll(), is(0));
+		assertThat(heap.poll(), is(1));
+	}
+
+}
@@ -0,0 +1,61 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
+
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutableBox;
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.point;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Point;
+
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.SpatialPath;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.StaticObstacle;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.fixtures.WorldFixtures;
+
+public class LandmarksTest {
+
+	@Test
+	public void testSize() {
+		VisibilityGraph graph = new VisibilityGraph(
+			singletonList(new StaticObstacle(immutableBox(2, -1, 4, 1))),
+			Double.POSITIVE_INFINITY);
+
+		assertThat(new Landmarks(graph, 2).size(), is(2));
+		assertThat(new Landmarks(graph, 100).size(), is(graph.nodeCount()));
+	}
+
+	@Test
+	public void testSameLengths() {
+		VisibilityGraph graph = new VisibilityGraph(
+			WorldFixtures.twoRooms().getStaticObstacles(),
+			Double.POSITIVE_INFINITY);
+		Landmarks landmarks = new Landmarks(graph, 4);
+
+		Point finish = point(11, 11);
+
+		for (int i = 0; i < 16; ++i) {
+			Point start = point(6 + (i % 4) * 6, 24 + (i / 4) * 3);
+
+			SpatialPath expected = graph.findPath(start, finish, Double.POSITIVE_INFINITY);
+			SpatialPath actual = graph.findPath(start, finish, Double.POSITIVE_INFINITY, landmarks);
+
+			assertEquals(expected.length(), actual.length(), 1e-9);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testForeignLandmarks() {
+		VisibilityGraph graph = new VisibilityGraph(
+			singletonList(new StaticObstacle(immutableBox(2, -1, 4, 1))),
+			Double.POSITIVE_INFINITY);
+		VisibilityGraph other = new VisibilityGraph(
+			singletonList(new StaticObstacle(immutableBox(2, -1, 4, 1))),
+			Double.POSITIVE_INFINITY);
+
+		graph.findPath(point(0, 0), point(6, 0), Double.POSITIVE_INFINITY, new Landmarks(other, 2));
+	}
+
+}
@@ -0,0 +1,18 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
+
+import java.time.Duration;
+
+
+public class LazyFixTimePathfinderHeuristicTest extends AbstractFixTimePathfinderTest {
+
+	@Override
+	protected AbstractFixTimePathfinder createPathfinder() {
+		LazyFixTimePathfinder pf = new LazyFixTimePathfinder();
+
+		pf.setMinStopDuration( Duration.ZERO );
+		pf.setHeuristicSearch(true);
+
+		return pf;
+	}
+
+}
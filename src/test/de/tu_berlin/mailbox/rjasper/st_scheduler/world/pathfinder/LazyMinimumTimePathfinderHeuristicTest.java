@@ -0,0 +1,18 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
+
+import java.time.Duration;
+
+
+public class LazyMinimumTimePathfinderHeuristicTest extends AbstractMinimumTimePathfinderTest {
+
+	@Override
+	protected AbstractMinimumTimePathfinder createPathfinder() {
+		LazyMinimumTimePathfinder pf = new LazyMinimumTimePathfinder();
+
+		pf.setMinStopDuration( Duration.ZERO );
+		pf.setHeuristicSearch(true);
+
+		return pf;
+	}
+
+}
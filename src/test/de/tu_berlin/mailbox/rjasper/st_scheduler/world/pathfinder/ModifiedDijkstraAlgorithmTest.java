@@ -0,0 +1,42 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
+
+import static de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder.ModifiedDijkstraAlgorithm.findPathBetween;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class ModifiedDijkstraAlgorithmTest {
+
+	@Test
+	public void testRelaxDiscoveredVertex() {
+		ArcTimeGraph graph = new ArcTimeGraph();
+
+		int s = graph.addVertex(0., 0.);
+		int a = graph.addVertex(1., 1.);
+		int t = graph.addVertex(2., 2.);
+
+		graph.addEdge(s, t, 10.);
+		graph.addEdge(s, a, 1.);
+		graph.addEdge(a, t, 1.);
+
+		// t is discovered first by the heavier edge
+		assertThat(findPathBetween(graph, s, t), equalTo(new int[] {s, a, t}));
+	}
+
+	@Test
+	public void testPreferFewerEdges() {
+		ArcTimeGraph graph = new ArcTimeGraph();
+
+		int s = graph.addVertex(0., 0.);
+		int a = graph.addVertex(1., 1.);
+		int t = graph.addVertex(2., 2.);
+
+		graph.addEdge(s, a, 1.);
+		graph.addEdge(a, t, 1.);
+		graph.addEdge(s, t, 2.);
+
+		assertThat(findPathBetween(graph, s, t), equalTo(new int[] {s, t}));
+	}
+
+}
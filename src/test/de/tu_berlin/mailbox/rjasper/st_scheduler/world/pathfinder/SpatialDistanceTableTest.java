@@ -0,0 +1,103 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
+
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutableBox;
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutablePolygon;
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.linearRing;
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.point;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Point;
+
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.StaticObstacle;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.fixtures.WorldFixtures;
+
+public class SpatialDistanceTableTest {
+
+	private static final double INF = Double.POSITIVE_INFINITY;
+
+	@Test
+	public void testDirect() {
+		VisibilityGraph graph = new VisibilityGraph(
+			WorldFixtures.twoRooms().getStaticObstacles(), INF);
+		SpatialDistanceTable table = new SpatialDistanceTable(graph, INF);
+
+		assertThat(table.distance(point(6, 24), point(6, 30)), is(6.0));
+	}
+
+	@Test
+	public void testMatchesPathLength() {
+		VisibilityGraph graph = new VisibilityGraph(
+			WorldFixtures.twoRooms().getStaticObstacles(), INF);
+		SpatialDistanceTable table = new SpatialDistanceTable(graph, INF);
+
+		Point[] locations = {
+			point(23, 29), point(11, 11), point(6, 36), point(30, 4), point(25, 35) };
+
+		for (Point from : locations) {
+			for (Point to : locations) {
+				double expected = graph.findPath(from, to, INF).length();
+
+				assertEquals(expected, table.distance(from, to), 1e-9);
+			}
+		}
+	}
+
+	private static final Point[] LOCATIONS = {
+		point(23, 29), point(11, 11), point(6, 36), point(30, 4), point(25, 35) };
+
+	private static void assertDistances(SpatialDistanceTable expected, SpatialDistanceTable actual) {
+		for (Point from : LOCATIONS) {
+			for (Point to : LOCATIONS)
+				assertEquals(expected.distance(from, to), actual.distance(from, to), 1e-9);
+		}
+	}
+
+	@Test
+	public void testKeepRows() {
+		VisibilityGraphBuilder builder = new VisibilityGraphBuilder(INF);
+		builder.addStaticObstacles(WorldFixtures.twoRooms().getStaticObstacles());
+
+		SpatialDistanceTable table = new SpatialDistanceTable(builder.build(), INF);
+		table.precompute();
+
+		StaticObstacle far = new StaticObstacle(immutableBox(100, 100, 102, 102));
+		StaticObstacle near = new StaticObstacle(immutableBox(14, 14, 16, 16));
+
+		for (StaticObstacle obstacle : new StaticObstacle[] {far, near}) {
+			builder.addStaticObstacle(obstacle);
+			VisibilityGraph graph = builder.build();
+			table = new SpatialDistanceTable(graph, INF, table, obstacle.getShape().getEnvelopeInternal());
+
+			assertDistances(new SpatialDistanceTable(graph, INF), table);
+		}
+
+		for (StaticObstacle obstacle : new StaticObstacle[] {near, far}) {
+			builder.removeStaticObstacle(obstacle);
+			VisibilityGraph graph = builder.build();
+			table = new SpatialDistanceTable(graph, INF, table, obstacle.getShape().getEnvelopeInternal());
+
+			assertDistances(new SpatialDistanceTable(graph, INF), table);
+		}
+	}
+
+	@Test
+	public void testUnreachable() {
+		StaticObstacle obstacle = new StaticObstacle(
+			immutablePolygon(
+				linearRing(1, 1, 6, 1, 6, 5, 1, 5, 1, 1),
+				linearRing(2, 2, 5, 2, 5, 4, 2, 4, 2, 2)));
+		VisibilityGraph graph = new VisibilityGraph(singletonList(obstacle), INF);
+		SpatialDistanceTable table = new SpatialDistanceTable(graph, INF);
+
+		table.precompute();
+
+		// inside and outside the hole
+		assertThat(table.distance(point(3, 3), point(0, 0)), is(INF));
+	}
+
+}
@@ -1,5 +1,12 @@
 package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
 
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.fixtures.WorldFixtures;
 
 public class StraightEdgePathfinderTest extends AbstractSpatialPathfinderTest {
 
@@ -8,4 +15,33 @@ public class StraightEdgePathfinderTest extends AbstractSpatialPathfinderTest {
 		return new StraightEdgePathfinder();
 	}
 
+	@Test
+	public void testLandmarks() {
+		StraightEdgePathfinder pf = new StraightEdgePathfinder();
+		pf.setStaticObstacles(WorldFixtures.twoRooms().getStaticObstacles());
+		pf.setLandmarkCount(2);
+
+		assertThat(pf.getLandmarks(), notNullValue());
+	}
+
+	@Test
+	public void testLandmarksIgnoredWithFiniteDistance() {
+		StraightEdgePathfinder pf = new StraightEdgePathfinder();
+		pf.setMaxConnectionDistance(10.0);
+		pf.setStaticObstacles(WorldFixtures.twoRooms().getStaticObstacles());
+		pf.setLandmarkCount(2);
+
+		assertThat(pf.getLandmarks(), nullValue());
+	}
+
+	@Test
+	public void testFiniteDistanceDropsLandmarks() {
+		StraightEdgePathfinder pf = new StraightEdgePathfinder();
+		pf.setStaticObstacles(WorldFixtures.twoRooms().getStaticObstacles());
+		pf.setLandmarkCount(2);
+		pf.setMaxConnectionDistance(10.0);
+
+		assertThat(pf.getLandmarks(), nullValue());
+	}
+
 }
@@ -0,0 +1,131 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
+
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutableBox;
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.point;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Point;
+
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.SpatialPath;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.StaticObstacle;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.fixtures.WorldFixtures;
+
+public class VisibilityGraphBuilderTest {
+
+	private static void assertSameLengths(
+		VisibilityGraph graph, Collection<StaticObstacle> obstacles,
+		Point[] starts, Point finish)
+	{
+		VisibilityGraph expected = new VisibilityGraph(obstacles, Double.POSITIVE_INFINITY);
+
+		for (Point start : starts) {
+			SpatialPath actual = graph.findPath(start, finish, Double.POSITIVE_INFINITY);
+			SpatialPath reference = expected.findPath(start, finish, Double.POSITIVE_INFINITY);
+
+			assertThat(actual.isEmpty(), is(reference.isEmpty()));
+
+			if (!reference.isEmpty())
+				assertEquals(reference.length(), actual.length(), 1e-6);
+		}
+	}
+
+	@Test
+	public void testAddStaticObstacle() {
+		StaticObstacle obstacle = new StaticObstacle(immutableBox(2, -1, 4, 1));
+		VisibilityGraphBuilder builder = new VisibilityGraphBuilder(Double.POSITIVE_INFINITY);
+
+		SpatialPath direct = builder.build().findPath(point(0, 0), point(6, 0), Double.POSITIVE_INFINITY);
+		builder.addStaticObstacle(obstacle);
+		SpatialPath detour = builder.build().findPath(point(0, 0), point(6, 0), Double.POSITIVE_INFINITY);
+
+		assertThat(direct.size(), is(2));
+		assertThat(detour.size(), is(4));
+	}
+
+	@Test
+	public void testRemoveStaticObstacle() {
+		StaticObstacle obstacle = new StaticObstacle(immutableBox(2, -1, 4, 1));
+		VisibilityGraphBuilder builder = new VisibilityGraphBuilder(Double.POSITIVE_INFINITY);
+
+		builder.addStaticObstacle(obstacle);
+		VisibilityGraph before = builder.build();
+
+		assertThat(builder.removeStaticObstacle(obstacle), is(true));
+		assertThat(builder.removeStaticObstacle(obstacle), is(false));
+
+		VisibilityGraph after = builder.build();
+
+		// snapshots are unaffected by later changes
+		assertThat(before.findPath(point(0, 0), point(6, 0), Double.POSITIVE_INFINITY).size(), is(4));
+		assertThat(after.findPath(point(0, 0), point(6, 0), Double.POSITIVE_INFINITY).size(), is(2));
+	}
+
+	@Test
+	public void testIncrementalEqualsRebuild() {
+		List<StaticObstacle> obstacles = new ArrayList<>(
+			WorldFixtures.twoRooms().getStaticObstacles());
+		StaticObstacle blocker = new StaticObstacle(immutableBox(17, 19, 19, 21));
+		// overlaps other obstacles and contains some of their nodes
+		StaticObstacle overlapping = new StaticObstacle(immutableBox(-1, -1, 6, 6));
+
+		VisibilityGraphBuilder builder = new VisibilityGraphBuilder(Double.POSITIVE_INFINITY);
+		for (StaticObstacle o : obstacles)
+			builder.addStaticObstacle(o);
+
+		Point finish = point(11, 11);
+		Point[] starts = { point(6, 24), point(15, 27), point(30, 36), point(6, 4) };
+
+		builder.addStaticObstacle(blocker);
+		builder.addStaticObstacle(overlapping);
+		obstacles.add(blocker);
+		obstacles.add(overlapping);
+		assertSameLengths(builder.build(), obstacles, starts, finish);
+
+		builder.removeStaticObstacle(overlapping);
+		obstacles.remove(overlapping);
+		assertSameLengths(builder.build(), obstacles, starts, finish);
+
+		builder.removeStaticObstacle(blocker);
+		obstacles.remove(blocker);
+		assertSameLengths(builder.build(), obstacles, starts, finish);
+	}
+
+	@Test
+	public void testFreshBuilderMatchesGraph() {
+		Collection<StaticObstacle> obstacles =
+			singletonList(new StaticObstacle(immutableBox(2, -1, 4, 1)));
+		VisibilityGraphBuilder builder = new VisibilityGraphBuilder(Double.POSITIVE_INFINITY);
+		obstacles.forEach(builder::addStaticObstacle);
+
+		assertSameLengths(builder.build(), obstacles,
+			new Point[] { point(0, 0), point(0, 2) }, point(6, 0));
+	}
+
+	@Test
+	public void testAddStaticObstacles() {
+		// enough obstacles to be converted in parallel
+		List<StaticObstacle> obstacles = IntStream.range(0, 100)
+			.mapToObj(i -> new StaticObstacle(immutableBox(
+				3 * (i % 10), 3 * (i / 10), 3 * (i % 10) + 1, 3 * (i / 10) + 1)))
+			.collect(toList());
+		VisibilityGraphBuilder builder = new VisibilityGraphBuilder(Double.POSITIVE_INFINITY);
+
+		builder.addStaticObstacles(obstacles);
+
+		assertThat(builder.getPathBlockingObstacles().size(), is(obstacles.size()));
+		assertSameLengths(builder.build(), obstacles,
+			new Point[] { point(-1, -1), point(2, 14) }, point(29, 29));
+	}
+
+}
@@ -0,0 +1,70 @@
+package de.tu_berlin.mailbox.rjasper.st_scheduler.world.pathfinder;
+
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.immutableBox;
+import static de.tu_berlin.mailbox.rjasper.jts.geom.immutable.StaticGeometryBuilder.point;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Point;
+
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.SpatialPath;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.StaticObstacle;
+import de.tu_berlin.mailbox.rjasper.st_scheduler.world.fixtures.WorldFixtures;
+
+public class VisibilityGraphTest {
+
+	@Test
+	public void testDirectPath() {
+		VisibilityGraph graph = new VisibilityGraph(
+			singletonList(new StaticObstacle(immutableBox(2, -1, 4, 1))),
+			Double.POSITIVE_INFINITY);
+
+		SpatialPath path = graph.findPath(point(0, 2), point(6, 2), Double.POSITIVE_INFINITY);
+
+		assertThat(path.size(), is(2));
+	}
+
+	@Test
+	public void testDetour() {
+		VisibilityGraph graph = new VisibilityGraph(
+			singletonList(new StaticObstacle(immutableBox(2, -1, 4, 1))),
+			Double.POSITIVE_INFINITY);
+
+		SpatialPath path = graph.findPath(point(0, 0), point(6, 0), Double.POSITIVE_INFINITY);
+
+		assertThat(path.size(), is(4));
+		// the nodes are slightly offset from the obstacle
+		assertEquals(2.0 * Math.hypot(2, 1) + 2.0, path.length(), 0.05);
+	}
+
+	@Test
+	public void testConcurrentQueries() {
+		VisibilityGraph graph = new VisibilityGraph(
+			WorldFixtures.twoRooms().getStaticObstacles(),
+			Double.POSITIVE_INFINITY);
+
+		Point finish = point(11, 11);
+		List<Point> starts = IntStream.range(0, 64)
+			.mapToObj(i -> point(6 + (i % 8) * 3, 24 + (i / 8) * 1.5))
+			.collect(toList());
+
+		List<SpatialPath> sequential = starts.stream()
+			.map(s -> graph.findPath(s, finish, Double.POSITIVE_INFINITY))
+			.collect(toList());
+		List<SpatialPath> parallel = starts.parallelStream()
+			.map(s -> graph.findPath(s, finish, Double.POSITIVE_INFINITY))
+			.collect(toList());
+
+		assertThat(parallel, equalTo(sequential));
+	}
+
+}